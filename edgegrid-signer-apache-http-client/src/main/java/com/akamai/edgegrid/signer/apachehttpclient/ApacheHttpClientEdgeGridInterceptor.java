@@ -1,8 +1,12 @@
 package com.akamai.edgegrid.signer.apachehttpclient;
 
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
+import com.akamai.edgegrid.signer.ServerClock;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
 import org.apache.http.HttpException;
@@ -11,6 +15,7 @@ import org.apache.http.HttpRequestInterceptor;
 import org.apache.http.protocol.HttpContext;
 
 import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Apache HTTP Client Library interceptor that signs a request using EdgeGrid V1 signing algorithm.
@@ -42,6 +47,19 @@ public class ApacheHttpClientEdgeGridInterceptor implements HttpRequestIntercept
         this.binding = new ApacheHttpClientEdgeGridRequestSigner(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid signing interceptor signing requests with a pre-configured {@code binding},
+     * which may combine any of the features of the signer: an {@link EdgeGridV1Signer} taking its
+     * time from a {@link ServerClock} fed by {@link ApacheHttpClientEdgeGridServerClockRetryStrategy},
+     * a {@link ClientRateLimiter} fed by {@link ApacheHttpClientEdgeGridRateLimitInterceptor}, or an
+     * {@link AccountSwitchKeyResolver}.
+     *
+     * @param binding an {@link ApacheHttpClientEdgeGridRequestSigner}
+     */
+    public ApacheHttpClientEdgeGridInterceptor(ApacheHttpClientEdgeGridRequestSigner binding) {
+        this.binding = Objects.requireNonNull(binding, "binding cannot be null");
+    }
+
     @Override
     public void process(HttpRequest request, HttpContext context) throws HttpException, IOException {
         try {
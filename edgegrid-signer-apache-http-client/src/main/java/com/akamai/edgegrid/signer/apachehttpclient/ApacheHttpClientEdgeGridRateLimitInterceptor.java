@@ -0,0 +1,50 @@
+package com.akamai.edgegrid.signer.apachehttpclient;
+
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpResponseInterceptor;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import java.util.Objects;
+
+/**
+ * Apache HTTP Client Library response interceptor that feeds a {@link ClientRateLimiter} from the
+ * rate limit headers and the status of every response, for the client token of the signed request
+ * it belongs to. Add it with {@code HttpClientBuilder#addInterceptorLast(HttpResponseInterceptor)},
+ * together with an {@link ApacheHttpClientEdgeGridInterceptor} created with the same
+ * {@link ClientRateLimiter}.
+ *
+ * @see <a href="https://hc.apache.org/httpcomponents-core-ga/httpcore/apidocs/org/apache/http/HttpResponseInterceptor.html">HttpResponseInterceptor</a> from Apache HTTP Client
+ */
+public class ApacheHttpClientEdgeGridRateLimitInterceptor implements HttpResponseInterceptor {
+
+    private final ClientRateLimiter rateLimiter;
+
+    /**
+     * Creates a response interceptor feeding {@code rateLimiter}.
+     *
+     * @param rateLimiter a {@link ClientRateLimiter}
+     */
+    public ApacheHttpClientEdgeGridRateLimitInterceptor(ClientRateLimiter rateLimiter) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter cannot be null");
+    }
+
+    @Override
+    public void process(HttpResponse response, HttpContext context) {
+        HttpRequest request = HttpCoreContext.adapt(context).getRequest();
+        if (request == null) {
+            return;
+        }
+        Header authorization = request.getFirstHeader(HttpHeaders.AUTHORIZATION);
+        String clientToken = ClientRateLimiter.getClientToken(authorization == null ? null : authorization.getValue());
+        rateLimiter.update(clientToken, response.getStatusLine().getStatusCode(), name -> {
+            Header header = response.getFirstHeader(name);
+            return header == null ? null : header.getValue();
+        });
+    }
+}
@@ -1,9 +1,13 @@
 package com.akamai.edgegrid.signer.apachehttpclient;
 
 import com.akamai.edgegrid.signer.AbstractEdgeGridRequestSigner;
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
+import com.akamai.edgegrid.signer.RequestView;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
@@ -16,7 +20,9 @@ import org.apache.http.impl.client.RequestWrapper;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.security.MessageDigest;
 
 /**
  * Apache HTTP Client binding for EdgeGrid signer for signing {@link HttpRequest}.
@@ -42,6 +48,49 @@ public class ApacheHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReque
         super(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request and signing requests with {@code edgeGridSigner}.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     */
+    public ApacheHttpClientEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner) {
+        super(clientCredentialProvider, edgeGridSigner);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request, signing requests with {@code edgeGridSigner}, and sending them on behalf of the
+     * account selected by {@code accountSwitchKeyResolver}.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     */
+    public ApacheHttpClientEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver) {
+        super(clientCredentialProvider, edgeGridSigner, accountSwitchKeyResolver);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer like
+     * {@link #ApacheHttpClientEdgeGridRequestSigner(ClientCredentialProvider, EdgeGridV1Signer, AccountSwitchKeyResolver)},
+     * which also takes each request from the budget of its credential in {@code rateLimiter}
+     * before signing it.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     * @param rateLimiter a {@link ClientRateLimiter}, or {@code null}
+     */
+    public ApacheHttpClientEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver, ClientRateLimiter rateLimiter) {
+        super(clientCredentialProvider, edgeGridSigner, accountSwitchKeyResolver, rateLimiter);
+    }
+
     @Override
     protected URI requestUri(HttpRequest request) {
       if (request instanceof HttpRequestWrapper) {
@@ -68,6 +117,11 @@ public class ApacheHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReque
         return builder.build();
     }
 
+    @Override
+    protected RequestView view(HttpRequest request) {
+        return new HttpRequestView(request);
+    }
+
     private byte[] serializeContent(HttpRequest request) {
         if (!(request instanceof HttpEntityEnclosingRequest)) {
             return new byte[]{};
@@ -111,4 +165,60 @@ public class ApacheHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReque
         }
     }
 
+    /**
+     * {@link RequestView} reading an {@link HttpRequest} in place. Only signed headers are looked
+     * up, and only the signed prefix of the entity is read.
+     */
+    private static final class HttpRequestView implements RequestView {
+
+        private final HttpRequest request;
+
+        private HttpRequestView(HttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public String getMethod() {
+            return request.getRequestLine().getMethod();
+        }
+
+        @Override
+        public String getPathAndQuery() {
+            return RequestView.pathAndQuery(request.getRequestLine().getUri());
+        }
+
+        @Override
+        public String getHeader(String name) {
+            Header[] headers = request.getHeaders(name);
+            if (headers.length > 1) {
+                throw new IllegalArgumentException("Duplicate header found: " + name);
+            }
+            return headers.length == 0 ? null : headers[0].getValue();
+        }
+
+        @Override
+        public long digestBody(MessageDigest digest, int maxLength) throws IOException {
+            if (!(request instanceof HttpEntityEnclosingRequest)) {
+                return 0;
+            }
+
+            final HttpEntityEnclosingRequest entityWithRequest = (HttpEntityEnclosingRequest) request;
+            HttpEntity entity = entityWithRequest.getEntity();
+            if (entity == null) {
+                return 0;
+            }
+
+            // Buffer non-repeatable entities
+            if (!entity.isRepeatable()) {
+                entity = new BufferedHttpEntity(entity);
+                entityWithRequest.setEntity(entity);
+            }
+            try (InputStream content = entity.getContent()) {
+                long length = RequestView.digest(content, digest, maxLength);
+                return length < 0 ? entity.getContentLength() : length;
+            }
+        }
+
+    }
+
 }
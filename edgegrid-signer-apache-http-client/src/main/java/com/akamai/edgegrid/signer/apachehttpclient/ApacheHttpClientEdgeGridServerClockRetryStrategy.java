@@ -0,0 +1,58 @@
+package com.akamai.edgegrid.signer.apachehttpclient;
+
+import com.akamai.edgegrid.signer.ServerClock;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ServiceUnavailableRetryStrategy;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpCoreContext;
+
+import java.util.Objects;
+
+/**
+ * Apache HTTP Client Library retry strategy that feeds a {@link ServerClock} from the {@code Date}
+ * header of every response. A request rejected with {@code 401 Unauthorized} is retried once,
+ * immediately, if it was signed with a time off from the {@code Date} of the response, see
+ * {@link ServerClock#isSignedWithSkewedClock(String, String)}. This holds for every request signed
+ * before the clock was corrected, not only for the first one to notice; the retried request passes through
+ * {@link ApacheHttpClientEdgeGridInterceptor} again and is re-signed with the corrected clock.
+ * Install it with {@code HttpClientBuilder#setServiceUnavailableRetryStrategy}, together with an
+ * {@link ApacheHttpClientEdgeGridInterceptor} created with the same {@link ServerClock}.
+ *
+ * @see <a href="https://hc.apache.org/httpcomponents-client-4.5.x/current/httpclient/apidocs/org/apache/http/client/ServiceUnavailableRetryStrategy.html">ServiceUnavailableRetryStrategy</a> from Apache HTTP Client
+ */
+public class ApacheHttpClientEdgeGridServerClockRetryStrategy implements ServiceUnavailableRetryStrategy {
+
+    private final ServerClock serverClock;
+
+    /**
+     * Creates a retry strategy feeding {@code serverClock}.
+     *
+     * @param serverClock a {@link ServerClock}
+     */
+    public ApacheHttpClientEdgeGridServerClockRetryStrategy(ServerClock serverClock) {
+        this.serverClock = Objects.requireNonNull(serverClock, "serverClock cannot be null");
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int executionCount, HttpContext context) {
+        Header date = response.getFirstHeader(HttpHeaders.DATE);
+        String dateValue = date == null ? null : date.getValue();
+        serverClock.update(dateValue);
+        if (executionCount != 1 || response.getStatusLine().getStatusCode() != HttpStatus.SC_UNAUTHORIZED) {
+            return false;
+        }
+        HttpRequest request = HttpCoreContext.adapt(context).getRequest();
+        Header authorization = request == null ? null : request.getFirstHeader(HttpHeaders.AUTHORIZATION);
+        return ServerClock.isSignedWithSkewedClock(authorization == null ? null : authorization.getValue(), dateValue);
+    }
+
+    @Override
+    public long getRetryInterval() {
+        return 0;
+    }
+}
@@ -1,6 +1,7 @@
 package com.akamai.edgegrid.signer.apachehttpclient;
 
 import com.akamai.edgegrid.signer.ClientCredential;
+import com.akamai.edgegrid.signer.ClientCredentialProvider;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
 import org.apache.http.HttpRequest;
@@ -30,6 +31,13 @@ public class ApacheHttpClientEdgeGridRequestSignerTest {
             .host("endpoint.net")
             .build();
 
+    ClientCredential otherCredential = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2wz6oz2rp")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjphopvpn6yjoj")
+            .clientSecret("SOMESECRET")
+            .host("other-endpoint.net")
+            .build();
+
     @Test
     public void signEachRequest() throws URISyntaxException, IOException, RequestSigningException {
 
@@ -44,4 +52,16 @@ public class ApacheHttpClientEdgeGridRequestSignerTest {
         assertThat(request.getFirstHeader("Authorization").getValue(), not(isEmptyOrNullString()));
     }
 
+    @Test
+    public void selectCredentialByRequestHeader() throws RequestSigningException {
+
+        HttpRequest request = new HttpGet("https://ignored-hostname.com/billing-usage/v1/reportSources");
+        request.addHeader("X-Tenant", "other");
+        ClientCredentialProvider provider = req -> "other".equals(req.getHeader("x-tenant")) ? otherCredential : credential;
+
+        new ApacheHttpClientEdgeGridRequestSigner(provider).sign(request, request);
+
+        assertThat(URI.create(request.getRequestLine().getUri()).getHost(), equalTo("other-endpoint.net"));
+    }
+
 }
@@ -1,14 +1,20 @@
 package com.akamai.edgegrid.signer.apachehttpclient5;
 
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
+import com.akamai.edgegrid.signer.ServerClock;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpRequestInterceptor;
 import org.apache.hc.core5.http.protocol.HttpContext;
 
+import java.util.Objects;
+
 /**
  * Apache HTTP Client5 Library interceptor that signs a request using EdgeGrid V1 signing algorithm.
  * Signing is a process of adding an Authorization header with a request signature. If signing fails then <code>RuntimeException</code> is thrown.
@@ -37,6 +43,19 @@ public class ApacheHttpClient5EdgeGridInterceptor implements HttpRequestIntercep
         this.binding = new ApacheHttpClient5EdgeGridRequestSigner(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid signing interceptor signing requests with a pre-configured {@code binding},
+     * which may combine any of the features of the signer: an {@link EdgeGridV1Signer} taking its
+     * time from a {@link ServerClock} fed by {@link ApacheHttpClient5EdgeGridServerClockRetryStrategy},
+     * a {@link ClientRateLimiter} fed by {@link ApacheHttpClient5EdgeGridRateLimitInterceptor}, or an
+     * {@link AccountSwitchKeyResolver}.
+     *
+     * @param binding an {@link ApacheHttpClient5EdgeGridRequestSigner}
+     */
+    public ApacheHttpClient5EdgeGridInterceptor(ApacheHttpClient5EdgeGridRequestSigner binding) {
+        this.binding = Objects.requireNonNull(binding, "binding cannot be null");
+    }
+
     @Override
     public void process(
             HttpRequest request,
@@ -0,0 +1,47 @@
+package com.akamai.edgegrid.signer.apachehttpclient5;
+
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+
+import java.util.Objects;
+
+/**
+ * Apache HTTP Client5 Library response interceptor that feeds a {@link ClientRateLimiter} from the
+ * rate limit headers and the status of every response, for the client token of the signed request
+ * it belongs to. Add it with {@code HttpClientBuilder#addResponseInterceptorLast}, together with an
+ * {@link ApacheHttpClient5EdgeGridInterceptor} created with the same {@link ClientRateLimiter}.
+ */
+public class ApacheHttpClient5EdgeGridRateLimitInterceptor implements HttpResponseInterceptor {
+
+    private final ClientRateLimiter rateLimiter;
+
+    /**
+     * Creates a response interceptor feeding {@code rateLimiter}.
+     *
+     * @param rateLimiter a {@link ClientRateLimiter}
+     */
+    public ApacheHttpClient5EdgeGridRateLimitInterceptor(ClientRateLimiter rateLimiter) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter cannot be null");
+    }
+
+    @Override
+    public void process(HttpResponse response, EntityDetails entity, HttpContext context) {
+        HttpRequest request = HttpCoreContext.adapt(context).getRequest();
+        if (request == null) {
+            return;
+        }
+        Header authorization = request.getFirstHeader(HttpHeaders.AUTHORIZATION);
+        String clientToken = ClientRateLimiter.getClientToken(authorization == null ? null : authorization.getValue());
+        rateLimiter.update(clientToken, response.getCode(), name -> {
+            Header header = response.getFirstHeader(name);
+            return header == null ? null : header.getValue();
+        });
+    }
+}
@@ -1,9 +1,13 @@
 package com.akamai.edgegrid.signer.apachehttpclient5;
 
 import com.akamai.edgegrid.signer.AbstractEdgeGridRequestSigner;
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
+import com.akamai.edgegrid.signer.RequestView;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntityContainer;
 import org.apache.hc.core5.http.HttpRequest;
@@ -11,8 +15,10 @@ import org.apache.hc.core5.http.io.entity.BufferedHttpEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.security.MessageDigest;
 
 /**
  * Apache HTTP Client5 binding for EdgeGrid signer for signing {@link HttpRequest}.
@@ -37,6 +43,49 @@ public class ApacheHttpClient5EdgeGridRequestSigner extends AbstractEdgeGridRequ
         super(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request and signing requests with {@code edgeGridSigner}.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     */
+    public ApacheHttpClient5EdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner) {
+        super(clientCredentialProvider, edgeGridSigner);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request, signing requests with {@code edgeGridSigner}, and sending them on behalf of the
+     * account selected by {@code accountSwitchKeyResolver}.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     */
+    public ApacheHttpClient5EdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver) {
+        super(clientCredentialProvider, edgeGridSigner, accountSwitchKeyResolver);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer like
+     * {@link #ApacheHttpClient5EdgeGridRequestSigner(ClientCredentialProvider, EdgeGridV1Signer, AccountSwitchKeyResolver)},
+     * which also takes each request from the budget of its credential in {@code rateLimiter}
+     * before signing it.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     * @param rateLimiter a {@link ClientRateLimiter}, or {@code null}
+     */
+    public ApacheHttpClient5EdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver, ClientRateLimiter rateLimiter) {
+        super(clientCredentialProvider, edgeGridSigner, accountSwitchKeyResolver, rateLimiter);
+    }
+
     @Override
     protected URI requestUri(HttpRequest request) {
         return getUri(request);
@@ -55,7 +104,12 @@ public class ApacheHttpClient5EdgeGridRequestSigner extends AbstractEdgeGridRequ
         return builder.build();
     }
 
-    private URI getUri(HttpRequest request) {
+    @Override
+    protected RequestView view(HttpRequest request) {
+        return new HttpRequestView(request);
+    }
+
+    private static URI getUri(HttpRequest request) {
         try {
             return request.getUri();
         } catch (URISyntaxException e) {
@@ -101,4 +155,63 @@ public class ApacheHttpClient5EdgeGridRequestSigner extends AbstractEdgeGridRequ
         request.setPath(uri.getPath());
         request.setUri(uri);
     }
+
+    /**
+     * {@link RequestView} reading an {@link HttpRequest} in place. Only signed headers are looked
+     * up, and only the signed prefix of the entity is read.
+     */
+    private static final class HttpRequestView implements RequestView {
+
+        private final HttpRequest request;
+
+        private HttpRequestView(HttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public String getMethod() {
+            return request.getMethod();
+        }
+
+        @Override
+        public String getPathAndQuery() {
+            // the request path is the raw path and query, and usually needs no parsing at all
+            String path = request.getPath();
+            return path != null ? RequestView.pathAndQuery(path) : RequestView.pathAndQuery(getUri(request));
+        }
+
+        @Override
+        public String getHeader(String name) {
+            Header[] headers = request.getHeaders(name);
+            if (headers.length > 1) {
+                throw new IllegalArgumentException("Duplicate header found: " + name);
+            }
+            return headers.length == 0 ? null : headers[0].getValue();
+        }
+
+        @Override
+        public long digestBody(MessageDigest digest, int maxLength) throws IOException {
+            if (!(request instanceof HttpEntityContainer)) {
+                return 0;
+            }
+
+            var entityWithRequest = (HttpEntityContainer) request;
+            var entity = entityWithRequest.getEntity();
+            if (entity == null) {
+                return 0;
+            }
+
+            // Buffer non-repeatable entities
+            if (!entity.isRepeatable()) {
+                entity = new BufferedHttpEntity(entity);
+                entityWithRequest.setEntity(entity);
+            }
+            try (InputStream content = entity.getContent()) {
+                long length = RequestView.digest(content, digest, maxLength);
+                return length < 0 ? entity.getContentLength() : length;
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,89 @@
+package com.akamai.edgegrid.signer.apachehttpclient5;
+
+import com.akamai.edgegrid.signer.ServerClock;
+import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Apache HTTP Client5 Library retry strategy that feeds a {@link ServerClock} from the {@code Date}
+ * header of every response. A request rejected with {@code 401 Unauthorized} is retried once,
+ * immediately, if it was signed with a time off from the {@code Date} of the response, see
+ * {@link ServerClock#isSignedWithSkewedClock(String, String)}. This holds for every request signed
+ * before the clock was corrected, not only for the first one to notice; the retried request passes through
+ * {@link ApacheHttpClient5EdgeGridInterceptor} again and is re-signed with the corrected clock. All
+ * other retry decisions are left to a delegate strategy. Install it with
+ * {@code HttpClientBuilder#setRetryStrategy}, together with an
+ * {@link ApacheHttpClient5EdgeGridInterceptor} created with the same {@link ServerClock}.
+ */
+public class ApacheHttpClient5EdgeGridServerClockRetryStrategy implements HttpRequestRetryStrategy {
+
+    /** Context attribute marking a response retried because of clock skew. */
+    private static final String CLOCK_SKEW_RETRY = ApacheHttpClient5EdgeGridServerClockRetryStrategy.class.getName() + ".retry";
+
+    private final ServerClock serverClock;
+
+    private final HttpRequestRetryStrategy delegate;
+
+    /**
+     * Creates a retry strategy feeding {@code serverClock} and delegating to
+     * {@link DefaultHttpRequestRetryStrategy#INSTANCE}.
+     *
+     * @param serverClock a {@link ServerClock}
+     */
+    public ApacheHttpClient5EdgeGridServerClockRetryStrategy(ServerClock serverClock) {
+        this(serverClock, DefaultHttpRequestRetryStrategy.INSTANCE);
+    }
+
+    /**
+     * Creates a retry strategy feeding {@code serverClock} and delegating to {@code delegate}.
+     *
+     * @param serverClock a {@link ServerClock}
+     * @param delegate an {@link HttpRequestRetryStrategy} deciding about all other retries
+     */
+    public ApacheHttpClient5EdgeGridServerClockRetryStrategy(ServerClock serverClock, HttpRequestRetryStrategy delegate) {
+        this.serverClock = Objects.requireNonNull(serverClock, "serverClock cannot be null");
+        this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+    }
+
+    @Override
+    public boolean retryRequest(HttpRequest request, IOException exception, int execCount, HttpContext context) {
+        return delegate.retryRequest(request, exception, execCount, context);
+    }
+
+    @Override
+    public boolean retryRequest(HttpResponse response, int execCount, HttpContext context) {
+        Header date = response.getFirstHeader(HttpHeaders.DATE);
+        String dateValue = date == null ? null : date.getValue();
+        serverClock.update(dateValue);
+        if (execCount == 1 && response.getCode() == HttpStatus.SC_UNAUTHORIZED && isSignedWithSkewedClock(context, dateValue)) {
+            context.setAttribute(CLOCK_SKEW_RETRY, Boolean.TRUE);
+            return true;
+        }
+        return delegate.retryRequest(response, execCount, context);
+    }
+
+    private static boolean isSignedWithSkewedClock(HttpContext context, String dateValue) {
+        HttpRequest request = HttpCoreContext.adapt(context).getRequest();
+        Header authorization = request == null ? null : request.getFirstHeader(HttpHeaders.AUTHORIZATION);
+        return ServerClock.isSignedWithSkewedClock(authorization == null ? null : authorization.getValue(), dateValue);
+    }
+
+    @Override
+    public TimeValue getRetryInterval(HttpResponse response, int execCount, HttpContext context) {
+        if (context.removeAttribute(CLOCK_SKEW_RETRY) != null) {
+            return TimeValue.ZERO_MILLISECONDS;
+        }
+        return delegate.getRetryInterval(response, execCount, context);
+    }
+}
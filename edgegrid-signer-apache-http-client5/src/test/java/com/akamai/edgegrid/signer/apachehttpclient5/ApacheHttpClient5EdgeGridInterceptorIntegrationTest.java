@@ -1,6 +1,11 @@
 package com.akamai.edgegrid.signer.apachehttpclient5;
 
 import com.akamai.edgegrid.signer.ClientCredential;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.DefaultClientCredentialProvider;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
+import com.akamai.edgegrid.signer.ServerClock;
+import com.akamai.edgegrid.signer.exceptions.RateLimitExceededException;
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.matching.RequestPattern;
 import com.github.tomakehurst.wiremock.verification.LoggedRequest;
@@ -8,13 +13,23 @@ import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.hamcrest.CoreMatchers;
 import org.hamcrest.MatcherAssert;
 import org.hamcrest.Matchers;
+import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
@@ -92,4 +107,104 @@ public class ApacheHttpClient5EdgeGridInterceptorIntegrationTest {
         MatcherAssert.assertThat(loggedRequests.get(0).getHeader("Authorization"),
                 Matchers.not(CoreMatchers.equalTo(loggedRequests.get(1).getHeader("Authorization"))));
     }
+
+    @Test
+    public void testRetryOnceWhenClockSkewIsDetected() throws IOException {
+        String serverDate = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10));
+        wireMockServer.stubFor(get(urlPathEqualTo("/billing-usage/v1/reportSources"))
+                .willReturn(aResponse()
+                        .withStatus(401)
+                        .withHeader("Date", serverDate)));
+
+        ServerClock serverClock = new ServerClock();
+        var client = HttpClientSetup.getHttpClientWithRelaxedSsl()
+                .addRequestInterceptorFirst(new ApacheHttpClient5EdgeGridInterceptor(new ApacheHttpClient5EdgeGridRequestSigner(
+                        new DefaultClientCredentialProvider(credential), EdgeGridV1Signer.builder().serverClock(serverClock).build())))
+                .setRoutePlanner(new ApacheHttpClient5EdgeGridRoutePlanner(credential))
+                .setRetryStrategy(new ApacheHttpClient5EdgeGridServerClockRetryStrategy(serverClock))
+                .build();
+
+        HttpGet request = new HttpGet("http://endpoint.net/billing-usage/v1/reportSources");
+        client.execute(request, response -> null);
+
+        List<LoggedRequest> loggedRequests = wireMockServer.findRequestsMatching(RequestPattern
+                .everything()).getRequests();
+
+        MatcherAssert.assertThat(loggedRequests.size(), CoreMatchers.equalTo(2));
+        MatcherAssert.assertThat(loggedRequests.get(0).getHeader("Authorization"),
+                Matchers.not(CoreMatchers.equalTo(loggedRequests.get(1).getHeader("Authorization"))));
+        MatcherAssert.assertThat(serverClock.getOffsetMillis(), Matchers.greaterThan(590_000L));
+    }
+
+    @Test
+    public void testRetryEachRequestSignedBeforeClockSkewWasDetected() throws Exception {
+        String serverDate = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10));
+        wireMockServer.stubFor(get(urlPathEqualTo("/billing-usage/v1/reportSources"))
+                .willReturn(aResponse()
+                        .withStatus(401)
+                        .withHeader("Date", serverDate)
+                        .withFixedDelay(500)));
+
+        ServerClock serverClock = new ServerClock();
+        var client = HttpClientSetup.getHttpClientWithRelaxedSsl()
+                .addRequestInterceptorFirst(new ApacheHttpClient5EdgeGridInterceptor(new ApacheHttpClient5EdgeGridRequestSigner(
+                        new DefaultClientCredentialProvider(credential), EdgeGridV1Signer.builder().serverClock(serverClock).build())))
+                .setRoutePlanner(new ApacheHttpClient5EdgeGridRoutePlanner(credential))
+                .setRetryStrategy(new ApacheHttpClient5EdgeGridServerClockRetryStrategy(serverClock))
+                .build();
+
+        // both requests are signed with the skewed clock before the first response corrects it
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Callable<Void> call = () -> {
+                client.execute(new HttpGet("http://endpoint.net/billing-usage/v1/reportSources"), response -> null);
+                return null;
+            };
+            for (Future<Void> future : executor.invokeAll(Arrays.asList(call, call))) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        List<LoggedRequest> loggedRequests = wireMockServer.findRequestsMatching(RequestPattern
+                .everything()).getRequests();
+
+        MatcherAssert.assertThat(loggedRequests.size(), CoreMatchers.equalTo(4));
+        MatcherAssert.assertThat(loggedRequests.stream()
+                .filter(r -> ServerClock.isSignedWithSkewedClock(r.getHeader("Authorization"), serverDate))
+                .count(), CoreMatchers.equalTo(2L));
+    }
+
+    @Test
+    public void testRequestIsShedAfterTooManyRequests() throws IOException {
+        wireMockServer.stubFor(get(urlPathEqualTo("/billing-usage/v1/reportSources"))
+                .willReturn(aResponse()
+                        .withStatus(429)
+                        .withHeader("Akamai-RateLimit-Limit", "100")
+                        .withHeader("Akamai-RateLimit-Remaining", "0")
+                        .withHeader("Retry-After", "60")));
+
+        ClientRateLimiter rateLimiter = ClientRateLimiter.builder().maxWait(Duration.ZERO).build();
+        var client = HttpClientSetup.getHttpClientWithRelaxedSsl()
+                .addRequestInterceptorFirst(new ApacheHttpClient5EdgeGridInterceptor(new ApacheHttpClient5EdgeGridRequestSigner(
+                        new DefaultClientCredentialProvider(credential), new EdgeGridV1Signer(), null, rateLimiter)))
+                .addResponseInterceptorLast(new ApacheHttpClient5EdgeGridRateLimitInterceptor(rateLimiter))
+                .setRoutePlanner(new ApacheHttpClient5EdgeGridRoutePlanner(credential))
+                .disableAutomaticRetries()
+                .build();
+
+        client.execute(new HttpGet("http://endpoint.net/billing-usage/v1/reportSources"), response -> null);
+        RuntimeException e = Assert.expectThrows(RuntimeException.class,
+                () -> client.execute(new HttpGet("http://endpoint.net/billing-usage/v1/reportSources"), response -> null));
+
+        MatcherAssert.assertThat(e.getCause(), Matchers.instanceOf(RateLimitExceededException.class));
+        MatcherAssert.assertThat(wireMockServer.findRequestsMatching(RequestPattern.everything()).getRequests().size(),
+                CoreMatchers.equalTo(1));
+        MatcherAssert.assertThat(rateLimiter.getLimit(credential.getClientToken()), CoreMatchers.equalTo(100));
+        MatcherAssert.assertThat(rateLimiter.getThrottledCount(), CoreMatchers.equalTo(1L));
+        MatcherAssert.assertThat(rateLimiter.getShedCount(), CoreMatchers.equalTo(1L));
+    }
 }
@@ -1,6 +1,7 @@
 package com.akamai.edgegrid.signer.apachehttpclient5;
 
 import com.akamai.edgegrid.signer.ClientCredential;
+import com.akamai.edgegrid.signer.ClientCredentialProvider;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.testng.annotations.Test;
@@ -25,6 +26,13 @@ public class ApacheHttpClient5EdgeGridRequestSignerTest {
             .host("endpoint.net")
             .build();
 
+    private static final ClientCredential OTHER_CREDENTIAL = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2wz6oz2rp")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjphopvpn6yjoj")
+            .clientSecret("SOMESECRET")
+            .host("other-endpoint.net")
+            .build();
+
     @Test
     public void signEachRequest() throws URISyntaxException, RequestSigningException {
         var request = new HttpGet("https://ignored-hostname.com/billing-usage/v1/reportSources");
@@ -36,4 +44,15 @@ public class ApacheHttpClient5EdgeGridRequestSignerTest {
         assertThat(request.getFirstHeader("Authorization"), notNullValue());
         assertThat(request.getFirstHeader("Authorization").getValue(), not(isEmptyOrNullString()));
     }
+
+    @Test
+    public void selectCredentialByRequestHeader() throws URISyntaxException, RequestSigningException {
+        var request = new HttpGet("https://ignored-hostname.com/billing-usage/v1/reportSources");
+        request.addHeader("X-Tenant", "other");
+        ClientCredentialProvider provider = req -> "other".equals(req.getHeader("x-tenant")) ? OTHER_CREDENTIAL : CREDENTIAL;
+
+        new ApacheHttpClient5EdgeGridRequestSigner(provider).sign(request, request);
+
+        assertThat(request.getUri().getHost(), equalTo("other-endpoint.net"));
+    }
 }
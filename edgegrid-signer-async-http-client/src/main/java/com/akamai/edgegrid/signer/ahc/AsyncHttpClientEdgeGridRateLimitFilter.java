@@ -0,0 +1,45 @@
+package com.akamai.edgegrid.signer.ahc;
+
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+
+import org.asynchttpclient.filter.FilterContext;
+import org.asynchttpclient.filter.ResponseFilter;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+
+import java.util.Objects;
+
+/**
+ * Async HTTP Client response filter that feeds a {@link ClientRateLimiter} from the rate limit
+ * headers and the status of every response, for the client token of the signed request it belongs
+ * to. Add it with {@code DefaultAsyncHttpClientConfig.Builder#addResponseFilter}, and sign requests
+ * with an {@link AsyncHttpClientEdgeGridSignatureCalculator} created with the same
+ * {@link ClientRateLimiter}.
+ *
+ */
+public class AsyncHttpClientEdgeGridRateLimitFilter implements ResponseFilter {
+
+    private final ClientRateLimiter rateLimiter;
+
+    /**
+     * Creates a response filter feeding {@code rateLimiter}.
+     *
+     * @param rateLimiter a {@link ClientRateLimiter}
+     */
+    public AsyncHttpClientEdgeGridRateLimitFilter(ClientRateLimiter rateLimiter) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter cannot be null");
+    }
+
+    @Override
+    public <T> FilterContext<T> filter(FilterContext<T> ctx) {
+        HttpHeaders headers = ctx.getResponseHeaders();
+        if (headers == null || ctx.getResponseStatus() == null) {
+            return ctx;
+        }
+        String clientToken = ClientRateLimiter.getClientToken(
+                ctx.getRequest().getHeaders().get(HttpHeaderNames.AUTHORIZATION));
+        rateLimiter.update(clientToken, ctx.getResponseStatus().getStatusCode(), headers::get);
+        return ctx;
+    }
+}
@@ -3,11 +3,19 @@ package com.akamai.edgegrid.signer.ahc;
 import com.google.common.primitives.Bytes;
 
 import com.akamai.edgegrid.signer.AbstractEdgeGridRequestSigner;
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
+import com.akamai.edgegrid.signer.AsyncEdgeGridV1Signer;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
+import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.Request;
+import org.asynchttpclient.RequestBuilder;
 import org.asynchttpclient.RequestBuilderBase;
+import org.asynchttpclient.Response;
 import org.asynchttpclient.request.body.generator.FileBodyGenerator;
 import org.asynchttpclient.request.body.generator.InputStreamBodyGenerator;
 import org.asynchttpclient.uri.Uri;
@@ -17,11 +25,23 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 
 import static org.asynchttpclient.util.MiscUtils.isNonEmpty;
 
 /**
  * Async HTTP Client binding for EdgeGrid signer for signing {@link Request}.
+ * <p>
+ * Async HTTP Client calls signature calculators and response filters on its own threads, which must
+ * not wait, so {@link #sign(Object, Object)} and the replays of
+ * {@link AsyncHttpClientEdgeGridServerClockFilter} shed a request with
+ * {@link com.akamai.edgegrid.signer.exceptions.RateLimitExceededException} as soon as it would have
+ * to wait for the budget of a {@link ClientRateLimiter}. Only
+ * {@link #signAsync(Object, Object, AsyncEdgeGridV1Signer)} and
+ * {@link #execute(AsyncHttpClient, Request, AsyncEdgeGridV1Signer)} queue requests until they may be
+ * sent.
+ * </p>
  *
  */
 public class AsyncHttpClientEdgeGridRequestSigner extends AbstractEdgeGridRequestSigner<Request, RequestBuilderBase> {
@@ -44,6 +64,80 @@ public class AsyncHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReques
         super(credentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request and signing requests with {@code edgeGridSigner}.
+     *
+     * @param credentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     */
+    public AsyncHttpClientEdgeGridRequestSigner(ClientCredentialProvider credentialProvider, EdgeGridV1Signer edgeGridSigner) {
+        super(credentialProvider, edgeGridSigner);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request, signing requests with {@code edgeGridSigner}, and sending them on behalf of the
+     * account selected by {@code accountSwitchKeyResolver}.
+     *
+     * @param credentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     */
+    public AsyncHttpClientEdgeGridRequestSigner(ClientCredentialProvider credentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver) {
+        super(credentialProvider, edgeGridSigner, accountSwitchKeyResolver);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer like
+     * {@link #AsyncHttpClientEdgeGridRequestSigner(ClientCredentialProvider, EdgeGridV1Signer, AccountSwitchKeyResolver)},
+     * which also takes each request from the budget of its credential in {@code rateLimiter}
+     * before signing it.
+     *
+     * @param credentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     * @param rateLimiter a {@link ClientRateLimiter}, or {@code null}
+     */
+    public AsyncHttpClientEdgeGridRequestSigner(ClientCredentialProvider credentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver, ClientRateLimiter rateLimiter) {
+        super(credentialProvider, edgeGridSigner, accountSwitchKeyResolver, rateLimiter);
+    }
+
+    /**
+     * Signs {@code request} with {@link #signAsync(Object, Object, AsyncEdgeGridV1Signer)} and
+     * executes it with {@code client} once it is signed. Unlike
+     * {@link AsyncHttpClientEdgeGridSignatureCalculator}, which Async HTTP Client calls while it
+     * builds the request and which therefore has to wait, the calling thread never waits for an
+     * {@link com.akamai.edgegrid.signer.AsyncClientCredentialProvider}, for the budget of a
+     * {@link ClientRateLimiter} or for hashing a large body. {@code client} must not sign requests
+     * with a {@link AsyncHttpClientEdgeGridSignatureCalculator} of its own.
+     *
+     * @param client an {@link AsyncHttpClient}
+     * @param request a request to sign and execute
+     * @param asyncSigner an {@link AsyncEdgeGridV1Signer} producing the signature
+     * @return a {@link CompletableFuture} of the {@link Response}, which completes exceptionally
+     *         with {@link com.akamai.edgegrid.signer.exceptions.RequestSigningException} if signing
+     *         failed
+     */
+    public CompletableFuture<Response> execute(AsyncHttpClient client, Request request, AsyncEdgeGridV1Signer asyncSigner) {
+        Objects.requireNonNull(client, "client cannot be null");
+        RequestBuilder requestToUpdate = request.toBuilder();
+        return signAsync(request, requestToUpdate, asyncSigner).toCompletableFuture()
+                .thenCompose(signed -> client.executeRequest(requestToUpdate.build()).toCompletableFuture());
+    }
+
+    /**
+     * Sheds the request rather than waiting for the budget of {@code credential}.
+     */
+    @Override
+    protected void acquire(ClientRateLimiter rateLimiter, ClientCredential credential) throws RequestSigningException {
+        rateLimiter.tryAcquire(credential);
+    }
+
     @Override
     protected URI requestUri(Request request) {
         try {
@@ -58,8 +152,8 @@ public class AsyncHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReques
 
         com.akamai.edgegrid.signer.Request.RequestBuilder builder = com.akamai.edgegrid.signer.Request.builder()
             .uri(request.getUrl())
-            .method(request.getMethod())
-            .body(serializeBody(request));
+            .method(request.getMethod());
+        setBody(builder, request);
 
         for (Map.Entry<String, String> e : request.getHeaders().entries()) {
             builder.header(e.getKey(), e.getValue());
@@ -68,6 +162,23 @@ public class AsyncHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReques
         return builder.build();
     }
 
+    private void setBody(com.akamai.edgegrid.signer.Request.RequestBuilder builder, Request request) {
+        // buffers and files are hashed in place rather than being copied onto the heap
+        if (request.getByteBufferData() != null) {
+            builder.body(request.getByteBufferData());
+        } else if (request.getFile() != null) {
+            builder.body(request.getFile().toPath());
+        } else if (request.getBodyGenerator() instanceof FileBodyGenerator) {
+            FileBodyGenerator fileBodyGenerator = (FileBodyGenerator) request.getBodyGenerator();
+            if (fileBodyGenerator.getRegionSeek() != 0 || fileBodyGenerator.getRegionLength() != fileBodyGenerator.getFile().length()) {
+                throw new UnsupportedOperationException("Serializing a region of FileBodyGenerator in request body is not supported");
+            }
+            builder.body(fileBodyGenerator.getFile().toPath());
+        } else {
+            builder.body(serializeBody(request));
+        }
+    }
+
     private byte[] serializeBody(Request request) {
 
         if (request.getByteData() != null) {
@@ -80,18 +191,12 @@ public class AsyncHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReques
             return Bytes.toArray(buff);
         } else if (request.getStringData() != null) {
             return request.getStringData().getBytes();
-        } else if (request.getByteBufferData() != null) {
-            throw new UnsupportedOperationException("Serializing ByteBufferData in request body is not supported");
         } else if (request.getStreamData() != null) {
             throw new UnsupportedOperationException("Serializing StreamData in request body is not supported");
         } else if (isNonEmpty(request.getFormParams())) {
             throw new UnsupportedOperationException("Serializing FormParams in request body is not supported");
         } else if (isNonEmpty(request.getBodyParts())) {
             throw new UnsupportedOperationException("Serializing BodyParts in request body is not supported");
-        } else if (request.getFile() != null) {
-            throw new UnsupportedOperationException("Serializing File in request body is not supported");
-        } else if (request.getBodyGenerator() instanceof FileBodyGenerator) {
-            throw new UnsupportedOperationException("Serializing FileBodyGenerator in request body is not supported");
         } else if (request.getBodyGenerator() instanceof InputStreamBodyGenerator) {
             throw new UnsupportedOperationException("Serializing InputStreamBodyGenerator in request body is not supported");
         } else if (request.getBodyGenerator() != null) {
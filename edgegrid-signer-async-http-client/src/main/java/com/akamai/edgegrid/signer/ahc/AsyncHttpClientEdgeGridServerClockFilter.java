@@ -0,0 +1,82 @@
+package com.akamai.edgegrid.signer.ahc;
+
+import com.akamai.edgegrid.signer.ServerClock;
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+import org.asynchttpclient.Request;
+import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.exception.FilterException;
+import org.asynchttpclient.filter.FilterContext;
+import org.asynchttpclient.filter.ResponseFilter;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Async HTTP Client response filter that feeds a {@link ServerClock} from the {@code Date} header
+ * of every response. A request rejected with {@code 401 Unauthorized} is re-signed and replayed
+ * once if it was signed with a time off from the {@code Date} of the response, see
+ * {@link ServerClock#isSignedWithSkewedClock(String, String)}. This holds for every request signed
+ * before the clock was corrected, not only for the first one to notice. Requests are re-signed by
+ * the binding of the {@link AsyncHttpClientEdgeGridSignatureCalculator} that signed them, so its
+ * credential provider, rate limiter and account switch key apply to the replay as well. Add it with
+ * {@code DefaultAsyncHttpClientConfig.Builder#addResponseFilter}, and sign requests with that
+ * calculator, created with an {@link com.akamai.edgegrid.signer.EdgeGridV1Signer} taking its time
+ * from the same {@link ServerClock}.
+ *
+ */
+public class AsyncHttpClientEdgeGridServerClockFilter implements ResponseFilter {
+
+    private final AsyncHttpClientEdgeGridRequestSigner binding;
+
+    private final ServerClock serverClock;
+
+    /** Replayed requests, so that each is replayed at most once. */
+    private final Set<Request> replayedRequests = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+    /**
+     * Creates a response filter feeding {@code serverClock} and re-signing rejected requests like
+     * {@code signatureCalculator} does.
+     *
+     * @param signatureCalculator the {@link AsyncHttpClientEdgeGridSignatureCalculator} signing the requests
+     * @param serverClock a {@link ServerClock}
+     */
+    public AsyncHttpClientEdgeGridServerClockFilter(AsyncHttpClientEdgeGridSignatureCalculator signatureCalculator,
+            ServerClock serverClock) {
+        this.binding = Objects.requireNonNull(signatureCalculator, "signatureCalculator cannot be null").getBinding();
+        this.serverClock = Objects.requireNonNull(serverClock, "serverClock cannot be null");
+    }
+
+    @Override
+    public <T> FilterContext<T> filter(FilterContext<T> ctx) throws FilterException {
+        HttpHeaders headers = ctx.getResponseHeaders();
+        if (headers == null || ctx.getResponseStatus() == null) {
+            return ctx;
+        }
+        String date = headers.get(HttpHeaderNames.DATE);
+        serverClock.update(date);
+        Request request = ctx.getRequest();
+        if (ctx.getResponseStatus().getStatusCode() != 401
+                || replayedRequests.remove(request)
+                || !ServerClock.isSignedWithSkewedClock(request.getHeaders().get(HttpHeaderNames.AUTHORIZATION), date)) {
+            return ctx;
+        }
+        RequestBuilder requestToUpdate = request.toBuilder();
+        try {
+            binding.sign(request, requestToUpdate);
+        } catch (RequestSigningException e) {
+            throw new FilterException("Failed to re-sign request with corrected clock", e);
+        }
+        Request replay = requestToUpdate.build();
+        replayedRequests.add(replay);
+        return new FilterContext.FilterContextBuilder<>(ctx)
+                .request(replay)
+                .replayRequest(true)
+                .build();
+    }
+}
@@ -1,15 +1,31 @@
 package com.akamai.edgegrid.signer.ahc;
 
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
+import com.akamai.edgegrid.signer.ServerClock;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
 import org.asynchttpclient.Request;
 import org.asynchttpclient.RequestBuilderBase;
 import org.asynchttpclient.SignatureCalculator;
 
+import java.util.Objects;
+
 /**
  * Async HTTP Client binding for EdgeGrid signature calculator {@link SignatureCalculator}.
+ * <p>
+ * Async HTTP Client calls signature calculators synchronously, while it builds a request, so this
+ * calculator signs with {@link AsyncHttpClientEdgeGridRequestSigner#sign(Object, Object)}: the
+ * calling thread waits for the credential, even from an
+ * {@link com.akamai.edgegrid.signer.AsyncClientCredentialProvider}, and hashes the body itself.
+ * It never waits for the budget of a {@link ClientRateLimiter}, though: a request that would have
+ * to wait fails with {@link com.akamai.edgegrid.signer.exceptions.RateLimitExceededException}. Use {@link AsyncHttpClientEdgeGridRequestSigner#execute(org.asynchttpclient.AsyncHttpClient,
+ * Request, com.akamai.edgegrid.signer.AsyncEdgeGridV1Signer)} to sign and send requests without
+ * blocking.
+ * </p>
  *
  */
 public class AsyncHttpClientEdgeGridSignatureCalculator implements SignatureCalculator {
@@ -34,6 +50,23 @@ public class AsyncHttpClientEdgeGridSignatureCalculator implements SignatureCalc
         this.binding = new AsyncHttpClientEdgeGridRequestSigner(credentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid signature calculator signing requests with a pre-configured {@code binding},
+     * which may combine any of the features of the signer: an {@link EdgeGridV1Signer} taking its
+     * time from a {@link ServerClock} fed by {@link AsyncHttpClientEdgeGridServerClockFilter},
+     * a {@link ClientRateLimiter} fed by {@link AsyncHttpClientEdgeGridRateLimitFilter}, or an
+     * {@link AccountSwitchKeyResolver}.
+     *
+     * @param binding an {@link AsyncHttpClientEdgeGridRequestSigner}
+     */
+    public AsyncHttpClientEdgeGridSignatureCalculator(AsyncHttpClientEdgeGridRequestSigner binding) {
+        this.binding = Objects.requireNonNull(binding, "binding cannot be null");
+    }
+
+    AsyncHttpClientEdgeGridRequestSigner getBinding() {
+        return binding;
+    }
+
     @Override
     public void calculateAndAddSignature(Request request, RequestBuilderBase<?> requestToUpdate) {
         try {
@@ -1,10 +1,19 @@
 package com.akamai.edgegrid.signer.ahc;
 
+import com.akamai.edgegrid.signer.AsyncClientCredentialProvider;
+import com.akamai.edgegrid.signer.AsyncEdgeGridV1Signer;
 import com.akamai.edgegrid.signer.ClientCredential;
+import com.akamai.edgegrid.signer.DefaultClientCredentialProvider;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
+import com.akamai.edgegrid.signer.ServerClock;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Request;
 import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.Response;
 import org.hamcrest.CoreMatchers;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -13,15 +22,24 @@ import org.testng.annotations.Test;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
 import static org.asynchttpclient.Dsl.asyncHttpClient;
+import static org.asynchttpclient.Dsl.config;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 public class AsyncHttpClientEdgeGridRequestSignerIntegrationTest {
@@ -75,6 +93,90 @@ public class AsyncHttpClientEdgeGridRequestSignerIntegrationTest {
         assertThat(wireMockServer.findAllUnmatchedRequests().size(), CoreMatchers.equalTo(0));
     }
 
+    @Test
+    public void executeOnceSignedWithoutBlocking() throws Exception {
+
+        wireMockServer.stubFor(get(urlPathEqualTo("/papi/v0/properties"))
+            .withHeader("Authorization", matching("EG1-HMAC-SHA256 .*"))
+            .withHeader("Host", equalTo(SERVICE_MOCK))
+            .willReturn(aResponse()
+                .withStatus(200)));
+        CompletableFuture<ClientCredential> pending = new CompletableFuture<>();
+        AsyncHttpClientEdgeGridRequestSigner binding = new AsyncHttpClientEdgeGridRequestSigner(
+                AsyncClientCredentialProvider.toClientCredentialProvider(r -> pending));
+
+        ExecutorService hashingExecutor = AsyncEdgeGridV1Signer.newHashingExecutor(1, 16);
+        try (AsyncHttpClient client = asyncHttpClient()) {
+            CompletableFuture<Response> response = binding.execute(client,
+                    new RequestBuilder().setUrl("http://localhost/papi/v0/properties").build(),
+                    new AsyncEdgeGridV1Signer(hashingExecutor));
+
+            assertThat(response.isDone(), CoreMatchers.equalTo(false));
+            pending.complete(credential);
+
+            assertThat(response.get().getStatusCode(), CoreMatchers.equalTo(200));
+        } finally {
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void replayEachRequestSignedBeforeClockSkewWasDetected() throws Exception {
+        String serverDate = stubSkewedUnauthorized();
+        ServerClock serverClock = new ServerClock();
+        AsyncHttpClientEdgeGridSignatureCalculator calculator = new AsyncHttpClientEdgeGridSignatureCalculator(
+                new AsyncHttpClientEdgeGridRequestSigner(new DefaultClientCredentialProvider(credential),
+                        EdgeGridV1Signer.builder().serverClock(serverClock).build()));
+
+        try (AsyncHttpClient client = asyncHttpClient(config()
+                .addResponseFilter(new AsyncHttpClientEdgeGridServerClockFilter(calculator, serverClock)))) {
+            // both requests are signed with the skewed clock before the first response corrects it
+            ListenableFuture<Response> first = client.executeRequest(skewedRequest(calculator));
+            ListenableFuture<Response> second = client.executeRequest(skewedRequest(calculator));
+            first.get();
+            second.get();
+        }
+
+        List<LoggedRequest> loggedRequests = wireMockServer.findAll(getRequestedFor(urlPathEqualTo("/papi/v0/properties")));
+        assertThat(loggedRequests.size(), CoreMatchers.equalTo(4));
+        assertThat(loggedRequests.stream()
+                .filter(r -> ServerClock.isSignedWithSkewedClock(r.getHeader("Authorization"), serverDate))
+                .count(), CoreMatchers.equalTo(2L));
+    }
+
+    @Test
+    public void replayRequestAtMostOnce() throws Exception {
+        stubSkewedUnauthorized();
+        // a calculator not following the clock signs the replay with the same skew
+        AsyncHttpClientEdgeGridSignatureCalculator calculator = new AsyncHttpClientEdgeGridSignatureCalculator(credential);
+
+        try (AsyncHttpClient client = asyncHttpClient(config()
+                .addResponseFilter(new AsyncHttpClientEdgeGridServerClockFilter(calculator, new ServerClock())))) {
+            assertThat(client.executeRequest(skewedRequest(calculator)).get().getStatusCode(), CoreMatchers.equalTo(401));
+        }
+
+        assertThat(wireMockServer.findAll(getRequestedFor(urlPathEqualTo("/papi/v0/properties"))).size(),
+                CoreMatchers.equalTo(2));
+    }
+
+    private String stubSkewedUnauthorized() {
+        String serverDate = DateTimeFormatter.RFC_1123_DATE_TIME
+                .format(ZonedDateTime.now(ZoneOffset.UTC).plusMinutes(10));
+        wireMockServer.stubFor(get(urlPathEqualTo("/papi/v0/properties"))
+            .willReturn(aResponse()
+                .withStatus(401)
+                .withHeader("Date", serverDate)
+                .withFixedDelay(500)));
+        return serverDate;
+    }
+
+    private Request skewedRequest(AsyncHttpClientEdgeGridSignatureCalculator calculator) {
+        return new RequestBuilder("GET")
+            .setUrl("http://" + credential.getHost() + "/papi/v0/properties")
+            .setSignatureCalculator(calculator)
+            .build();
+    }
+
     @AfterClass
     public void tearDownAll() {
         wireMockServer.stop();
@@ -1,18 +1,32 @@
 package com.akamai.edgegrid.signer.ahc;
 
+import com.akamai.edgegrid.signer.AsyncClientCredentialProvider;
+import com.akamai.edgegrid.signer.AsyncEdgeGridV1Signer;
 import com.akamai.edgegrid.signer.ClientCredential;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.DefaultClientCredentialProvider;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
+import com.akamai.edgegrid.signer.exceptions.RateLimitExceededException;
 
 import org.asynchttpclient.Request;
 import org.asynchttpclient.RequestBuilder;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isEmptyOrNullString;
 import static org.hamcrest.Matchers.not;
+import static org.testng.Assert.expectThrows;
 
 
 public class AsyncHttpClientEdgeGridSignatureCalculatorTest {
@@ -80,13 +94,134 @@ public class AsyncHttpClientEdgeGridSignatureCalculatorTest {
 
     }
 
+    @Test(dataProvider = "requests")
+    public void testSignAsync(Request request) throws Exception {
+
+        ClientCredential credential = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2wz6oz2rp")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjphopvpn6yjoj")
+            .clientSecret("SOMESECRET")
+            .host("endpoint.net")
+            .build();
+
+        ExecutorService hashingExecutor = AsyncEdgeGridV1Signer.newHashingExecutor(1, 16);
+        try {
+            RequestBuilder requestToUpdate = new RequestBuilder(request.toString());
+            new AsyncHttpClientEdgeGridRequestSigner(credential)
+                .signAsync(request, requestToUpdate, new AsyncEdgeGridV1Signer(hashingExecutor))
+                .toCompletableFuture().get();
+            Request updatedRequest = requestToUpdate.build();
+
+            assertThat(updatedRequest.getHeaders().get("Authorization"), not(isEmptyOrNullString()));
+            assertThat(updatedRequest.getHeaders().get("Host"), equalTo("endpoint.net"));
+            assertThat(updatedRequest.getUri().getHost(), equalTo("endpoint.net"));
+        } finally {
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSignAsyncWaitsForAsyncCredentialProvider() throws Exception {
+
+        ClientCredential credential = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2wz6oz2rp")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjphopvpn6yjoj")
+            .clientSecret("SOMESECRET")
+            .host("endpoint.net")
+            .build();
+        CompletableFuture<ClientCredential> pending = new CompletableFuture<>();
+        Request request = new RequestBuilder().setUrl("http://localhost/test").build();
+
+        ExecutorService hashingExecutor = AsyncEdgeGridV1Signer.newHashingExecutor(1, 16);
+        try {
+            RequestBuilder requestToUpdate = new RequestBuilder(request.toString());
+            CompletionStage<Void> signed = new AsyncHttpClientEdgeGridRequestSigner(
+                    AsyncClientCredentialProvider.toClientCredentialProvider(r -> pending))
+                .signAsync(request, requestToUpdate, new AsyncEdgeGridV1Signer(hashingExecutor));
+
+            assertThat(signed.toCompletableFuture().isDone(), is(false));
+            pending.complete(credential);
+            signed.toCompletableFuture().get();
+            Request updatedRequest = requestToUpdate.build();
+
+            assertThat(updatedRequest.getHeaders().get("Authorization"), not(isEmptyOrNullString()));
+            assertThat(updatedRequest.getUri().getHost(), equalTo("endpoint.net"));
+        } finally {
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSignAsyncWaitsForRateLimitBudget() throws Exception {
+
+        ClientCredential credential = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2wz6oz2rp")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjphopvpn6yjoj")
+            .clientSecret("SOMESECRET")
+            .host("endpoint.net")
+            .build();
+        ClientRateLimiter rateLimiter = ClientRateLimiter.builder()
+            .window(Duration.ofMillis(200))
+            .initialLimit(1)
+            .build();
+        AsyncHttpClientEdgeGridRequestSigner signer = new AsyncHttpClientEdgeGridRequestSigner(
+                new DefaultClientCredentialProvider(credential), new EdgeGridV1Signer(), null, rateLimiter);
+        Request request = new RequestBuilder().setUrl("http://localhost/test").build();
+
+        ExecutorService hashingExecutor = AsyncEdgeGridV1Signer.newHashingExecutor(1, 16);
+        try {
+            AsyncEdgeGridV1Signer asyncSigner = new AsyncEdgeGridV1Signer(hashingExecutor);
+            CompletionStage<Void> first = signer.signAsync(request, new RequestBuilder(request.toString()), asyncSigner);
+            RequestBuilder requestToUpdate = new RequestBuilder(request.toString());
+            CompletionStage<Void> second = signer.signAsync(request, requestToUpdate, asyncSigner);
+
+            assertThat(first.toCompletableFuture().isDone(), is(true));
+            assertThat(second.toCompletableFuture().isDone(), is(false));
+            second.toCompletableFuture().get();
+
+            assertThat(requestToUpdate.build().getHeaders().get("Authorization"), not(isEmptyOrNullString()));
+            assertThat(rateLimiter.getDelayedCount(), is(1L));
+        } finally {
+            hashingExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCalculateAndAddSignatureShedsInsteadOfWaiting() throws Exception {
+
+        ClientCredential credential = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2wz6oz2rp")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjphopvpn6yjoj")
+            .clientSecret("SOMESECRET")
+            .host("endpoint.net")
+            .build();
+        ClientRateLimiter rateLimiter = ClientRateLimiter.builder()
+            .window(Duration.ofSeconds(10))
+            .initialLimit(1)
+            .maxWait(Duration.ofSeconds(10))
+            .build();
+        AsyncHttpClientEdgeGridSignatureCalculator calculator = new AsyncHttpClientEdgeGridSignatureCalculator(
+                new AsyncHttpClientEdgeGridRequestSigner(
+                        new DefaultClientCredentialProvider(credential), new EdgeGridV1Signer(), null, rateLimiter));
+        Request request = new RequestBuilder().setUrl("http://localhost/test").build();
+
+        calculator.calculateAndAddSignature(request, new RequestBuilder(request.toString()));
+        RuntimeException e = expectThrows(RuntimeException.class,
+                () -> calculator.calculateAndAddSignature(request, new RequestBuilder(request.toString())));
+
+        assertThat(e.getCause(), instanceOf(RateLimitExceededException.class));
+        assertThat(rateLimiter.getShedCount(), is(1L));
+        assertThat(rateLimiter.getDelayedCount(), is(0L));
+    }
+
     @DataProvider
     public Object[][] requests() {
         return new Object[][]{
             {new RequestBuilder().setUrl("http://localhost/test").build()},
             {new RequestBuilder("POST").setUrl("http://localhost/test").setBody("content").build()},
             {new RequestBuilder("POST").setUrl("http://localhost/test").setBody("content".getBytes()).build()},
-            {new RequestBuilder("POST").setUrl("http://localhost/test").setBody(Arrays.asList("content".getBytes())).build()}
+            {new RequestBuilder("POST").setUrl("http://localhost/test").setBody(Arrays.asList("content".getBytes())).build()},
+            {new RequestBuilder("POST").setUrl("http://localhost/test").setBody(ByteBuffer.wrap("content".getBytes())).build()}
         };
     }
 }
@@ -5,7 +5,10 @@ import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
 /**
  * <p> This is an abstract base class for implementing EdgeGrid request signing in a
@@ -22,8 +25,18 @@ public abstract class AbstractEdgeGridRequestSigner<RequestT, MutableRequestT> {
 
     private final ClientCredentialProvider clientCredentialProvider;
 
+    /** {@link #clientCredentialProvider} if it is also an {@link AsyncClientCredentialProvider}. */
+    private final AsyncClientCredentialProvider asyncClientCredentialProvider;
+
     private final EdgeGridV1Signer edgeGridSigner;
 
+    private final AccountSwitchKeyResolver accountSwitchKeyResolver;
+
+    private final ClientRateLimiter rateLimiter;
+
+    /** Credential host last seen by {@link #withNewHost(URI, String)}, split into name and port. */
+    private volatile HostAndPort lastHost;
+
     /**
      * Creates an EdgeGrid request signer that will always sign requests with the same {@link
      * ClientCredential}. This constructor will automatically produce a {@link
@@ -44,7 +57,69 @@ public abstract class AbstractEdgeGridRequestSigner<RequestT, MutableRequestT> {
      */
     public AbstractEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider) {
         this.clientCredentialProvider = clientCredentialProvider;
+        this.asyncClientCredentialProvider = asAsync(clientCredentialProvider);
         this.edgeGridSigner = createEdgeGridSigner();
+        this.accountSwitchKeyResolver = null;
+        this.rateLimiter = null;
+    }
+
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via {@link
+     * ClientCredentialProvider#getClientCredential(Request)} for each request, and signing requests
+     * with a pre-configured {@code edgeGridSigner}, e.g. one following a {@link ServerClock}.
+     * {@link #createEdgeGridSigner()} is not called.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider} to be used for selecting
+     *                                 credentials for each request
+     * @param edgeGridSigner           an {@link EdgeGridV1Signer} to sign requests with
+     */
+    public AbstractEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider,
+                                         EdgeGridV1Signer edgeGridSigner) {
+        this(clientCredentialProvider, edgeGridSigner, null);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via {@link
+     * ClientCredentialProvider#getClientCredential(Request)} for each request, signing requests
+     * with a pre-configured {@code edgeGridSigner}, and sending them on behalf of the account
+     * selected by {@code accountSwitchKeyResolver}. {@link #createEdgeGridSigner()} is not called.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider} to be used for selecting
+     *                                 credentials for each request
+     * @param edgeGridSigner           an {@link EdgeGridV1Signer} to sign requests with
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null} to
+     *                                 send requests as they are
+     */
+    public AbstractEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider,
+                                         EdgeGridV1Signer edgeGridSigner,
+                                         AccountSwitchKeyResolver accountSwitchKeyResolver) {
+        this(clientCredentialProvider, edgeGridSigner, accountSwitchKeyResolver, null);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer like
+     * {@link #AbstractEdgeGridRequestSigner(ClientCredentialProvider, EdgeGridV1Signer, AccountSwitchKeyResolver)},
+     * which also takes each request from the budget of its credential in {@code rateLimiter}
+     * before signing it, waiting for budget or failing with
+     * {@link com.akamai.edgegrid.signer.exceptions.RateLimitExceededException} if there is none.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider} to be used for selecting
+     *                                 credentials for each request
+     * @param edgeGridSigner           an {@link EdgeGridV1Signer} to sign requests with
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null} to
+     *                                 send requests as they are
+     * @param rateLimiter              a {@link ClientRateLimiter}, or {@code null} not to limit
+     *                                 the rate of requests
+     */
+    public AbstractEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider,
+                                         EdgeGridV1Signer edgeGridSigner,
+                                         AccountSwitchKeyResolver accountSwitchKeyResolver,
+                                         ClientRateLimiter rateLimiter) {
+        this.clientCredentialProvider = clientCredentialProvider;
+        this.asyncClientCredentialProvider = asAsync(clientCredentialProvider);
+        this.edgeGridSigner = Objects.requireNonNull(edgeGridSigner, "edgeGridSigner cannot be null");
+        this.accountSwitchKeyResolver = accountSwitchKeyResolver;
+        this.rateLimiter = rateLimiter;
     }
 
     /**
@@ -77,24 +152,245 @@ public abstract class AbstractEdgeGridRequestSigner<RequestT, MutableRequestT> {
      *                                       NoMatchingCredentialException} or returns {@code null}
      */
     public void sign(RequestT request, MutableRequestT requestToUpdate) throws RequestSigningException {
-        Request req = map(request);
-        ClientCredential credential;
-        try {
-            credential = clientCredentialProvider.getClientCredential(req);
-        } catch (NoMatchingCredentialException e) {
-            throw e;
+        RequestView req = view(request);
+        if (!(req instanceof Request)) {
+            req = new MappableRequestView(req, () -> map(request));
         }
-        if (credential == null) {
-            throw new NoMatchingCredentialException();
+        String accountSwitchKeyParameter = getAccountSwitchKeyParameter(req);
+        if (accountSwitchKeyParameter != null) {
+            req = req instanceof Request
+                    ? ((Request) req).withQueryParameter(accountSwitchKeyParameter)
+                    : ((MappableRequestView) req).withQueryParameter(accountSwitchKeyParameter);
         }
+        ClientCredential credential = getClientCredential(req);
         String newHost = credential.getHost();
         URI originalUri = Objects.requireNonNull(requestUri(request), "Request-URI cannot be null");
-        URI newUri = withNewHost(originalUri, newHost);
+        URI newUri = withQueryParameter(withNewHost(originalUri, newHost), accountSwitchKeyParameter);
+        acquire(credential);
         setHost(requestToUpdate, newHost, newUri);
         String authorization = edgeGridSigner.getSignature(req, credential);
         setAuthorization(requestToUpdate, authorization);
     }
 
+    /**
+     * Signs {@code request} like {@link #sign(Object, Object)}, and returns what is needed to sign
+     * the same request again cheaply with {@link #resign(SignedRequestContext, Object)}, e.g. when
+     * it is retried after a server error or a connection reset.
+     *
+     * @param request an HTTP request with data used to sign
+     * @param requestToUpdate an HTTP request to update with signature
+     * @return a {@link SignedRequestContext} of {@code request}
+     * @throws RequestSigningException       if failed to sign a request
+     * @throws NoMatchingCredentialException if acquiring a {@link ClientCredential} throws {@code
+     *                                       NoMatchingCredentialException} or returns {@code null}
+     */
+    public SignedRequestContext signWithContext(RequestT request, MutableRequestT requestToUpdate)
+            throws RequestSigningException {
+        Request req = map(request);
+        String accountSwitchKeyParameter = getAccountSwitchKeyParameter(req);
+        if (accountSwitchKeyParameter != null) {
+            req = req.withQueryParameter(accountSwitchKeyParameter);
+        }
+        ClientCredential credential = getClientCredential(req);
+        String newHost = credential.getHost();
+        URI originalUri = Objects.requireNonNull(requestUri(request), "Request-URI cannot be null");
+        URI newUri = withQueryParameter(withNewHost(originalUri, newHost), accountSwitchKeyParameter);
+        acquire(credential);
+        setHost(requestToUpdate, newHost, newUri);
+        SignedRequestContext context = edgeGridSigner.getSignedRequestContext(req, credential).withUri(newUri);
+        setAuthorization(requestToUpdate, context.getAuthorization());
+        return context;
+    }
+
+    /**
+     * Signs again a request signed earlier with {@link #signWithContext(Object, Object)}. The
+     * original request is neither mapped nor hashed again: only a new timestamp and nonce are drawn
+     * and the signature is recomputed. The host name and the Authorization header of
+     * {@code requestToUpdate} are updated.
+     *
+     * @param context a {@link SignedRequestContext} returned by {@link #signWithContext(Object, Object)}
+     * @param requestToUpdate an HTTP request to update with signature
+     * @throws RequestSigningException if failed to sign a request
+     */
+    public void resign(SignedRequestContext context, MutableRequestT requestToUpdate) throws RequestSigningException {
+        Objects.requireNonNull(context, "context cannot be null");
+        acquire(context.getCredential());
+        String authorization = edgeGridSigner.resign(context);
+        setHost(requestToUpdate, context.getCredential().getHost(), context.getUri());
+        setAuthorization(requestToUpdate, authorization);
+    }
+
+    /**
+     * Signs {@code request} like {@link #sign(Object, Object)}, but leaves hashing of large request
+     * bodies to {@code asyncSigner}, so that it does not happen on the calling thread. The host name
+     * and the Authorization header of {@code requestToUpdate} are updated when the returned
+     * {@link CompletionStage} completes; {@code requestToUpdate} must not be sent before that.
+     * <p>
+     * If the {@link ClientCredentialProvider} of this signer is also an
+     * {@link AsyncClientCredentialProvider}, e.g. one made by
+     * {@link AsyncClientCredentialProvider#toClientCredentialProvider(AsyncClientCredentialProvider)},
+     * the credential is obtained through it and signing continues when it is available, rather than
+     * blocking the calling thread. {@code request} is read before this method returns.
+     * </p>
+     *
+     * @param request an HTTP request with data used to sign
+     * @param requestToUpdate an HTTP request to update with signature
+     * @param asyncSigner an {@link AsyncEdgeGridV1Signer} producing the signature
+     * @return a {@link CompletionStage} that completes once {@code requestToUpdate} is signed, or
+     *         completes exceptionally with {@link RequestSigningException} if signing failed
+     */
+    public CompletionStage<Void> signAsync(RequestT request, MutableRequestT requestToUpdate,
+                                           AsyncEdgeGridV1Signer asyncSigner) {
+        Objects.requireNonNull(asyncSigner, "asyncSigner cannot be null");
+        Request req;
+        String accountSwitchKeyParameter;
+        URI originalUri;
+        CompletionStage<ClientCredential> credentialStage;
+        try {
+            Request mapped = map(request);
+            accountSwitchKeyParameter = getAccountSwitchKeyParameter(mapped);
+            req = accountSwitchKeyParameter == null ? mapped : mapped.withQueryParameter(accountSwitchKeyParameter);
+            originalUri = Objects.requireNonNull(requestUri(request), "Request-URI cannot be null");
+            if (asyncClientCredentialProvider == null) {
+                return signAsync(req, originalUri, accountSwitchKeyParameter, getClientCredential(req),
+                        requestToUpdate, asyncSigner);
+            }
+            credentialStage = asyncClientCredentialProvider.getClientCredentialAsync(req);
+        } catch (RequestSigningException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (credentialStage instanceof CompletableFuture) {
+            // Credential at hand: carry on here, as with a synchronous provider
+            CompletableFuture<ClientCredential> future = (CompletableFuture<ClientCredential>) credentialStage;
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                return signAsync(req, originalUri, accountSwitchKeyParameter, future.getNow(null),
+                        requestToUpdate, asyncSigner);
+            }
+        }
+        return credentialStage.thenCompose(credential ->
+                signAsync(req, originalUri, accountSwitchKeyParameter, credential, requestToUpdate, asyncSigner));
+    }
+
+    private CompletionStage<Void> signAsync(Request req, URI originalUri, String accountSwitchKeyParameter,
+                                            ClientCredential credential, MutableRequestT requestToUpdate,
+                                            AsyncEdgeGridV1Signer asyncSigner) {
+        URI newUri;
+        try {
+            if (credential == null) {
+                throw new NoMatchingCredentialException();
+            }
+            newUri = withQueryParameter(withNewHost(originalUri, credential.getHost()), accountSwitchKeyParameter);
+        } catch (RequestSigningException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletionStage<Void> permit = rateLimiter == null ? ClientRateLimiter.ACQUIRED : rateLimiter.acquireAsync(credential);
+        if (permit != ClientRateLimiter.ACQUIRED) {
+            return permit.thenCompose(ignored -> signAsync(req, credential, newUri, requestToUpdate, asyncSigner));
+        }
+        return signAsync(req, credential, newUri, requestToUpdate, asyncSigner);
+    }
+
+    private CompletionStage<Void> signAsync(Request req, ClientCredential credential, URI newUri,
+                                            MutableRequestT requestToUpdate, AsyncEdgeGridV1Signer asyncSigner) {
+        return asyncSigner.getSignature(req, credential).thenAccept(authorization -> {
+            setHost(requestToUpdate, credential.getHost(), newUri);
+            setAuthorization(requestToUpdate, authorization);
+        });
+    }
+
+    private void acquire(ClientCredential credential) throws RequestSigningException {
+        if (rateLimiter != null) {
+            acquire(rateLimiter, credential);
+        }
+    }
+
+    /**
+     * Takes a request that {@link #sign(Object, Object)}, {@link #signWithContext(Object, Object)}
+     * or {@link #resign(SignedRequestContext, Object)} is about to sign from the budget of
+     * {@code credential} in {@code rateLimiter}. The default implementation waits on the calling
+     * thread with {@link ClientRateLimiter#acquire(ClientCredential)}. Bindings called on threads
+     * that must not wait can shed requests instead with
+     * {@link ClientRateLimiter#tryAcquire(ClientCredential)}.
+     * {@link #signAsync(Object, Object, AsyncEdgeGridV1Signer)} does not call this method, and
+     * waits for the budget without blocking.
+     *
+     * @param rateLimiter the {@link ClientRateLimiter} of this signer
+     * @param credential the {@link ClientCredential} the request is about to be signed with
+     * @throws RequestSigningException if the request may not be sent
+     */
+    protected void acquire(ClientRateLimiter rateLimiter, ClientCredential credential) throws RequestSigningException {
+        rateLimiter.acquire(credential);
+    }
+
+    private static AsyncClientCredentialProvider asAsync(ClientCredentialProvider provider) {
+        return provider instanceof AsyncClientCredentialProvider ? (AsyncClientCredentialProvider) provider : null;
+    }
+
+    private ClientCredential getClientCredential(RequestView request) throws NoMatchingCredentialException {
+        ClientCredential credential = clientCredentialProvider.getClientCredential(request);
+        if (credential == null) {
+            throw new NoMatchingCredentialException();
+        }
+        return credential;
+    }
+
+    /**
+     * Returns the {@value AccountSwitchKeyResolver#QUERY_PARAMETER} query parameter to append to
+     * {@code request}, or {@code null} if there is no {@link AccountSwitchKeyResolver}, it returns
+     * no key, or the request already has the parameter.
+     */
+    private String getAccountSwitchKeyParameter(RequestView request) {
+        if (accountSwitchKeyResolver == null) {
+            return null;
+        }
+        String accountSwitchKey = accountSwitchKeyResolver.getAccountSwitchKey(request);
+        if (accountSwitchKey == null || accountSwitchKey.isEmpty()
+                || RequestTarget.hasQueryParameter(request.getPathAndQuery(), AccountSwitchKeyResolver.QUERY_PARAMETER)) {
+            return null;
+        }
+        return AccountSwitchKeyResolver.QUERY_PARAMETER + '=' + encodeQueryValue(accountSwitchKey);
+    }
+
+    /**
+     * Percent-encodes {@code value} for a query, leaving unreserved characters and {@code :} as
+     * they are, so that account switch keys such as {@code 1-5BYUG1:1-8BYUX} are sent verbatim.
+     */
+    private static String encodeQueryValue(String value) {
+        StringBuilder sb = null;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            boolean plain = (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z') || (b >= '0' && b <= '9')
+                    || b == '-' || b == '.' || b == '_' || b == '~' || b == ':';
+            if (sb == null) {
+                if (plain) {
+                    continue;
+                }
+                sb = new StringBuilder(bytes.length + 16).append(value, 0, i);
+            }
+            if (plain) {
+                sb.append((char) b);
+            } else {
+                sb.append('%').append(Character.toUpperCase(Character.forDigit(b >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(b & 0xf, 16)));
+            }
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    /**
+     * Returns {@code uri} with {@code parameter} appended to its raw query, or {@code uri} itself
+     * if {@code parameter} is {@code null}.
+     */
+    private static URI withQueryParameter(URI uri, String parameter) {
+        if (parameter == null) {
+            return uri;
+        }
+        String s = uri.toString();
+        int fragment = uri.getRawFragment() == null ? s.length() : s.lastIndexOf('#');
+        return URI.create(RequestTarget.appendQueryParameter(s.substring(0, fragment), parameter) + s.substring(fragment));
+    }
+
     /**
      * Returns Request-URI of an original request.
      *
@@ -112,6 +408,21 @@ public abstract class AbstractEdgeGridRequestSigner<RequestT, MutableRequestT> {
      */
     protected abstract Request map(RequestT request);
 
+    /**
+     * Returns a read-only view of an HTTP client-specific request, which {@link #sign(Object, Object)}
+     * passes to the {@link ClientCredentialProvider} and the {@link EdgeGridV1Signer}. The default
+     * implementation returns {@link #map(Object)}. Bindings can override it to read the native
+     * request in place instead of copying its headers and body into a {@link Request}. Providers
+     * that only implement {@link ClientCredentialProvider#getClientCredential(Request)} are still
+     * given {@link #map(Object)} of the request.
+     *
+     * @param request an HTTP client-specific request
+     * @return a {@link RequestView} of {@code request}
+     */
+    protected RequestView view(RequestT request) {
+        return map(request);
+    }
+
     /**
      * Updates a given HTTP request by adding Authorization header with a value containing request
      * signature.
@@ -132,13 +443,41 @@ public abstract class AbstractEdgeGridRequestSigner<RequestT, MutableRequestT> {
     protected abstract void setHost(MutableRequestT request, String host, URI uri);
 
     private URI withNewHost(URI uri, String host) {
-        // We allow host to contain port only for because mocking OPEN API service requires it
-        String[] hostAndPort = host.split(":");
-        String hostName = hostAndPort[0];
-        int port = (hostAndPort.length == 2)
-            ? Integer.parseInt(hostAndPort[1])
+        HostAndPort hostAndPort = getHostAndPort(host);
+        String hostName = hostAndPort.name;
+        int port = (hostAndPort.port != -1)
+            ? hostAndPort.port
             : uri.getPort();
 
+        String rawPath = uri.getRawPath();
+        if (hasNothingToEscape(uri.getRawUserInfo()) && hasNothingToEscape(rawPath)
+                && hasNothingToEscape(uri.getRawQuery()) && hasNothingToEscape(uri.getRawFragment())
+                && (rawPath == null || rawPath.isEmpty() || rawPath.charAt(0) == '/')) {
+            // Decoding and re-encoding would give back the same components, so splice the raw ones
+            StringBuilder sb = new StringBuilder();
+            if (uri.getScheme() != null) {
+                sb.append(uri.getScheme()).append(':');
+            }
+            sb.append("//");
+            if (uri.getRawUserInfo() != null) {
+                sb.append(uri.getRawUserInfo()).append('@');
+            }
+            sb.append(hostName);
+            if (port != -1) {
+                sb.append(':').append(port);
+            }
+            if (rawPath != null) {
+                sb.append(rawPath);
+            }
+            if (uri.getRawQuery() != null) {
+                sb.append('?').append(uri.getRawQuery());
+            }
+            if (uri.getRawFragment() != null) {
+                sb.append('#').append(uri.getRawFragment());
+            }
+            return URI.create(sb.toString());
+        }
+
         try {
             return new URI(
                 uri.getScheme(),
@@ -153,4 +492,38 @@ public abstract class AbstractEdgeGridRequestSigner<RequestT, MutableRequestT> {
         }
     }
 
+    private static boolean hasNothingToEscape(String rawComponent) {
+        return rawComponent == null || rawComponent.indexOf('%') < 0;
+    }
+
+    private HostAndPort getHostAndPort(String host) {
+        HostAndPort hostAndPort = lastHost;
+        if (hostAndPort == null || !hostAndPort.host.equals(host)) {
+            hostAndPort = new HostAndPort(host);
+            lastHost = hostAndPort;
+        }
+        return hostAndPort;
+    }
+
+    /**
+     * Host name and optional port of a credential host.
+     */
+    private static final class HostAndPort {
+
+        private final String host;
+        private final String name;
+        private final int port;
+
+        private HostAndPort(String host) {
+            // We allow host to contain port only for because mocking OPEN API service requires it
+            String[] hostAndPort = host.split(":");
+            this.host = host;
+            this.name = hostAndPort[0];
+            this.port = (hostAndPort.length == 2)
+                ? Integer.parseInt(hostAndPort[1])
+                : -1;
+        }
+
+    }
+
 }
@@ -0,0 +1,50 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Selects the account a request acts on, for API clients allowed to manage several accounts.
+ * {@link AbstractEdgeGridRequestSigner} appends the returned key to the query as the
+ * {@value #QUERY_PARAMETER} parameter, both to the path and query it signs and to the Request-URI
+ * it sends, so one credential, signer and connection pool can serve any number of accounts.
+ * </p>
+ * <p>
+ * The key may come from the request itself, see {@link #fromHeader(String)}, or from any context
+ * the calling code keeps the current account in, e.g. {@code request -> CURRENT_ACCOUNT.get()}
+ * for a {@link ThreadLocal}. Requests which already have a {@value #QUERY_PARAMETER} parameter
+ * are left as they are.
+ * </p>
+ *
+ */
+@FunctionalInterface
+public interface AccountSwitchKeyResolver {
+
+    /** Name of the query parameter selecting the account. */
+    String QUERY_PARAMETER = "accountSwitchKey";
+
+    /**
+     * Returns the account switch key for the request seen through {@code request}, or
+     * {@code null} to send the request for the account of the credential.
+     *
+     * @param request a view of a request
+     * @return an account switch key, or {@code null}
+     */
+    String getAccountSwitchKey(RequestView request);
+
+    /**
+     * Returns an {@link AccountSwitchKeyResolver} reading the account switch key from the header
+     * {@code headerName} of each request. The header is sent as well, but it is only signed if the
+     * credential lists it among its headers to sign.
+     *
+     * @param headerName name of a request header, in any case
+     * @return an {@link AccountSwitchKeyResolver}
+     */
+    static AccountSwitchKeyResolver fromHeader(String headerName) {
+        Objects.requireNonNull(headerName, "headerName cannot be null");
+        String name = headerName.toLowerCase(Locale.ROOT);
+        return request -> request.getHeader(name);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * <p>
+ * Non-blocking counterpart of {@link ClientCredentialProvider}, for providers that get
+ * credentials through I/O and callers that must not wait for it, such as the event loop of a
+ * non-blocking HTTP client. {@link AbstractEdgeGridRequestSigner#signAsync(Object, Object, AsyncEdgeGridV1Signer)}
+ * continues signing when the returned {@link CompletionStage} completes, without blocking a
+ * thread.
+ * </p>
+ * <p>
+ * Signers take a {@link ClientCredentialProvider}. Pass them
+ * {@link #toClientCredentialProvider(AsyncClientCredentialProvider)}, which implements both
+ * interfaces: {@code signAsync} uses this one, and the other signing methods wait for the
+ * credential. {@link #of(ClientCredentialProvider)} adapts the other way round.
+ * </p>
+ *
+ */
+@FunctionalInterface
+public interface AsyncClientCredentialProvider {
+
+    /**
+     * Gets a {@link ClientCredential} that is appropriate for signing the request seen through
+     * {@code request}. The view is only valid during this call: implementations must read what
+     * they need from it before returning, not in a later stage.
+     * <p>
+     * Implementations that often have the credential at hand should return an already completed
+     * stage, which signers use without scheduling anything. Returning the same completed
+     * {@link CompletableFuture} for the same credential keeps that path free of allocation.
+     * </p>
+     *
+     * @param request a view of a request
+     * @return a {@link CompletionStage} of a {@link ClientCredential}, which may complete with
+     *         {@code null} or exceptionally with {@link NoMatchingCredentialException} if no
+     *         {@link ClientCredential} can be selected
+     */
+    CompletionStage<ClientCredential> getClientCredentialAsync(RequestView request);
+
+    /**
+     * Returns an {@link AsyncClientCredentialProvider} that always returns {@code credential},
+     * in the same completed stage.
+     *
+     * @param credential a {@link ClientCredential}
+     * @return an {@link AsyncClientCredentialProvider}
+     */
+    static AsyncClientCredentialProvider of(ClientCredential credential) {
+        CompletableFuture<ClientCredential> completed = new CompletedCredentialFuture(
+                Objects.requireNonNull(credential, "credential cannot be null"));
+        return request -> completed;
+    }
+
+    /**
+     * Returns an {@link AsyncClientCredentialProvider} that calls {@code provider} on the calling
+     * thread and returns its result in a completed stage. As long as {@code provider} returns the
+     * same {@link ClientCredential} instance, so does the returned stage.
+     *
+     * @param provider a {@link ClientCredentialProvider}
+     * @return an {@link AsyncClientCredentialProvider}
+     */
+    static AsyncClientCredentialProvider of(ClientCredentialProvider provider) {
+        Objects.requireNonNull(provider, "provider cannot be null");
+        return new AsyncClientCredentialProvider() {
+
+            /** The stage returned last, reused while the credential does not change. */
+            private volatile CompletableFuture<ClientCredential> last;
+
+            @Override
+            public CompletionStage<ClientCredential> getClientCredentialAsync(RequestView request) {
+                ClientCredential credential;
+                try {
+                    credential = provider.getClientCredential(request);
+                } catch (NoMatchingCredentialException | RuntimeException e) {
+                    return CompletableFuture.failedFuture(e);
+                }
+                CompletableFuture<ClientCredential> completed = last;
+                if (completed == null || completed.getNow(null) != credential) {
+                    completed = new CompletedCredentialFuture(credential);
+                    last = completed;
+                }
+                return completed;
+            }
+
+        };
+    }
+
+    /**
+     * Returns a {@link ClientCredentialProvider} that calls {@code provider} and waits for the
+     * credential, for code that can only use the synchronous interface. The returned provider is
+     * also an {@link AsyncClientCredentialProvider} delegating to {@code provider}, which
+     * {@link AbstractEdgeGridRequestSigner#signAsync(Object, Object, AsyncEdgeGridV1Signer)} uses
+     * so as not to wait.
+     *
+     * @param provider an {@link AsyncClientCredentialProvider}
+     * @return a {@link ClientCredentialProvider} blocking the calling thread until the credential
+     *         is available
+     */
+    static ClientCredentialProvider toClientCredentialProvider(AsyncClientCredentialProvider provider) {
+        Objects.requireNonNull(provider, "provider cannot be null");
+        if (provider instanceof ClientCredentialProvider) {
+            return (ClientCredentialProvider) provider;
+        }
+        return new BlockingClientCredentialProvider(provider);
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.akamai.edgegrid.signer;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>
+ * Asynchronous facade over {@link EdgeGridV1Signer} for callers that must not hash large request
+ * bodies on their own thread, such as the event loop of a non-blocking HTTP client.
+ * </p>
+ * <p>
+ * Requests whose signed part of the body is no larger than the inline threshold are signed on the
+ * calling thread and the returned {@link CompletionStage} is already complete. Larger requests are
+ * signed on the hashing {@link Executor}. If the executor rejects the task, the returned stage
+ * completes exceptionally with the {@link java.util.concurrent.RejectedExecutionException}.
+ * </p>
+ *
+ */
+public class AsyncEdgeGridV1Signer {
+
+    /** This is the default number of body bytes that are still hashed on the calling thread. */
+    public static final int DEFAULT_INLINE_THRESHOLD_IN_BYTES = 8192;
+
+    private final EdgeGridV1Signer edgeGridSigner;
+
+    private final Executor hashingExecutor;
+
+    private final int inlineThreshold;
+
+    /**
+     * Creates an asynchronous signer with a new {@link EdgeGridV1Signer} and
+     * {@link #DEFAULT_INLINE_THRESHOLD_IN_BYTES}.
+     *
+     * @param hashingExecutor an {@link Executor} to sign requests with large bodies on
+     */
+    public AsyncEdgeGridV1Signer(Executor hashingExecutor) {
+        this(new EdgeGridV1Signer(), hashingExecutor, DEFAULT_INLINE_THRESHOLD_IN_BYTES);
+    }
+
+    /**
+     * Creates an asynchronous signer.
+     *
+     * @param edgeGridSigner an {@link EdgeGridV1Signer} producing signatures
+     * @param hashingExecutor an {@link Executor} to sign requests with large bodies on
+     * @param inlineThreshold maximum number of body bytes that are hashed on the calling thread
+     * @throws IllegalArgumentException if {@code inlineThreshold} is negative
+     */
+    public AsyncEdgeGridV1Signer(EdgeGridV1Signer edgeGridSigner, Executor hashingExecutor, int inlineThreshold) {
+        if (inlineThreshold < 0) {
+            throw new IllegalArgumentException("inlineThreshold cannot be negative");
+        }
+        this.edgeGridSigner = Objects.requireNonNull(edgeGridSigner, "edgeGridSigner cannot be null");
+        this.hashingExecutor = Objects.requireNonNull(hashingExecutor, "hashingExecutor cannot be null");
+        this.inlineThreshold = inlineThreshold;
+    }
+
+    /**
+     * Creates a bounded executor suitable for hashing request bodies: a fixed number of daemon
+     * threads and a bounded work queue. Tasks submitted to a full queue are rejected rather than
+     * run on the submitting thread.
+     *
+     * @param threads number of hashing threads
+     * @param queueCapacity maximum number of requests waiting to be signed
+     * @return a new {@link ExecutorService}; the caller is responsible for shutting it down
+     */
+    public static ExecutorService newHashingExecutor(int threads, int queueCapacity) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "edgegrid-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Generates signature for a given HTTP request and client credential, possibly asynchronously.
+     *
+     * @param request a HTTP request to sign
+     * @param credential client credential used to sign a request
+     * @return a {@link CompletionStage} of the signature for Authorization HTTP header; it completes
+     *         exceptionally with {@link RequestSigningException} if signing failed
+     * @throws NullPointerException if {@code request} or {@code credential} is {@code null}
+     */
+    public CompletionStage<String> getSignature(Request request, ClientCredential credential) {
+        Objects.requireNonNull(credential, "credential cannot be null");
+        Objects.requireNonNull(request, "request cannot be null");
+
+        if (getHashedLength(request, credential) <= inlineThreshold) {
+            try {
+                return CompletableFuture.completedFuture(edgeGridSigner.getSignature(request, credential));
+            } catch (RequestSigningException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return edgeGridSigner.getSignature(request, credential);
+                } catch (RequestSigningException e) {
+                    throw new CompletionException(e);
+                }
+            }, hashingExecutor);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Returns the number of body bytes {@link EdgeGridV1Signer} hashes when signing
+     * {@code request}. Only POST bodies are hashed, up to the maximum body size of the credential.
+     * Bodies that are not held in memory would have to be read to be hashed, so they are always
+     * signed on the hashing executor.
+     */
+    private static long getHashedLength(Request request, ClientCredential credential) {
+        if (!"POST".equals(request.getMethod())) {
+            return 0;
+        }
+        RequestBody body = request.getRequestBody();
+        if (!body.isInMemory()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            return Math.min(body.length(), credential.getMaxBodySize());
+        } catch (IOException e) {
+            throw new IllegalStateException("In-memory body cannot fail to read", e);
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * {@link ClientCredentialProvider} waiting for an {@link AsyncClientCredentialProvider}, which it
+ * also exposes for signers able to wait without blocking.
+ *
+ */
+final class BlockingClientCredentialProvider implements ClientCredentialProvider, AsyncClientCredentialProvider {
+
+    private final AsyncClientCredentialProvider provider;
+
+    BlockingClientCredentialProvider(AsyncClientCredentialProvider provider) {
+        this.provider = provider;
+    }
+
+    @Override
+    public CompletionStage<ClientCredential> getClientCredentialAsync(RequestView request) {
+        return provider.getClientCredentialAsync(request);
+    }
+
+    @Override
+    public ClientCredential getClientCredential(Request request) throws NoMatchingCredentialException {
+        return getClientCredential((RequestView) request);
+    }
+
+    @Override
+    public ClientCredential getClientCredential(RequestView request) throws NoMatchingCredentialException {
+        try {
+            return provider.getClientCredentialAsync(request).toCompletableFuture().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof NoMatchingCredentialException) {
+                throw (NoMatchingCredentialException) e.getCause();
+            } else if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,367 @@
+package com.akamai.edgegrid.signer;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * <p>
+ * Decorator of a {@link ClientCredentialProvider} that gets credentials from a slow source, such as
+ * an encrypted file, a secrets daemon or a database. Credentials are cached by a key derived from
+ * each request, for instance a tenant header, and returned from the cache until they expire:
+ * </p>
+ * <pre>
+ * ClientCredentialProvider provider = CachingClientCredentialProvider.builder()
+ *         .delegate(tenantCredentialProvider)
+ *         .key(request -&gt; request.getHeader("x-tenant-id"))
+ *         .ttl(Duration.ofMinutes(10))
+ *         .build();
+ * </pre>
+ * <p>
+ * A credential that is used during the last {@code refreshAhead} of its time to live is reloaded
+ * on the refresh {@link Executor}, while the cached credential is still returned, so that requests
+ * do not wait for the source as long as keys are in use. Requests with a key that is missing or
+ * expired load it on their own thread; concurrent requests for the same key wait for that single
+ * load rather than each calling the source.
+ * </p>
+ * <p>
+ * If a reload fails, the credential it was meant to replace is kept and returned, even once it
+ * has expired, and the reload is tried again after {@code retryInterval}. Only keys that were
+ * never loaded fail. {@code null} credentials are not cached.
+ * </p>
+ * <p>
+ * Background reloads call the delegate with a {@link Request} holding only the method, path and
+ * query of the request that last loaded the key, so that cached entries do not hold on to request
+ * headers and bodies for their whole time to live. Delegates
+ * that select credentials by headers or body should be keyed so that reloads do not depend on
+ * them.
+ * </p>
+ *
+ */
+public class CachingClientCredentialProvider implements ClientCredentialProvider {
+
+    /** This is the default time a credential is cached for. */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    /** This is the default time before expiry from which a used credential is reloaded. */
+    public static final Duration DEFAULT_REFRESH_AHEAD = Duration.ofMinutes(1);
+
+    /** This is the default time between attempts to reload a credential that failed to. */
+    public static final Duration DEFAULT_RETRY_INTERVAL = Duration.ofSeconds(10);
+
+    private static final Logger log = LoggerFactory.getLogger(CachingClientCredentialProvider.class);
+
+    /** Key of requests for which the key function returns {@code null}. */
+    private static final Object NULL_KEY = new Object();
+
+    private final ClientCredentialProvider delegate;
+    private final Function<? super RequestView, ?> keyFunction;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final long retryIntervalNanos;
+    private final Executor refreshExecutor;
+
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+
+    /** Loads in progress, by key. */
+    private final ConcurrentHashMap<Object, CompletableFuture<Entry>> loads = new ConcurrentHashMap<>();
+
+    CachingClientCredentialProvider(CachingClientCredentialProviderBuilder b) {
+        this.delegate = Objects.requireNonNull(b.delegate, "delegate cannot be null");
+        this.keyFunction = b.keyFunction;
+        this.ttlNanos = b.ttl.toNanos();
+        this.refreshAheadNanos = b.refreshAhead.toNanos();
+        this.retryIntervalNanos = b.retryInterval.toNanos();
+        this.refreshExecutor = b.refreshExecutor;
+        if (refreshAheadNanos > ttlNanos) {
+            throw new IllegalArgumentException("refreshAhead cannot be longer than ttl");
+        }
+    }
+
+    /**
+     * Returns a new builder. The returned builder is equivalent to the builder
+     * generated by {@link CachingClientCredentialProviderBuilder}.
+     *
+     * @return a fresh {@link CachingClientCredentialProviderBuilder}
+     */
+    public static CachingClientCredentialProviderBuilder builder() {
+        return new CachingClientCredentialProviderBuilder();
+    }
+
+    @Override
+    public ClientCredential getClientCredential(Request request) throws NoMatchingCredentialException {
+        return get(request);
+    }
+
+    @Override
+    public ClientCredential getClientCredential(RequestView request) throws NoMatchingCredentialException {
+        return get(request);
+    }
+
+    /**
+     * Forgets all cached credentials, so that each key is loaded again the next time it is used.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the current time, for the expiry of credentials.
+     *
+     * @return a time in nanoseconds, from an arbitrary origin
+     */
+    long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private ClientCredential get(RequestView request) throws NoMatchingCredentialException {
+        Object key = keyFunction.apply(request);
+        if (key == null) {
+            key = NULL_KEY;
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long now = nanoTime();
+            if (now - entry.refreshAt < 0) {
+                return entry.credential;
+            }
+            if (now - entry.expireAt < 0) {
+                refreshAsync(key, entry);
+                return entry.credential;
+            }
+        }
+
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        CompletableFuture<Entry> inFlight = loads.putIfAbsent(key, load);
+        if (inFlight == null) {
+            load(key, request, entry, load);
+            inFlight = load;
+        }
+        try {
+            return await(inFlight).credential;
+        } catch (NoMatchingCredentialException | RuntimeException e) {
+            if (entry == null) {
+                throw e;
+            }
+            // the load kept the stale credential for the next requests
+            return entry.credential;
+        }
+    }
+
+    private void refreshAsync(Object key, Entry entry) {
+        CompletableFuture<Entry> load = new CompletableFuture<>();
+        if (loads.putIfAbsent(key, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> load(key, entry.request, entry, load));
+        } catch (RuntimeException e) {
+            loads.remove(key, load);
+            load.completeExceptionally(e);
+            log.warn("Cannot schedule the refresh of a client credential", e);
+        }
+    }
+
+    /**
+     * Loads the credential of {@code key} for {@code request} from the delegate, caches it with
+     * a snapshot of the request for later reloads, and completes {@code load} with it. If
+     * the delegate fails, {@code stale} is kept in the cache and reloaded again
+     * {@link #retryIntervalNanos} from now. {@code load} is completed and removed whatever fails.
+     */
+    private void load(Object key, RequestView request, Entry stale, CompletableFuture<Entry> load) {
+        try {
+            Request snapshot = stale != null && request == stale.request ? stale.request : snapshot(request);
+            ClientCredential credential = delegate.getClientCredential(request);
+            long now = nanoTime();
+            Entry entry = new Entry(credential, snapshot, now + ttlNanos - refreshAheadNanos, now + ttlNanos);
+            if (credential != null) {
+                entries.put(key, entry);
+            } else {
+                entries.remove(key);
+            }
+            load.complete(entry);
+        } catch (NoMatchingCredentialException | RuntimeException e) {
+            if (stale != null) {
+                // retry in the background, unless the key is not used for another retry interval
+                long retryAt = nanoTime() + retryIntervalNanos;
+                long expireAt = Math.max(stale.expireAt - retryAt, retryIntervalNanos) + retryAt;
+                entries.replace(key, stale, new Entry(stale.credential, stale.request, retryAt, expireAt));
+                log.warn("Cannot reload client credential, keeping the cached one", e);
+            }
+            load.completeExceptionally(e);
+        } finally {
+            loads.remove(key, load);
+        }
+    }
+
+    /**
+     * Returns the method, path and query of {@code request}, which is all that entries keep of it:
+     * not its headers, nor a body that may be large.
+     */
+    private static Request snapshot(RequestView request) {
+        return Request.ofTarget(request);
+    }
+
+    private static Entry await(CompletableFuture<Entry> load) throws NoMatchingCredentialException {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof NoMatchingCredentialException) {
+                throw (NoMatchingCredentialException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * A cached credential, with the method, path and query of the request it was loaded for.
+     */
+    private static final class Entry {
+
+        private final ClientCredential credential;
+        private final Request request;
+        /** {@link #nanoTime()} from which the credential is reloaded in the background. */
+        private final long refreshAt;
+        /** {@link #nanoTime()} from which the credential is reloaded before it is returned. */
+        private final long expireAt;
+
+        Entry(ClientCredential credential, Request request, long refreshAt, long expireAt) {
+            this.credential = credential;
+            this.request = request;
+            this.refreshAt = refreshAt;
+            this.expireAt = expireAt;
+        }
+
+    }
+
+    /**
+     * Builder class for {@link CachingClientCredentialProvider}.
+     *
+     */
+    public static class CachingClientCredentialProviderBuilder {
+
+        private ClientCredentialProvider delegate;
+        private Function<? super RequestView, ?> keyFunction = request -> NULL_KEY;
+        private Duration ttl = DEFAULT_TTL;
+        private Duration refreshAhead = DEFAULT_REFRESH_AHEAD;
+        private Duration retryInterval = DEFAULT_RETRY_INTERVAL;
+        private Executor refreshExecutor = ForkJoinPool.commonPool();
+
+        /**
+         * Creates a new builder. The returned builder is equivalent to the builder
+         * generated by {@link CachingClientCredentialProvider#builder()}.
+         */
+        public CachingClientCredentialProviderBuilder() {
+        }
+
+        /**
+         * Sets the {@link ClientCredentialProvider} that credentials are loaded from. Mandatory to
+         * set.
+         *
+         * @param delegate a {@link ClientCredentialProvider}
+         * @return reference back to this builder instance
+         */
+        public CachingClientCredentialProviderBuilder delegate(ClientCredentialProvider delegate) {
+            this.delegate = Objects.requireNonNull(delegate, "delegate cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets the function deriving the cache key of a request: requests with equal keys share a
+         * credential. Keys are compared with {@link Object#equals(Object)}. By default, all requests
+         * share one credential.
+         *
+         * @param keyFunction a function of a request to its key
+         * @return reference back to this builder instance
+         */
+        public CachingClientCredentialProviderBuilder key(Function<? super RequestView, ?> keyFunction) {
+            this.keyFunction = Objects.requireNonNull(keyFunction, "keyFunction cannot be null");
+            return this;
+        }
+
+        /**
+         * Sets how long a credential is cached for. Defaults to {@link #DEFAULT_TTL}.
+         *
+         * @param ttl a positive {@link Duration}
+         * @return reference back to this builder instance
+         */
+        public CachingClientCredentialProviderBuilder ttl(Duration ttl) {
+            this.ttl = requirePositive(ttl, "ttl");
+            return this;
+        }
+
+        /**
+         * Sets how long before its expiry a credential is reloaded in the background when it is
+         * used. Defaults to {@link #DEFAULT_REFRESH_AHEAD}; zero disables background reloads.
+         *
+         * @param refreshAhead a {@link Duration} no longer than the time to live
+         * @return reference back to this builder instance
+         */
+        public CachingClientCredentialProviderBuilder refreshAhead(Duration refreshAhead) {
+            Objects.requireNonNull(refreshAhead, "refreshAhead cannot be null");
+            if (refreshAhead.isNegative()) {
+                throw new IllegalArgumentException("refreshAhead cannot be negative");
+            }
+            this.refreshAhead = refreshAhead;
+            return this;
+        }
+
+        /**
+         * Sets how long a credential that failed to reload is kept before it is reloaded again.
+         * Defaults to {@link #DEFAULT_RETRY_INTERVAL}.
+         *
+         * @param retryInterval a positive {@link Duration}
+         * @return reference back to this builder instance
+         */
+        public CachingClientCredentialProviderBuilder retryInterval(Duration retryInterval) {
+            this.retryInterval = requirePositive(retryInterval, "retryInterval");
+            return this;
+        }
+
+        /**
+         * Sets the {@link Executor} that credentials are reloaded on in the background. Defaults
+         * to {@link ForkJoinPool#commonPool()}; delegates that block on I/O should be given an
+         * executor of their own.
+         *
+         * @param refreshExecutor an {@link Executor}
+         * @return reference back to this builder instance
+         */
+        public CachingClientCredentialProviderBuilder refreshExecutor(Executor refreshExecutor) {
+            this.refreshExecutor = Objects.requireNonNull(refreshExecutor, "refreshExecutor cannot be null");
+            return this;
+        }
+
+        /**
+         * Returns a newly-configured {@link CachingClientCredentialProvider}.
+         *
+         * @return a {@link CachingClientCredentialProvider}
+         * @throws IllegalArgumentException if {@code refreshAhead} is longer than {@code ttl}
+         */
+        public CachingClientCredentialProvider build() {
+            return new CachingClientCredentialProvider(this);
+        }
+
+        private static Duration requirePositive(Duration duration, String name) {
+            Objects.requireNonNull(duration, name + " cannot be null");
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException(name + " must be positive");
+            }
+            return duration;
+        }
+
+    }
+
+}
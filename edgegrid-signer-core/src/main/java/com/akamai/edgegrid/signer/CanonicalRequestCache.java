@@ -0,0 +1,167 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * Bounded, thread-safe cache of canonical requests, for callers that sign the same request over
+ * and over, e.g. when polling a reporting or activation status endpoint. Pass an instance to
+ * {@link EdgeGridV1Signer#EdgeGridV1Signer(ContentHashCache, CanonicalRequestCache)} to enable it.
+ * </p>
+ * <p>
+ * A canonical request does not depend on time, so it can be cached as UTF-8 bytes. A signature
+ * of a cached request then costs only the authorization data, with a fresh timestamp and nonce,
+ * and the HMAC. Entries are keyed by everything a canonical request is built from: the method,
+ * the path and query, the values of the signed headers, the content hash, and the host and headers
+ * to sign of the credential. A change to any of them gives a different entry. When the cache is
+ * full, the least recently used entry is evicted.
+ * </p>
+ *
+ */
+public class CanonicalRequestCache {
+
+    private final LruCache<TemplateKey, byte[]> canonicalRequests;
+
+    /**
+     * Creates a cache holding at most {@code maxEntries} canonical requests.
+     *
+     * @param maxEntries maximum number of cached canonical requests
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public CanonicalRequestCache(int maxEntries) {
+        this.canonicalRequests = new LruCache<>(maxEntries);
+    }
+
+    /**
+     * Returns a key of the canonical request of {@code request} signed with {@code credential}.
+     */
+    static TemplateKey key(RequestView request, ClientCredential credential, String contentHash) {
+        Set<String> headersToSign = credential.getHeadersToSign();
+        String[] signedHeaderValues = new String[headersToSign.size()];
+        int i = 0;
+        for (String headerName : headersToSign) {
+            signedHeaderValues[i++] = request.getHeader(headerName);
+        }
+        return new TemplateKey(credential.getHost(), headersToSign, request.getMethod(),
+                request.getPathAndQuery(), signedHeaderValues, contentHash);
+    }
+
+    /**
+     * Returns the cached canonical request for {@code key}, or {@code null} if there is none.
+     */
+    byte[] get(TemplateKey key) {
+        return canonicalRequests.get(key);
+    }
+
+    /**
+     * Caches {@code canonicalRequest} for {@code key}.
+     */
+    void put(TemplateKey key, byte[] canonicalRequest) {
+        canonicalRequests.put(key, canonicalRequest);
+    }
+
+    /**
+     * Returns the number of canonical requests currently cached.
+     *
+     * @return number of cached canonical requests
+     */
+    public int size() {
+        return canonicalRequests.size();
+    }
+
+    /**
+     * Removes all canonical requests from the cache. Statistics are not reset.
+     */
+    public void clear() {
+        canonicalRequests.clear();
+    }
+
+    /**
+     * Returns the number of lookups that found a cached canonical request.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return canonicalRequests.hitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to build a canonical request.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return canonicalRequests.missCount();
+    }
+
+    /**
+     * Returns the number of canonical requests evicted to keep the cache within its size.
+     *
+     * @return number of evictions
+     */
+    public long getEvictionCount() {
+        return canonicalRequests.evictionCount();
+    }
+
+    /**
+     * Returns the ratio of cache hits to all lookups, or {@code 0.0} if there were no lookups yet.
+     *
+     * @return cache hit rate between {@code 0.0} and {@code 1.0}
+     */
+    public double getHitRate() {
+        return canonicalRequests.hitRate();
+    }
+
+    @Override
+    public String toString() {
+        return canonicalRequests.toString();
+    }
+
+    /**
+     * Everything a canonical request is built from.
+     */
+    static final class TemplateKey {
+
+        private final String host;
+        private final Set<String> headersToSign;
+        private final String method;
+        private final String pathAndQuery;
+        private final String[] signedHeaderValues;
+        private final String contentHash;
+        private final int hash;
+
+        private TemplateKey(String host, Set<String> headersToSign, String method, String pathAndQuery,
+                            String[] signedHeaderValues, String contentHash) {
+            this.host = host;
+            this.headersToSign = headersToSign;
+            this.method = method;
+            this.pathAndQuery = pathAndQuery;
+            this.signedHeaderValues = signedHeaderValues;
+            this.contentHash = contentHash;
+            this.hash = Objects.hash(host, headersToSign, method, pathAndQuery, Arrays.hashCode(signedHeaderValues), contentHash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TemplateKey)) return false;
+            TemplateKey that = (TemplateKey) o;
+            return hash == that.hash
+                    && pathAndQuery.equals(that.pathAndQuery)
+                    && method.equals(that.method)
+                    && host.equals(that.host)
+                    && contentHash.equals(that.contentHash)
+                    && Arrays.equals(signedHeaderValues, that.signedHeaderValues)
+                    && headersToSign.equals(that.headersToSign);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
@@ -262,7 +262,7 @@ public class ClientCredential implements Comparable<ClientCredential> {
             if (Objects.isNull(headerName) || "".equals(headerName)) {
                 throw new IllegalArgumentException("headerName cannot be empty");
             }
-            this.headersToSign.add(headerName.toLowerCase());
+            this.headersToSign.add(HeaderTable.normalizeName(headerName));
             return this;
         }
 
@@ -28,4 +28,31 @@ public interface ClientCredentialProvider {
     public ClientCredential getClientCredential(Request request)
             throws NoMatchingCredentialException;
 
+    /**
+     * Gets a {@link ClientCredential} that is appropriate for signing the request seen through
+     * {@code request}. {@link AbstractEdgeGridRequestSigner} calls this method with the
+     * {@link RequestView} returned by {@link AbstractEdgeGridRequestSigner#view(Object)}.
+     * <p>
+     * The default implementation calls {@link #getClientCredential(Request)} with {@code request}
+     * itself if it is a {@link Request}, with the {@link Request} the binding maps the request to if
+     * {@code request} comes from {@link AbstractEdgeGridRequestSigner}, or else with a
+     * {@link Request} holding only the method, path and query of {@code request}. Implementations
+     * can override this method to select credentials without mapping the request.
+     * </p>
+     *
+     * @param request a view of a request
+     * @return a {@link ClientCredential} (can be {@code null})
+     * @throws NoMatchingCredentialException if no {@link ClientCredential} can be selected
+     */
+    default ClientCredential getClientCredential(RequestView request)
+            throws NoMatchingCredentialException {
+        if (request instanceof Request) {
+            return getClientCredential((Request) request);
+        }
+        if (request instanceof MappableRequestView) {
+            return getClientCredential(((MappableRequestView) request).toRequest());
+        }
+        return getClientCredential(Request.ofTarget(request));
+    }
+
 }
@@ -0,0 +1,584 @@
+package com.akamai.edgegrid.signer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.akamai.edgegrid.signer.exceptions.RateLimitExceededException;
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+/**
+ * <p>
+ * Client-side rate limiter keeping requests of each client credential within the rate limit the
+ * OPEN API servers enforce for it. Threads sending as fast as they can otherwise run into
+ * {@code 429 Too Many Requests} responses, back off for random times and end up well below the
+ * allowed rate. Instead, the limiter spaces requests out evenly before they are signed: a request
+ * whose credential has no budget left waits for it, or is shed with a
+ * {@link RateLimitExceededException} if it would have to wait longer than
+ * {@link ClientRateLimiterBuilder#maxWait(Duration)}.
+ * </p>
+ * <p>
+ * Budgets are kept per client token and learned from responses, see
+ * {@link #update(String, int, Function)}: the {@code Akamai-RateLimit-Limit} header (or
+ * {@code X-RateLimit-Limit}) gives the number of requests allowed per
+ * {@linkplain ClientRateLimiterBuilder#window(Duration) window}, which may be used in a burst and
+ * refills evenly over the window; {@code Akamai-RateLimit-Remaining} (or
+ * {@code X-RateLimit-Remaining}) lowers the budget when other clients share the credential; and a
+ * {@code 429} response holds all requests of the credential back until the time given by
+ * {@code Akamai-RateLimit-Next} (or {@code X-RateLimit-Next}) or {@code Retry-After}. Until a limit
+ * is known, requests are only held back after a {@code 429}.
+ * </p>
+ * <p>
+ * One instance can be shared by all threads and all signers of an application. Pass it to a
+ * request signer of an HTTP client binding, and install the response hook of the binding, which
+ * feeds it. Processes of one host sharing a credential can share its budget as well, see
+ * {@link MappedRateLimitBudgetStore}. Wait-time metrics are available through the getters of this
+ * class.
+ * </p>
+ *
+ */
+public class ClientRateLimiter {
+
+    /** Time a credential is held back after a {@code 429} response that does not say how long. */
+    static final long DEFAULT_BACKOFF_IN_MILLIS = 1000L;
+
+    private static final String[] LIMIT_HEADERS = {"Akamai-RateLimit-Limit", "X-RateLimit-Limit"};
+    private static final String[] REMAINING_HEADERS = {"Akamai-RateLimit-Remaining", "X-RateLimit-Remaining"};
+    private static final String[] NEXT_HEADERS = {"Akamai-RateLimit-Next", "X-RateLimit-Next"};
+    private static final String RETRY_AFTER_HEADER = "Retry-After";
+    private static final String DATE_HEADER = "Date";
+
+    private static final String CLIENT_TOKEN_PARAMETER = "client_token=";
+
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    /** Completed stage returned by {@link #acquireAsync(ClientCredential)} when there is no wait. */
+    static final CompletionStage<Void> ACQUIRED = CompletableFuture.completedStage(null);
+
+    private static final Logger log = LoggerFactory.getLogger(ClientRateLimiter.class);
+
+    private final long windowNanos;
+
+    private final int initialLimit;
+
+    private final long maxWaitNanos;
+
+    private final MappedRateLimitBudgetStore budgetStore;
+
+    private final ConcurrentHashMap<String, RateLimitBudget> budgets = new ConcurrentHashMap<>();
+
+    private final LongAdder acquiredCount = new LongAdder();
+
+    private final LongAdder delayedCount = new LongAdder();
+
+    private final LongAdder shedCount = new LongAdder();
+
+    private final LongAdder throttledCount = new LongAdder();
+
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private final LongAccumulator maxWaitedNanos = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Creates a rate limiter with default configuration.
+     */
+    public ClientRateLimiter() {
+        this(builder());
+    }
+
+    /**
+     * Creates a rate limiter configured by {@code b}.
+     *
+     * @param b a {@link ClientRateLimiterBuilder}
+     */
+    protected ClientRateLimiter(ClientRateLimiterBuilder b) {
+        this.windowNanos = b.window.toNanos();
+        this.initialLimit = b.initialLimit;
+        this.maxWaitNanos = b.maxWait.toNanos();
+        this.budgetStore = b.budgetStore;
+    }
+
+    /**
+     * Returns a new builder. The returned builder is equivalent to the builder
+     * generated by {@link ClientRateLimiterBuilder}.
+     *
+     * @return a fresh {@link ClientRateLimiterBuilder}
+     */
+    public static ClientRateLimiterBuilder builder() {
+        return new ClientRateLimiterBuilder();
+    }
+
+    /**
+     * Takes one request from the budget of {@code credential}, waiting on the calling thread until
+     * the request may be sent.
+     *
+     * @param credential the {@link ClientCredential} the request is about to be signed with
+     * @throws RateLimitExceededException if the request would have to wait longer than the maximum
+     *         wait; it is not counted against the budget then
+     * @throws RequestSigningException if the calling thread was interrupted while waiting
+     * @throws NullPointerException if {@code credential} is {@code null}
+     */
+    public void acquire(ClientCredential credential) throws RequestSigningException {
+        long waitNanos = reserve(credential);
+        if (waitNanos == 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestSigningException("Interrupted while waiting for rate limit budget", e);
+        }
+    }
+
+    /**
+     * Takes one request from the budget of {@code credential} like
+     * {@link #acquire(ClientCredential)}, without blocking the calling thread.
+     *
+     * @param credential the {@link ClientCredential} the request is about to be signed with
+     * @return a {@link CompletionStage} that completes when the request may be sent, or is
+     *         already completed exceptionally with {@link RateLimitExceededException} if the
+     *         request was shed
+     * @throws NullPointerException if {@code credential} is {@code null}
+     */
+    public CompletionStage<Void> acquireAsync(ClientCredential credential) {
+        long waitNanos;
+        try {
+            waitNanos = reserve(credential);
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (waitNanos == 0) {
+            return ACQUIRED;
+        }
+        return new CompletableFuture<Void>().completeOnTimeout(null, waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Takes one request from the budget of {@code credential} only if it may be sent right away,
+     * for callers that must not wait, such as the I/O threads of a non-blocking HTTP client.
+     *
+     * @param credential the {@link ClientCredential} the request is about to be signed with
+     * @throws RateLimitExceededException if the request would have to wait at all; it is not
+     *         counted against the budget then
+     * @throws NullPointerException if {@code credential} is {@code null}
+     */
+    public void tryAcquire(ClientCredential credential) throws RateLimitExceededException {
+        reserve(credential, 0L);
+    }
+
+    private long reserve(ClientCredential credential) throws RateLimitExceededException {
+        return reserve(credential, maxWaitNanos);
+    }
+
+    /**
+     * Reserves the next slot in the budget of {@code credential} and records the wait.
+     *
+     * @return time to wait for the slot in nanoseconds
+     */
+    private long reserve(ClientCredential credential, long maxWaitNanos) throws RateLimitExceededException {
+        Objects.requireNonNull(credential, "credential cannot be null");
+        long waitNanos = getBudget(credential.getClientToken()).reserve(windowNanos, initialLimit, maxWaitNanos);
+        if (waitNanos < 0) {
+            shedCount.increment();
+            throw new RateLimitExceededException(TimeUnit.NANOSECONDS.toMillis(-waitNanos));
+        }
+        acquiredCount.increment();
+        if (waitNanos > 0) {
+            delayedCount.increment();
+            totalWaitNanos.add(waitNanos);
+            maxWaitedNanos.accumulate(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Learns the budget of a client credential from a response to one of its requests. Responses
+     * without rate limit headers, other than {@code 429}, leave the budget as it is.
+     *
+     * @param clientToken client token of the credential the request was signed with, see
+     *        {@link #getClientToken(String)}; if {@code null}, the response is ignored
+     * @param statusCode status code of the response
+     * @param responseHeaders function returning the first value of a response header, looked up by
+     *        name in any case, or {@code null} if there is none
+     */
+    public void update(String clientToken, int statusCode, Function<String, String> responseHeaders) {
+        Objects.requireNonNull(responseHeaders, "responseHeaders cannot be null");
+        if (clientToken == null) {
+            return;
+        }
+        long limit = parseCount(firstHeader(responseHeaders, LIMIT_HEADERS));
+        long remaining = parseCount(firstHeader(responseHeaders, REMAINING_HEADERS));
+        boolean throttled = statusCode == TOO_MANY_REQUESTS;
+        if (limit <= 0 && remaining < 0 && !throttled) {
+            return;
+        }
+        long backoffMillis = -1L;
+        if (throttled) {
+            throttledCount.increment();
+            backoffMillis = getBackoffMillis(responseHeaders);
+            log.debug("Rate limit of client token {} exceeded, retry in {} ms", clientToken, backoffMillis);
+        }
+        getBudget(clientToken).update(windowNanos, initialLimit, (int) Math.min(limit, Integer.MAX_VALUE), remaining,
+                throttled, backoffMillis < 0 ? -1L : TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+    }
+
+    /**
+     * Returns the client token from the value of an EdgeGrid {@code Authorization} header, for
+     * response hooks that find the request a response belongs to, but not its credential.
+     *
+     * @param authorization value of the {@code Authorization} header of a request, may be
+     *        {@code null}
+     * @return the client token, or {@code null} if {@code authorization} has none
+     */
+    public static String getClientToken(String authorization) {
+        if (authorization == null) {
+            return null;
+        }
+        int start = authorization.indexOf(CLIENT_TOKEN_PARAMETER);
+        if (start < 0) {
+            return null;
+        }
+        start += CLIENT_TOKEN_PARAMETER.length();
+        int end = authorization.indexOf(';', start);
+        return authorization.substring(start, end < 0 ? authorization.length() : end);
+    }
+
+    /**
+     * Returns the number of requests per window learned for a client credential.
+     *
+     * @param clientToken a client token
+     * @return the number of requests per window, or {@code 0} if no limit is known
+     */
+    public int getLimit(String clientToken) {
+        RateLimitBudget budget = budgets.get(clientToken);
+        return budget == null ? initialLimit : budget.getLimit(initialLimit);
+    }
+
+    /**
+     * Returns the number of requests let through, with or without waiting.
+     *
+     * @return number of acquired requests
+     */
+    public long getAcquiredCount() {
+        return acquiredCount.sum();
+    }
+
+    /**
+     * Returns the number of requests that had to wait for budget before they were let through.
+     *
+     * @return number of delayed requests
+     */
+    public long getDelayedCount() {
+        return delayedCount.sum();
+    }
+
+    /**
+     * Returns the number of requests shed because they would have had to wait too long.
+     *
+     * @return number of shed requests
+     */
+    public long getShedCount() {
+        return shedCount.sum();
+    }
+
+    /**
+     * Returns the number of {@code 429 Too Many Requests} responses seen.
+     *
+     * @return number of throttled responses
+     */
+    public long getThrottledCount() {
+        return throttledCount.sum();
+    }
+
+    /**
+     * Returns the total time requests were made to wait for budget.
+     *
+     * @return total wait time in milliseconds
+     */
+    public long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+    }
+
+    /**
+     * Returns the longest time a request was made to wait for budget.
+     *
+     * @return maximum wait time in milliseconds
+     */
+    public long getMaxWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitedNanos.get());
+    }
+
+    /**
+     * Returns the average time requests let through were made to wait for budget, or {@code 0.0}
+     * if no request was let through yet.
+     *
+     * @return average wait time in milliseconds
+     */
+    public double getAverageWaitMillis() {
+        long acquired = getAcquiredCount();
+        return acquired == 0 ? 0.0 : totalWaitNanos.sum() / 1e6 / acquired;
+    }
+
+    /**
+     * Returns the current value of a monotonic clock.
+     *
+     * @return time in nanoseconds, see {@link System#nanoTime()}
+     */
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("[ ")
+                .append("clients: ").append(budgets.size()).append("; ")
+                .append("acquiredCount: ").append(getAcquiredCount()).append("; ")
+                .append("delayedCount: ").append(getDelayedCount()).append("; ")
+                .append("shedCount: ").append(getShedCount()).append("; ")
+                .append("throttledCount: ").append(getThrottledCount()).append("; ")
+                .append("totalWaitMillis: ").append(getTotalWaitMillis())
+                .append(" ]")
+                .toString();
+    }
+
+    private RateLimitBudget getBudget(String clientToken) {
+        Objects.requireNonNull(clientToken, "clientToken cannot be null");
+        RateLimitBudget budget = budgets.get(clientToken);
+        if (budget == null) {
+            budget = budgets.computeIfAbsent(clientToken, this::newBudget);
+        }
+        return budget;
+    }
+
+    private RateLimitBudget newBudget(String clientToken) {
+        RateLimitBudget budget = budgetStore == null ? null : budgetStore.getBudget(clientToken);
+        if (budget == null) {
+            if (budgetStore != null) {
+                log.warn("Rate limit budget store {} is full, keeping budget of client token {} in this process",
+                        budgetStore, clientToken);
+            }
+            budget = new LocalBudget();
+        }
+        return budget;
+    }
+
+    private static String firstHeader(Function<String, String> responseHeaders, String[] names) {
+        for (String name : names) {
+            String value = responseHeaders.apply(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static long parseCount(String value) {
+        if (value == null) {
+            return -1L;
+        }
+        try {
+            return Math.max(-1L, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring unparseable rate limit header '{}'", value);
+            return -1L;
+        }
+    }
+
+    /**
+     * Returns how long a {@code 429} response asks to wait, or {@code -1} if it does not say.
+     * Absolute times are taken relative to the {@code Date} of the response, if it has one, so
+     * that the local clock does not matter.
+     */
+    private static long getBackoffMillis(Function<String, String> responseHeaders) {
+        String next = firstHeader(responseHeaders, NEXT_HEADERS);
+        if (next != null) {
+            long nextMillis = parseTime(next);
+            if (nextMillis != Long.MIN_VALUE) {
+                return Math.max(0L, nextMillis - getResponseTimeMillis(responseHeaders));
+            }
+        }
+        String retryAfter = responseHeaders.apply(RETRY_AFTER_HEADER);
+        if (retryAfter != null) {
+            long seconds = parseCount(retryAfter);
+            if (seconds >= 0) {
+                return TimeUnit.SECONDS.toMillis(seconds);
+            }
+            long retryMillis = parseTime(retryAfter);
+            if (retryMillis != Long.MIN_VALUE) {
+                return Math.max(0L, retryMillis - getResponseTimeMillis(responseHeaders));
+            }
+        }
+        return -1L;
+    }
+
+    private static long getResponseTimeMillis(Function<String, String> responseHeaders) {
+        String date = responseHeaders.apply(DATE_HEADER);
+        long dateMillis = date == null ? Long.MIN_VALUE : parseTime(date);
+        return dateMillis == Long.MIN_VALUE ? System.currentTimeMillis() : dateMillis;
+    }
+
+    /**
+     * Parses an ISO-8601 instant or an RFC 1123 date, returning {@link Long#MIN_VALUE} if
+     * {@code value} is neither.
+     */
+    private static long parseTime(String value) {
+        String s = value.trim();
+        try {
+            return Instant.parse(s).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // not ISO-8601, try RFC 1123
+        }
+        try {
+            return ZonedDateTime.parse(s, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring unparseable rate limit time '{}'", value);
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * {@link RateLimitBudget} kept by this process only, timed by {@link #nanoTime()}.
+     */
+    private final class LocalBudget extends RateLimitBudget {
+
+        private final AtomicLongArray cells = new AtomicLongArray(CELLS);
+
+        private LocalBudget() {
+            long now = now();
+            cells.set(THEORETICAL_ARRIVAL, now);
+            cells.set(BLOCKED_UNTIL, now);
+        }
+
+        @Override
+        long now() {
+            return nanoTime();
+        }
+
+        @Override
+        long get(int cell) {
+            return cells.get(cell);
+        }
+
+        @Override
+        void set(int cell, long value) {
+            cells.set(cell, value);
+        }
+
+        @Override
+        boolean compareAndSet(int cell, long expected, long value) {
+            return cells.compareAndSet(cell, expected, value);
+        }
+
+    }
+
+    /**
+     * Defines {@link ClientRateLimiterBuilder} which is used to build instance of
+     * {@link ClientRateLimiter}.
+     *
+     */
+    public static class ClientRateLimiterBuilder {
+        private Duration window = Duration.ofMinutes(1);
+        private int initialLimit;
+        private Duration maxWait = Duration.ofSeconds(30);
+        private MappedRateLimitBudgetStore budgetStore;
+
+        /**
+         * Creates a new builder. The returned builder is equivalent to the builder
+         * generated by {@link ClientRateLimiter#builder}.
+         */
+        public ClientRateLimiterBuilder() {
+        }
+
+        /**
+         * Sets the period the {@code Akamai-RateLimit-Limit} header counts requests in. Defaults
+         * to one minute.
+         *
+         * @param window a positive {@link Duration}
+         * @return reference back to this builder instance
+         * @throws IllegalArgumentException if {@code window} is not positive
+         */
+        public ClientRateLimiterBuilder window(Duration window) {
+            Objects.requireNonNull(window, "window cannot be null");
+            if (window.isZero() || window.isNegative()) {
+                throw new IllegalArgumentException("window must be positive");
+            }
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Sets the number of requests per window assumed for credentials until responses tell
+         * otherwise. Defaults to {@code 0}, which lets requests through until the first
+         * {@code 429} or rate limit header.
+         *
+         * @param initialLimit number of requests per window, or {@code 0} if unknown
+         * @return reference back to this builder instance
+         * @throws IllegalArgumentException if {@code initialLimit} is negative
+         */
+        public ClientRateLimiterBuilder initialLimit(int initialLimit) {
+            if (initialLimit < 0) {
+                throw new IllegalArgumentException("initialLimit cannot be negative");
+            }
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        /**
+         * Sets the longest time a request waits for budget before it is shed with a
+         * {@link RateLimitExceededException}. Defaults to 30 seconds. {@link Duration#ZERO} sheds
+         * every request that cannot be sent right away.
+         *
+         * @param maxWait a {@link Duration} that is not negative
+         * @return reference back to this builder instance
+         * @throws IllegalArgumentException if {@code maxWait} is negative
+         */
+        public ClientRateLimiterBuilder maxWait(Duration maxWait) {
+            Objects.requireNonNull(maxWait, "maxWait cannot be null");
+            if (maxWait.isNegative()) {
+                throw new IllegalArgumentException("maxWait cannot be negative");
+            }
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Sets a store sharing budgets with the rate limiters of other processes, see
+         * {@link MappedRateLimitBudgetStore}. The {@link ClientRateLimiter#nanoTime()} clock of
+         * the rate limiter is not used for budgets kept in the store.
+         *
+         * @param budgetStore a {@link MappedRateLimitBudgetStore}, or {@code null} to keep budgets
+         *        in this process
+         * @return reference back to this builder instance
+         */
+        public ClientRateLimiterBuilder budgetStore(MappedRateLimitBudgetStore budgetStore) {
+            this.budgetStore = budgetStore;
+            return this;
+        }
+
+        /**
+         * Returns a newly-created rate limiter.
+         *
+         * @return a new {@link ClientRateLimiter}
+         */
+        public ClientRateLimiter build() {
+            return new ClientRateLimiter(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link CompletableFuture} completed with a {@link ClientCredential} when it is created, and
+ * which cannot be completed otherwise afterwards, so that one instance can be handed out to every
+ * caller of an {@link AsyncClientCredentialProvider}.
+ *
+ */
+final class CompletedCredentialFuture extends CompletableFuture<ClientCredential> {
+
+    CompletedCredentialFuture(ClientCredential credential) {
+        super.complete(credential);
+    }
+
+    @Override
+    public void obtrudeValue(ClientCredential value) {
+        throw new UnsupportedOperationException("Shared credential future cannot be obtruded");
+    }
+
+    @Override
+    public void obtrudeException(Throwable ex) {
+        throw new UnsupportedOperationException("Shared credential future cannot be obtruded");
+    }
+
+}
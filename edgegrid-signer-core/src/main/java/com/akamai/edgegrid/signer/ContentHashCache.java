@@ -0,0 +1,185 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Bounded, thread-safe cache of request content hashes, for callers that sign the same POST body
+ * many times (e.g. identical purge requests sent on behalf of many accounts, or retried jobs).
+ * Pass an instance to {@link EdgeGridV1Signer#EdgeGridV1Signer(ContentHashCache)} to enable it.
+ * </p>
+ * <p>
+ * Entries are keyed by the content of the part of the body that is actually signed, i.e. by its
+ * first {@link ClientCredential#getMaxBodySize()} bytes, so the cache is correct regardless of
+ * which {@code byte[]} instance a body comes in, or what follows the signed part. Lookups start
+ * from the hash code of the signed part, which the request body computes once per max-body size
+ * and caches, so a hit costs one comparison of the signed bytes and no scan of the rest. Only bodies
+ * set with {@link Request.RequestBuilder#body(byte[])} are cached: those are immutable once the
+ * request is built, whereas buffers and files may change between two signatures.
+ * </p>
+ * <p>
+ * The cache keeps the signed bytes of every entry. It is bounded both by a number of entries and by
+ * the total size of those bytes; when either is exceeded, the least recently used entries are
+ * evicted. Bodies whose signed part alone exceeds the byte bound are not cached.
+ * </p>
+ *
+ */
+public class ContentHashCache {
+
+    /** Default bound on the total size of the cached body bytes: 16 MiB. */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private final LruCache<ContentKey, String> hashes;
+
+    private final long maxBytes;
+
+    /**
+     * Creates a cache holding at most {@code maxEntries} content hashes, and at most
+     * {@link #DEFAULT_MAX_BYTES} bytes of bodies.
+     *
+     * @param maxEntries maximum number of cached content hashes
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public ContentHashCache(int maxEntries) {
+        this(maxEntries, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Creates a cache holding at most {@code maxEntries} content hashes, and at most
+     * {@code maxBytes} bytes of bodies.
+     *
+     * @param maxEntries maximum number of cached content hashes
+     * @param maxBytes maximum total size of the cached body bytes
+     * @throws IllegalArgumentException if {@code maxEntries} or {@code maxBytes} is not positive
+     */
+    public ContentHashCache(int maxEntries, long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.hashes = new LruCache<>(maxEntries, maxBytes, key -> key.length);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the cached hash of the first {@code maxBodySize} bytes of {@code body}, or
+     * {@code null} if there is none.
+     */
+    String get(RequestBody.ArrayBody body, int maxBodySize) {
+        byte[] bytes = body.bytes();
+        int length = Math.min(bytes.length, maxBodySize);
+        return hashes.get(new ContentKey(body.prefixHashCode(length), bytes, length));
+    }
+
+    /**
+     * Caches {@code hash} as the hash of the first {@code maxBodySize} bytes of {@code body}. Only
+     * the hashed prefix of {@code body} is retained.
+     */
+    void put(RequestBody.ArrayBody body, int maxBodySize, String hash) {
+        byte[] bytes = body.bytes();
+        int length = Math.min(bytes.length, maxBodySize);
+        if (length > maxBytes) {
+            return;
+        }
+        byte[] content = length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+        hashes.put(new ContentKey(body.prefixHashCode(length), content, length), hash);
+    }
+
+    /**
+     * Returns the number of content hashes currently cached.
+     *
+     * @return number of cached content hashes
+     */
+    public int size() {
+        return hashes.size();
+    }
+
+    /**
+     * Returns the total size of the body bytes currently cached.
+     *
+     * @return number of cached bytes
+     */
+    public long getByteCount() {
+        return hashes.weight();
+    }
+
+    /**
+     * Removes all content hashes from the cache. Statistics are not reset.
+     */
+    public void clear() {
+        hashes.clear();
+    }
+
+    /**
+     * Returns the number of lookups that found a cached content hash.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return hashes.hitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to compute a content hash.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return hashes.missCount();
+    }
+
+    /**
+     * Returns the number of content hashes evicted to keep the cache within its size.
+     *
+     * @return number of evictions
+     */
+    public long getEvictionCount() {
+        return hashes.evictionCount();
+    }
+
+    /**
+     * Returns the ratio of cache hits to all lookups, or {@code 0.0} if there were no lookups yet.
+     *
+     * @return cache hit rate between {@code 0.0} and {@code 1.0}
+     */
+    public double getHitRate() {
+        return hashes.hitRate();
+    }
+
+    @Override
+    public String toString() {
+        return hashes.toString();
+    }
+
+    /**
+     * Content of the first {@code length} bytes of a body, with their hash code. Bodies sharing a
+     * signed prefix but differing after it share an entry.
+     */
+    private static final class ContentKey {
+
+        private final int hash;
+        private final byte[] bytes;
+        private final int length;
+
+        private ContentKey(int hash, byte[] bytes, int length) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ContentKey)) return false;
+            ContentKey that = (ContentKey) o;
+            return hash == that.hash && length == that.length
+                    && Arrays.equals(bytes, 0, length, that.bytes, 0, that.length);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
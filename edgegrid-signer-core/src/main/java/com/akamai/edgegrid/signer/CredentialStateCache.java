@@ -0,0 +1,163 @@
+package com.akamai.edgegrid.signer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Bounded, thread-safe cache of the signing state derived from client credentials, for signers
+ * used on behalf of many accounts whose {@link ClientCredentialProvider} builds a new
+ * {@link ClientCredential} for each request. Pass an instance to
+ * {@link EdgeGridV1Signer.EdgeGridV1SignerBuilder#credentialStateCache(CredentialStateCache)} to
+ * enable it.
+ * </p>
+ * <p>
+ * Without it, every signature derives the signing key of the current second from the client
+ * secret, builds the authorization data from the tokens and sets up a new HMAC. With it, this is
+ * done once per second and credential: signatures then only append the nonce and clone a
+ * ready HMAC. Entries are keyed by the content of the client secret, client token and access
+ * token, so the cache is correct regardless of which {@link ClientCredential} instance they come
+ * in, and a rotated secret gives a new entry.
+ * </p>
+ * <p>
+ * When the cache is full, a rarely used entry is evicted, so that a steady set of busy accounts
+ * stays cached while many others come and go. Cached entries hold client secrets in memory for as
+ * long as they stay in the cache.
+ * </p>
+ *
+ */
+public class CredentialStateCache {
+
+    private final SampledLfuCache<CredentialKey, State> states;
+
+    /**
+     * Creates a cache holding the state of at most {@code maxEntries} credentials.
+     *
+     * @param maxEntries maximum number of cached credentials
+     * @throws IllegalArgumentException if {@code maxEntries} is not positive
+     */
+    public CredentialStateCache(int maxEntries) {
+        this.states = new SampledLfuCache<>(maxEntries);
+    }
+
+    /**
+     * Returns the state of {@code credential}, creating it on a miss.
+     */
+    State get(ClientCredential credential) {
+        CredentialKey key = new CredentialKey(credential);
+        State state = states.get(key);
+        if (state == null) {
+            state = states.putIfAbsent(key, new State(credential));
+        }
+        return state;
+    }
+
+    /**
+     * Returns the number of credentials currently cached.
+     *
+     * @return number of cached credentials
+     */
+    public int size() {
+        return states.size();
+    }
+
+    /**
+     * Removes all credentials from the cache. Statistics are not reset.
+     */
+    public void clear() {
+        states.clear();
+    }
+
+    /**
+     * Returns the number of lookups that found the state of a credential.
+     *
+     * @return number of cache hits
+     */
+    public long getHitCount() {
+        return states.hitCount();
+    }
+
+    /**
+     * Returns the number of lookups that had to create the state of a credential.
+     *
+     * @return number of cache misses
+     */
+    public long getMissCount() {
+        return states.missCount();
+    }
+
+    /**
+     * Returns the number of credentials evicted to keep the cache within its size.
+     *
+     * @return number of evictions
+     */
+    public long getEvictionCount() {
+        return states.evictionCount();
+    }
+
+    /**
+     * Returns the ratio of cache hits to all lookups, or {@code 0.0} if there were no lookups yet.
+     *
+     * @return cache hit rate between {@code 0.0} and {@code 1.0}
+     */
+    public double getHitRate() {
+        return states.hitRate();
+    }
+
+    @Override
+    public String toString() {
+        return states.toString();
+    }
+
+    /**
+     * Signing state of a credential: its secret as bytes, and the signing key of the second it was
+     * last used in, which {@link EdgeGridV1Signer} replaces once it is out of date.
+     */
+    static final class State {
+
+        final byte[] clientSecret;
+
+        volatile EdgeGridV1Signer.SigningKey signingKey;
+
+        private State(ClientCredential credential) {
+            this.clientSecret = credential.getClientSecret().getBytes(StandardCharsets.UTF_8);
+        }
+
+    }
+
+    /**
+     * Content of a credential that the signing state depends on.
+     */
+    private static final class CredentialKey {
+
+        private final String clientSecret;
+        private final String clientToken;
+        private final String accessToken;
+        private final int hash;
+
+        private CredentialKey(ClientCredential credential) {
+            this.clientSecret = credential.getClientSecret();
+            this.clientToken = credential.getClientToken();
+            this.accessToken = credential.getAccessToken();
+            this.hash = Objects.hash(clientSecret, clientToken, accessToken);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof CredentialKey)) return false;
+            CredentialKey that = (CredentialKey) o;
+            return hash == that.hash
+                    && clientSecret.equals(that.clientSecret)
+                    && clientToken.equals(that.clientToken)
+                    && accessToken.equals(that.accessToken);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+    }
+
+}
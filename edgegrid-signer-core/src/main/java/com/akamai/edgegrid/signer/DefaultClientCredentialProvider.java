@@ -24,4 +24,9 @@ public class DefaultClientCredentialProvider implements ClientCredentialProvider
         return clientCredential;
     }
 
+    @Override
+    public ClientCredential getClientCredential(RequestView request) {
+        return clientCredential;
+    }
+
 }
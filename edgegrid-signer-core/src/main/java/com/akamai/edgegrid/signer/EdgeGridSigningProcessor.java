@@ -0,0 +1,328 @@
+package com.akamai.edgegrid.signer;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+import java.net.URI;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * A {@link Flow.Processor} that signs a stream of {@link Request}s and emits a
+ * {@link SignedRequest} for each of them, in the order the requests were received.
+ * </p>
+ * <p>
+ * Signing (including hashing of request bodies) runs on a configurable {@link Executor}, so the
+ * upstream publisher is never blocked by it. The processor requests at most {@code maxInFlight}
+ * requests from upstream that have not yet been delivered downstream, which bounds both the
+ * number of concurrent signing tasks and the number of buffered results. Results are only
+ * delivered when the subscriber has signalled demand for them.
+ * </p>
+ * <p>
+ * A processor supports a single subscriber. A signing failure cancels the upstream subscription
+ * and is signalled to the subscriber with {@code onError}.
+ * </p>
+ *
+ */
+public class EdgeGridSigningProcessor implements Flow.Processor<Request, SignedRequest> {
+
+    /** This is the default {@code maxInFlight} used when not explicitly specified. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 256;
+
+    private final ClientCredentialProvider clientCredentialProvider;
+
+    private final EdgeGridV1Signer edgeGridSigner;
+
+    private final Executor executor;
+
+    private final int maxInFlight;
+
+    /** Signing results, in the order their requests were received from upstream. */
+    private final Queue<CompletableFuture<SignedRequest>> pending = new ConcurrentLinkedQueue<>();
+
+    /** Outstanding downstream demand. */
+    private final AtomicLong requested = new AtomicLong();
+
+    /** Serializes {@link #drain()} so that downstream signals are never concurrent. */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscription upstream;
+
+    private volatile Flow.Subscriber<? super SignedRequest> downstream;
+
+    private volatile boolean done;
+
+    private volatile Throwable error;
+
+    private volatile boolean cancelled;
+
+    // Accessed only from within drain().
+    private long upstreamRequested;
+    private long emitted;
+    private boolean terminated;
+
+    /**
+     * Creates a signing processor that signs every request with the same {@link ClientCredential},
+     * running on {@link ForkJoinPool#commonPool()} with {@link #DEFAULT_MAX_IN_FLIGHT} requests in
+     * flight.
+     *
+     * @param clientCredential a {@link ClientCredential} to be used for all requests
+     */
+    public EdgeGridSigningProcessor(ClientCredential clientCredential) {
+        this(new DefaultClientCredentialProvider(clientCredential));
+    }
+
+    /**
+     * Creates a signing processor selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(Request)} for each request, running on
+     * {@link ForkJoinPool#commonPool()} with {@link #DEFAULT_MAX_IN_FLIGHT} requests in flight.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider} to be used for selecting
+     *                                 credentials for each request
+     */
+    public EdgeGridSigningProcessor(ClientCredentialProvider clientCredentialProvider) {
+        this(clientCredentialProvider, ForkJoinPool.commonPool(), DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Creates a signing processor selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(Request)} for each request.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider} to be used for selecting
+     *                                 credentials for each request
+     * @param executor an {@link Executor} to sign requests on
+     * @param maxInFlight maximum number of requests received from upstream but not yet delivered
+     *                    downstream
+     * @throws IllegalArgumentException if {@code maxInFlight} is not positive
+     */
+    public EdgeGridSigningProcessor(ClientCredentialProvider clientCredentialProvider,
+                                    Executor executor, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.clientCredentialProvider = Objects.requireNonNull(clientCredentialProvider,
+                "clientCredentialProvider cannot be null");
+        this.executor = Objects.requireNonNull(executor, "executor cannot be null");
+        this.maxInFlight = maxInFlight;
+        this.edgeGridSigner = createEdgeGridSigner();
+    }
+
+    /**
+     * Returns new instance of EdgeGridV1Signer.
+     *
+     * @return a {@link EdgeGridV1Signer} new instance
+     */
+    protected EdgeGridV1Signer createEdgeGridSigner() {
+        return new EdgeGridV1Signer();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super SignedRequest> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber cannot be null");
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("EdgeGridSigningProcessor allows only a single subscriber"));
+                return;
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new DownstreamSubscription());
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription, "subscription cannot be null");
+        if (upstream != null || cancelled) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        drain();
+    }
+
+    @Override
+    public void onNext(Request request) {
+        Objects.requireNonNull(request, "request cannot be null");
+        if (done || cancelled) {
+            return;
+        }
+        CompletableFuture<SignedRequest> result;
+        try {
+            result = CompletableFuture.supplyAsync(() -> sign(request), executor);
+        } catch (RuntimeException e) {
+            // e.g. RejectedExecutionException from a bounded executor
+            result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+        }
+        pending.offer(result);
+        result.whenComplete((signedRequest, throwable) -> drain());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Objects.requireNonNull(throwable, "throwable cannot be null");
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        done = true;
+        drain();
+    }
+
+    private SignedRequest sign(Request request) {
+        try {
+            ClientCredential credential = clientCredentialProvider.getClientCredential(request);
+            if (credential == null) {
+                throw new NoMatchingCredentialException();
+            }
+            String authorization = edgeGridSigner.getSignature(request, credential);
+            URI uri = URI.create("https://" + credential.getHost() + EdgeGridV1Signer.getRelativeUrl(request));
+            return new SignedRequest(request, uri, authorization);
+        } catch (RequestSigningException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            Flow.Subscriber<? super SignedRequest> subscriber = downstream;
+            if (subscriber != null && !terminated) {
+                if (cancelled) {
+                    terminate();
+                    pending.clear();
+                } else {
+                    drainTo(subscriber);
+                }
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void drainTo(Flow.Subscriber<? super SignedRequest> subscriber) {
+        long demand = requested.get();
+        long delivered = 0;
+        while (delivered != demand && !cancelled) {
+            CompletableFuture<SignedRequest> head = pending.peek();
+            if (head == null || !head.isDone()) {
+                break;
+            }
+            if (head.isCompletedExceptionally()) {
+                break;
+            }
+            pending.poll();
+            subscriber.onNext(head.join());
+            delivered++;
+        }
+        if (delivered != 0) {
+            emitted += delivered;
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-delivered);
+            }
+        }
+        if (cancelled) {
+            return;
+        }
+
+        CompletableFuture<SignedRequest> head = pending.peek();
+        if (head != null && head.isCompletedExceptionally()) {
+            failWith(subscriber, causeOf(head));
+            return;
+        }
+        Throwable upstreamError = error;
+        if (upstreamError != null) {
+            failWith(subscriber, upstreamError);
+            return;
+        }
+        if (done && head == null) {
+            terminate();
+            subscriber.onComplete();
+            return;
+        }
+
+        Flow.Subscription subscription = upstream;
+        if (subscription != null && !done) {
+            long missing = maxInFlight - (upstreamRequested - emitted);
+            if (missing > 0) {
+                upstreamRequested += missing;
+                subscription.request(missing);
+            }
+        }
+    }
+
+    private void failWith(Flow.Subscriber<? super SignedRequest> subscriber, Throwable throwable) {
+        terminate();
+        pending.clear();
+        subscriber.onError(throwable);
+    }
+
+    private void terminate() {
+        terminated = true;
+        Flow.Subscription subscription = upstream;
+        if (subscription != null && !done) {
+            subscription.cancel();
+        }
+    }
+
+    private static Throwable causeOf(CompletableFuture<?> failed) {
+        try {
+            failed.join();
+            throw new IllegalStateException("future did not fail");
+        } catch (CompletionException e) {
+            return e.getCause() != null ? e.getCause() : e;
+        }
+    }
+
+    private final class DownstreamSubscription implements Flow.Subscription {
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                error = new IllegalArgumentException("non-positive subscription request: " + n);
+                drain();
+                return;
+            }
+            requested.accumulateAndGet(n, (current, increment) -> {
+                long sum = current + increment;
+                return sum < 0 ? Long.MAX_VALUE : sum;
+            });
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            drain();
+        }
+
+    }
+
+}
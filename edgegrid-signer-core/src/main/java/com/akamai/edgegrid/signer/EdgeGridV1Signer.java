@@ -1,22 +1,32 @@
 package com.akamai.edgegrid.signer;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.text.SimpleDateFormat;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
-import java.util.Date;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.TimeZone;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
@@ -39,7 +49,9 @@ import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
  * </p>
  * <p>
  * This class is deliberately designed to be library-agnostic. Instances of this class hold no local
- * state, so they can be re-used repeatedly to produce request signatures.
+ * state, so they can be re-used repeatedly to produce request signatures. The only exceptions are
+ * the optional {@link ContentHashCache}, {@link CanonicalRequestCache} and
+ * {@link CredentialStateCache}, which are thread-safe.
  * </p>
  * <p>
  * The main entry point to produce a signature is
@@ -48,6 +60,14 @@ import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
  * credentials. They should be built with their builder classes ({@link RequestBuilder} and
  * {@link ClientCredentialBuilder} respectively).
  * </p>
+ * <p>
+ * Large batches of requests signed with the same credential should go through
+ * {@link #getSignatures(Collection, ClientCredential)} or
+ * {@link #getSignatures(Collection, ClientCredential, Executor)}, which derive the per-second
+ * signing key only once per second of wall-clock time instead of once per request. Likewise, a
+ * single request sent on behalf of many accounts should be signed with
+ * {@link #getSignatures(Request, Collection)}.
+ * </p>
  *
  */
 public class EdgeGridV1Signer {
@@ -70,12 +90,83 @@ public class EdgeGridV1Signer {
     /** Message signing algorithm. */
     private static final String SIGNING_ALGORITHM = "HmacSHA256";
 
+    /** Format of the timestamp sent in the Authorization header. Thread-safe, unlike {@code SimpleDateFormat}. */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HH:mm:ssZ").withZone(ZoneOffset.UTC);
+
+    /** Minimum number of requests handed to a single task by the parallel bulk signing. */
+    private static final int MIN_BULK_CHUNK_SIZE = 64;
+
+    /** Minimum number of credentials for which a single request is signed in parallel. */
+    private static final int MIN_FAN_OUT_PARALLEL_SIZE = 2 * MIN_BULK_CHUNK_SIZE;
+
+    /**
+     * Per-thread source of nonces. {@link UUID#randomUUID()} shares a single {@link SecureRandom},
+     * which becomes a point of contention when many threads sign at once.
+     */
+    private static final ThreadLocal<SecureRandom> NONCE_RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
     private static final Logger log = LoggerFactory.getLogger(EdgeGridV1Signer.class);
 
+    private final ContentHashCache contentHashCache;
+
+    private final CanonicalRequestCache canonicalRequestCache;
+
+    private final CredentialStateCache credentialStateCache;
+
+    private final ServerClock serverClock;
+
     /**
      * Creates signer with default configuration.
      */
     public EdgeGridV1Signer() {
+        this(builder());
+    }
+
+    /**
+     * Creates signer that looks up content hashes of request bodies in {@code contentHashCache}
+     * before computing them. The cache may be shared by several signers.
+     *
+     * @param contentHashCache a {@link ContentHashCache}
+     * @throws NullPointerException if {@code contentHashCache} is {@code null}
+     */
+    public EdgeGridV1Signer(ContentHashCache contentHashCache) {
+        this(builder().contentHashCache(Objects.requireNonNull(contentHashCache, "contentHashCache cannot be null")));
+    }
+
+    /**
+     * Creates signer with optional caches. Either cache may be shared by several signers.
+     *
+     * @param contentHashCache a {@link ContentHashCache}, or {@code null} to always hash request
+     *        bodies
+     * @param canonicalRequestCache a {@link CanonicalRequestCache}, or {@code null} to always build
+     *        canonical requests
+     */
+    public EdgeGridV1Signer(ContentHashCache contentHashCache, CanonicalRequestCache canonicalRequestCache) {
+        this(builder().contentHashCache(contentHashCache).canonicalRequestCache(canonicalRequestCache));
+    }
+
+    /**
+     * Creates signer configured by {@code b}. Subclasses overriding {@link #getTimestamp()} or
+     * {@link #getNonce()} can still be configured through this constructor.
+     *
+     * @param b an {@link EdgeGridV1SignerBuilder}
+     */
+    protected EdgeGridV1Signer(EdgeGridV1SignerBuilder b) {
+        this.contentHashCache = b.contentHashCache;
+        this.canonicalRequestCache = b.canonicalRequestCache;
+        this.credentialStateCache = b.credentialStateCache;
+        this.serverClock = b.serverClock;
+    }
+
+    /**
+     * Returns a new builder. The returned builder is equivalent to the builder
+     * generated by {@link EdgeGridV1SignerBuilder}.
+     *
+     * @return a fresh {@link EdgeGridV1SignerBuilder}
+     */
+    public static EdgeGridV1SignerBuilder builder() {
+        return new EdgeGridV1SignerBuilder();
     }
 
     /**
@@ -95,11 +186,36 @@ public class EdgeGridV1Signer {
         return getSignature(request, credential, getTimestamp(), getNonce());
     }
 
+    /**
+     * Generates signature for a given {@link RequestView} of an HTTP request and client credential,
+     * e.g. a view implemented by an HTTP client binding directly over its native request. The
+     * result is the same as for a {@link Request} with the same method, path and query, headers and
+     * body.
+     *
+     * @param request a view of a HTTP request to sign
+     * @param credential client credential used to sign a request
+     * @return signature for Authorization HTTP header
+     * @throws RequestSigningException if signing of a given request failed
+     * @throws NullPointerException if {@code request} or {@code credential} is {@code null}
+     * @throws IllegalArgumentException if request contains multiple request headers with the same
+     *         name as a header to sign
+     */
+    public String getSignature(RequestView request, ClientCredential credential)
+            throws RequestSigningException {
+        Objects.requireNonNull(credential, "credential cannot be null");
+        Objects.requireNonNull(request, "request cannot be null");
+
+        return getSignature(request, credential, getSigningKey(getTimestamp(), credential), getNonce());
+    }
+
     /**
      * Returns timestamp needed for signing
      * @return returns current time stamp
      */
     protected long getTimestamp() {
+        if (serverClock != null) {
+            return serverClock.currentTimeMillis();
+        }
         return System.currentTimeMillis();
     }
 
@@ -112,19 +228,35 @@ public class EdgeGridV1Signer {
     }
 
     private static String generateNonce() {
-        return UUID.randomUUID().toString();
+        byte[] randomBytes = new byte[16];
+        NONCE_RANDOM.get().nextBytes(randomBytes);
+        // Same layout as UUID#randomUUID(): version 4, IETF variant.
+        randomBytes[6] = (byte) ((randomBytes[6] & 0x0f) | 0x40);
+        randomBytes[8] = (byte) ((randomBytes[8] & 0x3f) | 0x80);
+        long msb = 0;
+        long lsb = 0;
+        for (int i = 0; i < 8; i++) {
+            msb = (msb << 8) | (randomBytes[i] & 0xff);
+        }
+        for (int i = 8; i < 16; i++) {
+            lsb = (lsb << 8) | (randomBytes[i] & 0xff);
+        }
+        return new UUID(msb, lsb).toString();
     }
 
     private static String getAuthorizationHeaderValue(String authData, String signature) {
         return authData + AUTH_SIGNATURE_NAME + '=' + signature;
     }
 
-    private static String getRelativePathWithQuery(URI uri) {
-        StringBuilder sb = new StringBuilder(uri.getRawPath());
-        if (uri.getQuery() != null) {
-            sb.append("?").append(uri.getQuery());
-        }
-        return sb.toString();
+    /**
+     * Returns the canonical relative URL (path and query) of {@code request}, exactly as it is
+     * signed.
+     *
+     * @param request a HTTP request
+     * @return a relative URL starting with {@code /}
+     */
+    static String getRelativeUrl(RequestView request) {
+        return canonicalizeUri(request.getPathAndQuery());
     }
 
     private static byte[] sign(String s, String clientSecret) throws RequestSigningException {
@@ -132,13 +264,35 @@ public class EdgeGridV1Signer {
     }
 
     private static byte[] sign(String s, byte[] key) throws RequestSigningException {
+        return sign(new byte[0], s, key);
+    }
+
+    private static byte[] sign(byte[] prefix, String s, String key) throws RequestSigningException {
+        return sign(prefix, s, key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] sign(byte[] prefix, String s, byte[] key) throws RequestSigningException {
+        Mac mac = newMac(key);
+        mac.update(prefix);
+        byte[] valueBytes = s.getBytes(StandardCharsets.UTF_8);
+        return mac.doFinal(valueBytes);
+    }
+
+    private static byte[] sign(byte[] prefix, String s, SigningKey signingKey) throws RequestSigningException {
+        Mac mac = signingKey.cloneMac();
+        if (mac == null) {
+            return sign(prefix, s, signingKey.key);
+        }
+        mac.update(prefix);
+        return mac.doFinal(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Mac newMac(byte[] key) throws RequestSigningException {
         try {
             SecretKeySpec signingKey = new SecretKeySpec(key, SIGNING_ALGORITHM);
             Mac mac = Mac.getInstance(SIGNING_ALGORITHM);
             mac.init(signingKey);
-
-            byte[] valueBytes = s.getBytes(StandardCharsets.UTF_8);
-            return mac.doFinal(valueBytes);
+            return mac;
         } catch (NoSuchAlgorithmException e) {
             throw new RequestSigningException("Failed to sign: your JDK does not recognize signing algorithm <" + SIGNING_ALGORITHM +">", e);
         } catch (InvalidKeyException e) {
@@ -147,10 +301,7 @@ public class EdgeGridV1Signer {
     }
 
     private static String formatTimeStamp(long time) {
-        SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd'T'HH:mm:ssZ");
-        Date date = new Date(time);
-        format.setTimeZone(TimeZone.getTimeZone("UTC"));
-        return format.format(date);
+        return TIMESTAMP_FORMAT.format(Instant.ofEpochMilli(time));
     }
 
     private static String canonicalizeUri(String uri) {
@@ -170,23 +321,328 @@ public class EdgeGridV1Signer {
         Objects.requireNonNull(credential, "credential cannot be null");
         Objects.requireNonNull(request, "request cannot be null");
 
-        String timeStamp = formatTimeStamp(timestamp);
-        String authData = getAuthData(credential, timeStamp, nonce);
-        String signature = getSignature(request, credential, timeStamp, authData);
-        log.debug("Signature: {}", signature);
+        return getSignature(request, credential, getSigningKey(timestamp, credential), nonce);
+    }
 
-        return getAuthorizationHeaderValue(authData, signature);
+    /**
+     * Generates signatures for a batch of HTTP requests signed with the same client credential. The
+     * result is equivalent to calling {@link #getSignature(Request, ClientCredential)} for each
+     * request in turn, except that the signing key is derived only once per second rather than
+     * once per request.
+     *
+     * @param requests HTTP requests to sign
+     * @param credential client credential used to sign all the requests
+     * @return signatures for Authorization HTTP headers, in the iteration order of {@code requests}
+     * @throws RequestSigningException if signing of any of the requests failed
+     * @throws NullPointerException if {@code requests}, any of its elements or {@code credential}
+     *         is {@code null}
+     * @throws IllegalArgumentException if any request contains multiple request headers with the
+     *         same header name
+     */
+    public List<String> getSignatures(Collection<Request> requests, ClientCredential credential)
+            throws RequestSigningException {
+        Objects.requireNonNull(requests, "requests cannot be null");
+        Objects.requireNonNull(credential, "credential cannot be null");
+
+        AtomicReference<SigningKey> signingKey = new AtomicReference<>();
+        List<String> signatures = new ArrayList<>(requests.size());
+        for (Request request : requests) {
+            signatures.add(getBulkSignature(request, credential, signingKey));
+        }
+        return signatures;
+    }
+
+    /**
+     * Generates signatures for a batch of HTTP requests signed with the same client credential,
+     * spreading the work across {@code executor}. The batch is split into contiguous chunks, one
+     * task per chunk, so {@link ForkJoinPool#commonPool()} or any
+     * fixed-size pool sized to the number of cores gives close to linear speed-up. The calling
+     * thread blocks until every signature is available.
+     *
+     * @param requests HTTP requests to sign
+     * @param credential client credential used to sign all the requests
+     * @param executor an {@link Executor} to run signing tasks on
+     * @return signatures for Authorization HTTP headers, in the iteration order of {@code requests}
+     * @throws RequestSigningException if signing of any of the requests failed
+     * @throws NullPointerException if {@code requests}, any of its elements, {@code credential} or
+     *         {@code executor} is {@code null}
+     * @throws IllegalArgumentException if any request contains multiple request headers with the
+     *         same header name
+     */
+    public List<String> getSignatures(Collection<Request> requests, ClientCredential credential,
+                                      Executor executor) throws RequestSigningException {
+        Objects.requireNonNull(requests, "requests cannot be null");
+        Objects.requireNonNull(credential, "credential cannot be null");
+        Objects.requireNonNull(executor, "executor cannot be null");
+
+        Request[] batch = requests.toArray(new Request[0]);
+        String[] signatures = new String[batch.length];
+        AtomicReference<SigningKey> signingKey = new AtomicReference<>();
+        signInChunks(batch.length, executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                signatures[i] = getBulkSignature(batch[i], credential, signingKey);
+            }
+        });
+        return Arrays.asList(signatures);
+    }
+
+    /**
+     * Generates signatures of a single HTTP request for many client credentials, e.g. to send the
+     * same request on behalf of many accounts. The result is equivalent to calling
+     * {@link #getSignature(Request, ClientCredential)} for each credential in turn, except that
+     * everything that does not depend on the credential (the relative URL, the content hash and the
+     * canonical headers) is computed only once. Content hashes are computed once per distinct
+     * maximum body size, and canonical headers once per distinct set of headers to sign. Lists of
+     * at least 128 credentials are signed in parallel on
+     * {@link ForkJoinPool#commonPool()}.
+     *
+     * @param request a HTTP request to sign
+     * @param credentials client credentials to sign the request with
+     * @return signatures for Authorization HTTP headers, in the iteration order of
+     *         {@code credentials}
+     * @throws RequestSigningException if signing of the request failed
+     * @throws NullPointerException if {@code request}, {@code credentials} or any of its elements
+     *         is {@code null}
+     */
+    public List<String> getSignatures(Request request, Collection<ClientCredential> credentials)
+            throws RequestSigningException {
+        Objects.requireNonNull(credentials, "credentials cannot be null");
+        if (credentials.size() >= MIN_FAN_OUT_PARALLEL_SIZE) {
+            return getSignatures(request, credentials, ForkJoinPool.commonPool());
+        }
+        Objects.requireNonNull(request, "request cannot be null");
+
+        FanOutRequest fanOutRequest = new FanOutRequest(request);
+        List<String> signatures = new ArrayList<>(credentials.size());
+        for (ClientCredential credential : credentials) {
+            signatures.add(getFanOutSignature(fanOutRequest, credential));
+        }
+        return signatures;
+    }
+
+    /**
+     * Generates signatures of a single HTTP request for many client credentials, spreading the
+     * work across {@code executor}. See {@link #getSignatures(Request, Collection)} for what is
+     * shared between the signatures. The calling thread blocks until every signature is available.
+     *
+     * @param request a HTTP request to sign
+     * @param credentials client credentials to sign the request with
+     * @param executor an {@link Executor} to run signing tasks on
+     * @return signatures for Authorization HTTP headers, in the iteration order of
+     *         {@code credentials}
+     * @throws RequestSigningException if signing of the request failed
+     * @throws NullPointerException if {@code request}, {@code credentials}, any of its elements or
+     *         {@code executor} is {@code null}
+     */
+    public List<String> getSignatures(Request request, Collection<ClientCredential> credentials,
+                                      Executor executor) throws RequestSigningException {
+        Objects.requireNonNull(request, "request cannot be null");
+        Objects.requireNonNull(credentials, "credentials cannot be null");
+        Objects.requireNonNull(executor, "executor cannot be null");
+
+        FanOutRequest fanOutRequest = new FanOutRequest(request);
+        ClientCredential[] batch = credentials.toArray(new ClientCredential[0]);
+        String[] signatures = new String[batch.length];
+        signInChunks(batch.length, executor, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                signatures[i] = getFanOutSignature(fanOutRequest, batch[i]);
+            }
+        });
+        return Arrays.asList(signatures);
+    }
+
+    /**
+     * Splits {@code count} signing jobs into contiguous chunks, runs one {@code task} per chunk on
+     * {@code executor} and waits for all of them.
+     */
+    private static void signInChunks(int count, Executor executor, ChunkSigningTask task)
+            throws RequestSigningException {
+        int parallelism = executor instanceof ForkJoinPool
+                ? ((ForkJoinPool) executor).getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(MIN_BULK_CHUNK_SIZE, (count + parallelism - 1) / parallelism);
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int start = 0; start < count; start += chunkSize) {
+            int from = start;
+            int to = Math.min(count, start + chunkSize);
+            chunks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    task.sign(from, to);
+                } catch (RequestSigningException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+
+        try {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RequestSigningException) {
+                throw (RequestSigningException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Signs a contiguous chunk {@code [from, to)} of a batch.
+     */
+    @FunctionalInterface
+    private interface ChunkSigningTask {
+        void sign(int from, int to) throws RequestSigningException;
+    }
+
+    /**
+     * Signs a HTTP request like {@link #getSignature(Request, ClientCredential)}, and returns the
+     * signature together with what is needed to sign the same request again cheaply, see
+     * {@link #resign(SignedRequestContext)}.
+     *
+     * @param request a HTTP request to sign
+     * @param credential client credential used to sign a request
+     * @return a {@link SignedRequestContext} with the signature for Authorization HTTP header
+     * @throws RequestSigningException if signing of a given request failed
+     * @throws NullPointerException if {@code request} or {@code credential} is {@code null}
+     */
+    public SignedRequestContext getSignedRequestContext(Request request, ClientCredential credential)
+            throws RequestSigningException {
+        Objects.requireNonNull(credential, "credential cannot be null");
+        Objects.requireNonNull(request, "request cannot be null");
+
+        String contentHash = getContentHash(request, credential.getMaxBodySize());
+        byte[] canonicalizedRequest = getCanonicalizedRequestBytes(request, credential, contentHash);
+        String authorization = getSignature(canonicalizedRequest, credential,
+                getSigningKey(getTimestamp(), credential), getNonce());
+        return new SignedRequestContext(credential, request.getUri(), contentHash, canonicalizedRequest, authorization);
+    }
+
+    /**
+     * Signs again a request signed earlier with {@link #getSignedRequestContext(Request, ClientCredential)},
+     * e.g. before it is retried. Only a new timestamp and nonce are drawn; the body is not hashed
+     * and the request is not canonicalized again.
+     *
+     * @param context a {@link SignedRequestContext} of the request
+     * @return a new signature for Authorization HTTP header
+     * @throws RequestSigningException if signing of the request failed
+     * @throws NullPointerException if {@code context} is {@code null}
+     */
+    public String resign(SignedRequestContext context) throws RequestSigningException {
+        Objects.requireNonNull(context, "context cannot be null");
+        ClientCredential credential = context.getCredential();
+        return getSignature(context.canonicalRequest(), credential, getSigningKey(getTimestamp(), credential), getNonce());
+    }
+
+    /**
+     * Opens a {@link SigningSession} for a request whose body is not available up front. The body
+     * is fed to the session chunk by chunk as it is produced, and
+     * {@link SigningSession#finish()} returns the signature once the whole body has been seen.
+     *
+     * @param method an HTTP method
+     * @param uri a {@link URI} of the request, see {@link RequestBuilder#uri(URI)}
+     * @param headers headers of the request, see {@link RequestBuilder#headers(Map)}
+     * @param credential client credential used to sign a request
+     * @return a new {@link SigningSession}
+     * @throws NullPointerException if any of the arguments is {@code null}
+     * @throws IllegalArgumentException if {@code method} is empty or {@code headers} contains
+     *         multiple headers with the same header name
+     */
+    public SigningSession openSession(String method, URI uri, Map<String, String> headers,
+                                      ClientCredential credential) {
+        Objects.requireNonNull(credential, "credential cannot be null");
+        Request request = Request.builder()
+                .method(method)
+                .uri(uri)
+                .headers(headers)
+                .build();
+        return new SigningSession(this, request, credential);
+    }
+
+    /**
+     * Signs one request of a batch, re-using the signing key of the batch while it is still valid
+     * for the current second. Racing threads may derive the same key twice, which is harmless.
+     */
+    private String getBulkSignature(Request request, ClientCredential credential,
+                                    AtomicReference<SigningKey> signingKeyRef) throws RequestSigningException {
+        Objects.requireNonNull(request, "request cannot be null");
+        long timestamp = getTimestamp();
+        SigningKey signingKey = signingKeyRef.get();
+        if (signingKey == null || !signingKey.isValidFor(timestamp)) {
+            signingKey = getSigningKey(timestamp, credential);
+            signingKeyRef.set(signingKey);
+        }
+        return getSignature(request, credential, signingKey, getNonce());
     }
 
-    private String getSignature(Request request, ClientCredential credential, String timeStamp,
-                                String authData) throws RequestSigningException {
-        String signingKey = getSigningKey(timeStamp, credential.getClientSecret());
-        String canonicalizedRequest = getCanonicalizedRequest(request, credential);
+    private String getFanOutSignature(FanOutRequest request, ClientCredential credential)
+            throws RequestSigningException {
+        Objects.requireNonNull(credential, "credential cannot be null");
+        SigningKey signingKey = getSigningKey(getTimestamp(), credential);
+        String authData = getAuthData(credential, signingKey, getNonce());
+        String canonicalizedRequest = getCanonicalizedRequest(request.method, credential.getHost(),
+                request.relativeUrl, request.getCanonicalizedHeaders(credential), request.getContentHash(credential));
         log.trace("Canonicalized request: {}", canonicalizedRequest);
         String dataToSign = getDataToSign(canonicalizedRequest, authData);
         log.trace("Data to sign: {}", dataToSign);
+        String signature = signAndEncode(dataToSign, signingKey.key);
+        log.debug("Signature: {}", signature);
 
-        return signAndEncode(dataToSign, signingKey);
+        return getAuthorizationHeaderValue(authData, signature);
+    }
+
+    private String getSignature(RequestView request, ClientCredential credential, SigningKey signingKey,
+                                String nonce) throws RequestSigningException {
+        String contentHash = getContentHash(request, credential.getMaxBodySize());
+        return getSignature(request, credential, contentHash, signingKey, nonce);
+    }
+
+    /**
+     * Generates signature for a request whose content hash has already been computed, e.g. by a
+     * {@link SigningSession}. The body of {@code request} is ignored.
+     */
+    String getSignature(Request request, ClientCredential credential, String contentHash)
+            throws RequestSigningException {
+        Objects.requireNonNull(credential, "credential cannot be null");
+        Objects.requireNonNull(request, "request cannot be null");
+        return getSignature(request, credential, contentHash, getSigningKey(getTimestamp(), credential), getNonce());
+    }
+
+    private String getSignature(RequestView request, ClientCredential credential, String contentHash,
+                                SigningKey signingKey, String nonce) throws RequestSigningException {
+        byte[] canonicalizedRequest = getCanonicalizedRequestBytes(request, credential, contentHash);
+        return getSignature(canonicalizedRequest, credential, signingKey, nonce);
+    }
+
+    private String getSignature(byte[] canonicalizedRequest, ClientCredential credential, SigningKey signingKey,
+                                String nonce) throws RequestSigningException {
+        String authData = getAuthData(credential, signingKey, nonce);
+        if (log.isTraceEnabled()) {
+            String canonicalizedRequestString = new String(canonicalizedRequest, StandardCharsets.UTF_8);
+            log.trace("Canonicalized request: {}", canonicalizedRequestString);
+            log.trace("Data to sign: {}", getDataToSign(canonicalizedRequestString, authData));
+        }
+        // signing the canonical request and the auth data in turn is the same as signing their concatenation
+        byte[] signatureBytes = sign(canonicalizedRequest, authData, signingKey);
+        String signature = Base64.getEncoder().encodeToString(signatureBytes);
+        log.debug("Signature: {}", signature);
+
+        return getAuthorizationHeaderValue(authData, signature);
+    }
+
+    private byte[] getCanonicalizedRequestBytes(RequestView request, ClientCredential credential, String contentHash) {
+        if (canonicalRequestCache == null) {
+            return getCanonicalizedRequest(request, credential, contentHash).getBytes(StandardCharsets.UTF_8);
+        }
+        CanonicalRequestCache.TemplateKey key = CanonicalRequestCache.key(request, credential, contentHash);
+        byte[] canonicalizedRequest = canonicalRequestCache.get(key);
+        if (canonicalizedRequest == null) {
+            canonicalizedRequest = getCanonicalizedRequest(request, credential, contentHash).getBytes(StandardCharsets.UTF_8);
+            canonicalRequestCache.put(key, canonicalizedRequest);
+        }
+        return canonicalizedRequest;
     }
 
     private String signAndEncode(String stringToSign, String signingKey) throws RequestSigningException {
@@ -194,17 +650,58 @@ public class EdgeGridV1Signer {
         return Base64.getEncoder().encodeToString(signatureBytes);
     }
 
-    private String getSigningKey(String timeStamp, String clientSecret) throws RequestSigningException {
-        byte[] signingKeyBytes = sign(timeStamp, clientSecret);
-        return Base64.getEncoder().encodeToString(signingKeyBytes);
+    private SigningKey getSigningKey(long timestamp, ClientCredential credential) throws RequestSigningException {
+        if (credentialStateCache != null) {
+            return getCachedSigningKey(timestamp, credential);
+        }
+        String timeStamp = formatTimeStamp(timestamp);
+        byte[] signingKeyBytes = sign(timeStamp, credential.getClientSecret());
+        return new SigningKey(timestamp, timeStamp, Base64.getEncoder().encodeToString(signingKeyBytes));
+    }
+
+    /**
+     * Returns the signing key of {@code credential} for the second of {@code timestamp} from the
+     * {@link CredentialStateCache}, deriving it with its authorization data prefix and HMAC if the
+     * cached one is for another second. Racing threads may derive the same key twice, which is
+     * harmless.
+     */
+    private SigningKey getCachedSigningKey(long timestamp, ClientCredential credential) throws RequestSigningException {
+        CredentialStateCache.State state = credentialStateCache.get(credential);
+        SigningKey signingKey = state.signingKey;
+        if (signingKey == null || !signingKey.isValidFor(timestamp)) {
+            String timeStamp = formatTimeStamp(timestamp);
+            String key = Base64.getEncoder().encodeToString(sign(timeStamp, state.clientSecret));
+            String authDataPrefix = appendAuthDataPrefix(new StringBuilder(), credential, timeStamp).toString();
+            signingKey = new SigningKey(timestamp, timeStamp, key, authDataPrefix,
+                    newMac(key.getBytes(StandardCharsets.UTF_8)));
+            state.signingKey = signingKey;
+        }
+        return signingKey;
     }
 
     private String getDataToSign(String canonicalizedRequest, String authData) {
         return canonicalizedRequest + authData;
     }
 
+    private String getAuthData(ClientCredential credential, SigningKey signingKey, String nonce) {
+        if (signingKey.authDataPrefix != null) {
+            return signingKey.authDataPrefix + nonce + ';';
+        }
+        return getAuthData(credential, signingKey.timeStamp, nonce);
+    }
+
     private String getAuthData(ClientCredential credential, String timeStamp, String nonce) {
-        StringBuilder sb = new StringBuilder();
+        StringBuilder sb = appendAuthDataPrefix(new StringBuilder(), credential, timeStamp);
+        sb.append(nonce);
+        sb.append(';');
+        return sb.toString();
+    }
+
+    /**
+     * Appends the authorization data up to the value of the nonce, which differs for every
+     * signature.
+     */
+    private static StringBuilder appendAuthDataPrefix(StringBuilder sb, ClientCredential credential, String timeStamp) {
         sb.append(ALGORITHM_NAME);
         sb.append(' ');
         sb.append(AUTH_CLIENT_TOKEN_NAME);
@@ -224,15 +721,19 @@ public class EdgeGridV1Signer {
 
         sb.append(AUTH_NONCE_NAME);
         sb.append('=');
-        sb.append(nonce);
-        sb.append(';');
-        return sb.toString();
+        return sb;
     }
 
 
-    private String getCanonicalizedRequest(Request request, ClientCredential credential) throws RequestSigningException {
+    private String getCanonicalizedRequest(RequestView request, ClientCredential credential, String contentHash) {
+        return getCanonicalizedRequest(request.getMethod(), credential.getHost(), getRelativeUrl(request),
+                canonicalizeHeaders(request, credential), contentHash);
+    }
+
+    private static String getCanonicalizedRequest(String method, String host, String relativeUrl,
+                                                  String canonicalizedHeaders, String contentHash) {
         StringBuilder sb = new StringBuilder();
-        sb.append(request.getMethod().toUpperCase());
+        sb.append(method.toUpperCase());
         sb.append('\t');
 
         // all OPEN APIs use HTTPS, not HTTP
@@ -240,46 +741,50 @@ public class EdgeGridV1Signer {
         sb.append(scheme);
         sb.append('\t');
 
-        String host = credential.getHost();
         sb.append(host.toLowerCase());
         sb.append('\t');
 
-        String relativePath = getRelativePathWithQuery(request.getUri());
-        String relativeUrl = canonicalizeUri(relativePath);
         sb.append(relativeUrl);
         sb.append('\t');
 
-        String canonicalizedHeaders = canonicalizeHeaders(request.getHeaders(), credential);
         sb.append(canonicalizedHeaders);
         sb.append('\t');
 
-        sb.append(getContentHash(request.getMethod(), request.getBody(), credential.getMaxBodySize()));
+        sb.append(contentHash);
         sb.append('\t');
 
         return sb.toString();
     }
 
 
-    private byte[] getHash(byte[] requestBody, int offset, int len) throws RequestSigningException {
+    /**
+     * Returns a new {@link MessageDigest} of the algorithm used for hashing request bodies.
+     *
+     * @return a new {@link MessageDigest}
+     * @throws RequestSigningException if the JDK does not support the digest algorithm
+     */
+    static MessageDigest newMessageDigest() throws RequestSigningException {
         try {
-            MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
-            md.update(requestBody, offset, len);
-            return md.digest();
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
         } catch (NoSuchAlgorithmException e) {
             throw new RequestSigningException("Failed to get request hash: your JDK does not recognize algorithm <" + DIGEST_ALGORITHM +">", e);
         }
     }
 
-    private String canonicalizeHeaders(Map<String, String> requestHeaders, ClientCredential credential) {
-        // NOTE: Headers are expected to be in order. ClientCredential#headersToSign is a TreeSet.
-        return requestHeaders.entrySet().stream()
-                .filter(entry -> credential.getHeadersToSign().contains(entry.getKey()))
-                .filter(entry -> entry.getValue() != null)
-                .filter(entry -> !"".equals(entry.getValue()))
-                .map(entry -> {
-                    return entry.getKey().toLowerCase() + ":" + canonicalizeHeaderValue(entry.getValue());
-                })
-                .collect(Collectors.joining("\t"));
+    private String canonicalizeHeaders(RequestView request, ClientCredential credential) {
+        // NOTE: Headers are signed in the order of ClientCredential#headersToSign, which is a TreeSet.
+        StringBuilder sb = new StringBuilder();
+        for (String headerName : credential.getHeadersToSign()) {
+            String headerValue = request.getHeader(headerName);
+            if (headerValue == null || "".equals(headerValue)) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append('\t');
+            }
+            sb.append(headerName).append(':').append(canonicalizeHeaderValue(headerValue));
+        }
+        return sb.toString();
     }
 
     private String canonicalizeHeaderValue(String headerValue) {
@@ -291,34 +796,249 @@ public class EdgeGridV1Signer {
         return headerValue;
     }
 
-    private String getContentHash(String requestMethod, byte[] requestBody, int maxBodySize)
+    private String getContentHash(RequestView request, int maxBodySize) throws RequestSigningException {
+        if (request instanceof Request) {
+            return getContentHash(request.getMethod(), ((Request) request).getRequestBody(), maxBodySize);
+        }
+        // only do hash for POSTs for this version
+        if (!"POST".equals(request.getMethod())) {
+            return "";
+        }
+
+        MessageDigest md = newMessageDigest();
+        long bodyLength;
+        try {
+            bodyLength = request.digestBody(md, maxBodySize);
+        } catch (IOException e) {
+            throw new RequestSigningException("Failed to get request hash: cannot read request body", e);
+        }
+        return finishContentHash(md, bodyLength, maxBodySize);
+    }
+
+    private String getContentHash(String requestMethod, RequestBody requestBody, int maxBodySize)
             throws RequestSigningException {
         // only do hash for POSTs for this version
         if (!"POST".equals(requestMethod)) {
             return "";
         }
 
-        if (requestBody == null || requestBody.length == 0) {
+        if (requestBody == null) {
             return "";
         }
 
-        int lengthToHash = requestBody.length;
-        if (lengthToHash > maxBodySize) {
+        if (contentHashCache != null && requestBody instanceof RequestBody.ArrayBody) {
+            RequestBody.ArrayBody arrayBody = (RequestBody.ArrayBody) requestBody;
+            if (arrayBody.length() == 0) {
+                return "";
+            }
+            String contentHash = contentHashCache.get(arrayBody, maxBodySize);
+            if (contentHash == null) {
+                contentHash = computeContentHash(requestBody, maxBodySize);
+                contentHashCache.put(arrayBody, maxBodySize, contentHash);
+            } else {
+                log.debug("Content hash (Base64): {} (cached)", contentHash);
+            }
+            return contentHash;
+        }
+        return computeContentHash(requestBody, maxBodySize);
+    }
+
+    private String computeContentHash(RequestBody requestBody, int maxBodySize) throws RequestSigningException {
+        MessageDigest md = newMessageDigest();
+        long bodyLength;
+        try {
+            bodyLength = requestBody.digest(md, maxBodySize);
+        } catch (IOException e) {
+            throw new RequestSigningException("Failed to get request hash: cannot read request body <" + requestBody + ">", e);
+        }
+        if (bodyLength > 0 && bodyLength <= maxBodySize && log.isTraceEnabled() && requestBody.isInMemory()) {
+            try {
+                log.trace("Content (Base64): {}", Base64.getEncoder().encodeToString(requestBody.toByteArray()));
+            } catch (IOException e) {
+                throw new IllegalStateException("In-memory body cannot fail to read", e);
+            }
+        }
+        return finishContentHash(md, bodyLength, maxBodySize);
+    }
+
+    private String finishContentHash(MessageDigest md, long bodyLength, int maxBodySize) {
+        if (bodyLength == 0) {
+            return "";
+        }
+
+        if (bodyLength > maxBodySize) {
             log.info("Content length '{}' exceeds signing length of '{}'. Less than the entire message will be signed.",
-                    lengthToHash,
+                    bodyLength,
+                    maxBodySize);
+        } else if (bodyLength < 0) {
+            log.info("Content length exceeds signing length of '{}'. Less than the entire message will be signed.",
                     maxBodySize);
-            lengthToHash = maxBodySize;
-        } else {
-            if (log.isTraceEnabled()) {
-                log.trace("Content (Base64): {}", Base64.getEncoder().encodeToString(requestBody));
-            }
         }
 
-        byte[] digestBytes = getHash(requestBody, 0, lengthToHash);
+        byte[] digestBytes = md.digest();
         log.debug("Content hash (Base64): {}", Base64.getEncoder().encodeToString(digestBytes));
 
         // (mgawinec) I removed support for non-retryable content, that used to reset the content for downstream handlers
         return Base64.getEncoder().encodeToString(digestBytes);
     }
 
+    /**
+     * Credential-independent parts of a request signed for many credentials, computed once and
+     * shared by concurrent signing tasks.
+     */
+    private final class FanOutRequest {
+
+        private final RequestView request;
+        private final String method;
+        private final String relativeUrl;
+        private final Map<Integer, String> contentHashes = new ConcurrentHashMap<>();
+        private final Map<Set<String>, String> canonicalizedHeaders = new ConcurrentHashMap<>();
+
+        private FanOutRequest(Request request) {
+            this.request = request;
+            this.method = request.getMethod();
+            this.relativeUrl = getRelativeUrl(request);
+        }
+
+        private String getContentHash(ClientCredential credential) throws RequestSigningException {
+            int maxBodySize = credential.getMaxBodySize();
+            String contentHash = contentHashes.get(maxBodySize);
+            if (contentHash == null) {
+                // racing threads may hash the body twice, which is harmless
+                contentHash = EdgeGridV1Signer.this.getContentHash(request, maxBodySize);
+                contentHashes.put(maxBodySize, contentHash);
+            }
+            return contentHash;
+        }
+
+        private String getCanonicalizedHeaders(ClientCredential credential) {
+            return canonicalizedHeaders.computeIfAbsent(credential.getHeadersToSign(),
+                    headersToSign -> canonicalizeHeaders(request, credential));
+        }
+
+    }
+
+    /**
+     * Signing key derived from a client secret and a formatted timestamp. The timestamp has a
+     * resolution of one second, so the key can be re-used for every request signed within the
+     * same second. Keys kept in a {@link CredentialStateCache} also carry the authorization data
+     * up to the nonce and an HMAC initialized with the key, which is cloned for each signature.
+     */
+    static final class SigningKey {
+
+        private final long epochSecond;
+        private final String timeStamp;
+        private final String key;
+        private final String authDataPrefix;
+        private final Mac mac;
+
+        private SigningKey(long timestamp, String timeStamp, String key) {
+            this(timestamp, timeStamp, key, null, null);
+        }
+
+        private SigningKey(long timestamp, String timeStamp, String key, String authDataPrefix, Mac mac) {
+            this.epochSecond = Math.floorDiv(timestamp, 1000L);
+            this.timeStamp = timeStamp;
+            this.key = key;
+            this.authDataPrefix = authDataPrefix;
+            this.mac = mac;
+        }
+
+        /**
+         * Returns a copy of the initialized HMAC, or {@code null} if there is none or the provider
+         * does not support copies.
+         */
+        private Mac cloneMac() {
+            if (mac == null) {
+                return null;
+            }
+            try {
+                return (Mac) mac.clone();
+            } catch (CloneNotSupportedException e) {
+                return null;
+            }
+        }
+
+        private boolean isValidFor(long timestamp) {
+            return epochSecond == Math.floorDiv(timestamp, 1000L);
+        }
+
+    }
+
+    /**
+     * Defines {@link EdgeGridV1SignerBuilder} which is used to build instance of {@link EdgeGridV1Signer}.
+     *
+     */
+    public static class EdgeGridV1SignerBuilder {
+        private ContentHashCache contentHashCache;
+        private CanonicalRequestCache canonicalRequestCache;
+        private CredentialStateCache credentialStateCache;
+        private ServerClock serverClock;
+
+        /**
+         * Creates a new builder. The returned builder is equivalent to the builder
+         * generated by {@link EdgeGridV1Signer#builder}.
+         */
+        public EdgeGridV1SignerBuilder() {
+        }
+
+        /**
+         * Sets a cache of content hashes of request bodies, see {@link ContentHashCache}.
+         *
+         * @param contentHashCache a {@link ContentHashCache}, or {@code null} to always hash bodies
+         * @return reference back to this builder instance
+         */
+        public EdgeGridV1SignerBuilder contentHashCache(ContentHashCache contentHashCache) {
+            this.contentHashCache = contentHashCache;
+            return this;
+        }
+
+        /**
+         * Sets a cache of canonical requests, see {@link CanonicalRequestCache}.
+         *
+         * @param canonicalRequestCache a {@link CanonicalRequestCache}, or {@code null} to always
+         *        build canonical requests
+         * @return reference back to this builder instance
+         */
+        public EdgeGridV1SignerBuilder canonicalRequestCache(CanonicalRequestCache canonicalRequestCache) {
+            this.canonicalRequestCache = canonicalRequestCache;
+            return this;
+        }
+
+        /**
+         * Sets a cache of signing state derived from client credentials, see
+         * {@link CredentialStateCache}.
+         *
+         * @param credentialStateCache a {@link CredentialStateCache}, or {@code null} to derive
+         *        signing state for every signature
+         * @return reference back to this builder instance
+         */
+        public EdgeGridV1SignerBuilder credentialStateCache(CredentialStateCache credentialStateCache) {
+            this.credentialStateCache = credentialStateCache;
+            return this;
+        }
+
+        /**
+         * Sets a clock whose time is used for signature timestamps instead of the local clock, see
+         * {@link ServerClock}.
+         *
+         * @param serverClock a {@link ServerClock}, or {@code null} to use the local clock
+         * @return reference back to this builder instance
+         */
+        public EdgeGridV1SignerBuilder serverClock(ServerClock serverClock) {
+            this.serverClock = serverClock;
+            return this;
+        }
+
+        /**
+         * Returns a newly-created signer.
+         *
+         * @return a new {@link EdgeGridV1Signer}
+         */
+        public EdgeGridV1Signer build() {
+            return new EdgeGridV1Signer(this);
+        }
+
+    }
+
 }
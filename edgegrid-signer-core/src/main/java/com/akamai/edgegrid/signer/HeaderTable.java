@@ -0,0 +1,208 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable table of request headers, held in two parallel arrays sorted by header name. Lookups
+ * are binary searches; there are no per-entry objects and nothing is hashed. Header names are
+ * lower case, and common ones are shared instances from a fixed table (see
+ * {@link #normalizeName(String)}), so most comparisons succeed on identity.
+ *
+ */
+final class HeaderTable implements Comparable<HeaderTable> {
+
+    /** A table without headers. */
+    static final HeaderTable EMPTY = new HeaderTable(new String[0], new String[0]);
+
+    /** Common header names, in lower case. */
+    private static final String[] COMMON_NAMES = {
+            "accept", "accept-charset", "accept-encoding", "accept-language", "authorization",
+            "cache-control", "connection", "content-encoding", "content-length", "content-md5",
+            "content-type", "cookie", "date", "expect", "host", "if-match", "if-modified-since",
+            "if-none-match", "if-unmodified-since", "origin", "pragma", "range", "referer", "te",
+            "transfer-encoding", "user-agent", "x-forwarded-for", "x-request-id",
+    };
+
+    /** {@link #COMMON_NAMES} indexed by length, so that a name is only compared to names as long. */
+    private static final String[][] COMMON_NAMES_BY_LENGTH = new String[32][];
+
+    static {
+        for (String name : COMMON_NAMES) {
+            String[] names = COMMON_NAMES_BY_LENGTH[name.length()];
+            names = names == null ? new String[1] : Arrays.copyOf(names, names.length + 1);
+            names[names.length - 1] = name;
+            COMMON_NAMES_BY_LENGTH[name.length()] = names;
+        }
+    }
+
+    private final String[] names;
+    private final String[] values;
+
+    private HeaderTable(String[] names, String[] values) {
+        this.names = names;
+        this.values = values;
+    }
+
+    /**
+     * Returns {@code name} in lower case. Common header names are returned as the shared instance
+     * from the table of common names, whatever their case, without allocating. Other names are
+     * only lower-cased if they contain characters that may be upper case.
+     *
+     * @param name a header name
+     * @return the lower-case header name
+     */
+    static String normalizeName(String name) {
+        int length = name.length();
+        if (length < COMMON_NAMES_BY_LENGTH.length && COMMON_NAMES_BY_LENGTH[length] != null) {
+            for (String commonName : COMMON_NAMES_BY_LENGTH[length]) {
+                if (commonName.equalsIgnoreCase(name)) {
+                    return commonName;
+                }
+            }
+        }
+        for (int i = 0; i < length; i++) {
+            char c = name.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || c >= 0x80) {
+                return name.toLowerCase();
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Returns the value of header {@code name}, or {@code null} if there is no such header.
+     *
+     * @param name a lower-case header name
+     * @return a header value
+     */
+    String get(String name) {
+        int index = indexOf(names, names.length, name);
+        return index < 0 ? null : values[index];
+    }
+
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns a copy of this table as an unmodifiable {@link Map}, sorted by header name.
+     */
+    Map<String, String> toMap() {
+        Map<String, String> map = new TreeMap<>();
+        for (int i = 0; i < names.length; i++) {
+            map.put(names[i], values[i]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static int indexOf(String[] names, int size, String name) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            String midName = names[mid];
+            if (midName == name) {
+                return mid;
+            }
+            int comparison = midName.compareTo(name);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    @Override
+    public int compareTo(HeaderTable that) {
+        int comparison = Integer.compare(this.names.length, that.names.length);
+        for (int i = 0; i < names.length && comparison == 0; i++) {
+            comparison = this.names[i].compareTo(that.names[i]);
+            if (comparison == 0) {
+                comparison = this.values[i].compareTo(that.values[i]);
+            }
+        }
+        return comparison;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof HeaderTable)) return false;
+        HeaderTable that = (HeaderTable) o;
+        return Arrays.equals(names, that.names) && Arrays.equals(values, that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(names) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(names[i]).append('=').append(values[i]);
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Collects headers into a {@link HeaderTable}, keeping them sorted as they are added.
+     */
+    static final class Builder {
+
+        private String[] names;
+        private String[] values;
+        private int size;
+
+        /**
+         * Adds a header.
+         *
+         * @param name a lower-case header name, see {@link HeaderTable#normalizeName(String)}
+         * @param value a header value
+         * @throws IllegalArgumentException if a header named {@code name} was already added
+         */
+        void add(String name, String value) {
+            if (names == null) {
+                names = new String[16];
+                values = new String[16];
+            }
+            int index = indexOf(names, size, name);
+            if (index >= 0) {
+                throw new IllegalArgumentException("Duplicate header found: " + name);
+            }
+            index = -(index + 1);
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            System.arraycopy(names, index, names, index + 1, size - index);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            names[index] = name;
+            values[index] = value;
+            size++;
+        }
+
+        /**
+         * Returns a table of the headers added so far. The builder can still be used afterwards.
+         */
+        HeaderTable build() {
+            if (size == 0) {
+                return EMPTY;
+            }
+            return new HeaderTable(Arrays.copyOf(names, size), Arrays.copyOf(values, size));
+        }
+
+    }
+
+}
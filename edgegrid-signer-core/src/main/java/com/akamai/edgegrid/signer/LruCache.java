@@ -0,0 +1,136 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded, thread-safe map evicting its least recently used entries, with hit, miss and eviction
+ * counters. The map is bounded by a number of entries and, optionally, by the total weight of its
+ * keys. Values are computed by callers outside of the lock, so racing threads may compute the
+ * same value twice.
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class LruCache<K, V> {
+
+    private final int maxEntries;
+
+    private final long maxWeight;
+
+    private final ToLongFunction<K> weigher;
+
+    private final Map<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long weight;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    LruCache(int maxEntries) {
+        this(maxEntries, Long.MAX_VALUE, key -> 0L);
+    }
+
+    LruCache(int maxEntries, long maxWeight, ToLongFunction<K> weigher) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("maxWeight must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    V get(K key) {
+        V value;
+        synchronized (entries) {
+            value = entries.get(key);
+        }
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    void put(K key, V value) {
+        synchronized (entries) {
+            if (entries.put(key, value) == null) {
+                weight += weigher.applyAsLong(key);
+            }
+            Iterator<K> eldest = entries.keySet().iterator();
+            while (entries.size() > maxEntries || weight > maxWeight) {
+                weight -= weigher.applyAsLong(eldest.next());
+                eldest.remove();
+                evictionCount.increment();
+            }
+        }
+    }
+
+    int maxEntries() {
+        return maxEntries;
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long weight() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    long hitCount() {
+        return hitCount.sum();
+    }
+
+    long missCount() {
+        return missCount.sum();
+    }
+
+    long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    double hitRate() {
+        long hits = hitCount();
+        long lookups = hits + missCount();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[ ")
+                .append("maxEntries: ").append(maxEntries).append("; ")
+                .append("size: ").append(size()).append("; ");
+        if (maxWeight != Long.MAX_VALUE) {
+            sb.append("maxWeight: ").append(maxWeight).append("; ")
+                    .append("weight: ").append(weight()).append("; ");
+        }
+        return sb.append("hitCount: ").append(hitCount()).append("; ")
+                .append("missCount: ").append(missCount()).append("; ")
+                .append("evictionCount: ").append(evictionCount())
+                .append(" ]")
+                .toString();
+    }
+
+}
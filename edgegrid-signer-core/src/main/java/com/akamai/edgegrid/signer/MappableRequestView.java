@@ -0,0 +1,76 @@
+package com.akamai.edgegrid.signer;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+
+/**
+ * {@link RequestView} that {@link AbstractEdgeGridRequestSigner} wraps around the view of a native
+ * request returned by a binding. It still knows how to map the native request to a {@link Request},
+ * so that {@link ClientCredentialProvider}s implementing only
+ * {@link ClientCredentialProvider#getClientCredential(Request)} see its headers and body as before.
+ * The request is only mapped when such a provider asks for it.
+ *
+ */
+final class MappableRequestView implements RequestView {
+
+    private final RequestView view;
+    private final Supplier<Request> mapper;
+    private final String pathAndQuery;
+
+    private Request request;
+
+    MappableRequestView(RequestView view, Supplier<Request> mapper) {
+        this(view, mapper, view.getPathAndQuery());
+    }
+
+    private MappableRequestView(RequestView view, Supplier<Request> mapper, String pathAndQuery) {
+        this.view = view;
+        this.mapper = mapper;
+        this.pathAndQuery = pathAndQuery;
+    }
+
+    /**
+     * Returns a view of the same request with {@code parameter} appended to its query.
+     *
+     * @param parameter an encoded {@code name=value} query parameter
+     * @return a {@link MappableRequestView}
+     */
+    MappableRequestView withQueryParameter(String parameter) {
+        return new MappableRequestView(view, () -> mapper.get().withQueryParameter(parameter),
+                RequestTarget.appendQueryParameter(pathAndQuery, parameter));
+    }
+
+    /**
+     * Returns the {@link Request} the binding maps the native request to, mapping it on first use.
+     *
+     * @return a {@link Request}
+     */
+    Request toRequest() {
+        if (request == null) {
+            request = mapper.get();
+        }
+        return request;
+    }
+
+    @Override
+    public String getMethod() {
+        return view.getMethod();
+    }
+
+    @Override
+    public String getPathAndQuery() {
+        return pathAndQuery;
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return view.getHeader(name);
+    }
+
+    @Override
+    public long digestBody(MessageDigest digest, int maxLength) throws IOException {
+        return view.digestBody(digest, maxLength);
+    }
+
+}
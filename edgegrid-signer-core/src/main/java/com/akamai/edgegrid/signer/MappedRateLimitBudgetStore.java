@@ -0,0 +1,240 @@
+package com.akamai.edgegrid.signer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * <p>
+ * Rate limit budgets shared by all JVMs of a host through a memory-mapped file, for applications
+ * that run several processes with the same client credential. Each {@link ClientRateLimiter}
+ * otherwise only knows the requests of its own process, so that together the processes send
+ * several times the rate the credential allows. Pass an instance to
+ * {@link ClientRateLimiter.ClientRateLimiterBuilder#budgetStore(MappedRateLimitBudgetStore)} in
+ * every process, opened on the same file.
+ * </p>
+ * <p>
+ * The file holds a fixed number of slots, one per client token, found by open addressing on a
+ * 64-bit hash of the token. The budget in a slot is updated with atomic compare-and-set operations
+ * on the mapped buffer, so no process ever blocks another one and no lock is held across a crash.
+ * Times in the file are nanoseconds since the epoch, so the local clocks of the processes are used
+ * directly and must agree, as they do on one host. Budgets of client tokens that do not fit into
+ * the file any more are kept by each process for itself.
+ * </p>
+ * <p>
+ * The file stays mapped until the store is garbage collected; {@link #close()} only releases the
+ * file handle. The {@linkplain ClientRateLimiter.ClientRateLimiterBuilder#window(java.time.Duration) window}
+ * and the initial limit are not stored in the file: all processes must configure their
+ * {@link ClientRateLimiter} alike.
+ * </p>
+ *
+ */
+public class MappedRateLimitBudgetStore implements Closeable {
+
+    /** Default number of client tokens a new file holds budgets for. */
+    public static final int DEFAULT_SLOT_COUNT = 1024;
+
+    private static final int MAGIC = 0x4547524c; // "EGRL"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+
+    /** One cache line per slot, so that processes working on different tokens do not contend. */
+    private static final int SLOT_SIZE = 64;
+
+    private static final int KEY_OFFSET = 0;
+
+    private static final int CELLS_OFFSET = 8;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    private final MappedByteBuffer buffer;
+
+    private final int slotCount;
+
+    /**
+     * Opens the budget file {@code file}, creating it with room for
+     * {@value #DEFAULT_SLOT_COUNT} client tokens if it does not exist.
+     *
+     * @param file path of the budget file
+     * @return a {@link MappedRateLimitBudgetStore}
+     * @throws IOException if the file cannot be opened or is not a budget file
+     */
+    public static MappedRateLimitBudgetStore open(Path file) throws IOException {
+        return open(file, DEFAULT_SLOT_COUNT);
+    }
+
+    /**
+     * Opens the budget file {@code file}, creating it with room for {@code slotCount} client
+     * tokens if it does not exist. An existing file keeps the number of slots it was created with.
+     *
+     * @param file path of the budget file
+     * @param slotCount number of client tokens a new file holds budgets for
+     * @return a {@link MappedRateLimitBudgetStore}
+     * @throws IOException if the file cannot be opened or is not a budget file
+     * @throws IllegalArgumentException if {@code slotCount} is not positive
+     */
+    public static MappedRateLimitBudgetStore open(Path file, int slotCount) throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("slotCount must be positive");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new MappedRateLimitBudgetStore(file, channel, slotCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private MappedRateLimitBudgetStore(Path file, FileChannel channel, int requestedSlotCount) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        // processes opening the file at the same time must agree on its size
+        try (FileLock lock = channel.lock()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if (channel.size() == 0) {
+                header.putInt(MAGIC).putInt(VERSION).putInt(requestedSlotCount).rewind();
+                channel.write(header, 0);
+                channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) requestedSlotCount * SLOT_SIZE - 1);
+                channel.force(true);
+                header.rewind();
+            } else {
+                channel.read(header, 0);
+                header.flip();
+            }
+            if (header.remaining() < 12 || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException(file + " is not a rate limit budget file");
+            }
+            this.slotCount = header.getInt();
+            long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+            if (slotCount <= 0 || channel.size() < size || size > Integer.MAX_VALUE) {
+                throw new IOException(file + " is not a rate limit budget file");
+            }
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    /**
+     * Returns the budget of {@code clientToken} in the file, claiming a free slot for it if it
+     * has none, or {@code null} if the file is full.
+     */
+    RateLimitBudget getBudget(String clientToken) {
+        long key = hash(clientToken);
+        int start = (int) Long.remainderUnsigned(key, slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            int offset = HEADER_SIZE + ((start + i) % slotCount) * SLOT_SIZE;
+            long current = (long) LONGS.getVolatile(buffer, offset + KEY_OFFSET);
+            if (current == 0L) {
+                current = LONGS.compareAndSet(buffer, offset + KEY_OFFSET, 0L, key)
+                        ? key
+                        : (long) LONGS.getVolatile(buffer, offset + KEY_OFFSET);
+            }
+            if (current == key) {
+                return new MappedBudget(offset + CELLS_OFFSET);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of client tokens the file holds budgets for.
+     *
+     * @return number of slots
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Returns the current time in the time base of the file: nanoseconds since the epoch.
+     */
+    long currentTimeNanos() {
+        Instant now = Instant.now();
+        return now.getEpochSecond() * 1_000_000_000L + now.getNano();
+    }
+
+    /**
+     * Releases the file handle. Budgets obtained before stay usable.
+     *
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("[ ")
+                .append("file: ").append(file).append("; ")
+                .append("slotCount: ").append(slotCount)
+                .append(" ]")
+                .toString();
+    }
+
+    /**
+     * FNV-1a hash of the UTF-8 bytes of {@code clientToken}, never {@code 0}, which marks a free
+     * slot.
+     */
+    private static long hash(String clientToken) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : clientToken.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0L ? 1L : hash;
+    }
+
+    /**
+     * {@link RateLimitBudget} whose cells are consecutive {@code long}s of the mapped buffer.
+     */
+    private final class MappedBudget extends RateLimitBudget {
+
+        private final int offset;
+
+        private MappedBudget(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        long now() {
+            return currentTimeNanos();
+        }
+
+        @Override
+        long get(int cell) {
+            return (long) LONGS.getVolatile(buffer, offset + cell * Long.BYTES);
+        }
+
+        @Override
+        void set(int cell, long value) {
+            LONGS.setVolatile(buffer, offset + cell * Long.BYTES, value);
+        }
+
+        @Override
+        boolean compareAndSet(int cell, long expected, long value) {
+            return LONGS.compareAndSet(buffer, offset + cell * Long.BYTES, expected, value);
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit budget of one client credential, kept by {@link ClientRateLimiter}: a token bucket
+ * holding {@code limit} requests and refilled at {@code limit} requests per window, tracked by the
+ * time at which it would be full again (the generic cell rate algorithm), and a time before which
+ * no request is let through.
+ * <p>
+ * The state is three {@code long} cells updated with compare-and-set only, so that subclasses can
+ * keep them wherever atomic operations are available: in memory for a single JVM, or in a file
+ * mapped by several JVMs, see {@link MappedRateLimitBudgetStore}. Times are values of
+ * {@link #now()}, compared by difference.
+ * </p>
+ *
+ */
+abstract class RateLimitBudget {
+
+    /** Cell holding the learned number of requests per window, or {@code 0} if unknown. */
+    static final int LIMIT = 0;
+
+    /** Cell holding the time by which the bucket would be full again if no request came. */
+    static final int THEORETICAL_ARRIVAL = 1;
+
+    /** Cell holding the time before which no request is let through. */
+    static final int BLOCKED_UNTIL = 2;
+
+    /** Number of cells. */
+    static final int CELLS = 3;
+
+    /**
+     * Returns the current time in nanoseconds, in the time base of the cells.
+     */
+    abstract long now();
+
+    abstract long get(int cell);
+
+    abstract void set(int cell, long value);
+
+    abstract boolean compareAndSet(int cell, long expected, long value);
+
+    /**
+     * Returns the number of requests per window, falling back to {@code initialLimit} until one
+     * is learned.
+     */
+    int getLimit(int initialLimit) {
+        long limit = get(LIMIT);
+        return limit > 0 ? (int) limit : initialLimit;
+    }
+
+    /**
+     * Returns the time to wait for the next slot and takes it, or returns the negated time to
+     * wait without taking it if it exceeds {@code maxWaitNanos}.
+     */
+    long reserve(long windowNanos, int initialLimit, long maxWaitNanos) {
+        while (true) {
+            long now = now();
+            int limit = getLimit(initialLimit);
+            long interval = interval(windowNanos, limit);
+            long theoreticalArrival = get(THEORETICAL_ARRIVAL);
+            long slot = later(now, get(BLOCKED_UNTIL));
+            if (interval > 0) {
+                slot = later(slot, theoreticalArrival - (limit - 1) * interval);
+            }
+            long waitNanos = slot - now;
+            if (waitNanos > maxWaitNanos) {
+                return -waitNanos;
+            }
+            if (interval == 0
+                    || compareAndSet(THEORETICAL_ARRIVAL, theoreticalArrival, later(theoreticalArrival, slot) + interval)) {
+                return waitNanos;
+            }
+        }
+    }
+
+    /**
+     * Learns from a response: a limit, if {@code limit} is positive; the number of requests
+     * remaining, if {@code remaining} is not negative; and a time to hold requests back, if
+     * {@code backoffNanos} is not negative or the response was throttled.
+     */
+    void update(long windowNanos, int initialLimit, int limit, long remaining, boolean throttled, long backoffNanos) {
+        long now = now();
+        if (limit > 0) {
+            set(LIMIT, limit);
+        }
+        int currentLimit = getLimit(initialLimit);
+        long interval = interval(windowNanos, currentLimit);
+        if (remaining >= 0 && interval > 0) {
+            // never raise the budget: responses come back while other requests are on their way
+            long used = currentLimit - Math.min(remaining, currentLimit);
+            advance(THEORETICAL_ARRIVAL, now + used * interval);
+        }
+        if (throttled && backoffNanos < 0 && (remaining < 0 || interval == 0)) {
+            // a 429 saying nothing about when to retry
+            backoffNanos = interval > 0
+                    ? interval
+                    : TimeUnit.MILLISECONDS.toNanos(ClientRateLimiter.DEFAULT_BACKOFF_IN_MILLIS);
+        }
+        if (backoffNanos >= 0) {
+            long blockedUntil = advance(BLOCKED_UNTIL, now + backoffNanos);
+            if (interval > 0) {
+                // the bucket is empty when the servers let requests through again
+                advance(THEORETICAL_ARRIVAL, blockedUntil + (currentLimit - 1) * interval);
+            }
+        }
+    }
+
+    /**
+     * Moves the time in {@code cell} forward to {@code time}, unless it is later already.
+     *
+     * @return the time in {@code cell} afterwards
+     */
+    private long advance(int cell, long time) {
+        while (true) {
+            long current = get(cell);
+            if (current - time >= 0) {
+                return current;
+            }
+            if (compareAndSet(cell, current, time)) {
+                return time;
+            }
+        }
+    }
+
+    private static long interval(long windowNanos, int limit) {
+        return limit > 0 ? Math.max(1L, windowNanos / limit) : 0L;
+    }
+
+    private static long later(long a, long b) {
+        return a - b >= 0 ? a : b;
+    }
+
+}
@@ -2,12 +2,14 @@ package com.akamai.edgegrid.signer;
 
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 
@@ -18,18 +20,18 @@ import java.util.Objects;
  * implementation.
  *
  */
-public class Request implements Comparable<Request> {
+public class Request implements RequestView, Comparable<Request> {
 
     /** A {@link String} {@link Comparator}. */
     private static Comparator<String> stringComparator = new NullSafeComparator<>();
 
-    /** A {@link URI} {@link Comparator}. */
-    private static Comparator<URI> uriComparator = new NullSafeComparator<>();
+    /** A {@link RequestTarget} {@link Comparator}. */
+    private static Comparator<RequestTarget> targetComparator = new NullSafeComparator<>();
 
-    private final byte[] body;
+    private final RequestBody body;
     private final String method;
-    private final URI uri;
-    private final Map<String, String> headers;
+    private final RequestTarget target;
+    private final HeaderTable headers;
 
     /**
      * Creates a new instance of {@link Request} using provided request builder.
@@ -39,8 +41,18 @@ public class Request implements Comparable<Request> {
     private Request(RequestBuilder b) {
         this.body = b.body;
         this.method = b.method;
-        this.headers = b.headers;
-        this.uri = b.uri;
+        this.headers = b.headers.build();
+        this.target = b.target;
+    }
+
+    /**
+     * Creates a copy of {@code request} sent to {@code target} instead.
+     */
+    private Request(Request request, RequestTarget target) {
+        this.body = request.body;
+        this.method = request.method;
+        this.headers = request.headers;
+        this.target = target;
     }
 
     /**
@@ -59,34 +71,15 @@ public class Request implements Comparable<Request> {
             return 1;
         }
         int comparison = 0;
-        comparison = uriComparator.compare(this.uri, that.uri);
+        comparison = targetComparator.compare(this.target, that.target);
         if (comparison == 0) {
             comparison = stringComparator.compare(this.method, that.method);
         }
         if (comparison == 0) {
-            comparison = Integer.compare(this.body.length, that.body.length);
+            comparison = this.body.compareTo(that.body);
         }
         if (comparison == 0) {
-            for (int i = 0; i < this.body.length && comparison == 0; i++) {
-                byte left = this.body[i];
-                byte right = that.body[i];
-                comparison = left < right ? -1 : left > right ? 1 : 0;
-            }
-        }
-        if (comparison == 0) {
-            comparison = Integer.compare(this.headers.size(), that.headers.size());
-        }
-        if (comparison == 0) {
-            for (String key : this.headers.keySet()) {
-                if (!that.headers.containsKey(key)) {
-                    comparison = 1;
-                    break;
-                }
-                comparison = this.headers.get(key).compareTo(that.headers.get(key));
-                if (comparison != 0) {
-                    break;
-                }
-            }
+            comparison = this.headers.compareTo(that.headers);
         }
         return comparison;
     }
@@ -101,7 +94,7 @@ public class Request implements Comparable<Request> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(body, headers, method, uri);
+        return Objects.hash(body, headers, method, target);
     }
 
     @Override
@@ -110,25 +103,79 @@ public class Request implements Comparable<Request> {
                 .append("body: ").append(body).append("; ")
                 .append("headers: ").append(headers).append("; ")
                 .append("method: ").append(method).append("; ")
-                .append("uri: ").append(uri)
+                .append("uri: ").append(target)
                 .append(" ]")
                 .toString();
     }
 
+    /**
+     * Returns a request with only the method and the path and query of {@code request}, taken
+     * verbatim. Unlike building one from a {@link URI}, this does not fail on a path and query
+     * holding decoded characters.
+     *
+     * @param request a view of a request
+     * @return a {@link Request} without headers nor body
+     */
+    static Request ofTarget(RequestView request) {
+        RequestBuilder builder = builder().method(request.getMethod());
+        builder.target = RequestTarget.verbatim(
+                Objects.requireNonNull(request.getPathAndQuery(), "pathAndQuery cannot be null"));
+        return builder.build();
+    }
+
+    /**
+     * Returns the content of the body. Bodies that are not held in a {@code byte[]} are read
+     * into a new array, so the signer itself uses {@link #getRequestBody()} instead.
+     */
     byte[] getBody() {
+        if (body instanceof RequestBody.ArrayBody) {
+            return ((RequestBody.ArrayBody) body).bytes();
+        }
+        try {
+            return body.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    RequestBody getRequestBody() {
         return body;
     }
 
     Map<String, String> getHeaders() {
-        return Collections.unmodifiableMap(headers);
+        return headers.toMap();
     }
 
-    String getMethod() {
+    @Override
+    public String getMethod() {
         return method;
     }
 
+    @Override
+    public String getPathAndQuery() {
+        return target.pathAndQuery();
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public long digestBody(MessageDigest digest, int maxLength) throws IOException {
+        return body.digest(digest, maxLength);
+    }
+
     URI getUri() {
-        return uri;
+        return target.uri();
+    }
+
+    /**
+     * Returns a copy of this request with {@code parameter}, which must not need any escaping,
+     * appended to its query.
+     */
+    Request withQueryParameter(String parameter) {
+        return new Request(this, target.withQueryParameter(parameter));
     }
 
     /**
@@ -137,10 +184,10 @@ public class Request implements Comparable<Request> {
      */
     public static class RequestBuilder {
 
-        private byte[] body = new byte[]{};
-        private Map<String, String> headers = new HashMap<>();
+        private RequestBody body = RequestBody.EMPTY;
+        private final HeaderTable.Builder headers = new HeaderTable.Builder();
         private String method;
-        private URI uri;
+        private RequestTarget target;
 
         /**
          * Sets a content of HTTP request body. If not set, body is empty by default.
@@ -150,11 +197,51 @@ public class Request implements Comparable<Request> {
          */
         public RequestBuilder body(byte[] requestBody) {
             if (requestBody != null && requestBody.length != 0) {
-                this.body = Arrays.copyOf(requestBody, requestBody.length);
+                this.body = RequestBody.of(Arrays.copyOf(requestBody, requestBody.length));
             }
             return this;
         }
 
+        /**
+         * <p>
+         * Sets the remaining bytes of a {@link ByteBuffer}, which may be direct, as the content of
+         * HTTP request body. The content is not copied: the request keeps a read-only view of it,
+         * and hashes it in place when it is signed. The position of {@code requestBody} is never
+         * changed, so the same buffer can be written to the transport afterwards.
+         * </p>
+         * <p>
+         * The content of the buffer must not be modified until the request has been signed.
+         * </p>
+         *
+         * @param requestBody a {@link ByteBuffer} with the request body
+         * @return reference back to this builder instance
+         */
+        public RequestBuilder body(ByteBuffer requestBody) {
+            Objects.requireNonNull(requestBody, "requestBody cannot be null");
+            this.body = requestBody.hasRemaining() ? RequestBody.of(requestBody) : RequestBody.EMPTY;
+            return this;
+        }
+
+        /**
+         * <p>
+         * Sets a file as the content of HTTP request body. The file is not loaded onto the heap:
+         * only the part of it that gets signed (at most {@link ClientCredential#getMaxBodySize()}
+         * bytes) is memory-mapped, when the request is signed. The same file can then be handed to
+         * the HTTP client as a file entity.
+         * </p>
+         * <p>
+         * The file must exist and must not be modified until the request has been signed.
+         * </p>
+         *
+         * @param requestBody a {@link Path} to a file with the request body
+         * @return reference back to this builder instance
+         */
+        public RequestBuilder body(Path requestBody) {
+            Objects.requireNonNull(requestBody, "requestBody cannot be null");
+            this.body = RequestBody.of(requestBody);
+            return this;
+        }
+
         /**
          * <p>
          * Adds a single header for an HTTP request. This can be called multiple times to add as
@@ -178,11 +265,7 @@ public class Request implements Comparable<Request> {
             if (value == null || "".equals(value)) {
                 throw new IllegalArgumentException("value cannot be empty");
             }
-            headerName = headerName.toLowerCase();
-            if (this.headers.containsKey(headerName)) {
-                throw new IllegalArgumentException("Duplicate header found: " + headerName);
-            }
-            headers.put(headerName, value);
+            headers.add(HeaderTable.normalizeName(headerName), value);
             return this;
         }
 
@@ -241,7 +324,8 @@ public class Request implements Comparable<Request> {
             if (uri == null || "".equals(uri)) {
                 throw new IllegalArgumentException("uri cannot be empty");
             }
-            return uri(URI.create(uri));
+            this.target = RequestTarget.parse(uri);
+            return this;
         }
 
         /**
@@ -260,11 +344,7 @@ public class Request implements Comparable<Request> {
          */
         public RequestBuilder uri(URI uri) {
             Objects.requireNonNull(uri, "uri cannot be empty");
-            try {
-                this.uri = new URI(null, null, uri.getPath(), uri.getRawQuery(), null);
-            } catch (URISyntaxException e) {
-                throw new IllegalArgumentException("Error setting URI", e);
-            }
+            this.target = RequestTarget.of(uri);
             return this;
         }
 
@@ -285,7 +365,7 @@ public class Request implements Comparable<Request> {
          */
         public RequestBuilder rawUri(URI uri) {
             Objects.requireNonNull(uri, "uri cannot be empty");
-            this.uri = uri;
+            this.target = RequestTarget.ofRaw(uri);
             return this;
         }
 
@@ -296,7 +376,7 @@ public class Request implements Comparable<Request> {
          */
         public Request build() {
             Objects.requireNonNull(body, "body cannot be empty");
-            Objects.requireNonNull(uri, "uriWithQuery cannot be empty");
+            Objects.requireNonNull(target, "uriWithQuery cannot be empty");
             if (Objects.isNull(method) || "".equals(method)) {
                 throw new IllegalArgumentException("method cannot be empty");
             }
@@ -0,0 +1,335 @@
+package com.akamai.edgegrid.signer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * Body of a {@link Request}. The signer only ever needs a prefix of the body (up to
+ * {@link ClientCredential#getMaxBodySize()} bytes), so implementations hash it straight from where
+ * it lives instead of materializing it as a {@code byte[]}.
+ *
+ */
+abstract class RequestBody implements Comparable<RequestBody> {
+
+    /** An empty body. */
+    static final RequestBody EMPTY = new ArrayBody(new byte[]{});
+
+    /**
+     * Returns a body backed by {@code bytes}. The array is not copied.
+     *
+     * @param bytes body content
+     * @return a {@link RequestBody}
+     */
+    static RequestBody of(byte[] bytes) {
+        return new ArrayBody(bytes);
+    }
+
+    /**
+     * Returns a body backed by the remaining bytes of {@code buffer}. The content is not copied and
+     * the position of {@code buffer} is not changed.
+     *
+     * @param buffer body content
+     * @return a {@link RequestBody}
+     */
+    static RequestBody of(ByteBuffer buffer) {
+        return new BufferBody(buffer.slice().asReadOnlyBuffer());
+    }
+
+    /**
+     * Returns a body backed by the file {@code path}. The file is not read until the body is hashed.
+     *
+     * @param path a file
+     * @return a {@link RequestBody}
+     */
+    static RequestBody of(Path path) {
+        return new FileBody(path);
+    }
+
+    /**
+     * Returns the length of the body in bytes.
+     *
+     * @return length of the body
+     * @throws IOException if the length cannot be determined
+     */
+    abstract long length() throws IOException;
+
+    /**
+     * Tells whether the body is held in memory, i.e. {@link #length()} and
+     * {@link #digest(MessageDigest, int)} do not perform any I/O.
+     *
+     * @return {@code true} if the body is held in memory
+     */
+    abstract boolean isInMemory();
+
+    /**
+     * Updates {@code digest} with the body, or with its first {@code maxLength} bytes if the body
+     * is longer than that.
+     *
+     * @param digest a {@link MessageDigest} to update
+     * @param maxLength maximum number of bytes to hash
+     * @return length of the whole body
+     * @throws IOException if the body cannot be read
+     */
+    abstract long digest(MessageDigest digest, int maxLength) throws IOException;
+
+    /**
+     * Returns a copy of the whole body.
+     *
+     * @return body content
+     * @throws IOException if the body cannot be read
+     */
+    abstract byte[] toByteArray() throws IOException;
+
+    /**
+     * Returns an ordinal used to order bodies of different kinds.
+     */
+    abstract int kind();
+
+    @Override
+    public int compareTo(RequestBody that) {
+        int comparison = Integer.compare(this.kind(), that.kind());
+        if (comparison == 0) {
+            comparison = compareSameKind(that);
+        }
+        return comparison;
+    }
+
+    abstract int compareSameKind(RequestBody that);
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null) return false;
+        if (getClass() != o.getClass()) return false;
+        return compareTo((RequestBody) o) == 0;
+    }
+
+    /**
+     * A body held in a {@code byte[]}.
+     */
+    static final class ArrayBody extends RequestBody {
+
+        private final byte[] bytes;
+
+        /** Cached content hash code, computed lazily like {@link String#hashCode()}. */
+        private int hash;
+
+        /**
+         * Hash code of the prefix last asked for by {@link #prefixHashCode(int)}, in the low 32 bits,
+         * with the length of that prefix in the high 32 bits; {@code 0} if none was asked for yet.
+         */
+        private volatile long prefixHash;
+
+        private ArrayBody(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        @Override
+        long length() {
+            return bytes.length;
+        }
+
+        @Override
+        boolean isInMemory() {
+            return true;
+        }
+
+        @Override
+        long digest(MessageDigest digest, int maxLength) {
+            digest.update(bytes, 0, Math.min(bytes.length, maxLength));
+            return bytes.length;
+        }
+
+        @Override
+        byte[] toByteArray() {
+            return bytes.clone();
+        }
+
+        @Override
+        int kind() {
+            return 0;
+        }
+
+        @Override
+        int compareSameKind(RequestBody other) {
+            byte[] that = ((ArrayBody) other).bytes;
+            int comparison = Integer.compare(this.bytes.length, that.length);
+            for (int i = 0; i < this.bytes.length && comparison == 0; i++) {
+                comparison = Byte.compare(this.bytes[i], that[i]);
+            }
+            return comparison;
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hash;
+            if (h == 0 && bytes.length != 0) {
+                h = Arrays.hashCode(bytes);
+                hash = h;
+            }
+            return h;
+        }
+
+        /**
+         * Returns the hash code of the first {@code length} bytes, computed like
+         * {@link java.util.Arrays#hashCode(byte[])} over them, so that it equals {@link #hashCode()}
+         * if {@code length} covers the whole body. The hash of the last prefix length asked for is
+         * cached, since a body is usually signed with one max-body size.
+         */
+        int prefixHashCode(int length) {
+            if (length >= bytes.length) {
+                return hashCode();
+            }
+            long cached = prefixHash;
+            if (cached != 0 && (int) (cached >>> 32) == length) {
+                return (int) cached;
+            }
+            int h = 1;
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + bytes[i];
+            }
+            prefixHash = ((long) length << 32) | (h & 0xFFFFFFFFL);
+            return h;
+        }
+
+        @Override
+        public String toString() {
+            return bytes.toString();
+        }
+
+    }
+
+    /**
+     * A body held in a read-only view of a {@link ByteBuffer}, which may be direct. The view always
+     * keeps its position at zero; every read goes through a duplicate.
+     */
+    static final class BufferBody extends RequestBody {
+
+        private final ByteBuffer buffer;
+
+        private BufferBody(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        long length() {
+            return buffer.remaining();
+        }
+
+        @Override
+        boolean isInMemory() {
+            return true;
+        }
+
+        @Override
+        long digest(MessageDigest digest, int maxLength) {
+            ByteBuffer view = buffer.duplicate();
+            if (view.remaining() > maxLength) {
+                view.limit(maxLength);
+            }
+            digest.update(view);
+            return buffer.remaining();
+        }
+
+        @Override
+        byte[] toByteArray() {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            return bytes;
+        }
+
+        @Override
+        int kind() {
+            return 2;
+        }
+
+        @Override
+        int compareSameKind(RequestBody other) {
+            return buffer.compareTo(((BufferBody) other).buffer);
+        }
+
+        @Override
+        public int hashCode() {
+            return buffer.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return buffer.toString();
+        }
+
+    }
+
+    /**
+     * A body stored in a file. Only the hashed prefix of the file is ever mapped into memory,
+     * and it is never copied onto the heap. The file must not be truncated while it is hashed.
+     */
+    static final class FileBody extends RequestBody {
+
+        private final Path path;
+
+        private FileBody(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        long length() throws IOException {
+            return Files.size(path);
+        }
+
+        @Override
+        boolean isInMemory() {
+            return false;
+        }
+
+        @Override
+        long digest(MessageDigest digest, int maxLength) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long length = channel.size();
+                long prefixLength = Math.min(length, maxLength);
+                if (prefixLength > 0) {
+                    MappedByteBuffer prefix = channel.map(FileChannel.MapMode.READ_ONLY, 0, prefixLength);
+                    digest.update(prefix);
+                }
+                return length;
+            }
+        }
+
+        @Override
+        byte[] toByteArray() throws IOException {
+            return Files.readAllBytes(path);
+        }
+
+        @Override
+        int kind() {
+            return 1;
+        }
+
+        @Override
+        int compareSameKind(RequestBody other) {
+            return path.compareTo(((FileBody) other).path);
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return path.toString();
+        }
+
+    }
+
+}
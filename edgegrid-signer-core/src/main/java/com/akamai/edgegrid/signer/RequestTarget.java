@@ -0,0 +1,207 @@
+package com.akamai.edgegrid.signer;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * <p>
+ * Path and query of a {@link Request}, parsed once when the request is built and kept as the
+ * exact string that gets signed. The signer writes it into the canonical request as is.
+ * </p>
+ * <p>
+ * Plain relative URIs, i.e. a path starting with {@code /} made of characters that never need
+ * escaping, optionally followed by a query, are taken verbatim without being parsed by
+ * {@link URI} at all. Anything else goes through {@link URI} and gets the same normalization as
+ * before: escaped octets in the path are decoded and re-encoded, and the fragment is dropped. The
+ * {@link URI} itself is only built if something asks for it.
+ * </p>
+ *
+ */
+final class RequestTarget implements Comparable<RequestTarget> {
+
+    private final String pathAndQuery;
+
+    private volatile URI uri;
+
+    private RequestTarget(String pathAndQuery, URI uri) {
+        this.pathAndQuery = pathAndQuery;
+        this.uri = uri;
+    }
+
+    /**
+     * Returns the target of {@code uri} as {@link Request.RequestBuilder#uri(String)} takes it.
+     *
+     * @throws IllegalArgumentException if {@code uri} is not a valid URI
+     */
+    static RequestTarget parse(String uri) {
+        if (isPlainPathAndQuery(uri)) {
+            return new RequestTarget(uri, null);
+        }
+        return of(URI.create(uri));
+    }
+
+    /**
+     * Returns the target of {@code uri} as {@link Request.RequestBuilder#uri(URI)} takes it.
+     *
+     * @throws IllegalArgumentException if {@code uri} cannot be normalized
+     */
+    static RequestTarget of(URI uri) {
+        String rawPath = uri.getRawPath();
+        if (rawPath != null && rawPath.indexOf('%') < 0) {
+            // nothing to decode in the path, and the query is signed raw anyway
+            String rawQuery = uri.getRawQuery();
+            return new RequestTarget(rawQuery == null ? rawPath : rawPath + '?' + rawQuery, null);
+        }
+        try {
+            return ofRaw(new URI(null, null, uri.getPath(), uri.getRawQuery(), null));
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Error setting URI", e);
+        }
+    }
+
+    /**
+     * Returns the target of {@code uri} as {@link Request.RequestBuilder#rawUri(URI)} takes it.
+     */
+    static RequestTarget ofRaw(URI uri) {
+        StringBuilder sb = new StringBuilder(uri.getRawPath());
+        if (uri.getQuery() != null) {
+            sb.append("?").append(uri.getQuery());
+        }
+        return new RequestTarget(sb.toString(), uri);
+    }
+
+    /**
+     * Returns the target whose path and query are exactly {@code pathAndQuery}, as reported by
+     * {@link RequestView#getPathAndQuery()}, without parsing it: it may hold characters that
+     * {@link URI} rejects, which are signed as they are.
+     */
+    static RequestTarget verbatim(String pathAndQuery) {
+        return new RequestTarget(pathAndQuery, null);
+    }
+
+    /**
+     * Returns the path and query exactly as they are signed.
+     */
+    String pathAndQuery() {
+        return pathAndQuery;
+    }
+
+    /**
+     * Returns this target with {@code parameter}, which must not need any escaping, appended to
+     * its query.
+     */
+    RequestTarget withQueryParameter(String parameter) {
+        return new RequestTarget(appendQueryParameter(pathAndQuery, parameter), null);
+    }
+
+    /**
+     * Appends {@code parameter} to the query of {@code pathAndQuery}, starting one if there is none.
+     */
+    static String appendQueryParameter(String pathAndQuery, String parameter) {
+        char separator = pathAndQuery.indexOf('?') < 0 ? '?' : '&';
+        return pathAndQuery + separator + parameter;
+    }
+
+    /**
+     * Tells whether the query of {@code pathAndQuery} has a parameter named {@code name}.
+     */
+    static boolean hasQueryParameter(String pathAndQuery, String name) {
+        int query = pathAndQuery.indexOf('?');
+        if (query < 0) {
+            return false;
+        }
+        int start = query + 1;
+        while (start <= pathAndQuery.length()) {
+            int end = pathAndQuery.indexOf('&', start);
+            if (end < 0) {
+                end = pathAndQuery.length();
+            }
+            if (pathAndQuery.startsWith(name, start)
+                    && (start + name.length() == end || pathAndQuery.charAt(start + name.length()) == '=')) {
+                return true;
+            }
+            start = end + 1;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the target as a relative {@link URI}, or as given to
+     * {@link Request.RequestBuilder#rawUri(URI)}.
+     */
+    URI uri() {
+        URI result = uri;
+        if (result == null) {
+            result = URI.create(pathAndQuery);
+            uri = result;
+        }
+        return result;
+    }
+
+    /**
+     * Tells whether {@code s} is an absolute path made of characters that {@link URI} neither
+     * escapes nor decodes, optionally followed by a query that may also contain escaped octets.
+     */
+    private static boolean isPlainPathAndQuery(String s) {
+        int length = s.length();
+        if (length == 0 || s.charAt(0) != '/' || (length > 1 && s.charAt(1) == '/')) {
+            return false;
+        }
+        boolean inQuery = false;
+        for (int i = 1; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '?') {
+                inQuery = true;
+            } else if (c == '%') {
+                if (!inQuery || i + 2 >= length || !isHexDigit(s.charAt(i + 1)) || !isHexDigit(s.charAt(i + 2))) {
+                    return false;
+                }
+                i += 2;
+            } else if (!isPlainChar(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPlainChar(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+            return true;
+        }
+        switch (c) {
+            case '-': case '.': case '_': case '~': case '!': case '$': case '&': case '\'':
+            case '(': case ')': case '*': case '+': case ',': case ';': case '=': case ':':
+            case '@': case '/':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    @Override
+    public int compareTo(RequestTarget that) {
+        return this.pathAndQuery.compareTo(that.pathAndQuery);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RequestTarget)) return false;
+        return pathAndQuery.equals(((RequestTarget) o).pathAndQuery);
+    }
+
+    @Override
+    public int hashCode() {
+        return pathAndQuery.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return pathAndQuery;
+    }
+
+}
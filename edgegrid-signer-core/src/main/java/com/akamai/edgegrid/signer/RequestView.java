@@ -0,0 +1,114 @@
+package com.akamai.edgegrid.signer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+
+/**
+ * <p>
+ * Read-only view of an HTTP request, exposing only what {@link EdgeGridV1Signer} reads to sign it:
+ * the method, the path and query, the values of the signed headers and a prefix of the body.
+ * {@link Request} is one implementation. HTTP client bindings may implement this interface
+ * directly over the native request of their library, so that signing does not copy every header
+ * and the whole body into a {@link Request} first (see
+ * {@link AbstractEdgeGridRequestSigner#view(Object)}).
+ * </p>
+ * <p>
+ * A view is read during the call that signs it, and is not retained by the signer.
+ * </p>
+ *
+ */
+public interface RequestView {
+
+    /**
+     * Returns the HTTP method of the request: GET, PUT, POST, DELETE.
+     *
+     * @return an HTTP method
+     */
+    String getMethod();
+
+    /**
+     * Returns the path and query of the request, exactly as they are signed: the raw path, followed
+     * by {@code ?} and the query if the request has one. Scheme, host and fragment are not part of
+     * it. Use {@link #pathAndQuery(URI)} to get the same value that {@link Request.RequestBuilder#uri(URI)}
+     * would sign.
+     *
+     * @return a path and query
+     */
+    String getPathAndQuery();
+
+    /**
+     * Returns the value of header {@code name}, or {@code null} if the request does not have it.
+     * Names are matched case-insensitively; {@code name} itself is always lower case.
+     *
+     * @param name a lower-case header name
+     * @return a header value (can be {@code null})
+     * @throws IllegalArgumentException if the request contains multiple headers named {@code name}
+     */
+    String getHeader(String name);
+
+    /**
+     * Updates {@code digest} with the body, or with its first {@code maxLength} bytes if the body
+     * is longer than that. This is only called for requests whose body is signed.
+     *
+     * @param digest a {@link MessageDigest} to update
+     * @param maxLength maximum number of bytes to hash
+     * @return length of the whole body, or {@code -1} if the body is longer than {@code maxLength}
+     *         but its length is unknown
+     * @throws IOException if the body cannot be read
+     */
+    long digestBody(MessageDigest digest, int maxLength) throws IOException;
+
+    /**
+     * Returns the path and query of {@code uri} as {@link Request.RequestBuilder#uri(URI)} signs
+     * them, for implementations of {@link #getPathAndQuery()}.
+     *
+     * @param uri a {@link URI}
+     * @return a path and query
+     * @throws IllegalArgumentException if {@code uri} cannot be normalized
+     */
+    static String pathAndQuery(URI uri) {
+        return RequestTarget.of(uri).pathAndQuery();
+    }
+
+    /**
+     * Returns the path and query of {@code uri} as {@link Request.RequestBuilder#uri(String)} signs
+     * them, for implementations of {@link #getPathAndQuery()}. A request target such as
+     * {@code /path?query} that needs no normalization is returned as is, without being parsed.
+     *
+     * @param uri a URI or request target
+     * @return a path and query
+     * @throws IllegalArgumentException if {@code uri} is not a valid URI
+     */
+    static String pathAndQuery(String uri) {
+        return RequestTarget.parse(uri).pathAndQuery();
+    }
+
+    /**
+     * Updates {@code digest} with at most {@code maxLength} bytes read from {@code content}, for
+     * implementations of {@link #digestBody(MessageDigest, int)}. At most one byte more is read to
+     * tell whether the body is longer than that. {@code content} is not closed.
+     *
+     * @param content a stream of the body
+     * @param digest a {@link MessageDigest} to update
+     * @param maxLength maximum number of bytes to hash
+     * @return number of bytes hashed, or {@code -1} if {@code content} has more than
+     *         {@code maxLength} bytes
+     * @throws IOException if {@code content} cannot be read
+     */
+    static long digest(InputStream content, MessageDigest digest, int maxLength) throws IOException {
+        byte[] buffer = new byte[Math.min(maxLength, 8192)];
+        int length = 0;
+        while (length < maxLength) {
+            int read = content.read(buffer, 0, Math.min(buffer.length, maxLength - length));
+            if (read < 0) {
+                return length;
+            }
+            digest.update(buffer, 0, read);
+            length += read;
+        }
+        return content.read() < 0 ? length : -1;
+    }
+
+}
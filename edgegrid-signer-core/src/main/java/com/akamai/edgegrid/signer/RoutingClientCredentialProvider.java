@@ -0,0 +1,286 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * <p>
+ * This is a {@link ClientCredentialProvider} implementation that selects a {@link ClientCredential}
+ * by the path of the request, and optionally its method, for applications that call several APIs
+ * with a credential each:
+ * </p>
+ * <pre>
+ * ClientCredentialProvider provider = RoutingClientCredentialProvider.builder()
+ *         .route("/ccu/", ccuCredential)
+ *         .route("/papi/", papiCredential)
+ *         .route("POST", "/papi/", papiWriteCredential)
+ *         .defaultCredential(credential)
+ *         .build();
+ * </pre>
+ * <p>
+ * A route matches requests whose path starts with its path prefix. The query is not matched. If
+ * several routes match, the one with the longest prefix wins, and between routes with the same
+ * prefix, the one for the method of the request wins. Requests that match no route get the default
+ * credential, or fail with {@link NoMatchingCredentialException} if there is none.
+ * </p>
+ * <p>
+ * Routes are compiled into a character trie held in flat arrays. A lookup walks the path once,
+ * taking time proportional to its length, and allocates nothing.
+ * </p>
+ *
+ */
+public class RoutingClientCredentialProvider implements ClientCredentialProvider {
+
+    /** For each node, index of its first edge in {@link #edgeChars}; one more entry for the end. */
+    private final int[] firstEdges;
+
+    /** Characters of the edges, sorted for each node. */
+    private final char[] edgeChars;
+
+    /** Node each edge leads to. */
+    private final int[] edgeTargets;
+
+    /** For each node, credential of the route ending there for any method, or {@code null}. */
+    private final ClientCredential[] anyMethodCredentials;
+
+    /** For each node, methods of the routes ending there for a given method, or {@code null}. */
+    private final String[][] methods;
+
+    /** Credentials matching {@link #methods}. */
+    private final ClientCredential[][] methodCredentials;
+
+    private final ClientCredential defaultCredential;
+
+    RoutingClientCredentialProvider(RoutingClientCredentialProviderBuilder b) {
+        // number the nodes breadth first, so that edges of each node are contiguous
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(b.root);
+        int edgeCount = 0;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            edgeCount += node.children.size();
+            nodes.addAll(node.children.values());
+        }
+
+        this.firstEdges = new int[nodes.size() + 1];
+        this.edgeChars = new char[edgeCount];
+        this.edgeTargets = new int[edgeCount];
+        this.anyMethodCredentials = new ClientCredential[nodes.size()];
+        this.methods = new String[nodes.size()][];
+        this.methodCredentials = new ClientCredential[nodes.size()][];
+
+        int edge = 0;
+        int nextNode = 1;
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            firstEdges[i] = edge;
+            for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+                edgeChars[edge] = child.getKey();
+                edgeTargets[edge] = nextNode++;
+                edge++;
+            }
+            anyMethodCredentials[i] = node.anyMethodCredential;
+            if (!node.methodCredentials.isEmpty()) {
+                methods[i] = node.methodCredentials.keySet().toArray(new String[0]);
+                methodCredentials[i] = node.methodCredentials.values().toArray(new ClientCredential[0]);
+            }
+        }
+        firstEdges[nodes.size()] = edge;
+        this.defaultCredential = b.defaultCredential;
+    }
+
+    /**
+     * Returns a new builder. The returned builder is equivalent to the builder
+     * generated by {@link RoutingClientCredentialProviderBuilder}.
+     *
+     * @return a fresh {@link RoutingClientCredentialProviderBuilder}
+     */
+    public static RoutingClientCredentialProviderBuilder builder() {
+        return new RoutingClientCredentialProviderBuilder();
+    }
+
+    @Override
+    public ClientCredential getClientCredential(Request request) throws NoMatchingCredentialException {
+        return route(request.getMethod(), request.getPathAndQuery());
+    }
+
+    @Override
+    public ClientCredential getClientCredential(RequestView request) throws NoMatchingCredentialException {
+        return route(request.getMethod(), request.getPathAndQuery());
+    }
+
+    /**
+     * Gets the {@link ClientCredential} of the route matching {@code method} and
+     * {@code pathAndQuery}.
+     *
+     * @param method an HTTP method
+     * @param pathAndQuery a path, optionally followed by a query
+     * @return a {@link ClientCredential}
+     * @throws NoMatchingCredentialException if no route matches and there is no default credential
+     */
+    public ClientCredential route(String method, String pathAndQuery) throws NoMatchingCredentialException {
+        ClientCredential best = defaultCredential;
+        int node = 0;
+        for (int i = 0; i < pathAndQuery.length(); i++) {
+            char c = pathAndQuery.charAt(i);
+            if (c == '?') {
+                break;
+            }
+            node = child(node, c);
+            if (node < 0) {
+                break;
+            }
+            ClientCredential credential = credentialAt(node, method);
+            if (credential != null) {
+                best = credential;
+            }
+        }
+        if (best == null) {
+            throw new NoMatchingCredentialException();
+        }
+        return best;
+    }
+
+    private int child(int node, char c) {
+        int low = firstEdges[node];
+        int high = firstEdges[node + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midChar = edgeChars[mid];
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private ClientCredential credentialAt(int node, String method) {
+        String[] nodeMethods = methods[node];
+        if (nodeMethods != null) {
+            for (int i = 0; i < nodeMethods.length; i++) {
+                if (nodeMethods[i].equalsIgnoreCase(method)) {
+                    return methodCredentials[node][i];
+                }
+            }
+        }
+        return anyMethodCredentials[node];
+    }
+
+    /**
+     * Node of the trie while routes are being added.
+     */
+    private static final class Node {
+
+        private final Map<Character, Node> children = new TreeMap<>();
+        private final Map<String, ClientCredential> methodCredentials = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        private ClientCredential anyMethodCredential;
+
+    }
+
+    /**
+     * Builder class for {@link RoutingClientCredentialProvider}.
+     *
+     */
+    public static class RoutingClientCredentialProviderBuilder {
+
+        private final Node root = new Node();
+        private ClientCredential defaultCredential;
+
+        /**
+         * Creates a new builder. The returned builder is equivalent to the builder
+         * generated by {@link RoutingClientCredentialProvider#builder()}.
+         */
+        public RoutingClientCredentialProviderBuilder() {
+        }
+
+        /**
+         * Routes requests whose path starts with {@code pathPrefix} to {@code credential},
+         * whatever their method.
+         *
+         * @param pathPrefix a path prefix, starting with {@code /}
+         * @param credential a {@link ClientCredential}
+         * @return reference back to this builder instance
+         * @throws IllegalArgumentException if there is already a route for {@code pathPrefix}
+         */
+        public RoutingClientCredentialProviderBuilder route(String pathPrefix, ClientCredential credential) {
+            Objects.requireNonNull(credential, "credential cannot be null");
+            Node node = node(pathPrefix);
+            if (node.anyMethodCredential != null) {
+                throw new IllegalArgumentException("Duplicate route found: " + pathPrefix);
+            }
+            node.anyMethodCredential = credential;
+            return this;
+        }
+
+        /**
+         * Routes requests with method {@code method} whose path starts with {@code pathPrefix} to
+         * {@code credential}.
+         *
+         * @param method an HTTP method
+         * @param pathPrefix a path prefix, starting with {@code /}
+         * @param credential a {@link ClientCredential}
+         * @return reference back to this builder instance
+         * @throws IllegalArgumentException if there is already a route for {@code method} and
+         *         {@code pathPrefix}
+         */
+        public RoutingClientCredentialProviderBuilder route(String method, String pathPrefix,
+                ClientCredential credential) {
+            if (Objects.isNull(method) || "".equals(method)) {
+                throw new IllegalArgumentException("method cannot be empty");
+            }
+            Objects.requireNonNull(credential, "credential cannot be null");
+            Node node = node(pathPrefix);
+            if (node.methodCredentials.putIfAbsent(method, credential) != null) {
+                throw new IllegalArgumentException("Duplicate route found: " + method + " " + pathPrefix);
+            }
+            return this;
+        }
+
+        /**
+         * Sets the {@link ClientCredential} of requests that match no route. Without it, such
+         * requests fail with {@link NoMatchingCredentialException}.
+         *
+         * @param credential a {@link ClientCredential}
+         * @return reference back to this builder instance
+         */
+        public RoutingClientCredentialProviderBuilder defaultCredential(ClientCredential credential) {
+            this.defaultCredential = Objects.requireNonNull(credential, "credential cannot be null");
+            return this;
+        }
+
+        /**
+         * Returns a newly-configured {@link RoutingClientCredentialProvider}. Later changes to this
+         * builder do not affect it.
+         *
+         * @return a {@link RoutingClientCredentialProvider}
+         */
+        public RoutingClientCredentialProvider build() {
+            return new RoutingClientCredentialProvider(this);
+        }
+
+        private Node node(String pathPrefix) {
+            if (Objects.isNull(pathPrefix) || "".equals(pathPrefix)) {
+                throw new IllegalArgumentException("pathPrefix cannot be empty");
+            }
+            if (pathPrefix.charAt(0) != '/' || pathPrefix.indexOf('?') >= 0) {
+                throw new IllegalArgumentException("pathPrefix must be a path starting with /: " + pathPrefix);
+            }
+            Node node = root;
+            for (int i = 0; i < pathPrefix.length(); i++) {
+                node = node.children.computeIfAbsent(pathPrefix.charAt(i), c -> new Node());
+            }
+            return node;
+        }
+
+    }
+
+}
@@ -0,0 +1,192 @@
+package com.akamai.edgegrid.signer;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, thread-safe map evicting a rarely used entry, with hit, miss and eviction counters.
+ * <p>
+ * Lookups do not lock: they read a {@link ConcurrentHashMap} and bump the access frequency of the
+ * entry found, without synchronization, so concurrent bumps may be lost. When the map is full, an
+ * insertion compares the frequencies of {@value #SAMPLE_SIZE} entries picked at random, or of all
+ * entries if there are no more, and evicts the least frequently used of them. Every
+ * {@code 10 * maxEntries} hits, frequencies are halved so that entries which used to be popular
+ * give way to those which are popular now.
+ * </p>
+ *
+ * @param <K> type of keys
+ * @param <V> type of values
+ */
+final class SampledLfuCache<K, V> {
+
+    /** Number of entries compared to pick one to evict. */
+    static final int SAMPLE_SIZE = 8;
+
+    private static final int MAX_FREQUENCY = 1 << 16;
+
+    private final int maxEntries;
+
+    private final long agingPeriod;
+
+    private final ConcurrentHashMap<K, Node<K, V>> entries;
+
+    /** Entries in insertion slots, for sampling; guarded by itself. */
+    private final Node<K, V>[] slots;
+
+    /** Number of used slots; guarded by {@link #slots}. */
+    private int size;
+
+    /** Value of {@link #hitCount} when frequencies were last halved; guarded by {@link #slots}. */
+    private long hitsAtLastAging;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    SampledLfuCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.agingPeriod = 10L * maxEntries;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1 << 16));
+        this.slots = (Node<K, V>[]) new Node<?, ?>[maxEntries];
+    }
+
+    V get(K key) {
+        Node<K, V> node = entries.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        int frequency = node.frequency;
+        if (frequency < MAX_FREQUENCY) {
+            node.frequency = frequency + 1;
+        }
+        return node.value;
+    }
+
+    /**
+     * Caches {@code value} for {@code key} unless there is a value for it already, and returns the
+     * cached value.
+     */
+    V putIfAbsent(K key, V value) {
+        synchronized (slots) {
+            Node<K, V> existing = entries.get(key);
+            if (existing != null) {
+                return existing.value;
+            }
+            ageIfDue();
+            int slot;
+            if (size < maxEntries) {
+                slot = size++;
+            } else {
+                slot = sampleVictim();
+                entries.remove(slots[slot].key);
+                evictionCount.increment();
+            }
+            Node<K, V> node = new Node<>(key, value);
+            slots[slot] = node;
+            entries.put(key, node);
+            return value;
+        }
+    }
+
+    private int sampleVictim() {
+        if (size <= SAMPLE_SIZE) {
+            int victim = 0;
+            for (int i = 1; i < size; i++) {
+                if (slots[i].frequency < slots[victim].frequency) {
+                    victim = i;
+                }
+            }
+            return victim;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int victim = random.nextInt(size);
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            int candidate = random.nextInt(size);
+            if (slots[candidate].frequency < slots[victim].frequency) {
+                victim = candidate;
+            }
+        }
+        return victim;
+    }
+
+    private void ageIfDue() {
+        long hits = hitCount.sum();
+        if (hits - hitsAtLastAging < agingPeriod) {
+            return;
+        }
+        hitsAtLastAging = hits;
+        for (int i = 0; i < size; i++) {
+            slots[i].frequency >>>= 1;
+        }
+    }
+
+    int maxEntries() {
+        return maxEntries;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    void clear() {
+        synchronized (slots) {
+            entries.clear();
+            Arrays.fill(slots, 0, size, null);
+            size = 0;
+        }
+    }
+
+    long hitCount() {
+        return hitCount.sum();
+    }
+
+    long missCount() {
+        return missCount.sum();
+    }
+
+    long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    double hitRate() {
+        long hits = hitCount();
+        long lookups = hits + missCount();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("[ ")
+                .append("maxEntries: ").append(maxEntries).append("; ")
+                .append("size: ").append(size()).append("; ")
+                .append("hitCount: ").append(hitCount()).append("; ")
+                .append("missCount: ").append(missCount()).append("; ")
+                .append("evictionCount: ").append(evictionCount())
+                .append(" ]")
+                .toString();
+    }
+
+    private static final class Node<K, V> {
+
+        private final K key;
+        private final V value;
+        private volatile int frequency = 1;
+
+        private Node(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+    }
+
+}
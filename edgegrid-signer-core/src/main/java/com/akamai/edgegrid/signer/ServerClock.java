@@ -0,0 +1,181 @@
+package com.akamai.edgegrid.signer;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Clock that follows the clock of the OPEN API servers rather than the local clock. EdgeGrid
+ * rejects signatures whose timestamp is too far off, so a host whose clock drifts gets nothing but
+ * {@code 401 Unauthorized} responses. This clock learns the offset between the local clock and the
+ * servers from the {@code Date} header of API responses, see {@link #update(String)}, and adds it to
+ * the local time.
+ * </p>
+ * <p>
+ * The offset is a single atomic value, so one instance can be shared by all threads and all
+ * signers of an application. Pass it to {@link EdgeGridV1Signer.EdgeGridV1SignerBuilder#serverClock(ServerClock)};
+ * the HTTP client bindings provide response hooks that feed it and retry a request once, re-signed,
+ * when a {@code 401} response reveals that the request was signed with a drifted clock, see
+ * {@link #isSignedWithSkewedClock(String, String)}.
+ * </p>
+ *
+ */
+public class ServerClock {
+
+    /**
+     * The {@code Date} header has a resolution of one second, so offsets that differ by less than
+     * this are not worth an update.
+     */
+    static final long OFFSET_TOLERANCE_IN_MILLIS = 1000L;
+
+    /**
+     * Longest time from signing a request to the response to it that is put down to latency, such
+     * as queueing or a large upload, rather than to a skewed clock. It stays a margin below the skew
+     * EdgeGrid tolerates, so that requests rejected for their timestamp are still replayed.
+     */
+    static final long MAX_LATENCY_IN_MILLIS = 25_000L;
+
+    /** Format of the timestamp in the Authorization header. */
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HH:mm:ssZ");
+
+    private static final String TIMESTAMP_PREFIX = "timestamp=";
+
+    private static final Logger log = LoggerFactory.getLogger(ServerClock.class);
+
+    private final AtomicLong offsetMillis = new AtomicLong();
+
+    /**
+     * Creates a clock that initially agrees with the local clock.
+     */
+    public ServerClock() {
+    }
+
+    /**
+     * Returns the current time of the servers, as far as it is known.
+     *
+     * @return the current time in milliseconds since the epoch
+     */
+    public long currentTimeMillis() {
+        return localTimeMillis() + offsetMillis.get();
+    }
+
+    /**
+     * Returns the current offset of the servers' clock from the local clock.
+     *
+     * @return offset in milliseconds; positive if the local clock is behind
+     */
+    public long getOffsetMillis() {
+        return offsetMillis.get();
+    }
+
+    /**
+     * Learns the servers' time from the value of the {@code Date} header of a response. Values
+     * that are missing or not valid RFC 1123 dates are ignored.
+     *
+     * @param dateHeaderValue value of the {@code Date} header, may be {@code null}
+     * @return {@code true} if the offset changed by more than the resolution of the header, i.e. a
+     *         request signed before was signed with a wrong time
+     */
+    public boolean update(String dateHeaderValue) {
+        Long serverTimeMillis = parse(dateHeaderValue, DateTimeFormatter.RFC_1123_DATE_TIME);
+        return serverTimeMillis != null && update(serverTimeMillis);
+    }
+
+    /**
+     * Learns the servers' time.
+     *
+     * @param serverTimeMillis the servers' time in milliseconds since the epoch, truncated to a
+     *        second like the {@code Date} header
+     * @return {@code true} if the offset changed by more than one second
+     */
+    public boolean update(long serverTimeMillis) {
+        // the servers' time is somewhere within the second it was truncated to
+        long offset = serverTimeMillis + OFFSET_TOLERANCE_IN_MILLIS / 2 - localTimeMillis();
+        long previous = offsetMillis.get();
+        while (Math.abs(offset - previous) > OFFSET_TOLERANCE_IN_MILLIS) {
+            if (offsetMillis.compareAndSet(previous, offset)) {
+                log.info("Server clock offset changed from {} ms to {} ms", previous, offset);
+                return true;
+            }
+            previous = offsetMillis.get();
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether a request was signed with a time off from the servers' time, judging by the
+     * {@code timestamp} in the {@code Authorization} header it was sent with and the {@code Date}
+     * header of the response to it. Unlike the result of {@link #update(String)}, which only tells
+     * about the response that corrected the offset, this holds for every request signed before the
+     * correction, e.g. for all requests that were in flight at the same time. A response is
+     * expected to be dated after the request was signed, by up to {@link #MAX_LATENCY_IN_MILLIS},
+     * so only a request signed after the {@code Date} of its response, or longer before it, counts
+     * as signed with a skewed clock.
+     *
+     * @param authorization value of the {@code Authorization} header of the request, may be
+     *        {@code null}
+     * @param dateHeaderValue value of the {@code Date} header of the response, may be {@code null}
+     * @return {@code true} if both values are valid and the request was signed more than one
+     *         second after the response, or more than {@link #MAX_LATENCY_IN_MILLIS} before it
+     */
+    public static boolean isSignedWithSkewedClock(String authorization, String dateHeaderValue) {
+        if (authorization == null) {
+            return false;
+        }
+        int start = authorization.indexOf(TIMESTAMP_PREFIX);
+        if (start < 0) {
+            return false;
+        }
+        start += TIMESTAMP_PREFIX.length();
+        int end = authorization.indexOf(';', start);
+        Long signedMillis = parse(authorization.substring(start, end < 0 ? authorization.length() : end), TIMESTAMP_FORMAT);
+        Long serverTimeMillis = parse(dateHeaderValue, DateTimeFormatter.RFC_1123_DATE_TIME);
+        if (signedMillis == null || serverTimeMillis == null) {
+            return false;
+        }
+        long elapsedMillis = serverTimeMillis - signedMillis;
+        return elapsedMillis < -OFFSET_TOLERANCE_IN_MILLIS || elapsedMillis > MAX_LATENCY_IN_MILLIS;
+    }
+
+    private static Long parse(String value, DateTimeFormatter format) {
+        if (value == null || "".equals(value)) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value, format).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            log.debug("Ignoring unparseable time '{}'", value);
+            return null;
+        }
+    }
+
+    /**
+     * Forgets the learned offset, so that this clock agrees with the local clock again.
+     */
+    public void reset() {
+        offsetMillis.set(0L);
+    }
+
+    /**
+     * Returns the local time.
+     *
+     * @return the current local time in milliseconds since the epoch
+     */
+    protected long localTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("[ ")
+                .append("offsetMillis: ").append(getOffsetMillis())
+                .append(" ]")
+                .toString();
+    }
+
+}
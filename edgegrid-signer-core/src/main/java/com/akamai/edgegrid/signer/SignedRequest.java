@@ -0,0 +1,83 @@
+package com.akamai.edgegrid.signer;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Result of signing a {@link Request}: the value of the {@code Authorization} header together
+ * with the URI the request has to be sent to. The URI points at the host of the
+ * {@link ClientCredential} that was used for signing. This object is immutable.
+ *
+ */
+public class SignedRequest {
+
+    private final Request request;
+    private final URI uri;
+    private final String authorization;
+
+    /**
+     * Creates a {@link SignedRequest}.
+     *
+     * @param request a signed {@link Request}
+     * @param uri an absolute {@link URI} to send {@code request} to
+     * @param authorization a value of the {@code Authorization} header
+     */
+    public SignedRequest(Request request, URI uri, String authorization) {
+        this.request = Objects.requireNonNull(request, "request cannot be null");
+        this.uri = Objects.requireNonNull(uri, "uri cannot be null");
+        this.authorization = Objects.requireNonNull(authorization, "authorization cannot be null");
+    }
+
+    /**
+     * Retrieves the request that was signed.
+     *
+     * @return request
+     */
+    public Request getRequest() {
+        return request;
+    }
+
+    /**
+     * Retrieves the absolute URI the request has to be sent to.
+     *
+     * @return uri
+     */
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Retrieves the value of the {@code Authorization} header.
+     *
+     * @return authorization
+     */
+    public String getAuthorization() {
+        return authorization;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null) return false;
+        if (getClass() != o.getClass()) return false;
+        final SignedRequest that = (SignedRequest) o;
+        return request.equals(that.request)
+                && uri.equals(that.uri)
+                && authorization.equals(that.authorization);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(request, uri, authorization);
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("[ ")
+                .append("request: ").append(request).append("; ")
+                .append("uri: ").append(uri).append("; ")
+                .append("authorization: ").append(authorization)
+                .append(" ]")
+                .toString();
+    }
+
+}
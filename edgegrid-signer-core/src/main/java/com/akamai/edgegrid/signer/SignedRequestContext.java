@@ -0,0 +1,105 @@
+package com.akamai.edgegrid.signer;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ * Everything about a signed request that stays the same when the request is signed again: the
+ * {@link ClientCredential}, the content hash and the canonical request. Keep it alongside a request
+ * that may be retried and pass it to {@link EdgeGridV1Signer#resign(SignedRequestContext)} or
+ * {@link AbstractEdgeGridRequestSigner#resign(SignedRequestContext, Object)}. Re-signing draws a
+ * new timestamp and nonce and recomputes only the two HMACs, without re-reading the request.
+ * </p>
+ * <p>
+ * This object is immutable.
+ * </p>
+ *
+ */
+public class SignedRequestContext {
+
+    private final ClientCredential credential;
+    private final URI uri;
+    private final String contentHash;
+    private final byte[] canonicalRequest;
+    private final String authorization;
+
+    SignedRequestContext(ClientCredential credential, URI uri, String contentHash, byte[] canonicalRequest,
+                         String authorization) {
+        this.credential = credential;
+        this.uri = uri;
+        this.contentHash = contentHash;
+        this.canonicalRequest = canonicalRequest;
+        this.authorization = authorization;
+    }
+
+    /**
+     * Returns a copy of this context with {@code uri} as the URI the request is sent to.
+     */
+    SignedRequestContext withUri(URI uri) {
+        return new SignedRequestContext(credential, uri, contentHash, canonicalRequest, authorization);
+    }
+
+    /**
+     * Retrieves the client credential the request was signed with.
+     *
+     * @return credential
+     */
+    public ClientCredential getCredential() {
+        return credential;
+    }
+
+    /**
+     * Retrieves the URI of the request. When the request was signed by an
+     * {@link AbstractEdgeGridRequestSigner}, this is the URI pointing at the host of the credential.
+     *
+     * @return uri
+     */
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Retrieves the Base64 content hash of the request body, or an empty string if the body was not
+     * signed.
+     *
+     * @return content hash
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Retrieves the canonical request, i.e. the part of the signed data that does not change when
+     * the request is signed again.
+     *
+     * @return canonical request
+     */
+    public String getCanonicalRequest() {
+        return new String(canonicalRequest, StandardCharsets.UTF_8);
+    }
+
+    byte[] canonicalRequest() {
+        return canonicalRequest;
+    }
+
+    /**
+     * Retrieves the value of the {@code Authorization} header produced when the context was created.
+     *
+     * @return authorization
+     */
+    public String getAuthorization() {
+        return authorization;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder("[ ")
+                .append("uri: ").append(uri).append("; ")
+                .append("contentHash: ").append(contentHash).append("; ")
+                .append("canonicalRequest: ").append(getCanonicalRequest())
+                .append(" ]")
+                .toString();
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.akamai.edgegrid.signer;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Signs a request whose body is produced incrementally, so that it never has to be materialized
+ * as a single {@code byte[]}. Open a session with
+ * {@link EdgeGridV1Signer#openSession(String, java.net.URI, java.util.Map, ClientCredential)},
+ * pass each body chunk to {@link #update(ByteBuffer)} as it is produced and call
+ * {@link #finish()} to get the value of the {@code Authorization} header.
+ * </p>
+ * <p>
+ * Only the first {@link ClientCredential#getMaxBodySize()} bytes of a POST body are part of the
+ * signature. Chunks beyond that limit, and all chunks of non-POST requests, are ignored without
+ * being read. The position of the chunks passed in is never changed, so the same buffers can be
+ * written to the transport afterwards.
+ * </p>
+ * <p>
+ * A session is not thread-safe and can be finished only once.
+ * </p>
+ *
+ */
+public class SigningSession {
+
+    private static final Logger log = LoggerFactory.getLogger(SigningSession.class);
+
+    private final EdgeGridV1Signer edgeGridSigner;
+
+    private final Request request;
+
+    private final ClientCredential credential;
+
+    private final boolean hashBody;
+
+    private MessageDigest digest;
+
+    private long bodyLength;
+
+    private boolean finished;
+
+    SigningSession(EdgeGridV1Signer edgeGridSigner, Request request, ClientCredential credential) {
+        this.edgeGridSigner = edgeGridSigner;
+        this.request = request;
+        this.credential = credential;
+        // only do hash for POSTs for this version
+        this.hashBody = "POST".equals(request.getMethod());
+    }
+
+    /**
+     * Feeds the next chunk of the request body into this session. The chunk's remaining bytes are
+     * read, but its position is left unchanged.
+     *
+     * @param chunk the next chunk of the request body
+     * @return reference back to this session
+     * @throws RequestSigningException if the JDK does not support the digest algorithm
+     * @throws IllegalStateException if this session has already been finished
+     * @throws NullPointerException if {@code chunk} is {@code null}
+     */
+    public SigningSession update(ByteBuffer chunk) throws RequestSigningException {
+        Objects.requireNonNull(chunk, "chunk cannot be null");
+        if (finished) {
+            throw new IllegalStateException("SigningSession has already been finished");
+        }
+        int length = chunk.remaining();
+        long remainingToHash = credential.getMaxBodySize() - bodyLength;
+        bodyLength += length;
+        if (!hashBody || length == 0 || remainingToHash <= 0) {
+            return this;
+        }
+        if (digest == null) {
+            digest = EdgeGridV1Signer.newMessageDigest();
+        }
+        ByteBuffer view = chunk.duplicate();
+        if (length > remainingToHash) {
+            view.limit(view.position() + (int) remainingToHash);
+        }
+        digest.update(view);
+        return this;
+    }
+
+    /**
+     * Finishes this session and generates the signature of the request. The result of this method
+     * call should be appended as the "Authorization" header to the HTTP request.
+     *
+     * @return signature for Authorization HTTP header
+     * @throws RequestSigningException if signing of the request failed
+     * @throws IllegalStateException if this session has already been finished
+     */
+    public String finish() throws RequestSigningException {
+        if (finished) {
+            throw new IllegalStateException("SigningSession has already been finished");
+        }
+        finished = true;
+        String contentHash = "";
+        if (digest != null) {
+            if (bodyLength > credential.getMaxBodySize()) {
+                log.info("Content length '{}' exceeds signing length of '{}'. Less than the entire message will be signed.",
+                        bodyLength,
+                        credential.getMaxBodySize());
+            }
+            contentHash = Base64.getEncoder().encodeToString(digest.digest());
+            log.debug("Content hash (Base64): {}", contentHash);
+        }
+        return edgeGridSigner.getSignature(request, credential, contentHash);
+    }
+
+}
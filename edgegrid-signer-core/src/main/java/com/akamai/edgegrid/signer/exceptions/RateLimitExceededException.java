@@ -0,0 +1,33 @@
+package com.akamai.edgegrid.signer.exceptions;
+
+/**
+ * Exception representing a request shed by a {@link com.akamai.edgegrid.signer.ClientRateLimiter}
+ * before it was signed, because the rate limit budget of its client credential would not allow it
+ * within the longest time the limiter waits.
+ *
+ */
+public class RateLimitExceededException extends RequestSigningException {
+
+    private static final long serialVersionUID = 3017530286479364112L;
+
+    private final long waitMillis;
+
+    /**
+     * Creates a {@link RateLimitExceededException}.
+     *
+     * @param waitMillis time in milliseconds the request would have had to wait
+     */
+    public RateLimitExceededException(long waitMillis) {
+        super("Rate limit budget exhausted, next request allowed in " + waitMillis + " ms");
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Returns the time the shed request would have had to wait for the rate limit budget.
+     *
+     * @return wait time in milliseconds
+     */
+    public long getWaitMillis() {
+        return waitMillis;
+    }
+}
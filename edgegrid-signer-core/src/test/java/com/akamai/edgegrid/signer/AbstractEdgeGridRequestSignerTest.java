@@ -3,9 +3,19 @@ package com.akamai.edgegrid.signer;
 import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 
 /**
  * Unit tests for {@link AbstractEdgeGridRequestSigner}.
@@ -52,6 +62,192 @@ public class AbstractEdgeGridRequestSignerTest {
         mockedSigner.sign(new Object(), new Object());
     }
 
+    @Test
+    public void shouldResignWithoutMappingRequestAgain() throws RequestSigningException {
+        AtomicInteger mapped = new AtomicInteger();
+        Map<String, Object> updated = new HashMap<>();
+        AbstractEdgeGridRequestSigner<Object, Map<String, Object>> signer =
+                new AbstractEdgeGridRequestSigner<Object, Map<String, Object>>(ClientCredential.builder()
+                        .accessToken("accessToken")
+                        .clientSecret("clientSecret")
+                        .clientToken("clientToken")
+                        .host("host.example.com")
+                        .build()) {
+
+            @Override
+            protected URI requestUri(Object request) {
+                return URI.create("http://request/test?a=b");
+            }
+
+            @Override
+            protected Request map(Object request) {
+                mapped.incrementAndGet();
+                return Request.builder()
+                    .method("POST")
+                    .uri("http://request/test?a=b")
+                    .body("body".getBytes())
+                    .build();
+            }
+
+            @Override
+            protected void setAuthorization(Map<String, Object> request, String signature) {
+                request.put("authorization", signature);
+            }
+
+            @Override
+            protected void setHost(Map<String, Object> request, String host, URI uri) {
+                request.put("uri", uri);
+            }
+
+        };
+
+        SignedRequestContext context = signer.signWithContext(new Object(), updated);
+        assertThat(updated.get("authorization"), is(equalTo(context.getAuthorization())));
+
+        updated.clear();
+        signer.resign(context, updated);
+
+        assertThat(mapped.get(), is(1));
+        assertThat(updated.get("uri"), is(equalTo(URI.create("http://host.example.com/test?a=b"))));
+        assertThat((String) updated.get("authorization"), startsWith("EG1-HMAC-SHA256 "));
+        assertThat(context.getContentHash(), is(not(equalTo(""))));
+    }
+
+    @Test(dataProvider = "hostRewrites")
+    public void shouldRewriteHostLikeUriConstructor(String requestUri, String host) throws Exception {
+        Map<String, Object> updated = new HashMap<>();
+        AbstractEdgeGridRequestSigner<Object, Map<String, Object>> signer =
+                new AbstractEdgeGridRequestSigner<Object, Map<String, Object>>(ClientCredential.builder()
+                        .accessToken("accessToken")
+                        .clientSecret("clientSecret")
+                        .clientToken("clientToken")
+                        .host(host)
+                        .build()) {
+
+            @Override
+            protected URI requestUri(Object request) {
+                return URI.create(requestUri);
+            }
+
+            @Override
+            protected Request map(Object request) {
+                return Request.builder().method("GET").uri(requestUri).build();
+            }
+
+            @Override
+            protected void setAuthorization(Map<String, Object> request, String signature) {
+            }
+
+            @Override
+            protected void setHost(Map<String, Object> request, String host, URI uri) {
+                request.put("uri", uri);
+            }
+
+        };
+
+        URI original = URI.create(requestUri);
+        String[] hostAndPort = host.split(":");
+        URI expected = new URI(original.getScheme(), original.getUserInfo(), hostAndPort[0],
+                hostAndPort.length == 2 ? Integer.parseInt(hostAndPort[1]) : original.getPort(),
+                original.getPath(), original.getQuery(), original.getFragment());
+
+        for (int i = 0; i < 2; i++) {
+            signer.sign(new Object(), updated);
+            assertThat(updated.get("uri"), is(equalTo(expected)));
+            assertThat(updated.get("uri").toString(), is(equalTo(expected.toString())));
+        }
+    }
+
+    @DataProvider
+    public Object[][] hostRewrites() {
+        return new Object[][]{
+                {"http://localhost/papi/v1/properties?contractId=ctr_1", "host.example.com"},
+                {"http://localhost:8080/papi/v1/properties", "host.example.com"},
+                {"https://user@localhost/a/b?x=1#frag", "localhost:9443"},
+                {"http://localhost", "host.example.com"},
+                {"http://localhost?only=query", "host.example.com"},
+                {"http://localhost/search?q=a%20b&r=%26", "host.example.com"},
+                {"http://localhost/path%2Fwith%20escapes", "host.example.com:8443"},
+                {"http://localhost/unicode/été?q=é", "host.example.com"},
+        };
+    }
+
+    @Test(dataProvider = "accountSwitchKeys")
+    public void shouldAppendAccountSwitchKey(String requestUri, String accountSwitchKey, String expectedUri)
+            throws RequestSigningException {
+        ClientCredential credential = ClientCredential.builder()
+                .accessToken("accessToken")
+                .clientSecret("clientSecret")
+                .clientToken("clientToken")
+                .host("host.example.com")
+                .build();
+        EdgeGridV1Signer edgeGridSigner = new EdgeGridV1Signer() {
+            @Override
+            protected long getTimestamp() {
+                return 1470294000000L;
+            }
+
+            @Override
+            protected String getNonce() {
+                return "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+            }
+        };
+        Map<String, Object> updated = new HashMap<>();
+        AbstractEdgeGridRequestSigner<String, Map<String, Object>> signer =
+                new AbstractEdgeGridRequestSigner<String, Map<String, Object>>(
+                        new DefaultClientCredentialProvider(credential), edgeGridSigner,
+                        AccountSwitchKeyResolver.fromHeader("X-Account")) {
+
+            @Override
+            protected URI requestUri(String request) {
+                return URI.create(request);
+            }
+
+            @Override
+            protected Request map(String request) {
+                return Request.builder().method("GET").uri(request).header("X-Account", accountSwitchKey).build();
+            }
+
+            @Override
+            protected void setAuthorization(Map<String, Object> request, String signature) {
+                request.put("authorization", signature);
+            }
+
+            @Override
+            protected void setHost(Map<String, Object> request, String host, URI uri) {
+                request.put("uri", uri);
+            }
+
+        };
+        Request expectedRequest = Request.builder().method("GET").uri(expectedUri)
+                .header("X-Account", accountSwitchKey).build();
+        String expectedAuthorization = edgeGridSigner.getSignature(expectedRequest, credential);
+
+        signer.sign(requestUri, updated);
+        assertThat(updated.get("uri").toString(), is(equalTo(expectedUri.replace("localhost", "host.example.com"))));
+        assertThat(updated.get("authorization"), is(equalTo(expectedAuthorization)));
+
+        updated.clear();
+        SignedRequestContext context = signer.signWithContext(requestUri, updated);
+        assertThat(updated.get("uri").toString(), is(equalTo(expectedUri.replace("localhost", "host.example.com"))));
+        assertThat(updated.get("authorization"), is(equalTo(expectedAuthorization)));
+        assertThat(context.getUri(), is(equalTo(updated.get("uri"))));
+    }
+
+    @DataProvider
+    public Object[][] accountSwitchKeys() {
+        return new Object[][]{
+                {"http://localhost/papi/v1/groups", "1-5BYUG1:1-8BYUX",
+                        "http://localhost/papi/v1/groups?accountSwitchKey=1-5BYUG1:1-8BYUX"},
+                {"http://localhost/papi/v1/properties?contractId=ctr_1#top", "1-5BYUG1",
+                        "http://localhost/papi/v1/properties?contractId=ctr_1&accountSwitchKey=1-5BYUG1#top"},
+                {"http://localhost/papi/v1/groups", "key with/slash",
+                        "http://localhost/papi/v1/groups?accountSwitchKey=key%20with%2Fslash"},
+                {"http://localhost/papi/v1/groups?accountSwitchKey=explicit", "1-5BYUG1",
+                        "http://localhost/papi/v1/groups?accountSwitchKey=explicit"},
+        };
+    }
+
     public AbstractEdgeGridRequestSigner mockedSigner(ClientCredentialProvider clientCredentialProvider) {
 
         return new AbstractEdgeGridRequestSigner(clientCredentialProvider) {
@@ -0,0 +1,81 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * Unit tests for {@link AsyncClientCredentialProvider}.
+ *
+ */
+public class AsyncClientCredentialProviderTest {
+
+    private static final Request REQUEST = Request.builder().method("GET").uri("/test").build();
+
+    @Test
+    public void testCompletedStageIsReused() throws Exception {
+        ClientCredential a = credential("a");
+        AtomicReference<ClientCredential> current = new AtomicReference<>(a);
+        AsyncClientCredentialProvider provider = AsyncClientCredentialProvider.of(request -> current.get());
+
+        CompletionStage<ClientCredential> first = provider.getClientCredentialAsync(REQUEST);
+        assertThat(first.toCompletableFuture().getNow(null), is(sameInstance(a)));
+        assertThat(provider.getClientCredentialAsync(REQUEST), is(sameInstance(first)));
+
+        current.set(credential("b"));
+        assertThat(provider.getClientCredentialAsync(REQUEST), is(not(sameInstance(first))));
+        assertThat(provider.getClientCredentialAsync(REQUEST).toCompletableFuture().getNow(null),
+                is(sameInstance(current.get())));
+    }
+
+    @Test
+    public void testFailureIsReportedInStage() {
+        AsyncClientCredentialProvider provider = AsyncClientCredentialProvider.of(request -> {
+            throw new NoMatchingCredentialException();
+        });
+
+        assertThat(provider.getClientCredentialAsync(REQUEST).toCompletableFuture().isCompletedExceptionally(), is(true));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testSharedStageCannotBeObtruded() {
+        AsyncClientCredentialProvider.of(credential("a")).getClientCredentialAsync(REQUEST)
+                .toCompletableFuture().obtrudeValue(credential("b"));
+    }
+
+    @Test
+    public void testBlockingProviderWaits() throws Exception {
+        ClientCredential a = credential("a");
+        ClientCredentialProvider provider = AsyncClientCredentialProvider.toClientCredentialProvider(
+                request -> CompletableFuture.supplyAsync(() -> a));
+
+        assertThat(provider.getClientCredential(REQUEST), is(sameInstance(a)));
+        assertThat(provider instanceof AsyncClientCredentialProvider, is(true));
+    }
+
+    @Test(expectedExceptions = NoMatchingCredentialException.class)
+    public void testBlockingProviderUnwrapsFailure() throws Exception {
+        AsyncClientCredentialProvider.toClientCredentialProvider(
+                request -> CompletableFuture.failedFuture(new NoMatchingCredentialException()))
+                .getClientCredential(REQUEST);
+    }
+
+    private static ClientCredential credential(String name) {
+        return ClientCredential.builder()
+                .accessToken(name)
+                .clientToken(name + "-client-token")
+                .clientSecret(name + "-client-secret")
+                .host(name + ".luna.akamaiapis.net")
+                .build();
+    }
+
+}
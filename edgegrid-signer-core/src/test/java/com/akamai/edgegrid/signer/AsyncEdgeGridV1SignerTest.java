@@ -0,0 +1,133 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link AsyncEdgeGridV1Signer}.
+ *
+ */
+public class AsyncEdgeGridV1SignerTest {
+
+    private static final ClientCredential CREDENTIAL = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+            .clientSecret("12rvdn/myhSSiuYAC6ZPGaI91ezhdbYd7WyTRKhGxms=")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjrtwpvpn6yjoj")
+            .host("control.akamai.com")
+            .maxBodySize(4096)
+            .build();
+
+    private static final EdgeGridV1Signer FIXED_SIGNER = new EdgeGridV1Signer() {
+        @Override
+        protected long getTimestamp() {
+            return 1470294000000L;
+        }
+
+        @Override
+        protected String getNonce() {
+            return "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+        }
+    };
+
+    @Test
+    public void testSmallBodyIsSignedInline() throws Exception {
+        AtomicInteger submitted = new AtomicInteger();
+        AsyncEdgeGridV1Signer signer = new AsyncEdgeGridV1Signer(FIXED_SIGNER, task -> {
+            submitted.incrementAndGet();
+            task.run();
+        }, 1024);
+        Request request = post(1024);
+
+        CompletionStage<String> signature = signer.getSignature(request, CREDENTIAL);
+
+        assertThat(signature.toCompletableFuture().isDone(), is(true));
+        assertThat(submitted.get(), is(0));
+        assertThat(signature.toCompletableFuture().get(), is(equalTo(FIXED_SIGNER.getSignature(request, CREDENTIAL))));
+    }
+
+    @Test
+    public void testLargeBodyIsSignedOnExecutor() throws Exception {
+        AtomicInteger submitted = new AtomicInteger();
+        AsyncEdgeGridV1Signer signer = new AsyncEdgeGridV1Signer(FIXED_SIGNER, task -> {
+            submitted.incrementAndGet();
+            task.run();
+        }, 1024);
+        Request request = post(1025);
+
+        CompletionStage<String> signature = signer.getSignature(request, CREDENTIAL);
+
+        assertThat(submitted.get(), is(1));
+        assertThat(signature.toCompletableFuture().get(), is(equalTo(FIXED_SIGNER.getSignature(request, CREDENTIAL))));
+    }
+
+    @Test
+    public void testBodyIsMeasuredUpToMaxBodySize() throws Exception {
+        AtomicInteger submitted = new AtomicInteger();
+        AsyncEdgeGridV1Signer signer = new AsyncEdgeGridV1Signer(FIXED_SIGNER, task -> {
+            submitted.incrementAndGet();
+            task.run();
+        }, CREDENTIAL.getMaxBodySize());
+
+        signer.getSignature(post(1_000_000), CREDENTIAL).toCompletableFuture().get();
+
+        assertThat(submitted.get(), is(0));
+    }
+
+    @Test
+    public void testRejectedTaskFailsStage() throws Exception {
+        AsyncEdgeGridV1Signer signer = new AsyncEdgeGridV1Signer(FIXED_SIGNER, task -> {
+            throw new RejectedExecutionException("queue full");
+        }, 0);
+
+        CompletableFuture<String> signature = signer.getSignature(post(16), CREDENTIAL).toCompletableFuture();
+
+        try {
+            signature.get();
+            throw new AssertionError("signature should have failed");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), is(instanceOf(RejectedExecutionException.class)));
+        }
+    }
+
+    @Test
+    public void testHashingExecutorIsBounded() {
+        ExecutorService executor = AsyncEdgeGridV1Signer.newHashingExecutor(1, 1);
+        CompletableFuture<Void> blocker = new CompletableFuture<>();
+        try {
+            executor.execute(blocker::join);
+            executor.execute(() -> { });
+            try {
+                executor.execute(() -> { });
+                throw new AssertionError("third task should have been rejected");
+            } catch (RejectedExecutionException expected) {
+                // expected
+            }
+        } finally {
+            blocker.complete(null);
+            executor.shutdown();
+        }
+    }
+
+    private static Request post(int bodyLength) {
+        byte[] body = new byte[bodyLength];
+        Arrays.fill(body, (byte) 'd');
+        return Request.builder()
+                .method("POST")
+                .uri("/send")
+                .body(body)
+                .build();
+    }
+
+}
@@ -0,0 +1,231 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.URI;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * Unit tests for {@link CachingClientCredentialProvider}.
+ *
+ */
+public class CachingClientCredentialProviderTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final List<Runnable> refreshes = new ArrayList<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private volatile boolean failing;
+
+    private final ClientCredentialProvider delegate = request -> {
+        if (failing) {
+            throw new NoMatchingCredentialException();
+        }
+        return credential(request.getPathAndQuery().split("/")[1] + "-" + loads.incrementAndGet());
+    };
+
+    private CachingClientCredentialProvider provider;
+
+    @BeforeMethod
+    public void createProvider() {
+        now.set(0L);
+        refreshes.clear();
+        loads.set(0);
+        failing = false;
+        provider = newProvider(delegate);
+    }
+
+    @Test
+    public void testCredentialsAreCachedByKey() throws Exception {
+        ClientCredential a = provider.getClientCredential(request("/a/1"));
+        assertThat(provider.getClientCredential(request("/a/2")), is(sameInstance(a)));
+        ClientCredential b = provider.getClientCredential(request("/b/1"));
+
+        assertThat(b.getAccessToken(), is("b-2"));
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    public void testCredentialIsRefreshedAheadOfExpiry() throws Exception {
+        ClientCredential first = provider.getClientCredential(request("/a"));
+
+        now.set(TimeUnit.SECONDS.toNanos(50));
+        assertThat(provider.getClientCredential(request("/a")), is(sameInstance(first)));
+        assertThat(provider.getClientCredential(request("/a")), is(sameInstance(first)));
+        assertThat(refreshes, hasSize(1));
+
+        refreshes.remove(0).run();
+        assertThat(provider.getClientCredential(request("/a")).getAccessToken(), is("a-2"));
+        assertThat(refreshes, is(empty()));
+    }
+
+    @Test
+    public void testRefreshResendsOnlyMethodAndPath() throws Exception {
+        List<Request> requests = new ArrayList<>();
+        provider = newProvider(request -> {
+            requests.add((Request) request);
+            return delegate.getClientCredential(request);
+        });
+        provider.getClientCredential(Request.builder()
+                .method("POST")
+                .uri("/a/b?q=1")
+                .header("X-Tenant", "tenant")
+                .body(new byte[1024])
+                .build());
+
+        now.set(TimeUnit.SECONDS.toNanos(50));
+        provider.getClientCredential(request("/a"));
+        refreshes.remove(0).run();
+
+        Request refresh = requests.get(1);
+        assertThat(refresh.getMethod(), is("POST"));
+        assertThat(refresh.getPathAndQuery(), is("/a/b?q=1"));
+        assertThat(refresh.getHeader("x-tenant"), is(nullValue()));
+        assertThat(refresh.digestBody(MessageDigest.getInstance("SHA-256"), Integer.MAX_VALUE), is(0L));
+    }
+
+    @Test
+    public void testDecodedQueryIsResentVerbatim() throws Exception {
+        List<Request> requests = new ArrayList<>();
+        provider = newProvider(request -> {
+            requests.add((Request) request);
+            return delegate.getClientCredential(request);
+        });
+        Request request = Request.builder()
+                .method("GET")
+                .rawUri(URI.create("/a/b?q=a%20b"))
+                .build();
+        assertThat(request.getPathAndQuery(), is("/a/b?q=a b"));
+
+        provider.getClientCredential(request);
+        now.set(TimeUnit.SECONDS.toNanos(61));
+        assertThat(provider.getClientCredential(request).getAccessToken(), is("a-2"));
+        now.set(TimeUnit.SECONDS.toNanos(111));
+        provider.getClientCredential(request);
+        refreshes.remove(0).run();
+
+        assertThat(requests.get(2).getPathAndQuery(), is("/a/b?q=a b"));
+    }
+
+    @Test
+    public void testExpiredCredentialIsReloaded() throws Exception {
+        provider.getClientCredential(request("/a"));
+
+        now.set(TimeUnit.SECONDS.toNanos(61));
+        assertThat(provider.getClientCredential(request("/a")).getAccessToken(), is("a-2"));
+        assertThat(refreshes, is(empty()));
+    }
+
+    @Test
+    public void testStaleCredentialIsKeptWhenReloadFails() throws Exception {
+        ClientCredential first = provider.getClientCredential(request("/a"));
+
+        failing = true;
+        now.set(TimeUnit.SECONDS.toNanos(61));
+        assertThat(provider.getClientCredential(request("/a")), is(sameInstance(first)));
+
+        // retried in the background after the retry interval, and kept while it fails
+        now.set(TimeUnit.SECONDS.toNanos(66));
+        assertThat(provider.getClientCredential(request("/a")), is(sameInstance(first)));
+        assertThat(refreshes, is(empty()));
+        now.set(TimeUnit.SECONDS.toNanos(72));
+        assertThat(provider.getClientCredential(request("/a")), is(sameInstance(first)));
+        assertThat(refreshes, hasSize(1));
+        refreshes.remove(0).run();
+        assertThat(provider.getClientCredential(request("/a")), is(sameInstance(first)));
+
+        failing = false;
+        now.set(TimeUnit.SECONDS.toNanos(83));
+        provider.getClientCredential(request("/a"));
+        refreshes.remove(0).run();
+        assertThat(provider.getClientCredential(request("/a")).getAccessToken(), is("a-2"));
+    }
+
+    @Test(expectedExceptions = NoMatchingCredentialException.class)
+    public void testFirstLoadFailure() throws Exception {
+        failing = true;
+        provider.getClientCredential(request("/a"));
+    }
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        provider = newProvider(request -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return delegate.getClientCredential(request);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ClientCredential>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> provider.getClientCredential(request("/a"))));
+            }
+            loading.await();
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<ClientCredential> result : results) {
+                assertThat(result.get().getAccessToken(), is("a-1"));
+            }
+            assertThat(loads.get(), is(1));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private CachingClientCredentialProvider newProvider(ClientCredentialProvider delegate) {
+        CachingClientCredentialProvider.CachingClientCredentialProviderBuilder builder =
+                CachingClientCredentialProvider.builder()
+                        .delegate(delegate)
+                        .key(request -> request.getPathAndQuery().split("/")[1])
+                        .ttl(Duration.ofSeconds(60))
+                        .refreshAhead(Duration.ofSeconds(20))
+                        .retryInterval(Duration.ofSeconds(10))
+                        .refreshExecutor(refreshes::add);
+        return new CachingClientCredentialProvider(builder) {
+            @Override
+            long nanoTime() {
+                return now.get();
+            }
+        };
+    }
+
+    private static Request request(String path) {
+        return Request.builder().method("GET").uri(path).build();
+    }
+
+    private static ClientCredential credential(String name) {
+        return ClientCredential.builder()
+                .accessToken(name)
+                .clientToken(name + "-client-token")
+                .clientSecret(name + "-client-secret")
+                .host(name + ".luna.akamaiapis.net")
+                .build();
+    }
+
+}
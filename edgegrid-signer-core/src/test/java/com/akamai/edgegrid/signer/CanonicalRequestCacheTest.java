@@ -0,0 +1,112 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+/**
+ * Unit tests for {@link CanonicalRequestCache}.
+ *
+ */
+public class CanonicalRequestCacheTest {
+
+    private static final ClientCredential CREDENTIAL = credential("akaa-baseurl-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net");
+
+    @Test
+    public void testCachedSignatureMatchesUncachedSignature() throws RequestSigningException {
+        CanonicalRequestCache cache = new CanonicalRequestCache(16);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+        EdgeGridV1Signer signer = fixedSigner(null);
+
+        for (int i = 0; i < 3; i++) {
+            Request request = poll("/reporting-api/v1/reports/hits/data?start=1", "max-age=0");
+            assertThat(cachingSigner.getSignature(request, CREDENTIAL),
+                    is(equalTo(signer.getSignature(request, CREDENTIAL))));
+        }
+
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void testAnyChangeOfKeyGivesCorrectSignature() throws RequestSigningException {
+        CanonicalRequestCache cache = new CanonicalRequestCache(16);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+        EdgeGridV1Signer signer = fixedSigner(null);
+        ClientCredential otherHost = credential("akab-other-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net");
+        Request request = poll("/reporting-api/v1/reports/hits/data?start=1", "max-age=0");
+        Request otherQuery = poll("/reporting-api/v1/reports/hits/data?start=2", "max-age=0");
+        Request otherHeaderValue = poll("/reporting-api/v1/reports/hits/data?start=1", "no-cache");
+        Request otherUnsignedHeader = Request.builder()
+                .method("GET")
+                .uri("/reporting-api/v1/reports/hits/data?start=1")
+                .header("Cache-Control", "max-age=0")
+                .header("X-Unsigned", "whatever")
+                .build();
+
+        cachingSigner.getSignature(request, CREDENTIAL);
+        assertThat(cachingSigner.getSignature(request, otherHost), is(equalTo(signer.getSignature(request, otherHost))));
+        assertThat(cachingSigner.getSignature(otherQuery, CREDENTIAL), is(equalTo(signer.getSignature(otherQuery, CREDENTIAL))));
+        assertThat(cachingSigner.getSignature(otherHeaderValue, CREDENTIAL),
+                is(equalTo(signer.getSignature(otherHeaderValue, CREDENTIAL))));
+        assertThat(cachingSigner.getSignature(otherUnsignedHeader, CREDENTIAL),
+                is(equalTo(signer.getSignature(otherUnsignedHeader, CREDENTIAL))));
+
+        assertThat(cache.size(), is(4));
+        assertThat(cache.getHitCount(), is(1L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() throws RequestSigningException {
+        CanonicalRequestCache cache = new CanonicalRequestCache(2);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+
+        cachingSigner.getSignature(poll("/a", "max-age=0"), CREDENTIAL);
+        cachingSigner.getSignature(poll("/b", "max-age=0"), CREDENTIAL);
+        cachingSigner.getSignature(poll("/a", "max-age=0"), CREDENTIAL);
+        cachingSigner.getSignature(poll("/c", "max-age=0"), CREDENTIAL);
+        cachingSigner.getSignature(poll("/a", "max-age=0"), CREDENTIAL);
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertThat(cache.getHitCount(), is(2L));
+    }
+
+    private static Request poll(String uri, String cacheControl) {
+        return Request.builder()
+                .method("GET")
+                .uri(uri)
+                .header("Cache-Control", cacheControl)
+                .build();
+    }
+
+    private static ClientCredential credential(String host) {
+        return ClientCredential.builder()
+                .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+                .clientSecret("12rvdn/myhSSiuYAC6ZPGaI91ezhdbYd7WyTRKhGxms=")
+                .clientToken("akaa-k7glklzuxkkh2ycw-oadjrtwpvpn6yjoj")
+                .host(host)
+                .headerToSign("Cache-Control")
+                .build();
+    }
+
+    private static EdgeGridV1Signer fixedSigner(CanonicalRequestCache cache) {
+        return new EdgeGridV1Signer(null, cache) {
+            @Override
+            protected long getTimestamp() {
+                return 1470294000000L;
+            }
+
+            @Override
+            protected String getNonce() {
+                return "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+            }
+        };
+    }
+
+}
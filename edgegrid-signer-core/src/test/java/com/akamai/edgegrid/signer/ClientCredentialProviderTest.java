@@ -0,0 +1,52 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.security.MessageDigest;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for the default methods of {@link ClientCredentialProvider}.
+ *
+ */
+public class ClientCredentialProviderTest {
+
+    @Test
+    public void testRequestViewFallbackKeepsDecodedQuery() throws Exception {
+        AtomicReference<Request> selected = new AtomicReference<>();
+        ClientCredentialProvider provider = request -> {
+            selected.set(request);
+            return null;
+        };
+        RequestView view = new RequestView() {
+            @Override
+            public String getMethod() {
+                return "GET";
+            }
+
+            @Override
+            public String getPathAndQuery() {
+                return "/p?q=a b";
+            }
+
+            @Override
+            public String getHeader(String name) {
+                return null;
+            }
+
+            @Override
+            public long digestBody(MessageDigest digest, int maxLength) {
+                return 0;
+            }
+        };
+
+        provider.getClientCredential(view);
+
+        assertThat(selected.get().getMethod(), is("GET"));
+        assertThat(selected.get().getPathAndQuery(), is("/p?q=a b"));
+    }
+
+}
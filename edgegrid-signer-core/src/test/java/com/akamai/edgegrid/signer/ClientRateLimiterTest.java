@@ -0,0 +1,170 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.RateLimitExceededException;
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+/**
+ * Unit tests for {@link ClientRateLimiter}.
+ *
+ */
+public class ClientRateLimiterTest {
+
+    private static final ClientCredential CREDENTIAL = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+            .clientSecret("SOMESECRET")
+            .clientToken("akab-c113ntt0k3n4qtari252bfxxbsl-yvsdj")
+            .host("akaa-baseurl-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net")
+            .build();
+
+    private static final String CLIENT_TOKEN = CREDENTIAL.getClientToken();
+
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L);
+
+    @Test
+    public void testUnknownLimitLetsRequestsThrough() throws RequestSigningException {
+        ClientRateLimiter limiter = sheddingLimiter();
+
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(CREDENTIAL);
+        }
+
+        assertThat(limiter.getAcquiredCount(), is(100L));
+        assertThat(limiter.getDelayedCount(), is(0L));
+        assertThat(limiter.getLimit(CLIENT_TOKEN), is(0));
+    }
+
+    @Test
+    public void testLearnsLimitFromResponse() throws RequestSigningException {
+        ClientRateLimiter limiter = sheddingLimiter();
+        limiter.update(CLIENT_TOKEN, 200, headers("Akamai-RateLimit-Limit", "4"));
+
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire(CREDENTIAL);
+        }
+
+        assertThat(limiter.getLimit(CLIENT_TOKEN), is(4));
+        assertThat(shedWaitMillis(limiter), is(250L));
+        advanceMillis(250L);
+        limiter.acquire(CREDENTIAL);
+        assertThat(limiter.getShedCount(), is(1L));
+    }
+
+    @Test
+    public void testRemainingLowersBudget() throws RequestSigningException {
+        ClientRateLimiter limiter = sheddingLimiter();
+        limiter.update(CLIENT_TOKEN, 200, headers("X-RateLimit-Limit", "10", "X-RateLimit-Remaining", "1"));
+
+        limiter.acquire(CREDENTIAL);
+
+        assertThat(shedWaitMillis(limiter), is(100L));
+    }
+
+    @Test
+    public void testTooManyRequestsHoldsCredentialBackUntilNext() throws RequestSigningException {
+        ClientRateLimiter limiter = sheddingLimiter();
+        limiter.update(CLIENT_TOKEN, 429, headers(
+                "Date", "Thu, 04 Aug 2016 07:00:00 GMT",
+                "Akamai-RateLimit-Next", "2016-08-04T07:00:02.500Z"));
+
+        assertThat(shedWaitMillis(limiter), is(2500L));
+        assertThat(limiter.getThrottledCount(), is(1L));
+        advanceMillis(2500L);
+        limiter.acquire(CREDENTIAL);
+
+        ClientCredential other = ClientCredential.builder()
+                .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+                .clientSecret("SOMESECRET")
+                .clientToken("akab-other")
+                .host("akaa-baseurl-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net")
+                .build();
+        limiter.update(CLIENT_TOKEN, 429, headers("Retry-After", "3"));
+        limiter.acquire(other);
+        assertThat(shedWaitMillis(limiter), is(3000L));
+    }
+
+    @Test
+    public void testQueuedRequestsAreSpacedOut() {
+        ClientRateLimiter limiter = new FakeClockLimiter(ClientRateLimiter.builder()
+                .window(Duration.ofSeconds(1))
+                .initialLimit(2)
+                .maxWait(Duration.ofSeconds(1)));
+
+        assertThat(limiter.acquireAsync(CREDENTIAL), is(sameInstance(ClientRateLimiter.ACQUIRED)));
+        limiter.acquireAsync(CREDENTIAL);
+        limiter.acquireAsync(CREDENTIAL);
+        limiter.acquireAsync(CREDENTIAL);
+
+        assertThat(limiter.getAcquiredCount(), is(4L));
+        assertThat(limiter.getDelayedCount(), is(2L));
+        assertThat(limiter.getMaxWaitMillis(), is(1000L));
+        assertThat(limiter.getTotalWaitMillis(), is(1500L));
+        assertThat(limiter.getAverageWaitMillis(), is(equalTo(375.0)));
+        assertThat(limiter.acquireAsync(CREDENTIAL).toCompletableFuture().isCompletedExceptionally(), is(true));
+        assertThat(limiter.getShedCount(), is(1L));
+    }
+
+    @Test
+    public void testGetClientToken() {
+        assertThat(ClientRateLimiter.getClientToken("EG1-HMAC-SHA256 client_token=akab-c113ntt0k3n4qtari252bfxxbsl-yvsdj;"
+                + "access_token=akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234;timestamp=20160804T07:00:00+0000;"
+                + "nonce=ec9d20ee-1e9b-4c1f-925a-f0017754f86c;signature=X/I="), is(CLIENT_TOKEN));
+        assertThat(ClientRateLimiter.getClientToken("Basic dXNlcjpwYXNz"), is(nullValue()));
+        assertThat(ClientRateLimiter.getClientToken(null), is(nullValue()));
+    }
+
+    private ClientRateLimiter sheddingLimiter() {
+        return new FakeClockLimiter(ClientRateLimiter.builder()
+                .window(Duration.ofSeconds(1))
+                .maxWait(Duration.ZERO));
+    }
+
+    private long shedWaitMillis(ClientRateLimiter limiter) throws RequestSigningException {
+        try {
+            limiter.acquire(CREDENTIAL);
+        } catch (RateLimitExceededException e) {
+            return e.getWaitMillis();
+        }
+        throw new AssertionError("request was not shed");
+    }
+
+    private void advanceMillis(long millis) {
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static Function<String, String> headers(String... namesAndValues) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            headers.put(namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return headers::get;
+    }
+
+    private final class FakeClockLimiter extends ClientRateLimiter {
+
+        private FakeClockLimiter(ClientRateLimiterBuilder b) {
+            super(b);
+        }
+
+        @Override
+        protected long nanoTime() {
+            return now.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+/**
+ * Unit tests for {@link ContentHashCache}.
+ *
+ */
+public class ContentHashCacheTest {
+
+    private static final ClientCredential CREDENTIAL = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+            .clientSecret("12rvdn/myhSSiuYAC6ZPGaI91ezhdbYd7WyTRKhGxms=")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjrtwpvpn6yjoj")
+            .host("control.akamai.com")
+            .maxBodySize(1024)
+            .build();
+
+    @Test
+    public void testCachedSignatureMatchesUncachedSignature() throws RequestSigningException {
+        ContentHashCache cache = new ContentHashCache(16);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+        EdgeGridV1Signer signer = fixedSigner(null);
+
+        for (int i = 0; i < 3; i++) {
+            Request request = post(body('p', 2048));
+            assertThat(cachingSigner.getSignature(request, CREDENTIAL),
+                    is(equalTo(signer.getSignature(request, CREDENTIAL))));
+        }
+
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.getHitRate(), is(closeTo(2.0 / 3, 1e-9)));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void testBodiesWithSameSignedContentShareEntry() {
+        ContentHashCache cache = new ContentHashCache(16);
+        byte[] longer = body('a', 100);
+
+        cache.put(arrayBody(longer), 50, "hash");
+
+        assertThat(cache.get(arrayBody(longer.clone()), 50), is(equalTo("hash")));
+        assertThat(cache.get(arrayBody(longer), 49), is(nullValue()));
+        assertThat(cache.get(arrayBody(Arrays.copyOf(longer, 50)), 50), is(equalTo("hash")));
+        assertThat(cache.get(arrayBody(body('b', 100)), 50), is(nullValue()));
+        assertThat(cache.getByteCount(), is(50L));
+    }
+
+    @Test
+    public void testBodiesDifferingAfterMaxBodyShareEntry() throws RequestSigningException {
+        ContentHashCache cache = new ContentHashCache(16);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+        byte[] first = body('p', 2048);
+        byte[] second = first.clone();
+        Arrays.fill(second, 1024, 2048, (byte) 'q');
+
+        String signature = cachingSigner.getSignature(post(first), CREDENTIAL);
+
+        assertThat(cachingSigner.getSignature(post(second), CREDENTIAL), is(equalTo(signature)));
+        assertThat(cache.getHitCount(), is(1L));
+        assertThat(cache.size(), is(1));
+        assertThat(cache.getByteCount(), is(1024L));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        ContentHashCache cache = new ContentHashCache(2);
+        cache.put(arrayBody(body('a', 10)), 1024, "a");
+        cache.put(arrayBody(body('b', 10)), 1024, "b");
+        cache.get(arrayBody(body('a', 10)), 1024);
+        cache.put(arrayBody(body('c', 10)), 1024, "c");
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertThat(cache.get(arrayBody(body('a', 10)), 1024), is(equalTo("a")));
+        assertThat(cache.get(arrayBody(body('b', 10)), 1024), is(nullValue()));
+    }
+
+    @Test
+    public void testCacheIsBoundedByTotalBytes() {
+        ContentHashCache cache = new ContentHashCache(16, 100);
+        cache.put(arrayBody(body('a', 40)), 1024, "a");
+        cache.put(arrayBody(body('b', 40)), 1024, "b");
+        cache.put(arrayBody(body('c', 40)), 1024, "c");
+        cache.put(arrayBody(body('d', 101)), 1024, "d");
+
+        assertThat(cache.size(), is(2));
+        assertThat(cache.getByteCount(), is(80L));
+        assertThat(cache.getEvictionCount(), is(1L));
+        assertThat(cache.get(arrayBody(body('a', 40)), 1024), is(nullValue()));
+        assertThat(cache.get(arrayBody(body('d', 101)), 1024), is(nullValue()));
+
+        cache.clear();
+        assertThat(cache.getByteCount(), is(0L));
+    }
+
+    @Test
+    public void testBufferBodiesAreNotCached() throws RequestSigningException {
+        ContentHashCache cache = new ContentHashCache(16);
+        Request request = Request.builder()
+                .method("POST")
+                .uri("/send")
+                .body(ByteBuffer.wrap(body('x', 10)))
+                .build();
+
+        fixedSigner(cache).getSignature(request, CREDENTIAL);
+
+        assertThat(cache.size(), is(0));
+        assertThat(cache.getMissCount(), is(0L));
+    }
+
+    @Test
+    public void testRequestHashCodeDependsOnBodyContent() {
+        Request first = post(body('h', 64));
+        Request second = post(body('h', 64));
+
+        assertThat(first.hashCode(), is(equalTo(second.hashCode())));
+        assertThat(first.hashCode(), is(not(equalTo(post(body('i', 64)).hashCode()))));
+    }
+
+    private static EdgeGridV1Signer fixedSigner(ContentHashCache cache) {
+        if (cache == null) {
+            return new EdgeGridV1Signer() {
+                @Override
+                protected long getTimestamp() {
+                    return 1470294000000L;
+                }
+
+                @Override
+                protected String getNonce() {
+                    return "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+                }
+            };
+        }
+        return new EdgeGridV1Signer(cache) {
+            @Override
+            protected long getTimestamp() {
+                return 1470294000000L;
+            }
+
+            @Override
+            protected String getNonce() {
+                return "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+            }
+        };
+    }
+
+    private static Request post(byte[] body) {
+        return Request.builder()
+                .method("POST")
+                .uri("/ccu/v3/invalidate/url/production")
+                .body(body)
+                .build();
+    }
+
+    private static RequestBody.ArrayBody arrayBody(byte[] bytes) {
+        return (RequestBody.ArrayBody) RequestBody.of(bytes);
+    }
+
+    private static byte[] body(char ch, int length) {
+        byte[] body = new byte[length];
+        Arrays.fill(body, (byte) ch);
+        return body;
+    }
+
+}
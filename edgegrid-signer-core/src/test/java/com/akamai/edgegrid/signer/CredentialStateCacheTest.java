@@ -0,0 +1,116 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+/**
+ * Unit tests for {@link CredentialStateCache}.
+ *
+ */
+public class CredentialStateCacheTest {
+
+    private static final Request REQUEST = Request.builder()
+            .method("GET")
+            .uri("/billing-usage/v1/reportSources")
+            .build();
+
+    private final AtomicLong now = new AtomicLong(1470294000000L);
+
+    @Test
+    public void testCachedSignatureMatchesUncachedSignature() throws RequestSigningException {
+        CredentialStateCache cache = new CredentialStateCache(16);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+        EdgeGridV1Signer signer = fixedSigner(null);
+
+        for (int i = 0; i < 3; i++) {
+            // a new but equal credential for every request, as built by most providers
+            ClientCredential credential = credential("tenant", "secret");
+            assertThat(cachingSigner.getSignature(REQUEST, credential),
+                    is(equalTo(signer.getSignature(REQUEST, credential))));
+        }
+
+        assertThat(cache.getMissCount(), is(1L));
+        assertThat(cache.getHitCount(), is(2L));
+        assertThat(cache.size(), is(1));
+    }
+
+    @Test
+    public void testSigningKeyFollowsTime() throws RequestSigningException {
+        CredentialStateCache cache = new CredentialStateCache(16);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+        EdgeGridV1Signer signer = fixedSigner(null);
+        ClientCredential credential = credential("tenant", "secret");
+
+        String first = cachingSigner.getSignature(REQUEST, credential);
+        now.addAndGet(1000L);
+        String second = cachingSigner.getSignature(REQUEST, credential);
+
+        assertThat(second, is(not(equalTo(first))));
+        assertThat(second, is(equalTo(signer.getSignature(REQUEST, credential))));
+    }
+
+    @Test
+    public void testRotatedSecretGivesNewEntry() throws RequestSigningException {
+        CredentialStateCache cache = new CredentialStateCache(16);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+        EdgeGridV1Signer signer = fixedSigner(null);
+
+        cachingSigner.getSignature(REQUEST, credential("tenant", "secret"));
+        ClientCredential rotated = credential("tenant", "rotated-secret");
+
+        assertThat(cachingSigner.getSignature(REQUEST, rotated), is(equalTo(signer.getSignature(REQUEST, rotated))));
+        assertThat(cache.getMissCount(), is(2L));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void testFrequentlyUsedEntryIsKept() throws RequestSigningException {
+        CredentialStateCache cache = new CredentialStateCache(4);
+        EdgeGridV1Signer cachingSigner = fixedSigner(cache);
+
+        for (int i = 0; i < 5; i++) {
+            cachingSigner.getSignature(REQUEST, credential("busy", "secret"));
+        }
+        for (int i = 0; i < 20; i++) {
+            cachingSigner.getSignature(REQUEST, credential("rare-" + i, "secret"));
+        }
+        long hits = cache.getHitCount();
+        cachingSigner.getSignature(REQUEST, credential("busy", "secret"));
+
+        assertThat(cache.getHitCount(), is(hits + 1));
+        assertThat(cache.size(), is(4));
+        assertThat(cache.getEvictionCount(), is(17L));
+    }
+
+    private static ClientCredential credential(String clientToken, String clientSecret) {
+        return ClientCredential.builder()
+                .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+                .clientSecret(clientSecret)
+                .clientToken(clientToken)
+                .host("akaa-baseurl-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net")
+                .build();
+    }
+
+    private EdgeGridV1Signer fixedSigner(CredentialStateCache cache) {
+        return new EdgeGridV1Signer(EdgeGridV1Signer.builder().credentialStateCache(cache)) {
+            @Override
+            protected long getTimestamp() {
+                return now.get();
+            }
+
+            @Override
+            protected String getNonce() {
+                return "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+            }
+        };
+    }
+
+}
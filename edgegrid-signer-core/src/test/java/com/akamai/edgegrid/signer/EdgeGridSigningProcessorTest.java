@@ -0,0 +1,186 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * Unit tests for {@link EdgeGridSigningProcessor}.
+ *
+ */
+public class EdgeGridSigningProcessorTest {
+
+    private static final ClientCredential CREDENTIAL = ClientCredential.builder()
+            .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+            .clientSecret("12rvdn/myhSSiuYAC6ZPGaI91ezhdbYd7WyTRKhGxms=")
+            .clientToken("akaa-k7glklzuxkkh2ycw-oadjrtwpvpn6yjoj")
+            .host("control.akamai.com")
+            .build();
+
+    @Test
+    public void testSignsAllRequestsInOrder() throws Exception {
+        RequestPublisher publisher = new RequestPublisher(50);
+        EdgeGridSigningProcessor processor = new EdgeGridSigningProcessor(
+                new DefaultClientCredentialProvider(CREDENTIAL), Runnable::run, 8);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(subscriber.received.size(), is(50));
+        for (int i = 0; i < 50; i++) {
+            SignedRequest signedRequest = subscriber.received.get(i);
+            assertThat(signedRequest.getUri(), is(equalTo(URI.create("https://control.akamai.com/check?item=" + i))));
+            assertThat(signedRequest.getAuthorization(), startsWith("EG1-HMAC-SHA256 client_token=akaa-k7glklzuxkkh2ycw-oadjrtwpvpn6yjoj;"));
+        }
+        assertThat(subscriber.error, is(nullValue()));
+    }
+
+    @Test
+    public void testRespectsDownstreamDemandAndBoundsUpstreamDemand() {
+        RequestPublisher publisher = new RequestPublisher(1000);
+        EdgeGridSigningProcessor processor = new EdgeGridSigningProcessor(
+                new DefaultClientCredentialProvider(CREDENTIAL), Runnable::run, 4);
+        RecordingSubscriber subscriber = new RecordingSubscriber(3);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertThat(subscriber.received.size(), is(3));
+        assertThat(publisher.requested.get(), lessThanOrEqualTo(3L + 4L));
+
+        subscriber.subscription.request(2);
+
+        assertThat(subscriber.received.size(), is(5));
+        assertThat(publisher.requested.get(), lessThanOrEqualTo(5L + 4L));
+    }
+
+    @Test
+    public void testSigningFailureCancelsUpstream() throws Exception {
+        RequestPublisher publisher = new RequestPublisher(10);
+        EdgeGridSigningProcessor processor = new EdgeGridSigningProcessor(
+                request -> null, Runnable::run, 4);
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+
+        assertThat(subscriber.completed.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(subscriber.error, is(instanceOf(NoMatchingCredentialException.class)));
+        assertThat(publisher.cancelled.get(), is(true));
+    }
+
+    @Test
+    public void testRejectsSecondSubscriber() throws Exception {
+        EdgeGridSigningProcessor processor = new EdgeGridSigningProcessor(CREDENTIAL);
+        processor.subscribe(new RecordingSubscriber(1));
+        RecordingSubscriber second = new RecordingSubscriber(1);
+
+        processor.subscribe(second);
+
+        assertThat(second.error, is(instanceOf(IllegalStateException.class)));
+    }
+
+    /**
+     * Synchronous publisher of GET requests that records upstream demand.
+     */
+    private static class RequestPublisher implements Flow.Publisher<Request> {
+
+        private final int count;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private int next;
+
+        RequestPublisher(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super Request> subscriber) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                private boolean emitting;
+
+                @Override
+                public void request(long n) {
+                    requested.addAndGet(n);
+                    if (emitting) {
+                        return;
+                    }
+                    emitting = true;
+                    while (!cancelled.get() && next < count && next < requested.get()) {
+                        subscriber.onNext(Request.builder()
+                                .method("GET")
+                                .uri("/check?item=" + next++)
+                                .build());
+                    }
+                    if (!cancelled.get() && next == count) {
+                        next++;
+                        subscriber.onComplete();
+                    }
+                    emitting = false;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            });
+        }
+
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<SignedRequest> {
+
+        private final long initialDemand;
+        private final List<SignedRequest> received = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        RecordingSubscriber(long initialDemand) {
+            this.initialDemand = initialDemand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialDemand);
+        }
+
+        @Override
+        public void onNext(SignedRequest item) {
+            received.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.akamai.edgegrid.signer;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link EdgeGridV1Signer} bulk signing. Compares signing a batch one request at
+ * a time with {@link EdgeGridV1Signer#getSignatures(java.util.Collection, ClientCredential)} and
+ * its parallel variant for an increasing number of threads. Run it with
+ * {@code mvn -pl edgegrid-signer-core test-compile} followed by {@link #main(String[])} from the
+ * test classpath.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EdgeGridV1SignerBenchmark {
+
+    private static final int BATCH_SIZE = 4096;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private EdgeGridV1Signer signer;
+    private ClientCredential credential;
+    private List<Request> batch;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        signer = new EdgeGridV1Signer();
+        credential = ClientCredential.builder()
+                .accessToken("akab-access-token-xxx-xxxxxxxxxxxxxxxx")
+                .clientToken("akab-client-token-xxx-xxxxxxxxxxxxxxxx")
+                .clientSecret("xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx=")
+                .host("akaa-baseurl-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net")
+                .build();
+
+        byte[] body = new byte[1024];
+        Arrays.fill(body, (byte) 'x');
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(Request.builder()
+                    .method("POST")
+                    .uri("/ccu/v3/invalidate/url/production?item=" + i)
+                    .header("Content-Type", "application/json")
+                    .body(body)
+                    .build());
+        }
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<String> oneByOne() throws RequestSigningException {
+        List<String> signatures = new ArrayList<>(batch.size());
+        for (Request request : batch) {
+            signatures.add(signer.getSignature(request, credential));
+        }
+        return signatures;
+    }
+
+    @Benchmark
+    public List<String> bulk() throws RequestSigningException {
+        return signer.getSignatures(batch, credential);
+    }
+
+    @Benchmark
+    public List<String> bulkParallel() throws RequestSigningException {
+        return signer.getSignatures(batch, credential, pool);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EdgeGridV1SignerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+}
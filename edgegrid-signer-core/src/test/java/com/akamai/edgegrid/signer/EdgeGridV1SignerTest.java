@@ -5,13 +5,23 @@ import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 
@@ -44,6 +54,256 @@ public class EdgeGridV1SignerTest {
         assertThat(actualAuthorizationHeader, is(equalTo(expectedAuthorizationHeader)));
     }
 
+    @Test
+    public void testBulkSignaturesMatchSingleSignatures() throws RequestSigningException {
+        EdgeGridV1Signer signer = fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c");
+        ClientCredential credential = bulkCredential();
+        List<Request> requests = bulkRequests(10);
+
+        List<String> signatures = signer.getSignatures(requests, credential);
+
+        assertThat(signatures.size(), is(equalTo(requests.size())));
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(signatures.get(i), is(equalTo(signer.getSignature(requests.get(i), credential))));
+        }
+    }
+
+    @Test
+    public void testBulkSignaturesRollOverSigningKeyEverySecond() throws RequestSigningException {
+        // 2016-08-04T07:00:00.400Z to 07:00:02.000Z, crossing two second boundaries
+        long[] timestamps = {1470294000400L, 1470294000999L, 1470294001000L, 1470294001700L, 1470294002000L};
+        String nonce = "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+        AtomicInteger tick = new AtomicInteger();
+        EdgeGridV1Signer signer = new EdgeGridV1Signer() {
+            @Override
+            protected long getTimestamp() {
+                return timestamps[tick.getAndIncrement()];
+            }
+
+            @Override
+            protected String getNonce() {
+                return nonce;
+            }
+        };
+        ClientCredential credential = bulkCredential();
+        List<Request> requests = bulkRequests(timestamps.length);
+
+        List<String> signatures = signer.getSignatures(requests, credential);
+
+        assertThat(tick.get(), is(timestamps.length));
+        for (int i = 0; i < requests.size(); i++) {
+            assertThat(signatures.get(i), is(equalTo(
+                    new EdgeGridV1Signer().getSignature(requests.get(i), credential, timestamps[i], nonce))));
+        }
+        assertThat(signatures.get(1), containsString("timestamp=20160804T07:00:00+0000;"));
+        assertThat(signatures.get(2), containsString("timestamp=20160804T07:00:01+0000;"));
+        assertThat(signatures.get(4), containsString("timestamp=20160804T07:00:02+0000;"));
+    }
+
+    @Test
+    public void testParallelBulkSignaturesPreserveOrder() throws RequestSigningException {
+        EdgeGridV1Signer signer = fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c");
+        ClientCredential credential = bulkCredential();
+        List<Request> requests = bulkRequests(1000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> signatures = signer.getSignatures(requests, credential, pool);
+
+            assertThat(signatures, is(equalTo(signer.getSignatures(requests, credential))));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(dataProvider = "fanOutSizes")
+    public void testFanOutSignaturesMatchSingleSignatures(int credentialCount) throws RequestSigningException {
+        EdgeGridV1Signer signer = fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c");
+        Request request = Request.builder()
+                .method("POST")
+                .uri("/ccu/v3/invalidate/url/production?a=b")
+                .header("Content-Type", "application/json")
+                .header("X-Extra", "  two   spaces ")
+                .body(repeat('p', 3000).getBytes())
+                .build();
+        List<ClientCredential> credentials = new ArrayList<>();
+        for (int i = 0; i < credentialCount; i++) {
+            ClientCredential.ClientCredentialBuilder credential = ClientCredential.builder()
+                    .accessToken("akaa-access-token-" + i)
+                    .clientSecret("secret-" + i)
+                    .clientToken("akaa-client-token-" + i)
+                    .host("akab-" + i + ".luna.akamaiapis.net")
+                    .maxBodySize(i % 3 == 0 ? 1024 : 131072)
+                    .headerToSign("Content-Type");
+            if (i % 2 == 0) {
+                credential.headerToSign("X-Extra");
+            }
+            credentials.add(credential.build());
+        }
+
+        List<String> signatures = signer.getSignatures(request, credentials);
+
+        assertThat(signatures.size(), is(credentialCount));
+        for (int i = 0; i < credentialCount; i++) {
+            assertThat(signatures.get(i), is(equalTo(signer.getSignature(request, credentials.get(i)))));
+        }
+    }
+
+    @DataProvider
+    public Object[][] fanOutSizes() {
+        return new Object[][]{{0}, {1}, {7}, {300}};
+    }
+
+    @Test
+    public void testResignMatchesFreshSignature() throws RequestSigningException {
+        ClientCredential credential = bulkCredential();
+        Request request = bulkRequests(1).get(0);
+        SignedRequestContext context = fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c")
+                .getSignedRequestContext(request, credential);
+        EdgeGridV1Signer laterSigner = fixedSigner(1470294060000L, "0b4b8ee1-3a4c-4d71-b7b2-1f0b0bd2d8f5");
+
+        assertThat(context.getAuthorization(), is(equalTo(
+                fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c").getSignature(request, credential))));
+        assertThat(laterSigner.resign(context), is(equalTo(laterSigner.getSignature(request, credential))));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testFanOutSigningRejectsNullCredential() throws RequestSigningException {
+        List<ClientCredential> credentials = new ArrayList<>(Arrays.asList(bulkCredential(), null));
+        new EdgeGridV1Signer().getSignatures(bulkRequests(1).get(0), credentials, ForkJoinPool.commonPool());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testParallelBulkSigningPropagatesFailures() throws RequestSigningException {
+        List<Request> requests = new ArrayList<>(bulkRequests(200));
+        requests.add(null);
+        new EdgeGridV1Signer().getSignatures(requests, bulkCredential(), ForkJoinPool.commonPool());
+    }
+
+    @Test(dataProvider = "fileBodyLengths")
+    public void testFileBodySignatureMatchesArrayBodySignature(int bodyLength) throws Exception {
+        byte[] body = repeat('f', bodyLength).getBytes();
+        Path file = Files.createTempFile("edgegrid-body", ".bin");
+        try {
+            Files.write(file, body);
+            ClientCredential credential = bulkCredential();
+            EdgeGridV1Signer signer = fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c");
+            Request arrayRequest = Request.builder().method("POST").uri("/upload").body(body).build();
+            Request fileRequest = Request.builder().method("POST").uri("/upload").body(file).build();
+
+            assertThat(signer.getSignature(fileRequest, credential),
+                    is(equalTo(signer.getSignature(arrayRequest, credential))));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @DataProvider
+    public Object[][] fileBodyLengths() {
+        return new Object[][]{{0}, {1}, {131072}, {131072 * 3 + 7}};
+    }
+
+    @Test(dataProvider = "fileBodyLengths")
+    public void testBufferBodySignatureMatchesArrayBodySignature(int bodyLength) throws RequestSigningException {
+        byte[] body = repeat('b', bodyLength).getBytes();
+        ClientCredential credential = bulkCredential();
+        EdgeGridV1Signer signer = fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c");
+        Request arrayRequest = Request.builder().method("POST").uri("/upload").body(body).build();
+        ByteBuffer direct = ByteBuffer.allocateDirect(bodyLength + 2);
+        direct.put((byte) 'x').put(body).put((byte) 'y').flip();
+        direct.position(1).limit(bodyLength + 1);
+        Request bufferRequest = Request.builder().method("POST").uri("/upload").body(direct).build();
+
+        assertThat(signer.getSignature(bufferRequest, credential),
+                is(equalTo(signer.getSignature(arrayRequest, credential))));
+        assertThat(direct.position(), is(1));
+        assertThat(direct.limit(), is(bodyLength + 1));
+    }
+
+    @Test(dataProvider = "fileBodyLengths")
+    public void testRequestViewSignatureMatchesRequestSignature(int bodyLength) throws RequestSigningException {
+        byte[] body = repeat('v', bodyLength).getBytes();
+        ClientCredential credential = bulkCredential();
+        EdgeGridV1Signer signer = fixedSigner(1470294000000L, "ec9d20ee-1e9b-4c1f-925a-f0017754f86c");
+        URI uri = URI.create("https://ignored.example.com/upload/a%20b?x=1%202&y");
+        Request request = Request.builder()
+                .method("POST")
+                .uri(uri)
+                .header("Content-Type", "text/plain")
+                .header("X-Ignored", "ignored")
+                .body(body)
+                .build();
+        RequestView view = new RequestView() {
+            @Override
+            public String getMethod() {
+                return "POST";
+            }
+
+            @Override
+            public String getPathAndQuery() {
+                return RequestView.pathAndQuery(uri);
+            }
+
+            @Override
+            public String getHeader(String name) {
+                return "content-type".equals(name) ? "text/plain" : null;
+            }
+
+            @Override
+            public long digestBody(MessageDigest digest, int maxLength) throws IOException {
+                return RequestView.digest(new ByteArrayInputStream(body), digest, maxLength);
+            }
+        };
+
+        assertThat(signer.getSignature(view, credential), is(equalTo(signer.getSignature(request, credential))));
+    }
+
+    @Test(expectedExceptions = RequestSigningException.class)
+    public void testMissingFileBodyFailsSigning() throws RequestSigningException {
+        Request request = Request.builder()
+                .method("POST")
+                .uri("/upload")
+                .body(Paths.get("does-not-exist.bin"))
+                .build();
+        new EdgeGridV1Signer().getSignature(request, bulkCredential());
+    }
+
+    private static EdgeGridV1Signer fixedSigner(long timestamp, String nonce) {
+        return new EdgeGridV1Signer() {
+            @Override
+            protected long getTimestamp() {
+                return timestamp;
+            }
+
+            @Override
+            protected String getNonce() {
+                return nonce;
+            }
+        };
+    }
+
+    private static ClientCredential bulkCredential() {
+        return ClientCredential.builder()
+                .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+                .clientSecret("12rvdn/myhSSiuYAC6ZPGaI91ezhdbYd7WyTRKhGxms=")
+                .clientToken("akaa-k7glklzuxkkh2ycw-oadjrtwpvpn6yjoj")
+                .host("control.akamai.com")
+                .headerToSign("Content-Type")
+                .build();
+    }
+
+    private static List<Request> bulkRequests(int count) {
+        List<Request> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            requests.add(Request.builder()
+                    .method(i % 2 == 0 ? "POST" : "GET")
+                    .uri("/ccu/v3/invalidate/url/production?item=" + i)
+                    .header("Content-Type", "application/json")
+                    .body(("{\"objects\":[\"/item/" + i + "\"]}").getBytes())
+                    .build());
+        }
+        return requests;
+    }
+
     @DataProvider
     public Object[][] testData() throws RequestSigningException, URISyntaxException {
         return combine(
@@ -0,0 +1,70 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link HeaderTable}.
+ *
+ */
+public class HeaderTableTest {
+
+    @Test
+    public void testCommonNamesAreShared() {
+        String contentType = HeaderTable.normalizeName("content-type");
+        assertThat(HeaderTable.normalizeName("Content-Type"), is(sameInstance(contentType)));
+        assertThat(HeaderTable.normalizeName("CONTENT-TYPE"), is(sameInstance(contentType)));
+    }
+
+    @Test
+    public void testLowerCaseNamesAreNotCopied() {
+        String name = new String("x-custom-header");
+        assertThat(HeaderTable.normalizeName(name), is(sameInstance(name)));
+    }
+
+    @Test
+    public void testUpperCaseNamesAreLowerCased() {
+        assertThat(HeaderTable.normalizeName("X-Custom-Header"), is(equalTo("x-custom-header")));
+    }
+
+    @Test
+    public void testHeadersAreSortedByName() {
+        HeaderTable.Builder builder = new HeaderTable.Builder();
+        for (int i = 40; i > 0; i--) {
+            builder.add("x-header-" + (char) ('a' + i % 26) + i, "v" + i);
+        }
+        builder.add("accept", "*/*");
+        HeaderTable headers = builder.build();
+
+        assertThat(headers.size(), is(41));
+        assertThat(headers.toMap().keySet().iterator().next(), is(equalTo("accept")));
+        assertThat(headers.get("x-header-o40"), is(equalTo("v40")));
+        assertThat(headers.get("x-header-b1"), is(equalTo("v1")));
+        assertThat(headers.get("x-header-b2"), is(nullValue()));
+    }
+
+    @Test
+    public void testToStringListsHeadersInOrder() {
+        HeaderTable.Builder builder = new HeaderTable.Builder();
+        builder.add("user-agent", "test");
+        builder.add("accept", "*/*");
+
+        assertThat(builder.build().toString(), is(equalTo("{accept=*/*, user-agent=test}")));
+        assertThat(builder.build().toMap().keySet(), contains("accept", "user-agent"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectDuplicateNames() {
+        HeaderTable.Builder builder = new HeaderTable.Builder();
+        builder.add("accept", "*/*");
+        builder.add("host", "example.com");
+        builder.add("accept", "text/plain");
+    }
+
+}
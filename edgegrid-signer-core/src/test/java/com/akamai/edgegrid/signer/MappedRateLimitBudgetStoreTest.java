@@ -0,0 +1,213 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.RateLimitExceededException;
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Unit tests for {@link MappedRateLimitBudgetStore}.
+ *
+ */
+public class MappedRateLimitBudgetStoreTest {
+
+    private static final int LIMIT = 10;
+
+    private static final ClientCredential CREDENTIAL = credential("akab-c113ntt0k3n4qtari252bfxxbsl-yvsdj");
+
+    private Path file;
+
+    @BeforeMethod
+    public void createFile() throws IOException {
+        file = Files.createTempFile("edgegrid-rate-limit", ".budget");
+        Files.delete(file);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testLimitersShareBudget() throws IOException, RequestSigningException {
+        try (MappedRateLimitBudgetStore first = MappedRateLimitBudgetStore.open(file, 16);
+             MappedRateLimitBudgetStore second = MappedRateLimitBudgetStore.open(file)) {
+            ClientRateLimiter firstLimiter = sheddingLimiter(first);
+            ClientRateLimiter secondLimiter = sheddingLimiter(second);
+
+            for (int i = 0; i < LIMIT / 2; i++) {
+                firstLimiter.acquire(CREDENTIAL);
+                secondLimiter.acquire(CREDENTIAL);
+            }
+            firstLimiter.acquire(credential("akab-other"));
+
+            Assert.expectThrows(RateLimitExceededException.class, () -> firstLimiter.acquire(CREDENTIAL));
+            Assert.expectThrows(RateLimitExceededException.class, () -> secondLimiter.acquire(CREDENTIAL));
+            assertThat(second.getSlotCount(), is(16));
+        }
+    }
+
+    @Test
+    public void testThrottledResponseHoldsBackOtherLimiters() throws IOException, RequestSigningException {
+        try (MappedRateLimitBudgetStore first = MappedRateLimitBudgetStore.open(file);
+             MappedRateLimitBudgetStore second = MappedRateLimitBudgetStore.open(file)) {
+            ClientRateLimiter firstLimiter = sheddingLimiter(first);
+            ClientRateLimiter secondLimiter = sheddingLimiter(second);
+
+            firstLimiter.update(CREDENTIAL.getClientToken(), 429, name -> "Retry-After".equalsIgnoreCase(name) ? "60" : null);
+
+            RateLimitExceededException e = Assert.expectThrows(RateLimitExceededException.class,
+                    () -> secondLimiter.acquire(CREDENTIAL));
+            assertThat(e.getWaitMillis() > 59_000L, is(true));
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testRejectsOtherFiles() throws IOException {
+        Files.write(file, "[default]\nhost = example.com\n".getBytes(StandardCharsets.UTF_8));
+        MappedRateLimitBudgetStore.open(file).close();
+    }
+
+    @Test
+    public void testProcessesShareBudget() throws Exception {
+        int processes = 3;
+        int requestsPerProcess = 12;
+        RateLimitedServer server = new RateLimitedServer();
+        try {
+            List<Process> started = new ArrayList<>();
+            for (int i = 0; i < processes; i++) {
+                started.add(new ProcessBuilder(
+                        Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                        "-cp", System.getProperty("java.class.path"),
+                        ClientProcess.class.getName(),
+                        file.toString(), server.getUrl(), Integer.toString(requestsPerProcess))
+                        .inheritIO()
+                        .start());
+            }
+            for (Process process : started) {
+                assertThat(process.waitFor(60, TimeUnit.SECONDS), is(true));
+                assertThat(process.exitValue(), is(0));
+            }
+        } finally {
+            server.stop();
+        }
+
+        assertThat(server.throttled.get(), is(0));
+        assertThat(server.accepted.get(), is(processes * requestsPerProcess));
+    }
+
+    private static ClientRateLimiter sheddingLimiter(MappedRateLimitBudgetStore store) {
+        return ClientRateLimiter.builder()
+                .window(Duration.ofSeconds(10))
+                .initialLimit(LIMIT)
+                .maxWait(Duration.ZERO)
+                .budgetStore(store)
+                .build();
+    }
+
+    private static ClientCredential credential(String clientToken) {
+        return ClientCredential.builder()
+                .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+                .clientSecret("SOMESECRET")
+                .clientToken(clientToken)
+                .host("akaa-baseurl-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net")
+                .build();
+    }
+
+    /**
+     * Stand-in for the OPEN API servers, enforcing {@value #LIMIT} requests per second with a token
+     * bucket. Its bursts are half as large again as the limit, so that requests held up on their way
+     * out of a freshly started JVM do not count as throttled, while processes each spending the
+     * budget on their own would be.
+     */
+    private static final class RateLimitedServer {
+
+        private final HttpServer server;
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final AtomicInteger throttled = new AtomicInteger();
+        private static final double CAPACITY = LIMIT * 1.5;
+
+        private double tokens = CAPACITY;
+        private long lastRefill = System.nanoTime();
+
+        private RateLimitedServer() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                int status = take() ? 200 : 429;
+                (status == 200 ? accepted : throttled).incrementAndGet();
+                exchange.getResponseHeaders().add("Akamai-RateLimit-Limit", Integer.toString(LIMIT));
+                exchange.sendResponseHeaders(status, -1);
+                exchange.close();
+            });
+            server.start();
+        }
+
+        private synchronized boolean take() {
+            long now = System.nanoTime();
+            tokens = Math.min(CAPACITY, tokens + (now - lastRefill) * LIMIT / 1e9);
+            lastRefill = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        private String getUrl() {
+            return "http://localhost:" + server.getAddress().getPort() + "/";
+        }
+
+        private void stop() {
+            server.stop(0);
+        }
+
+    }
+
+    /**
+     * A JVM sending requests through a {@link ClientRateLimiter} sharing its budget through the
+     * file given as first argument.
+     */
+    public static final class ClientProcess {
+
+        public static void main(String[] args) throws Exception {
+            try (MappedRateLimitBudgetStore store = MappedRateLimitBudgetStore.open(Paths.get(args[0]))) {
+                ClientRateLimiter limiter = ClientRateLimiter.builder()
+                        .window(Duration.ofSeconds(1))
+                        .initialLimit(LIMIT)
+                        .budgetStore(store)
+                        .build();
+                int requests = Integer.parseInt(args[2]);
+                for (int i = 0; i < requests; i++) {
+                    limiter.acquire(CREDENTIAL);
+                    HttpURLConnection connection = (HttpURLConnection) new URL(args[1]).openConnection();
+                    int status = connection.getResponseCode();
+                    limiter.update(CREDENTIAL.getClientToken(), status, connection::getHeaderField);
+                    connection.disconnect();
+                }
+            }
+        }
+
+    }
+
+}
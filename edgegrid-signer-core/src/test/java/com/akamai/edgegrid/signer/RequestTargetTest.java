@@ -0,0 +1,81 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link RequestTarget}.
+ *
+ */
+public class RequestTargetTest {
+
+    @Test(dataProvider = "uris")
+    public void testParsedStringMatchesNormalizedUri(String uri) throws URISyntaxException {
+        assertThat(RequestTarget.parse(uri).pathAndQuery(), is(equalTo(normalizedPathAndQuery(URI.create(uri)))));
+    }
+
+    @Test(dataProvider = "uris")
+    public void testUriMatchesNormalizedUri(String uri) throws URISyntaxException {
+        assertThat(RequestTarget.of(URI.create(uri)).pathAndQuery(), is(equalTo(normalizedPathAndQuery(URI.create(uri)))));
+    }
+
+    @Test(dataProvider = "uris")
+    public void testUriOfTargetHasSamePathAndQuery(String uri) throws URISyntaxException {
+        URI normalized = normalize(URI.create(uri));
+        URI targetUri = RequestTarget.parse(uri).uri();
+
+        assertThat(targetUri.getRawPath(), is(equalTo(normalized.getRawPath())));
+        // the query is signed raw, which the normalized URI only gave back after escaping it twice
+        assertThat(targetUri.getRawQuery(), is(equalTo(normalized.getQuery())));
+    }
+
+    @DataProvider
+    public Object[][] uris() {
+        return new Object[][]{
+                {"/"},
+                {"/billing-usage/v1/reportSources"},
+                {"/papi/v1/properties?contractId=ctr_1&groupId=grp_2"},
+                {"/a/b?"},
+                {"/search?q=a%20b&r=%2B1"},
+                {"/path%20with%20spaces/x"},
+                {"/encoded%2Fslash?x=1"},
+                {"/unicode/été?q=é"},
+                {"/fragment?x=1#section"},
+                {"/semi;colon/@at:colon?a=b=c&d"},
+                {"relative/path?x"},
+                {"?only=query"},
+                {"https://anything.com/foo.html?a=b&c=d"},
+                {"https://anything.com"},
+                {"//authority/path"},
+        };
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectInvalidEscape() {
+        RequestTarget.parse("/search?q=%zz");
+    }
+
+    /**
+     * Path and query as signed before path and query were parsed only once.
+     */
+    private static String normalizedPathAndQuery(URI uri) throws URISyntaxException {
+        URI normalized = normalize(uri);
+        StringBuilder sb = new StringBuilder(normalized.getRawPath());
+        if (normalized.getQuery() != null) {
+            sb.append("?").append(normalized.getQuery());
+        }
+        return sb.toString();
+    }
+
+    private static URI normalize(URI uri) throws URISyntaxException {
+        return new URI(null, null, uri.getPath(), uri.getRawQuery(), null);
+    }
+
+}
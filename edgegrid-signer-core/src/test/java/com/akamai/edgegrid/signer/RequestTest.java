@@ -4,6 +4,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -74,6 +75,25 @@ public class RequestTest {
         assertThat(request.getHeaders().get("header"), equalTo("h"));
     }
 
+    @Test
+    public void testBufferBodyIsReadOnlyView() {
+        ByteBuffer buffer = ByteBuffer.wrap("prefix-body".getBytes());
+        buffer.position(7);
+        Request request = Request.builder()
+                .method("POST")
+                .uri("/check")
+                .body(buffer)
+                .build();
+
+        assertThat(request.getBody(), equalTo("body".getBytes()));
+        assertThat(buffer.position(), equalTo(7));
+        assertThat(request, equalTo(Request.builder()
+                .method("POST")
+                .uri("/check")
+                .body(ByteBuffer.wrap("body".getBytes()))
+                .build()));
+    }
+
     @Test
     public void testHeadersLowercasing()  {
         Request request = Request.builder()
@@ -0,0 +1,87 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * Unit tests for {@link RoutingClientCredentialProvider}.
+ *
+ */
+public class RoutingClientCredentialProviderTest {
+
+    private static final ClientCredential DEFAULT = credential("default");
+    private static final ClientCredential CCU = credential("ccu");
+    private static final ClientCredential PAPI = credential("papi");
+    private static final ClientCredential PAPI_POST = credential("papi-post");
+    private static final ClientCredential PAPI_ACTIVATIONS = credential("papi-activations");
+    private static final ClientCredential IDENTITY = credential("identity");
+
+    private final RoutingClientCredentialProvider provider = RoutingClientCredentialProvider.builder()
+            .route("/ccu/", CCU)
+            .route("/papi/", PAPI)
+            .route("POST", "/papi/", PAPI_POST)
+            .route("/papi/v1/properties/prp_1/activations", PAPI_ACTIVATIONS)
+            .route("/identity-management/", IDENTITY)
+            .defaultCredential(DEFAULT)
+            .build();
+
+    @Test(dataProvider = "routes")
+    public void testRoute(String method, String uri, ClientCredential expected) throws Exception {
+        Request request = Request.builder().method(method).uri(uri).build();
+        assertThat(provider.getClientCredential(request), is(sameInstance(expected)));
+        assertThat(provider.getClientCredential((RequestView) request), is(sameInstance(expected)));
+    }
+
+    @DataProvider
+    public Object[][] routes() {
+        return new Object[][]{
+                {"POST", "/ccu/v3/invalidate/url/production", CCU},
+                {"GET", "/papi/v1/properties?contractId=ctr_1", PAPI},
+                {"POST", "/papi/v1/properties?contractId=ctr_1", PAPI_POST},
+                {"post", "/papi/v1/properties", PAPI_POST},
+                {"POST", "/papi/v1/properties/prp_1/activations/atv_1", PAPI_ACTIVATIONS},
+                {"GET", "/papi", DEFAULT},
+                {"GET", "/identity-management/v3/user-profile", IDENTITY},
+                {"GET", "/identity", DEFAULT},
+                {"GET", "/reporting-api/v1/reports", DEFAULT},
+                {"GET", "/?q=/ccu/", DEFAULT},
+                {"GET", "/", DEFAULT},
+        };
+    }
+
+    @Test(expectedExceptions = NoMatchingCredentialException.class)
+    public void testNoRouteWithoutDefault() throws Exception {
+        RoutingClientCredentialProvider.builder()
+                .route("/ccu/", CCU)
+                .build()
+                .route("GET", "/papi/v1/groups");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectDuplicateRoute() {
+        RoutingClientCredentialProvider.builder()
+                .route("POST", "/ccu/", CCU)
+                .route("post", "/ccu/", PAPI);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectRelativePrefix() {
+        RoutingClientCredentialProvider.builder().route("ccu/", CCU);
+    }
+
+    private static ClientCredential credential(String name) {
+        return ClientCredential.builder()
+                .accessToken(name + "-access-token")
+                .clientToken(name + "-client-token")
+                .clientSecret(name + "-client-secret")
+                .host(name + ".luna.akamaiapis.net")
+                .build();
+    }
+
+}
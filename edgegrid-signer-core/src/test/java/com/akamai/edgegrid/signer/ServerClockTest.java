@@ -0,0 +1,103 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+/**
+ * Unit tests for {@link ServerClock}.
+ *
+ */
+public class ServerClockTest {
+
+    /** 2016-08-04T07:00:00Z */
+    private static final long LOCAL_TIME = 1470294000000L;
+
+    @Test
+    public void testOffsetIsLearnedFromDateHeader() {
+        ServerClock clock = fixedClock();
+
+        assertThat(clock.update(date(LOCAL_TIME + 60_000L)), is(true));
+
+        assertThat(clock.getOffsetMillis(), is(60_500L));
+        assertThat(clock.currentTimeMillis(), is(LOCAL_TIME + 60_500L));
+    }
+
+    @Test
+    public void testOffsetWithinResolutionOfDateHeaderIsIgnored() {
+        ServerClock clock = fixedClock();
+
+        assertThat(clock.update(date(LOCAL_TIME)), is(false));
+        assertThat(clock.update(date(LOCAL_TIME - 1000L)), is(false));
+        assertThat(clock.getOffsetMillis(), is(0L));
+
+        assertThat(clock.update(date(LOCAL_TIME - 5000L)), is(true));
+        assertThat(clock.update(date(LOCAL_TIME - 5000L)), is(false));
+        assertThat(clock.getOffsetMillis(), is(-4500L));
+    }
+
+    @Test
+    public void testInvalidDateHeaderIsIgnored() {
+        ServerClock clock = fixedClock();
+
+        assertThat(clock.update((String) null), is(false));
+        assertThat(clock.update("yesterday"), is(false));
+        assertThat(clock.getOffsetMillis(), is(0L));
+    }
+
+    @Test
+    public void testSkewIsJudgedFromSigningTimestamp() {
+        String authorization = "EG1-HMAC-SHA256 client_token=akab-c113ntt0k3n4qtari252bfxxbsl-yvsdj;"
+                + "access_token=akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234;timestamp=20160804T07:00:00+0000;"
+                + "nonce=ec9d20ee-1e9b-4c1f-925a-f0017754f86c;signature=X/I=";
+
+        assertThat(ServerClock.isSignedWithSkewedClock(authorization, date(LOCAL_TIME + 1000L)), is(false));
+        assertThat(ServerClock.isSignedWithSkewedClock(authorization, date(LOCAL_TIME - 1000L)), is(false));
+        // slow responses are not mistaken for skew
+        assertThat(ServerClock.isSignedWithSkewedClock(authorization, date(LOCAL_TIME + 5000L)), is(false));
+        assertThat(ServerClock.isSignedWithSkewedClock(authorization, date(LOCAL_TIME + ServerClock.MAX_LATENCY_IN_MILLIS)), is(false));
+        assertThat(ServerClock.isSignedWithSkewedClock(authorization, date(LOCAL_TIME + 60_000L)), is(true));
+        assertThat(ServerClock.isSignedWithSkewedClock(authorization, date(LOCAL_TIME - 2000L)), is(true));
+        assertThat(ServerClock.isSignedWithSkewedClock(authorization, null), is(false));
+        assertThat(ServerClock.isSignedWithSkewedClock("Basic dXNlcjpwYXNz", date(LOCAL_TIME)), is(false));
+        assertThat(ServerClock.isSignedWithSkewedClock(null, date(LOCAL_TIME)), is(false));
+    }
+
+    @Test
+    public void testSignerTakesTimestampFromServerClock() throws RequestSigningException {
+        ServerClock clock = fixedClock();
+        clock.update(date(LOCAL_TIME + 3_600_000L));
+        EdgeGridV1Signer signer = EdgeGridV1Signer.builder().serverClock(clock).build();
+        Request request = Request.builder().method("GET").uri("/").build();
+        ClientCredential credential = ClientCredential.builder()
+                .accessToken("akaa-dm5g2bfwoodqnc6k-ju7vlao2gz6oz234")
+                .clientSecret("12rvdn/myhSSiuYAC6ZPGaI91ezhdbYd7WyTRKhGxms=")
+                .clientToken("akaa-k7glklzuxkkh2ycw-oadjrtwpvpn6yjoj")
+                .host("control.akamai.com")
+                .build();
+
+        assertThat(signer.getSignature(request, credential), containsString("timestamp=20160804T08:00:00+0000;"));
+    }
+
+    private static ServerClock fixedClock() {
+        return new ServerClock() {
+            @Override
+            protected long localTimeMillis() {
+                return LOCAL_TIME;
+            }
+        };
+    }
+
+    private static String date(long millis) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(millis).atZone(ZoneOffset.UTC));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
+
+/**
+ * Unit tests for {@link SigningSession}.
+ *
+ */
+public class SigningSessionTest {
+
+    private static final int MAX_BODY_SIZE = 2048;
+
+    private static final ClientCredential CREDENTIAL = ClientCredential.builder()
+            .host("akaa-baseurl-xxxxxxxxxxx-xxxxxxxxxxxxx.luna.akamaiapis.net")
+            .accessToken("akab-access-token-xxx-xxxxxxxxxxxxxxxx")
+            .clientToken("akab-client-token-xxx-xxxxxxxxxxxxxxxx")
+            .clientSecret("xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx=")
+            .maxBodySize(MAX_BODY_SIZE)
+            .headerToSign("X-Test1")
+            .build();
+
+    private static final EdgeGridV1Signer FIXED_SIGNER = new EdgeGridV1Signer() {
+        @Override
+        protected long getTimestamp() {
+            return 1395430461000L;
+        }
+
+        @Override
+        protected String getNonce() {
+            return "nonce-xx-xxxx-xxxx-xxxx-xxxxxxxxxxxx";
+        }
+    };
+
+    @Test(dataProvider = "bodies")
+    public void testSessionMatchesSignatureOfWholeBody(String caseName, String method, int bodyLength,
+                                                       int chunkLength, boolean direct) throws RequestSigningException {
+        byte[] body = new byte[bodyLength];
+        for (int i = 0; i < body.length; i++) {
+            body[i] = (byte) ('a' + i % 26);
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("X-Test1", "test-simple-header");
+        URI uri = URI.create("/testapi/v1/t3?a=b");
+
+        SigningSession session = FIXED_SIGNER.openSession(method, uri, headers, CREDENTIAL);
+        for (int offset = 0; offset < body.length; offset += chunkLength) {
+            int length = Math.min(chunkLength, body.length - offset);
+            ByteBuffer chunk = direct ? ByteBuffer.allocateDirect(length) : ByteBuffer.allocate(length);
+            chunk.put(body, offset, length).flip();
+            session.update(chunk);
+            assertThat(chunk.position(), is(0));
+            assertThat(chunk.remaining(), is(length));
+        }
+
+        Request request = Request.builder()
+                .method(method)
+                .uri(uri)
+                .headers(headers)
+                .body(body)
+                .build();
+        assertThat(session.finish(), is(equalTo(FIXED_SIGNER.getSignature(request, CREDENTIAL))));
+    }
+
+    @DataProvider
+    public Object[][] bodies() {
+        return new Object[][]{
+                {"empty POST", "POST", 0, 16, false},
+                {"POST in one chunk", "POST", 100, 100, false},
+                {"POST in many chunks", "POST", 1000, 7, false},
+                {"POST at limit", "POST", MAX_BODY_SIZE, 512, false},
+                {"POST over limit, chunk crossing limit", "POST", MAX_BODY_SIZE * 3, 1000, false},
+                {"POST over limit, direct buffers", "POST", MAX_BODY_SIZE * 3, 1000, true},
+                {"PUT body is not signed", "PUT", 1000, 100, false},
+        };
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCannotFinishTwice() throws RequestSigningException {
+        SigningSession session = FIXED_SIGNER.openSession("POST", URI.create("/send"),
+                Collections.emptyMap(), CREDENTIAL);
+        session.finish();
+        session.finish();
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void testCannotUpdateAfterFinish() throws RequestSigningException {
+        SigningSession session = FIXED_SIGNER.openSession("POST", URI.create("/send"),
+                Collections.emptyMap(), CREDENTIAL);
+        session.finish();
+        session.update(ByteBuffer.wrap("data".getBytes()));
+    }
+
+}
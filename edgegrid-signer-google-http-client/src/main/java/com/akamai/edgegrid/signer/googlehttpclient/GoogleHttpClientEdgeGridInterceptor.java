@@ -1,13 +1,18 @@
 package com.akamai.edgegrid.signer.googlehttpclient;
 
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
+import com.akamai.edgegrid.signer.ServerClock;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 import com.google.api.client.http.HttpExecuteInterceptor;
 import com.google.api.client.http.HttpRequest;
 
 import java.io.IOException;
+import java.util.Objects;
 
 /**
  * Google HTTP Client Library interceptor that signs a request using EdgeGrid V1 signing algorithm.
@@ -39,6 +44,19 @@ public class GoogleHttpClientEdgeGridInterceptor implements HttpExecuteIntercept
         this.binding = new GoogleHttpClientEdgeGridRequestSigner(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid signing interceptor signing requests with a pre-configured {@code binding},
+     * which may combine any of the features of the signer: an {@link EdgeGridV1Signer} taking its
+     * time from a {@link ServerClock} fed by {@link GoogleHttpClientEdgeGridServerClockHandler},
+     * a {@link ClientRateLimiter} fed by {@link GoogleHttpClientEdgeGridRateLimitInterceptor}, or an
+     * {@link AccountSwitchKeyResolver}.
+     *
+     * @param binding an {@link GoogleHttpClientEdgeGridRequestSigner}
+     */
+    public GoogleHttpClientEdgeGridInterceptor(GoogleHttpClientEdgeGridRequestSigner binding) {
+        this.binding = Objects.requireNonNull(binding, "binding cannot be null");
+    }
+
     @Override
     public void intercept(HttpRequest request) throws IOException {
         try {
@@ -0,0 +1,57 @@
+package com.akamai.edgegrid.signer.googlehttpclient;
+
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseInterceptor;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Google HTTP Client Library response interceptor that feeds a {@link ClientRateLimiter} from the
+ * rate limit headers and the status of every response, for the client token of the signed request
+ * it belongs to. Set it as the response interceptor of a request, together with a
+ * {@link GoogleHttpClientEdgeGridInterceptor} created with the same {@link ClientRateLimiter}.
+ * A request has a single response interceptor: to feed a
+ * {@link com.akamai.edgegrid.signer.ServerClock} as well, pass the
+ * {@link GoogleHttpClientEdgeGridServerClockHandler} as {@code delegate}.
+ *
+ * @see <a href="https://googleapis.dev/java/google-http-client/latest/com/google/api/client/http/HttpResponseInterceptor.html">HttpResponseInterceptor</a> from Google HTTP Client library for Java
+ */
+public class GoogleHttpClientEdgeGridRateLimitInterceptor implements HttpResponseInterceptor {
+
+    private final ClientRateLimiter rateLimiter;
+
+    private final HttpResponseInterceptor delegate;
+
+    /**
+     * Creates a response interceptor feeding {@code rateLimiter}.
+     *
+     * @param rateLimiter a {@link ClientRateLimiter}
+     */
+    public GoogleHttpClientEdgeGridRateLimitInterceptor(ClientRateLimiter rateLimiter) {
+        this(rateLimiter, null);
+    }
+
+    /**
+     * Creates a response interceptor feeding {@code rateLimiter} and handing every response over
+     * to {@code delegate} as well.
+     *
+     * @param rateLimiter a {@link ClientRateLimiter}
+     * @param delegate an {@link HttpResponseInterceptor}, or {@code null}
+     */
+    public GoogleHttpClientEdgeGridRateLimitInterceptor(ClientRateLimiter rateLimiter, HttpResponseInterceptor delegate) {
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter cannot be null");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void interceptResponse(HttpResponse response) throws IOException {
+        String clientToken = ClientRateLimiter.getClientToken(response.getRequest().getHeaders().getAuthorization());
+        rateLimiter.update(clientToken, response.getStatusCode(),
+                name -> response.getHeaders().getFirstHeaderStringValue(name));
+        if (delegate != null) {
+            delegate.interceptResponse(response);
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.akamai.edgegrid.signer.googlehttpclient;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.security.MessageDigest;
 import java.util.Map;
 
 import com.akamai.edgegrid.signer.AbstractEdgeGridRequestSigner;
+import com.akamai.edgegrid.signer.AccountSwitchKeyResolver;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.ClientRateLimiter;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
+import com.akamai.edgegrid.signer.RequestView;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 import com.google.api.client.http.ByteArrayContent;
+import com.google.api.client.http.FileContent;
 import com.google.api.client.http.GenericUrl;
 import com.google.api.client.http.HttpContent;
 import com.google.api.client.http.HttpRequest;
@@ -43,6 +53,49 @@ public class GoogleHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReque
         super(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request and signing requests with {@code edgeGridSigner}.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     */
+    public GoogleHttpClientEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner) {
+        super(clientCredentialProvider, edgeGridSigner);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request, signing requests with {@code edgeGridSigner}, and sending them on behalf of the
+     * account selected by {@code accountSwitchKeyResolver}.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     */
+    public GoogleHttpClientEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver) {
+        super(clientCredentialProvider, edgeGridSigner, accountSwitchKeyResolver);
+    }
+
+    /**
+     * Creates an EdgeGrid request signer like
+     * {@link #GoogleHttpClientEdgeGridRequestSigner(ClientCredentialProvider, EdgeGridV1Signer, AccountSwitchKeyResolver)},
+     * which also takes each request from the budget of its credential in {@code rateLimiter}
+     * before signing it.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     * @param accountSwitchKeyResolver an {@link AccountSwitchKeyResolver}, or {@code null}
+     * @param rateLimiter a {@link ClientRateLimiter}, or {@code null}
+     */
+    public GoogleHttpClientEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner,
+            AccountSwitchKeyResolver accountSwitchKeyResolver, ClientRateLimiter rateLimiter) {
+        super(clientCredentialProvider, edgeGridSigner, accountSwitchKeyResolver, rateLimiter);
+    }
+
     @Override
     protected URI requestUri(HttpRequest request) {
         return request.getUrl().toURI();
@@ -52,8 +105,13 @@ public class GoogleHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReque
     protected Request map(HttpRequest request) {
         Request.RequestBuilder builder = Request.builder()
                 .method(request.getRequestMethod())
-                .uri(request.getUrl().toURI())
-                .body(serializeContent(request));
+                .uri(request.getUrl().toURI());
+        if (request.getContent() instanceof FileContent) {
+            // files are hashed in place rather than being read onto the heap
+            builder.body(((FileContent) request.getContent()).getFile().toPath());
+        } else {
+            builder.body(serializeContent(request));
+        }
         for (Map.Entry<String, Object> entry : request.getHeaders().entrySet()) {
             Object value = entry.getValue();
             if (value instanceof Iterable<?> || value.getClass().isArray()) {
@@ -68,6 +126,11 @@ public class GoogleHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReque
         return builder.build();
     }
 
+    @Override
+    protected RequestView view(HttpRequest request) {
+        return new HttpRequestView(request);
+    }
+
     /**
      * Google HTTP Client Library sign method binding of EdgeGrid signer which signs {@link HttpRequest} with appropriate credentials using EdgeGrid signer algorithm and
      * replaces {@link HttpRequest}'s host name with the one specified by the credential.
@@ -120,4 +183,108 @@ public class GoogleHttpClientEdgeGridRequestSigner extends AbstractEdgeGridReque
         request.setUrl(new GenericUrl(uri));
     }
 
+    /**
+     * {@link RequestView} reading an {@link HttpRequest} in place. Only signed headers are looked
+     * up, and retryable content is streamed through the digest rather than buffered.
+     */
+    private static final class HttpRequestView implements RequestView {
+
+        private final HttpRequest request;
+
+        private HttpRequestView(HttpRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public String getMethod() {
+            return request.getRequestMethod();
+        }
+
+        @Override
+        public String getPathAndQuery() {
+            return RequestView.pathAndQuery(request.getUrl().buildRelativeUrl());
+        }
+
+        @Override
+        public String getHeader(String name) {
+            // NOTE: Header names are matched case-insensitively by the library.
+            Object value = request.getHeaders().get(name);
+            if (value == null) {
+                return null;
+            }
+            if (value instanceof Iterable<?> || value.getClass().isArray()) {
+                String headerValue = null;
+                for (Object repeatedValue : Types.iterableOf(value)) {
+                    if (headerValue != null) {
+                        throw new IllegalArgumentException("Duplicate header found: " + name);
+                    }
+                    headerValue = toStringValue(repeatedValue);
+                }
+                return headerValue;
+            }
+            return toStringValue(value);
+        }
+
+        @Override
+        public long digestBody(MessageDigest digest, int maxLength) throws IOException {
+            HttpContent content = request.getContent();
+            if (content == null) {
+                return 0;
+            }
+            if (content instanceof FileContent) {
+                File file = ((FileContent) content).getFile();
+                try (InputStream in = Files.newInputStream(file.toPath())) {
+                    long length = RequestView.digest(in, digest, maxLength);
+                    return length < 0 ? file.length() : length;
+                }
+            }
+            if (!content.retrySupported()) {
+                // for non-retryable content, reset the content for downstream handlers
+                ByteArrayOutputStream bos = new ByteArrayOutputStream();
+                content.writeTo(bos);
+                byte[] contentBytes = bos.toByteArray();
+                request.setContent(new ByteArrayContent(content.getType(), contentBytes));
+                digest.update(contentBytes, 0, Math.min(contentBytes.length, maxLength));
+                return contentBytes.length;
+            }
+            DigestingOutputStream out = new DigestingOutputStream(digest, maxLength);
+            content.writeTo(out);
+            return out.length;
+        }
+
+    }
+
+    /**
+     * {@link OutputStream} updating a {@link MessageDigest} with the first {@code maxLength} bytes
+     * written to it, and counting all of them.
+     */
+    private static final class DigestingOutputStream extends OutputStream {
+
+        private final MessageDigest digest;
+        private final int maxLength;
+        private long length;
+
+        private DigestingOutputStream(MessageDigest digest, int maxLength) {
+            this.digest = digest;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public void write(int b) {
+            if (length < maxLength) {
+                digest.update((byte) b);
+            }
+            length++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (length < maxLength) {
+                digest.update(b, off, (int) Math.min(len, maxLength - length));
+            }
+            length += len;
+        }
+
+    }
+
 }
@@ -0,0 +1,75 @@
+package com.akamai.edgegrid.signer.googlehttpclient;
+
+import com.akamai.edgegrid.signer.ServerClock;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseInterceptor;
+import com.google.api.client.http.HttpStatusCodes;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Google HTTP Client Library response handler that feeds a {@link ServerClock} from the
+ * {@code Date} header of every response. A request rejected with {@code 401 Unauthorized} is retried
+ * once if it was signed with a time off from the {@code Date} of the response, see
+ * {@link ServerClock#isSignedWithSkewedClock(String, String)}. This holds for every request signed
+ * before the clock was corrected, not only for the first one to notice; the retried request passes
+ * through {@link GoogleHttpClientEdgeGridInterceptor} again and is re-signed with the corrected clock.
+ * Set it both as the unsuccessful response handler and as the response interceptor of a request,
+ * together with a {@link GoogleHttpClientEdgeGridInterceptor} created with the same
+ * {@link ServerClock}.
+ *
+ * @see <a href="https://googleapis.dev/java/google-http-client/latest/com/google/api/client/http/HttpUnsuccessfulResponseHandler.html">HttpUnsuccessfulResponseHandler</a> from Google HTTP Client library for Java
+ */
+public class GoogleHttpClientEdgeGridServerClockHandler implements HttpUnsuccessfulResponseHandler, HttpResponseInterceptor {
+
+    private final ServerClock serverClock;
+
+    private final HttpUnsuccessfulResponseHandler delegate;
+
+    /** Requests retried already, so that each is retried at most once. */
+    private final Set<HttpRequest> retriedRequests = Collections.newSetFromMap(Collections.synchronizedMap(new WeakHashMap<>()));
+
+    /**
+     * Creates a response handler feeding {@code serverClock}.
+     *
+     * @param serverClock a {@link ServerClock}
+     */
+    public GoogleHttpClientEdgeGridServerClockHandler(ServerClock serverClock) {
+        this(serverClock, null);
+    }
+
+    /**
+     * Creates a response handler feeding {@code serverClock} and handing responses it does not retry
+     * over to {@code delegate}.
+     *
+     * @param serverClock a {@link ServerClock}
+     * @param delegate an {@link HttpUnsuccessfulResponseHandler}, or {@code null}
+     */
+    public GoogleHttpClientEdgeGridServerClockHandler(ServerClock serverClock, HttpUnsuccessfulResponseHandler delegate) {
+        this.serverClock = Objects.requireNonNull(serverClock, "serverClock cannot be null");
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean handleResponse(HttpRequest request, HttpResponse response, boolean supportsRetry) throws IOException {
+        String date = response.getHeaders().getDate();
+        serverClock.update(date);
+        if (supportsRetry && response.getStatusCode() == HttpStatusCodes.STATUS_CODE_UNAUTHORIZED
+                && ServerClock.isSignedWithSkewedClock(request.getHeaders().getAuthorization(), date)
+                && retriedRequests.add(request)) {
+            return true;
+        }
+        return delegate != null && delegate.handleResponse(request, response, supportsRetry);
+    }
+
+    @Override
+    public void interceptResponse(HttpResponse response) throws IOException {
+        serverClock.update(response.getHeaders().getDate());
+    }
+}
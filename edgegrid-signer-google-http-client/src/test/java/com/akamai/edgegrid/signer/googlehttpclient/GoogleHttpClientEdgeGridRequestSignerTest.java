@@ -2,6 +2,9 @@ package com.akamai.edgegrid.signer.googlehttpclient;
 
 
 import com.akamai.edgegrid.signer.ClientCredential;
+import com.akamai.edgegrid.signer.DefaultClientCredentialProvider;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
+import com.akamai.edgegrid.signer.Request;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 import com.akamai.edgegrid.signer.googlehttpclient.GoogleHttpClientEdgeGridRequestSigner;
 
@@ -72,4 +75,32 @@ public class GoogleHttpClientEdgeGridRequestSignerTest {
         assertThat(request.getHeaders().getAuthorization(), not(isEmptyOrNullString()));
     }
 
+    @Test
+    public void signOnBehalfOfAnotherAccount() throws IOException, RequestSigningException {
+        HttpTransport HTTP_TRANSPORT = new ApacheHttpTransport();
+        HttpRequestFactory requestFactory = HTTP_TRANSPORT.createRequestFactory();
+        URI uri = URI.create("https://ignored-hostname.com/papi/v1/properties?contractId=ctr_1");
+        HttpRequest request = requestFactory.buildGetRequest(new GenericUrl(uri));
+        EdgeGridV1Signer edgeGridSigner = new EdgeGridV1Signer() {
+            @Override
+            protected long getTimestamp() {
+                return 1470294000000L;
+            }
+
+            @Override
+            protected String getNonce() {
+                return "ec9d20ee-1e9b-4c1f-925a-f0017754f86c";
+            }
+        };
+
+        GoogleHttpClientEdgeGridRequestSigner googleHttpSigner = new GoogleHttpClientEdgeGridRequestSigner(
+                new DefaultClientCredentialProvider(credential), edgeGridSigner, r -> "1-5BYUG1:1-8BYUX");
+        googleHttpSigner.sign(request, request);
+
+        String sentUri = request.getUrl().build();
+        assertThat(sentUri, equalTo("https://endpoint.net/papi/v1/properties?contractId=ctr_1&accountSwitchKey=1-5BYUG1:1-8BYUX"));
+        Request sent = Request.builder().method("GET").uri(sentUri).build();
+        assertThat(request.getHeaders().getAuthorization(), equalTo(edgeGridSigner.getSignature(sent, credential)));
+    }
+
 }
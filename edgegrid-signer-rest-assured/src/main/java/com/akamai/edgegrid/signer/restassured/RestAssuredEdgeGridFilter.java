@@ -5,6 +5,7 @@ import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
 import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
+import com.akamai.edgegrid.signer.ServerClock;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
 import io.restassured.filter.Filter;
@@ -13,6 +14,8 @@ import io.restassured.response.Response;
 import io.restassured.specification.FilterableRequestSpecification;
 import io.restassured.specification.FilterableResponseSpecification;
 
+import java.util.Objects;
+
 /**
  * REST-assured filter that signs a request using EdgeGrid V1 signing algorithm. Signing is a
  * process of adding an Authorization header with a request signature. If signing fails then
@@ -25,6 +28,8 @@ public class RestAssuredEdgeGridFilter implements Filter {
 
     protected RestAssuredEdgeGridRequestSigner binding;
 
+    private ServerClock serverClock;
+
     /**
      * Creates an EdgeGrid signing interceptor using the same {@link ClientCredential} for each
      * request.
@@ -45,6 +50,20 @@ public class RestAssuredEdgeGridFilter implements Filter {
         this.binding = new RestAssuredEdgeGridRequestSigner(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid signing filter signing requests with a pre-configured {@code binding},
+     * e.g. one with an {@link EdgeGridV1Signer} taking signature timestamps from
+     * {@code serverClock} rather than the local clock. This filter also feeds the clock from the
+     * {@code Date} header of every response.
+     *
+     * @param binding a {@link RestAssuredEdgeGridRequestSigner}
+     * @param serverClock a {@link ServerClock} to feed, or {@code null}
+     */
+    public RestAssuredEdgeGridFilter(RestAssuredEdgeGridRequestSigner binding, ServerClock serverClock) {
+        this.binding = Objects.requireNonNull(binding, "binding cannot be null");
+        this.serverClock = serverClock;
+    }
+
     /**
      * Creates a REST-assured filter that will sign a request with a given credential using an
      * {@link EdgeGridV1Signer}.
@@ -64,7 +83,13 @@ public class RestAssuredEdgeGridFilter implements Filter {
         } catch (RequestSigningException e) {
             throw new RuntimeException(e);
         }
-        return ctx.next(requestSpec, responseSpec);
+        Response response = ctx.next(requestSpec, responseSpec);
+        if (serverClock != null) {
+            // NOTE: REST-assured does not let a filter send the request again, so a request rejected
+            // because of clock skew is not retried; the next one is signed with the corrected clock.
+            serverClock.update(response.getHeader("Date"));
+        }
+        return response;
     }
 
 }
@@ -8,6 +8,7 @@ import java.net.URI;
 import com.akamai.edgegrid.signer.AbstractEdgeGridRequestSigner;
 import com.akamai.edgegrid.signer.ClientCredential;
 import com.akamai.edgegrid.signer.ClientCredentialProvider;
+import com.akamai.edgegrid.signer.EdgeGridV1Signer;
 import com.akamai.edgegrid.signer.Request;
 import com.akamai.edgegrid.signer.exceptions.RequestSigningException;
 
@@ -91,6 +92,18 @@ public class RestAssuredEdgeGridRequestSigner extends
         super(clientCredentialProvider);
     }
 
+    /**
+     * Creates an EdgeGrid request signer selecting a {@link ClientCredential} via
+     * {@link ClientCredentialProvider#getClientCredential(com.akamai.edgegrid.signer.Request)} for
+     * each request and signing requests with {@code edgeGridSigner}.
+     *
+     * @param clientCredentialProvider a {@link ClientCredentialProvider}
+     * @param edgeGridSigner an {@link EdgeGridV1Signer}
+     */
+    public RestAssuredEdgeGridRequestSigner(ClientCredentialProvider clientCredentialProvider, EdgeGridV1Signer edgeGridSigner) {
+        super(clientCredentialProvider, edgeGridSigner);
+    }
+
     @Override
     protected URI requestUri(FilterableRequestSpecification requestSpec) {
         // Due to limitations of REST-assured design only requests with relative paths can be updated
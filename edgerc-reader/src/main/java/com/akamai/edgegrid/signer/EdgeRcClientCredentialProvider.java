@@ -1,30 +1,55 @@
 package com.akamai.edgegrid.signer;
 
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.apache.commons.configuration2.INIConfiguration;
-import org.apache.commons.configuration2.SubnodeConfiguration;
 import org.apache.commons.configuration2.ex.ConfigurationException;
 
-import com.akamai.edgegrid.signer.ClientCredential.ClientCredentialBuilder;
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
 
 /**
  * This is a {@link ClientCredentialProvider} implementation that reads from EdgeRc files. A variety
  * static methods are available to initially create the object. A default section name is required
  * at creation time, and sub-classes may override {@link #pickSectionName(Request)} in order to make
  * a more complicated decision on a per-request basis.
+ * <p>
+ * Bindings that read native requests in place call {@link #getClientCredential(RequestView)}.
+ * Providers created by the static methods answer it with {@link #pickSectionName(RequestView)},
+ * without mapping the request. Providers created with the public constructor, e.g. sub-classes
+ * written against {@link #pickSectionName(Request)}, have each such request mapped to a
+ * {@link Request} and passed to {@link #getClientCredential(Request)}. Sub-classes can opt into
+ * the former with {@link #EdgeRcClientCredentialProvider(Reader, String, boolean)}.
+ * </p>
+ * <p>
+ * Each section is parsed into a {@link ClientCredential} the first time it is asked for, and the
+ * same instance is returned afterwards without locking. Sections that fail to parse are not
+ * cached.
+ * </p>
+ * <p>
+ * Sections may also carry a {@code routes} property, which {@link #toRoutingProvider()} turns into
+ * a {@link RoutingClientCredentialProvider}.
+ * </p>
+ * <p>
+ * Files and streams are read by {@link EdgeRcFile}, in one pass and as UTF-8. The methods declaring
+ * {@link ConfigurationException} are deprecated, as it is no longer thrown: use
+ * {@link #fromEdgeRc(Path, String)}, {@link #read(InputStream, String)} and
+ * {@link #read(Reader, String)} instead. The commons-configuration2 dependency is optional, and
+ * only needed to compile code calling the deprecated methods.
+ * </p>
  *
  */
 public class EdgeRcClientCredentialProvider implements ClientCredentialProvider {
 
-    /** This is an {@link INIConfiguration} that will hold the EdgeRc configuration. */
-    private final INIConfiguration configuration;
+    /** This is an {@link EdgeRcFile} that will hold the EdgeRc configuration. */
+    private final EdgeRcFile configuration;
 
     /**
      * This is the default section name that will be returned by {@link #pickSectionName(Request)}
@@ -32,6 +57,64 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
      */
     private final String defaultSectionName;
 
+    /** Key of the default section in {@link #credentials}, which cannot hold {@code null} keys. */
+    private static final Object DEFAULT_SECTION_KEY = new Object();
+
+    /** {@link ClientCredential}s of the sections parsed so far, by section name. */
+    private final Map<Object, ClientCredential> credentials = new ConcurrentHashMap<>();
+
+    /**
+     * Whether {@link #getClientCredential(RequestView)} goes through
+     * {@link #getClientCredential(Request)}, rather than {@link #pickSectionName(RequestView)}.
+     */
+    private final boolean picksSectionByRequest;
+
+    /**
+     * Loads an EdgeRc configuration file and returns an {@link EdgeRcClientCredentialProvider} to
+     * read {@link ClientCredential}s from it. A leading {@code ~} stands for the home directory of
+     * the user.
+     *
+     * @param file a {@link Path} pointing to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @return a {@link EdgeRcClientCredentialProvider}
+     * @throws IOException if an I/O error occurs
+     */
+    public static EdgeRcClientCredentialProvider fromEdgeRc(Path file, String section) throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        if (file.startsWith("~")) {
+            file = Paths.get(System.getProperty("user.home")).resolve(file.subpath(0, 1).relativize(file));
+        }
+        return new EdgeRcClientCredentialProvider(EdgeRcFile.read(file), section);
+    }
+
+    /**
+     * Reads an EdgeRc configuration and returns an {@link EdgeRcClientCredentialProvider} to read
+     * {@link ClientCredential}s from it.
+     *
+     * @param inputStream an open {@link InputStream} to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @return a {@link EdgeRcClientCredentialProvider}
+     * @throws IOException if an I/O error occurs
+     */
+    public static EdgeRcClientCredentialProvider read(InputStream inputStream, String section) throws IOException {
+        Objects.requireNonNull(inputStream, "inputStream cannot be null");
+        return new EdgeRcClientCredentialProvider(EdgeRcFile.read(inputStream), section);
+    }
+
+    /**
+     * Reads an EdgeRc configuration and returns an {@link EdgeRcClientCredentialProvider} to read
+     * {@link ClientCredential}s from it.
+     *
+     * @param reader an open {@link Reader} to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @return a {@link EdgeRcClientCredentialProvider}
+     * @throws IOException if an I/O error occurs
+     */
+    public static EdgeRcClientCredentialProvider read(Reader reader, String section) throws IOException {
+        Objects.requireNonNull(reader, "reader cannot be null");
+        return new EdgeRcClientCredentialProvider(EdgeRcFile.read(reader), section);
+    }
+
     /**
      * Loads an EdgeRc configuration file and returns an {@link EdgeRcClientCredentialProvider} to
      * read {@link ClientCredential}s from it.
@@ -41,11 +124,13 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
      * @return a {@link EdgeRcClientCredentialProvider}
      * @throws ConfigurationException If an error occurs while reading the configuration
      * @throws IOException if an I/O error occurs
+     * @deprecated {@link ConfigurationException} is no longer thrown, use {@link #fromEdgeRc(Path, String)}
      */
+    @Deprecated
     public static EdgeRcClientCredentialProvider fromEdgeRc(File file, String section)
             throws ConfigurationException, IOException {
         Objects.requireNonNull(file, "file cannot be null");
-        return fromEdgeRc(new FileReader(file), section);
+        return new EdgeRcClientCredentialProvider(EdgeRcFile.read(file.toPath()), section);
     }
 
     /**
@@ -57,11 +142,13 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
      * @return a {@link EdgeRcClientCredentialProvider}
      * @throws ConfigurationException If an error occurs while reading the configuration
      * @throws IOException if an I/O error occurs
+     * @deprecated {@link ConfigurationException} is no longer thrown, use {@link #read(InputStream, String)}
      */
+    @Deprecated
     public static EdgeRcClientCredentialProvider fromEdgeRc(InputStream inputStream, String section)
             throws ConfigurationException, IOException {
         Objects.requireNonNull(inputStream, "inputStream cannot be null");
-        return fromEdgeRc(new InputStreamReader(inputStream), section);
+        return new EdgeRcClientCredentialProvider(EdgeRcFile.read(inputStream), section);
     }
 
     /**
@@ -73,11 +160,13 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
      * @return a {@link EdgeRcClientCredentialProvider}
      * @throws ConfigurationException If an error occurs while reading the configuration
      * @throws IOException if an I/O error occurs
+     * @deprecated {@link ConfigurationException} is no longer thrown, use {@link #read(Reader, String)}
      */
+    @Deprecated
     public static EdgeRcClientCredentialProvider fromEdgeRc(Reader reader, String section)
             throws ConfigurationException, IOException {
         Objects.requireNonNull(reader, "reader cannot be null");
-        return new EdgeRcClientCredentialProvider(reader, section);
+        return new EdgeRcClientCredentialProvider(EdgeRcFile.read(reader), section);
     }
 
     /**
@@ -89,15 +178,16 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
      * @return a {@link EdgeRcClientCredentialProvider}
      * @throws ConfigurationException If an error occurs while reading the configuration
      * @throws IOException if an I/O error occurs
+     * @deprecated {@link ConfigurationException} is no longer thrown, use {@link #fromEdgeRc(Path, String)}
      */
+    @Deprecated
     public static EdgeRcClientCredentialProvider fromEdgeRc(String filename, String section)
             throws ConfigurationException, IOException {
         if (filename == null || "".equals(filename)) {
             throw new IllegalArgumentException("filename cannot be null");
         }
         filename = filename.replaceFirst("^~", System.getProperty("user.home"));
-        File file = new File(filename);
-        return fromEdgeRc(new FileReader(file), section);
+        return new EdgeRcClientCredentialProvider(EdgeRcFile.read(Paths.get(filename)), section);
     }
 
     /**
@@ -108,13 +198,46 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
      * @param section a config section ({@code null} for the default section)
      * @throws ConfigurationException If an error occurs while reading the configuration
      * @throws IOException if an I/O error occurs
+     * @deprecated {@link ConfigurationException} is no longer thrown, use {@link #read(Reader, String)}, or
+     *             {@link #EdgeRcClientCredentialProvider(Reader, String, boolean)} in sub-classes
      */
+    @Deprecated
     public EdgeRcClientCredentialProvider(Reader reader, String section)
             throws ConfigurationException, IOException {
-        Objects.requireNonNull(reader, "reader cannot be null");
-        configuration = new INIConfiguration();
-        configuration.read(reader);
+        this(reader, section, true);
+    }
+
+    /**
+     * Loads an EdgeRc configuration file, telling how credentials are picked for requests that
+     * bindings read in place.
+     *
+     * @param reader an open {@link Reader} to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @param picksSectionByRequest {@code true} to map such requests to a {@link Request} and pass
+     *        it to {@link #getClientCredential(Request)}, {@code false} to pass them as they are to
+     *        {@link #pickSectionName(RequestView)}
+     * @throws IOException if an I/O error occurs
+     */
+    protected EdgeRcClientCredentialProvider(Reader reader, String section, boolean picksSectionByRequest)
+            throws IOException {
+        this(EdgeRcFile.read(reader), section, picksSectionByRequest);
+    }
+
+    /**
+     * Returns an {@link EdgeRcClientCredentialProvider} to read {@link ClientCredential}s from an
+     * EdgeRc file that was already read.
+     *
+     * @param configuration an {@link EdgeRcFile}
+     * @param section a config section ({@code null} for the default section)
+     */
+    EdgeRcClientCredentialProvider(EdgeRcFile configuration, String section) {
+        this(configuration, section, false);
+    }
+
+    private EdgeRcClientCredentialProvider(EdgeRcFile configuration, String section, boolean picksSectionByRequest) {
+        this.configuration = configuration;
         this.defaultSectionName = section;
+        this.picksSectionByRequest = picksSectionByRequest;
     }
 
     @Override
@@ -123,6 +246,14 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
         return getClientCredential(sectionName);
     }
 
+    @Override
+    public ClientCredential getClientCredential(RequestView request) throws NoMatchingCredentialException {
+        if (picksSectionByRequest) {
+            return ClientCredentialProvider.super.getClientCredential(request);
+        }
+        return getClientCredential(pickSectionName(request));
+    }
+
     /**
      * Gets the {@link ClientCredential} defined in section {@code sectionName}.
      *
@@ -130,24 +261,78 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
      * @return a {@link ClientCredential}
      */
     protected ClientCredential getClientCredential(String sectionName) {
-        SubnodeConfiguration s = configuration.getSection(sectionName);
-        ClientCredentialBuilder builder = ClientCredential.builder()
-                .accessToken(s.getString("access_token"))
-                .clientSecret(s.getString("client_secret"))
-                .clientToken(s.getString("client_token"))
-                .host(s.getString("host"));
-        if (s.getInteger("max-body", null) != null) {
-            builder.maxBodySize(s.getInteger("max-body", null));
+        Object key = sectionName == null ? DEFAULT_SECTION_KEY : sectionName;
+        ClientCredential credential = credentials.get(key);
+        if (credential == null) {
+            // racing threads may parse the same section twice, but they all return the first instance
+            credential = configuration.getClientCredential(sectionName);
+            ClientCredential existing = credentials.putIfAbsent(key, credential);
+            if (existing != null) {
+                credential = existing;
+            }
         }
-        String headersString = s.getString("headers_to_sign");
-        if (headersString != null && !"".equals(headersString)) {
-            for (String h : headersString.split(",")) {
-                builder.headerToSign(h);
+        return credential;
+    }
+
+    /**
+     * <p>
+     * Returns a {@link RoutingClientCredentialProvider} that routes requests to sections by the
+     * {@code routes} property of each section: a comma-separated list of path prefixes, each
+     * optionally preceded by a method and a space.
+     * </p>
+     * <pre>
+     * [ccu]
+     * routes = /ccu/
+     *
+     * [papi-write]
+     * routes = POST /papi/, PUT /papi/
+     * </pre>
+     * <p>
+     * Requests that match no route get the credential of the section given at creation time, if
+     * the file has it. Routing happens once per request in the returned provider, so
+     * {@link #pickSectionName(Request)} is not called.
+     * </p>
+     *
+     * @return a {@link RoutingClientCredentialProvider}
+     * @throws IllegalArgumentException if a routed section is not a valid {@link ClientCredential},
+     *         or a route is invalid or defined twice
+     */
+    public RoutingClientCredentialProvider toRoutingProvider() {
+        RoutingClientCredentialProvider.RoutingClientCredentialProviderBuilder builder =
+                RoutingClientCredentialProvider.builder();
+        for (String sectionName : configuration.getSectionNames()) {
+            String routes = configuration.get(sectionName, "routes");
+            if (routes == null || "".equals(routes.trim())) {
+                continue;
+            }
+            ClientCredential credential = getClientCredential(sectionName);
+            for (String route : routes.split(",")) {
+                String[] parts = route.trim().split("\\s+");
+                if (parts[0].isEmpty()) {
+                    continue;
+                } else if (parts.length == 1) {
+                    builder.route(parts[0], credential);
+                } else if (parts.length == 2) {
+                    builder.route(parts[0], parts[1], credential);
+                } else {
+                    throw new IllegalArgumentException("Invalid route in section " + sectionName + ": " + route);
+                }
             }
         }
+        if (configuration.getSectionNames().contains(defaultSectionName)) {
+            builder.defaultCredential(getClientCredential(defaultSectionName));
+        }
         return builder.build();
     }
 
+    /**
+     * Returns the names of all sections of the EdgeRc file, including {@code null} if the default
+     * section is not empty.
+     */
+    Set<String> getSectionNames() {
+        return configuration.getSectionNames();
+    }
+
     /**
      * Picks an appropriate section name from the configuration to sign {@code request}. By default
      * this method will always return {@link #defaultSectionName}, which was provided as part the
@@ -162,4 +347,16 @@ public class EdgeRcClientCredentialProvider implements ClientCredentialProvider
         return defaultSectionName;
     }
 
+    /**
+     * Picks an appropriate section name from the configuration to sign the request seen through
+     * {@code request}, unless this provider was created to pick sections by {@link Request}. By
+     * default this method will always return {@link #defaultSectionName}.
+     *
+     * @param request a view of a request
+     * @return a section name ({@code null} for the default section)
+     */
+    protected String pickSectionName(RequestView request) {
+        return defaultSectionName;
+    }
+
 }
@@ -0,0 +1,378 @@
+package com.akamai.edgegrid.signer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.akamai.edgegrid.signer.ClientCredential.ClientCredentialBuilder;
+
+/**
+ * <p>
+ * A read-only store of many {@link ClientCredential}s, for applications that hold credentials for
+ * thousands of accounts. Credentials can be looked up by section name or by client token in
+ * constant time, and {@link ClientCredential} objects are only built the first time they are asked
+ * for.
+ * </p>
+ * <p>
+ * The store is one flat block of bytes: a table of distinct strings, so that hosts and headers
+ * shared by many sections are held once, fixed-size records of string indexes, and two
+ * open-addressing hash tables of record indexes. The block lives on the heap when the store is
+ * read from an EdgeRc file, and can be written out with {@link #writeSnapshot(Path)}. A snapshot
+ * is memory-mapped by {@link #openSnapshot(Path)} rather than read, so that opening it takes the
+ * same time whatever its size, and its pages are shared by all processes that open it.
+ * </p>
+ * <p>
+ * Every named section of the EdgeRc file must be a valid {@link ClientCredential}, as
+ * {@link EdgeRcClientCredentialProvider} would build it. The default section, if any, is not part
+ * of the store.
+ * </p>
+ * <p>
+ * A {@link ClientCredential} that was asked for once is kept by the store and returned again,
+ * until the store itself is dropped: a lookup costs no allocation after the first one, and
+ * callers may compare credentials by identity. The price is that a store whose every section
+ * gets used ends up holding all of them as objects, next to its block of bytes, and the array of
+ * references is sized for all records from the start. Applications that only ever use a few
+ * credentials of a large store at a time can drop the store and open its snapshot again, which is
+ * cheap, to let go of the credentials built so far.
+ * </p>
+ *
+ */
+public final class EdgeRcCredentialStore {
+
+    private static final int MAGIC = 0x45474353; // "EGCS"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 20;
+
+    /** Fields of a record, each an index in the string table or {@link #NONE}. */
+    private static final int SECTION_NAME = 0;
+    private static final int ACCESS_TOKEN = 1;
+    private static final int CLIENT_SECRET = 2;
+    private static final int CLIENT_TOKEN = 3;
+    private static final int HOST = 4;
+    private static final int HEADERS_TO_SIGN = 5;
+    /** This one holds the maximum body size itself, or {@link #NONE} for the default. */
+    private static final int MAX_BODY_SIZE = 6;
+    private static final int RECORD_FIELDS = 7;
+
+    private static final int NONE = -1;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int stringCount;
+    private final int tableSize;
+
+    private final int stringOffsetsOffset;
+    private final int recordsOffset;
+    private final int sectionTableOffset;
+    private final int clientTokenTableOffset;
+    private final int stringsOffset;
+
+    /**
+     * {@link ClientCredential}s built so far, by record index. They are kept for the life of the
+     * store, see the class documentation.
+     */
+    private final AtomicReferenceArray<ClientCredential> credentials;
+
+    private EdgeRcCredentialStore(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a credential store snapshot");
+        }
+        this.buffer = buffer;
+        this.size = buffer.getInt(8);
+        this.stringCount = buffer.getInt(12);
+        this.tableSize = buffer.getInt(16);
+        long stringsStart = HEADER_SIZE + 4L * (stringCount + 1) + 4L * RECORD_FIELDS * size + 8L * tableSize;
+        if (size < 0 || stringCount < 0 || Integer.bitCount(tableSize) != 1 || tableSize < size
+                || stringsStart > buffer.capacity()
+                || stringsStart + buffer.getInt(HEADER_SIZE + 4 * stringCount) != buffer.capacity()) {
+            throw new IOException("Corrupt credential store snapshot");
+        }
+        this.stringOffsetsOffset = HEADER_SIZE;
+        this.recordsOffset = stringOffsetsOffset + 4 * (stringCount + 1);
+        this.sectionTableOffset = recordsOffset + 4 * RECORD_FIELDS * size;
+        this.clientTokenTableOffset = sectionTableOffset + 4 * tableSize;
+        this.stringsOffset = clientTokenTableOffset + 4 * tableSize;
+        this.credentials = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * Reads all sections of an EdgeRc file into a store.
+     *
+     * @param file a {@link Path} pointing to an EdgeRc file
+     * @return an {@link EdgeRcCredentialStore}
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if a section is not a valid {@link ClientCredential}
+     */
+    public static EdgeRcCredentialStore fromEdgeRc(Path file) throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        return of(EdgeRcFile.read(file));
+    }
+
+    /**
+     * Reads all sections of an EdgeRc file into a store.
+     *
+     * @param reader an open {@link Reader} to an EdgeRc file
+     * @return an {@link EdgeRcCredentialStore}
+     * @throws IOException if an I/O error occurs
+     * @throws IllegalArgumentException if a section is not a valid {@link ClientCredential}
+     */
+    public static EdgeRcCredentialStore fromEdgeRc(Reader reader) throws IOException {
+        return of(EdgeRcFile.read(reader));
+    }
+
+    /**
+     * Maps a snapshot written by {@link #writeSnapshot(Path)}. The file must not be modified while
+     * the store is in use.
+     *
+     * @param file a {@link Path} pointing to a snapshot
+     * @return an {@link EdgeRcCredentialStore}
+     * @throws IOException if an I/O error occurs, or {@code file} is not a snapshot
+     */
+    public static EdgeRcCredentialStore openSnapshot(Path file) throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new EdgeRcCredentialStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes this store to {@code file}, to be opened later by {@link #openSnapshot(Path)}.
+     *
+     * @param file a {@link Path}
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer content = buffer.duplicate();
+            content.clear();
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of credentials in this store.
+     *
+     * @return a number of credentials
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the {@link ClientCredential} of section {@code sectionName}, or {@code null} if there
+     * is no such section.
+     *
+     * @param sectionName a section name
+     * @return a {@link ClientCredential} (can be {@code null})
+     */
+    public ClientCredential getBySectionName(String sectionName) {
+        Objects.requireNonNull(sectionName, "sectionName cannot be null");
+        return credential(find(sectionTableOffset, SECTION_NAME, sectionName));
+    }
+
+    /**
+     * Returns the {@link ClientCredential} with client token {@code clientToken}, or {@code null}
+     * if there is none. If several sections have the same client token, the first one is returned.
+     *
+     * @param clientToken a client token
+     * @return a {@link ClientCredential} (can be {@code null})
+     */
+    public ClientCredential getByClientToken(String clientToken) {
+        Objects.requireNonNull(clientToken, "clientToken cannot be null");
+        return credential(find(clientTokenTableOffset, CLIENT_TOKEN, clientToken));
+    }
+
+    private ClientCredential credential(int record) {
+        if (record < 0) {
+            return null;
+        }
+        ClientCredential credential = credentials.get(record);
+        if (credential == null) {
+            ClientCredentialBuilder builder = ClientCredential.builder()
+                    .accessToken(string(field(record, ACCESS_TOKEN)))
+                    .clientSecret(string(field(record, CLIENT_SECRET)))
+                    .clientToken(string(field(record, CLIENT_TOKEN)))
+                    .host(string(field(record, HOST)));
+            if (field(record, HEADERS_TO_SIGN) != NONE) {
+                for (String h : string(field(record, HEADERS_TO_SIGN)).split(",")) {
+                    builder.headerToSign(h);
+                }
+            }
+            if (field(record, MAX_BODY_SIZE) != NONE) {
+                builder.maxBodySize(field(record, MAX_BODY_SIZE));
+            }
+            credential = builder.build();
+            // racing threads may build the same credential twice, but they all return the first one
+            if (!credentials.compareAndSet(record, null, credential)) {
+                credential = credentials.get(record);
+            }
+        }
+        return credential;
+    }
+
+    private int find(int tableOffset, int field, String key) {
+        int mask = tableSize - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = buffer.getInt(tableOffset + 4 * slot);
+            if (entry == 0) {
+                return -1;
+            }
+            int record = entry - 1;
+            if (stringEquals(field(record, field), key)) {
+                return record;
+            }
+        }
+    }
+
+    private int field(int record, int field) {
+        return buffer.getInt(recordsOffset + 4 * (RECORD_FIELDS * record + field));
+    }
+
+    private String string(int index) {
+        int start = buffer.getInt(stringOffsetsOffset + 4 * index);
+        int end = buffer.getInt(stringOffsetsOffset + 4 * (index + 1));
+        byte[] bytes = new byte[end - start];
+        ByteBuffer b = buffer.duplicate();
+        b.position(stringsOffset + start);
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares string {@code index} to {@code s} byte by byte if {@code s} is ASCII, which tokens
+     * and section names nearly always are, and by decoding it otherwise.
+     */
+    private boolean stringEquals(int index, String s) {
+        int start = stringsOffset + buffer.getInt(stringOffsetsOffset + 4 * index);
+        int end = stringsOffset + buffer.getInt(stringOffsetsOffset + 4 * (index + 1));
+        if (end - start == s.length()) {
+            int i = 0;
+            while (i < s.length() && s.charAt(i) < 0x80 && buffer.get(start + i) == s.charAt(i)) {
+                i++;
+            }
+            if (i == s.length()) {
+                return true;
+            }
+            if (s.charAt(i) < 0x80) {
+                return false;
+            }
+        } else if (end - start < s.length()) {
+            // UTF-8 never takes fewer bytes than chars
+            return false;
+        }
+        return string(index).equals(s);
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static EdgeRcCredentialStore of(EdgeRcFile edgeRc) throws IOException {
+        List<byte[]> strings = new ArrayList<>();
+        Map<String, Integer> stringIndexes = new HashMap<>();
+        List<String> sectionNames = new ArrayList<>();
+        List<String> clientTokens = new ArrayList<>();
+        List<int[]> records = new ArrayList<>();
+
+        for (String sectionName : edgeRc.getSectionNames()) {
+            if (sectionName == null) {
+                continue;
+            }
+            // validated like EdgeRcClientCredentialProvider does, the store only keeps the strings
+            ClientCredential credential = edgeRc.getClientCredential(sectionName);
+            int[] record = new int[RECORD_FIELDS];
+            record[SECTION_NAME] = intern(sectionName, strings, stringIndexes);
+            record[ACCESS_TOKEN] = intern(credential.getAccessToken(), strings, stringIndexes);
+            record[CLIENT_SECRET] = intern(credential.getClientSecret(), strings, stringIndexes);
+            record[CLIENT_TOKEN] = intern(credential.getClientToken(), strings, stringIndexes);
+            record[HOST] = intern(credential.getHost(), strings, stringIndexes);
+            record[HEADERS_TO_SIGN] = credential.getHeadersToSign().isEmpty()
+                    ? NONE : intern(String.join(",", credential.getHeadersToSign()), strings, stringIndexes);
+            record[MAX_BODY_SIZE] = credential.getMaxBodySize();
+            records.add(record);
+            sectionNames.add(sectionName);
+            clientTokens.add(credential.getClientToken());
+        }
+
+        int size = records.size();
+        int tableSize = 2;
+        while (tableSize < 2 * size) {
+            tableSize <<= 1;
+        }
+        int stringsLength = 0;
+        for (byte[] s : strings) {
+            stringsLength += s.length;
+        }
+        int capacity = HEADER_SIZE + 4 * (strings.size() + 1) + 4 * RECORD_FIELDS * size + 8 * tableSize
+                + stringsLength;
+
+        ByteBuffer buffer = ByteBuffer.allocate(capacity);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(strings.size()).putInt(tableSize);
+        int offset = 0;
+        for (byte[] s : strings) {
+            buffer.putInt(offset);
+            offset += s.length;
+        }
+        buffer.putInt(offset);
+        for (int[] record : records) {
+            for (int field : record) {
+                buffer.putInt(field);
+            }
+        }
+        putTable(buffer, sectionNames, tableSize);
+        putTable(buffer, clientTokens, tableSize);
+        for (byte[] s : strings) {
+            buffer.put(s);
+        }
+        return new EdgeRcCredentialStore(buffer);
+    }
+
+    private static void putTable(ByteBuffer buffer, List<String> keys, int tableSize) {
+        int[] table = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int record = 0; record < keys.size(); record++) {
+            String key = keys.get(record);
+            int slot = hash(key) & mask;
+            while (table[slot] != 0) {
+                if (keys.get(table[slot] - 1).equals(key)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (table[slot] == 0) {
+                table[slot] = record + 1;
+            }
+        }
+        for (int entry : table) {
+            buffer.putInt(entry);
+        }
+    }
+
+    private static int intern(String s, List<byte[]> strings, Map<String, Integer> stringIndexes) {
+        Integer index = stringIndexes.get(s);
+        if (index == null) {
+            index = strings.size();
+            strings.add(s.getBytes(StandardCharsets.UTF_8));
+            stringIndexes.put(s, index);
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,304 @@
+package com.akamai.edgegrid.signer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <p>
+ * Sections and properties of an EdgeRc file, read in a single pass over its characters.
+ * </p>
+ * <p>
+ * The syntax is the INI dialect that {@code INIConfiguration} from Commons Configuration reads,
+ * which earlier versions used: lines are trimmed; lines starting with {@code ;} or {@code #} are
+ * comments; {@code [name]} starts a section; other lines are {@code key=value} or
+ * {@code key:value}. Values may be quoted with {@code "} or {@code '}, in which case a backslash
+ * escapes the quote character. Unquoted values end at a comment character that follows a
+ * whitespace, and continue on the next line if they end with a whitespace and a backslash.
+ * Properties before the first section belong to the default section, named {@code null}. Sections
+ * that appear more than once are merged, and the first value of a property wins.
+ * </p>
+ * <p>
+ * Files are decoded as UTF-8, whatever the default charset of the platform. Values are not
+ * interpolated.
+ * </p>
+ *
+ */
+final class EdgeRcFile {
+
+    private static final String COMMENT_CHARS = ";#";
+    private static final String SEPARATOR_CHARS = "=:";
+
+    /** Properties by section name, the default section being {@code null}. */
+    private final Map<String, Map<String, String>> sections;
+
+    private EdgeRcFile(Map<String, Map<String, String>> sections) {
+        this.sections = sections;
+    }
+
+    /**
+     * Reads an EdgeRc file.
+     *
+     * @param file a {@link Path} pointing to an EdgeRc file
+     * @return an {@link EdgeRcFile}
+     * @throws IOException if an I/O error occurs
+     */
+    static EdgeRcFile read(Path file) throws IOException {
+        return parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads an EdgeRc file from {@code inputStream}, which is not closed.
+     *
+     * @param inputStream an open {@link InputStream} to an EdgeRc file
+     * @return an {@link EdgeRcFile}
+     * @throws IOException if an I/O error occurs
+     */
+    static EdgeRcFile read(InputStream inputStream) throws IOException {
+        Objects.requireNonNull(inputStream, "inputStream cannot be null");
+        byte[] buffer = new byte[4096];
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(buffer.length);
+        int read;
+        while ((read = inputStream.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, read);
+        }
+        return parse(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads an EdgeRc file from {@code reader}, which is not closed.
+     *
+     * @param reader an open {@link Reader} to an EdgeRc file
+     * @return an {@link EdgeRcFile}
+     * @throws IOException if an I/O error occurs
+     */
+    static EdgeRcFile read(Reader reader) throws IOException {
+        Objects.requireNonNull(reader, "reader cannot be null");
+        char[] buffer = new char[4096];
+        StringBuilder sb = new StringBuilder(buffer.length);
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            sb.append(buffer, 0, read);
+        }
+        return parse(sb.toString());
+    }
+
+    /**
+     * Parses the content of an EdgeRc file.
+     *
+     * @param content the content of an EdgeRc file
+     * @return an {@link EdgeRcFile}
+     */
+    static EdgeRcFile parse(String content) {
+        Map<String, Map<String, String>> sections = new LinkedHashMap<>();
+        Map<String, String> section = new HashMap<>();
+        sections.put(null, section);
+
+        int length = content.length();
+        int start = !content.isEmpty() && content.charAt(0) == '\uFEFF' ? 1 : 0;
+        while (start < length) {
+            int end = lineEnd(content, start);
+            String line = content.substring(start, end).trim();
+            start = nextLine(content, end);
+
+            if (line.isEmpty() || COMMENT_CHARS.indexOf(line.charAt(0)) >= 0) {
+                continue;
+            }
+            if (line.charAt(0) == '[' && line.charAt(line.length() - 1) == ']') {
+                String name = line.substring(1, line.length() - 1);
+                section = sections.computeIfAbsent(name.isEmpty() ? " " : name, k -> new HashMap<>());
+                continue;
+            }
+
+            String key = line;
+            String value = "";
+            int separator = findSeparator(line);
+            if (separator >= 0) {
+                key = line.substring(0, separator).trim();
+                StringBuilder sb = new StringBuilder();
+                String rest = line.substring(separator + 1);
+                // an unquoted value ending with " \" continues on the next line
+                while (parseValue(rest, sb)) {
+                    sb.append('\n');
+                    if (start >= length) {
+                        break;
+                    }
+                    end = lineEnd(content, start);
+                    rest = content.substring(start, end);
+                    start = nextLine(content, end);
+                }
+                value = sb.toString();
+            }
+            section.putIfAbsent(key.isEmpty() ? " " : key, value);
+        }
+
+        if (sections.get(null).isEmpty()) {
+            sections.remove(null);
+        }
+        return new EdgeRcFile(sections);
+    }
+
+    /**
+     * Returns the names of all sections, including {@code null} if the default section is not
+     * empty.
+     */
+    Set<String> getSectionNames() {
+        return Collections.unmodifiableSet(sections.keySet());
+    }
+
+    /**
+     * Returns the value of property {@code key} in section {@code section}, or {@code null} if
+     * there is no such section or property.
+     *
+     * @param section a section name ({@code null} for the default section)
+     * @param key a property name
+     * @return a value (can be {@code null})
+     */
+    String get(String section, String key) {
+        Map<String, String> properties = sections.get(section);
+        return properties == null ? null : properties.get(key);
+    }
+
+    /**
+     * Builds the {@link ClientCredential} defined in section {@code section}.
+     *
+     * @param section a section name ({@code null} for the default section)
+     * @return a {@link ClientCredential}
+     * @throws IllegalArgumentException if the section is not a valid {@link ClientCredential}
+     */
+    ClientCredential getClientCredential(String section) {
+        try {
+            ClientCredential.ClientCredentialBuilder builder = ClientCredential.builder()
+                    .accessToken(get(section, "access_token"))
+                    .clientSecret(get(section, "client_secret"))
+                    .clientToken(get(section, "client_token"))
+                    .host(get(section, "host"));
+            String maxBody = get(section, "max-body");
+            if (maxBody != null) {
+                try {
+                    builder.maxBodySize(Integer.parseInt(maxBody.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("max-body must be an integer: " + maxBody, e);
+                }
+            }
+            String headersString = get(section, "headers_to_sign");
+            if (headersString != null && !"".equals(headersString)) {
+                for (String h : headersString.split(",")) {
+                    builder.headerToSign(h);
+                }
+            }
+            return builder.build();
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException(e.getMessage()
+                    + (section == null ? " in the default section" : " in section " + section), e);
+        }
+    }
+
+    private static int lineEnd(String content, int start) {
+        int end = start;
+        while (end < content.length() && content.charAt(end) != '\n' && content.charAt(end) != '\r') {
+            end++;
+        }
+        return end;
+    }
+
+    private static int nextLine(String content, int end) {
+        if (end < content.length() && content.charAt(end) == '\r') {
+            end++;
+        }
+        if (end < content.length() && content.charAt(end) == '\n') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the index of the first separator of {@code line}, unless a quote comes first.
+     */
+    private static int findSeparator(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (SEPARATOR_CHARS.indexOf(c) >= 0) {
+                return i;
+            }
+            if (c == '"' || c == '\'') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the value on {@code line} to {@code sb}.
+     *
+     * @return whether the value continues on the next line
+     */
+    private static boolean parseValue(String line, StringBuilder sb) {
+        String s = line.trim();
+        if (s.isEmpty()) {
+            return false;
+        }
+        char quote = s.charAt(0);
+        if (quote == '"' || quote == '\'') {
+            boolean escape = false;
+            for (int i = 1; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (escape) {
+                    if (c != quote) {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == quote) {
+                    return false;
+                } else {
+                    sb.append(c);
+                }
+            }
+            if (escape) {
+                sb.append('\\');
+            }
+            return false;
+        }
+
+        int valueStart = sb.length();
+        char last = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (COMMENT_CHARS.indexOf(c) >= 0 && Character.isWhitespace(last)) {
+                break;
+            }
+            sb.append(c);
+            last = c;
+        }
+        int valueEnd = sb.length();
+        while (valueEnd > valueStart && Character.isWhitespace(sb.charAt(valueEnd - 1))) {
+            valueEnd--;
+        }
+        sb.setLength(valueEnd);
+        if (valueEnd - valueStart == 1 && sb.charAt(valueStart) == '\\'
+                || valueEnd - valueStart > 2 && sb.charAt(valueEnd - 1) == '\\'
+                        && Character.isWhitespace(sb.charAt(valueEnd - 2))) {
+            sb.setLength(valueEnd - 1);
+            // trim what preceded the backslash, as the value is trimmed on each line
+            while (sb.length() > valueStart && Character.isWhitespace(sb.charAt(sb.length() - 1))) {
+                sb.setLength(sb.length() - 1);
+            }
+            return true;
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,353 @@
+package com.akamai.edgegrid.signer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.akamai.edgegrid.signer.exceptions.NoMatchingCredentialException;
+
+/**
+ * <p>
+ * This is a {@link ClientCredentialProvider} implementation that reads from an EdgeRc file and
+ * picks up changes to it without a restart. A background thread watches the file with a
+ * {@link WatchService}, or polls it where no watch service is available, and re-parses it when it
+ * changes. All sections of the new file are parsed up front into an immutable snapshot, which is
+ * then published through a single volatile reference: readers never block and never see a file
+ * that is half read.
+ * </p>
+ * <p>
+ * A file that cannot be read, or whose default section is not a valid {@link ClientCredential},
+ * is ignored and the last good snapshot stays in place until the file changes again. Only the
+ * first load fails, when the provider is created.
+ * </p>
+ * <p>
+ * Like {@link EdgeRcClientCredentialProvider}, sub-classes may override
+ * {@link #pickSectionName(Request)} to pick a section per request, or
+ * {@link #pickSectionName(RequestView)} if they are created with
+ * {@link #ReloadingEdgeRcClientCredentialProvider(Path, String, Duration, boolean)}.
+ * {@link #close()} stops the background thread.
+ * </p>
+ *
+ */
+public class ReloadingEdgeRcClientCredentialProvider implements ClientCredentialProvider, Closeable {
+
+    /** Default interval between two checks of the file. */
+    public static final Duration DEFAULT_POLL_INTERVAL = Duration.ofSeconds(10);
+
+    private static final Logger log = LoggerFactory.getLogger(ReloadingEdgeRcClientCredentialProvider.class);
+
+    private final Path file;
+
+    /** The section used unless {@link #pickSectionName(Request)} is overridden. */
+    private final String defaultSectionName;
+
+    private final Duration pollInterval;
+
+    /**
+     * Whether {@link #getClientCredential(RequestView)} goes through
+     * {@link #getClientCredential(Request)}, rather than {@link #pickSectionName(RequestView)}.
+     */
+    private final boolean picksSectionByRequest;
+
+    /** The credentials of the last good file, with every section already parsed. */
+    private volatile EdgeRcClientCredentialProvider snapshot;
+
+    /** Modification time and size of the file as of the last reload, guarded by {@code this}. */
+    private FileStamp lastStamp;
+
+    /** Watches the directory of the file, or {@code null} to only poll. */
+    private final WatchService watchService;
+
+    private final Thread watcher;
+
+    private volatile boolean closed;
+
+    /**
+     * Loads an EdgeRc configuration file and returns a {@link ReloadingEdgeRcClientCredentialProvider}
+     * that checks it for changes every {@link #DEFAULT_POLL_INTERVAL} at the latest.
+     *
+     * @param file a {@link Path} pointing to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @return a {@link ReloadingEdgeRcClientCredentialProvider}
+     * @throws IOException if an I/O error occurs
+     */
+    public static ReloadingEdgeRcClientCredentialProvider fromEdgeRc(Path file, String section) throws IOException {
+        return fromEdgeRc(file, section, DEFAULT_POLL_INTERVAL);
+    }
+
+    /**
+     * Loads an EdgeRc configuration file and returns a {@link ReloadingEdgeRcClientCredentialProvider}
+     * that checks it for changes as soon as it is notified of them, and every {@code pollInterval}
+     * at the latest.
+     *
+     * @param file a {@link Path} pointing to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @param pollInterval maximum time between two checks of the file
+     * @return a {@link ReloadingEdgeRcClientCredentialProvider}
+     * @throws IOException if an I/O error occurs
+     */
+    public static ReloadingEdgeRcClientCredentialProvider fromEdgeRc(Path file, String section, Duration pollInterval)
+            throws IOException {
+        ReloadingEdgeRcClientCredentialProvider provider =
+                new ReloadingEdgeRcClientCredentialProvider(file, section, pollInterval, false);
+        provider.start();
+        return provider;
+    }
+
+    /**
+     * Loads an EdgeRc configuration file. The file is not watched until {@link #start()} is called.
+     *
+     * @param file a {@link Path} pointing to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @param pollInterval maximum time between two checks of the file
+     * @throws IOException if an I/O error occurs
+     */
+    protected ReloadingEdgeRcClientCredentialProvider(Path file, String section, Duration pollInterval)
+            throws IOException {
+        this(file, section, pollInterval, true);
+    }
+
+    /**
+     * Loads an EdgeRc configuration file, telling how credentials are picked for requests that
+     * bindings read in place. The file is not watched until {@link #start()} is called.
+     *
+     * @param file a {@link Path} pointing to an EdgeRc file
+     * @param section a config section ({@code null} for the default section)
+     * @param pollInterval maximum time between two checks of the file
+     * @param picksSectionByRequest {@code true} to map such requests to a {@link Request} and pass
+     *        it to {@link #getClientCredential(Request)}, {@code false} to pass them as they are to
+     *        {@link #pickSectionName(RequestView)}
+     * @throws IOException if an I/O error occurs
+     */
+    protected ReloadingEdgeRcClientCredentialProvider(Path file, String section, Duration pollInterval,
+            boolean picksSectionByRequest) throws IOException {
+        Objects.requireNonNull(file, "file cannot be null");
+        Objects.requireNonNull(pollInterval, "pollInterval cannot be null");
+        if (pollInterval.isNegative() || pollInterval.isZero()) {
+            throw new IllegalArgumentException("pollInterval must be positive");
+        }
+        this.file = file.toAbsolutePath();
+        this.defaultSectionName = section;
+        this.pollInterval = pollInterval;
+        this.picksSectionByRequest = picksSectionByRequest;
+
+        this.lastStamp = FileStamp.of(this.file);
+        this.snapshot = load(this.file, section);
+        this.watchService = newWatchService(this.file);
+        this.watcher = new Thread(this::watch, "edgerc-reload-" + this.file.getFileName());
+        this.watcher.setDaemon(true);
+    }
+
+    /**
+     * Starts watching the file.
+     */
+    protected void start() {
+        watcher.start();
+    }
+
+    @Override
+    public ClientCredential getClientCredential(Request request) {
+        return getClientCredential(pickSectionName(request));
+    }
+
+    @Override
+    public ClientCredential getClientCredential(RequestView request) throws NoMatchingCredentialException {
+        if (picksSectionByRequest) {
+            return ClientCredentialProvider.super.getClientCredential(request);
+        }
+        return getClientCredential(pickSectionName(request));
+    }
+
+    /**
+     * Gets the {@link ClientCredential} defined in section {@code sectionName} of the last good
+     * file.
+     *
+     * @param sectionName a section name ({@code null} for the default section)
+     * @return a {@link ClientCredential}
+     */
+    protected ClientCredential getClientCredential(String sectionName) {
+        return snapshot.getClientCredential(sectionName);
+    }
+
+    /**
+     * Picks an appropriate section name from the configuration to sign {@code request}. By default
+     * this method will always return the section name provided at construction.
+     *
+     * @param request a {@link Request}
+     * @return a section name ({@code null} for the default section)
+     */
+    protected String pickSectionName(Request request) {
+        return defaultSectionName;
+    }
+
+    /**
+     * Picks an appropriate section name from the configuration to sign the request seen through
+     * {@code request}, unless this provider was created to pick sections by {@link Request}. By
+     * default this method will always return the section name provided at construction.
+     *
+     * @param request a view of a request
+     * @return a section name ({@code null} for the default section)
+     */
+    protected String pickSectionName(RequestView request) {
+        return defaultSectionName;
+    }
+
+    /**
+     * Re-reads the file now, whether it changed or not, and publishes its credentials if it is
+     * valid.
+     *
+     * @return {@code true} if the file was valid and its credentials are now in use, {@code false}
+     *         if the last good credentials were kept
+     */
+    public synchronized boolean reload() {
+        try {
+            FileStamp stamp = FileStamp.of(file);
+            snapshot = load(file, defaultSectionName);
+            lastStamp = stamp;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot reload EdgeRc file {}, keeping the last good credentials", file, e);
+            return false;
+        }
+    }
+
+    /**
+     * Re-reads the file if its modification time or size changed since the last reload.
+     */
+    synchronized void reloadIfModified() {
+        FileStamp stamp;
+        try {
+            stamp = FileStamp.of(file);
+        } catch (IOException e) {
+            // the file may be in the middle of being replaced, look again next time
+            return;
+        }
+        if (!stamp.equals(lastStamp)) {
+            // remember the stamp even if the file turns out to be bad, so that it is not read again
+            // until it changes
+            lastStamp = stamp;
+            reload();
+        }
+    }
+
+    /**
+     * Stops watching the file. The provider keeps returning the last good credentials.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        watcher.interrupt();
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch() {
+        try {
+            while (!closed) {
+                if (watchService != null) {
+                    WatchKey key = watchService.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        // events may be about any file of the directory, the stamp tells if ours changed
+                        key.pollEvents();
+                        key.reset();
+                    }
+                } else {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+                reloadIfModified();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private static EdgeRcClientCredentialProvider load(Path file, String section) throws IOException {
+        EdgeRcClientCredentialProvider snapshot = new EdgeRcClientCredentialProvider(EdgeRcFile.read(file), section);
+        // fails on a bad default section, so that it never replaces a good one; a file without a
+        // default section is fine if none was named, sections are then picked per request
+        if (section != null || snapshot.getSectionNames().contains(null)) {
+            snapshot.getClientCredential(section);
+        }
+        for (String sectionName : snapshot.getSectionNames()) {
+            try {
+                snapshot.getClientCredential(sectionName);
+            } catch (RuntimeException e) {
+                // other sections fail when they are asked for, as they would without reloading
+            }
+        }
+        return snapshot;
+    }
+
+    private static WatchService newWatchService(Path file) {
+        Path directory = file.getParent();
+        if (directory == null) {
+            return null;
+        }
+        WatchService watchService = null;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            // editors often replace the file rather than write to it
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            return watchService;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Cannot watch {}, polling it instead", directory, e);
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException ignored) {
+                    // nothing to release
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Modification time and size of a file, which tell cheaply whether it may have changed.
+     */
+    private static final class FileStamp {
+
+        private final FileTime lastModifiedTime;
+        private final long size;
+
+        private FileStamp(FileTime lastModifiedTime, long size) {
+            this.lastModifiedTime = lastModifiedTime;
+            this.size = size;
+        }
+
+        static FileStamp of(Path file) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new FileStamp(attributes.lastModifiedTime(), attributes.size());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof FileStamp)) return false;
+            FileStamp that = (FileStamp) o;
+            return size == that.size && lastModifiedTime.equals(that.lastModifiedTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * lastModifiedTime.hashCode() + Long.hashCode(size);
+        }
+
+    }
+
+}
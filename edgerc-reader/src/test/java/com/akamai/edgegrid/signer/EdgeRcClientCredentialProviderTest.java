@@ -4,8 +4,17 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
 
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -19,7 +28,7 @@ public class EdgeRcClientCredentialProviderTest {
     @Test
     public void testGood1() throws Exception {
         InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
-        ClientCredential credential = EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "good1").getClientCredential("good1");
+        ClientCredential credential = EdgeRcClientCredentialProvider.read(inputStream, "good1").getClientCredential("good1");
         assertThat(credential.getAccessToken(), is(equalTo("AT1")));
         assertThat(credential.getClientSecret(), is(equalTo("CS1")));
         assertThat(credential.getClientToken(), is(equalTo("CT1")));
@@ -31,7 +40,7 @@ public class EdgeRcClientCredentialProviderTest {
     @Test
     public void testGood2() throws Exception {
         InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
-        ClientCredential credential = EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "good2").getClientCredential("good2");
+        ClientCredential credential = EdgeRcClientCredentialProvider.read(inputStream, "good2").getClientCredential("good2");
         assertThat(credential.getAccessToken(), is(equalTo("AT2")));
         assertThat(credential.getClientSecret(), is(equalTo("CS2")));
         assertThat(credential.getClientToken(), is(equalTo("CT2")));
@@ -43,7 +52,7 @@ public class EdgeRcClientCredentialProviderTest {
     @Test
     public void testGood3() throws Exception {
         InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
-        ClientCredential credential = EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "good3").getClientCredential("good3");
+        ClientCredential credential = EdgeRcClientCredentialProvider.read(inputStream, "good3").getClientCredential("good3");
         assertThat(credential.getAccessToken(), is(equalTo("AT3")));
         assertThat(credential.getClientSecret(), is(equalTo("CS3")));
         assertThat(credential.getClientToken(), is(equalTo("CT3")));
@@ -54,8 +63,7 @@ public class EdgeRcClientCredentialProviderTest {
 
     @Test
     public void testGood4() throws Exception {
-        InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
-        ClientCredential credential = EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "good4").getClientCredential("good4");
+        ClientCredential credential = EdgeRcClientCredentialProvider.fromEdgeRc(resource("edgerc"), "good4").getClientCredential("good4");
         assertThat(credential.getAccessToken(), is(equalTo("AT4")));
         assertThat(credential.getClientSecret(), is(equalTo("CS4")));
         assertThat(credential.getClientToken(), is(equalTo("CT4")));
@@ -64,23 +72,157 @@ public class EdgeRcClientCredentialProviderTest {
         assertThat(credential.getMaxBodySize(), is(131072));
     }
 
+    @Test
+    public void testFromEdgeRcPathExpandsHomeDirectory() throws Exception {
+        Path home = Files.createTempDirectory("edgerc-home");
+        Path file = home.resolve(".edgerc");
+        String userHome = System.getProperty("user.home");
+        try (InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc")) {
+            Files.copy(inputStream, file);
+            System.setProperty("user.home", home.toString());
+
+            ClientCredential credential = EdgeRcClientCredentialProvider.fromEdgeRc(Paths.get("~/.edgerc"), "good2")
+                    .getClientCredential("good2");
+            assertThat(credential.getAccessToken(), is(equalTo("AT2")));
+        } finally {
+            System.setProperty("user.home", userHome);
+            Files.deleteIfExists(file);
+            Files.delete(home);
+        }
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        String edgerc = "[default]\nhost=HOST\naccess_token=AT\nclient_token=CT\nclient_secret=CS\n";
+        ClientCredential credential = EdgeRcClientCredentialProvider.read(new StringReader(edgerc), "default")
+                .getClientCredential("default");
+        assertThat(credential.getAccessToken(), is(equalTo("AT")));
+    }
+
+    @Test
+    public void testSectionIsParsedOnce() throws Exception {
+        InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
+        EdgeRcClientCredentialProvider provider = EdgeRcClientCredentialProvider.read(inputStream, "good1");
+        Request request = Request.builder().method("GET").uri("/check").build();
+
+        ClientCredential credential = provider.getClientCredential(request);
+        assertThat(provider.getClientCredential(request), is(sameInstance(credential)));
+        assertThat(provider.getClientCredential("good1"), is(sameInstance(credential)));
+        assertThat(provider.getClientCredential(view("/check")), is(sameInstance(credential)));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedFromEdgeRc() throws Exception {
+        Path file = resource("edgerc");
+        assertThat(EdgeRcClientCredentialProvider.fromEdgeRc(file.toFile(), "good1").getClientCredential("good1")
+                .getAccessToken(), is(equalTo("AT1")));
+        assertThat(EdgeRcClientCredentialProvider.fromEdgeRc(file.toString(), "good2").getClientCredential("good2")
+                .getAccessToken(), is(equalTo("AT2")));
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            assertThat(EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "good3").getClientCredential("good3")
+                    .getAccessToken(), is(equalTo("AT3")));
+        }
+        try (Reader reader = Files.newBufferedReader(file)) {
+            assertThat(EdgeRcClientCredentialProvider.fromEdgeRc(reader, "good4").getClientCredential("good4")
+                    .getAccessToken(), is(equalTo("AT4")));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testSubclassPicksSectionFromRequestView() throws Exception {
+        InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
+        EdgeRcClientCredentialProvider provider = new EdgeRcClientCredentialProvider(new InputStreamReader(inputStream), "good1") {
+            @Override
+            protected String pickSectionName(Request request) {
+                return request.getPathAndQuery().startsWith("/two") ? "good2" : super.pickSectionName(request);
+            }
+        };
+
+        assertThat(provider.getClientCredential(view("/two/check?a=b")).getAccessToken(), is(equalTo("AT2")));
+        assertThat(provider.getClientCredential(view("/one/check")).getAccessToken(), is(equalTo("AT1")));
+    }
+
+    @Test
+    public void testSubclassPicksSectionFromRequestViewInPlace() throws Exception {
+        InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
+        EdgeRcClientCredentialProvider provider = new EdgeRcClientCredentialProvider(new InputStreamReader(inputStream), "good1", false) {
+            @Override
+            protected String pickSectionName(RequestView request) {
+                return request.getPathAndQuery().startsWith("/two") ? "good2" : super.pickSectionName(request);
+            }
+
+            @Override
+            protected String pickSectionName(Request request) {
+                throw new AssertionError("request should not be mapped");
+            }
+        };
+
+        assertThat(provider.getClientCredential(view("/two/check?a=b")).getAccessToken(), is(equalTo("AT2")));
+        assertThat(provider.getClientCredential(view("/one/check")).getAccessToken(), is(equalTo("AT1")));
+    }
+
+    @Test
+    public void testRoutingProvider() throws Exception {
+        String edgerc = "[default]\nhost=HOST\naccess_token=AT\nclient_token=CT\nclient_secret=CS\n"
+                + "[ccu]\nhost=CCU-HOST\naccess_token=CCU-AT\nclient_token=CCU-CT\nclient_secret=CCU-CS\n"
+                + "routes = /ccu/\n"
+                + "[papi-write]\nhost=PAPI-HOST\naccess_token=PAPI-AT\nclient_token=PAPI-CT\nclient_secret=PAPI-CS\n"
+                + "routes = POST /papi/, PUT /papi/,\n";
+        RoutingClientCredentialProvider provider = EdgeRcClientCredentialProvider.read(new StringReader(edgerc), "default")
+                .toRoutingProvider();
+
+        assertThat(provider.getClientCredential(view("/ccu/v3/invalidate/url")).getAccessToken(), is(equalTo("CCU-AT")));
+        assertThat(provider.route("PUT", "/papi/v1/properties/prp_1").getAccessToken(), is(equalTo("PAPI-AT")));
+        assertThat(provider.route("GET", "/papi/v1/properties/prp_1").getAccessToken(), is(equalTo("AT")));
+    }
+
+    private static Path resource(String name) throws URISyntaxException {
+        return Paths.get(ClassLoader.getSystemResource(name).toURI());
+    }
+
+    private static RequestView view(String pathAndQuery) {
+        return new RequestView() {
+            @Override
+            public String getMethod() {
+                return "GET";
+            }
+
+            @Override
+            public String getPathAndQuery() {
+                return pathAndQuery;
+            }
+
+            @Override
+            public String getHeader(String name) {
+                return null;
+            }
+
+            @Override
+            public long digestBody(MessageDigest digest, int maxLength) {
+                return 0;
+            }
+        };
+    }
+
     @Test(expectedExceptions=IllegalArgumentException.class)
     public void testMalformedEdgeRc() throws Exception {
         InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc_malformed");
-        EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "broken").getClientCredential("broken");
+        EdgeRcClientCredentialProvider.read(inputStream, "broken").getClientCredential("broken");
     }
 
     @Test(expectedExceptions=NullPointerException.class)
     public void testMissingEdgeRc() throws Exception {
         InputStream inputStream = ClassLoader.getSystemResourceAsStream("no_such_file");
-        EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "broken").getClientCredential("broken");
+        EdgeRcClientCredentialProvider.read(inputStream, "broken").getClientCredential("broken");
     }
 
     @Test(expectedExceptions=IllegalArgumentException.class, dataProvider = "badSections")
     public void testUnparseableSections(String sectionName) throws Exception {
         InputStream inputStream = ClassLoader.getSystemResourceAsStream("edgerc");
         // NOTE: Specifying a different default section name ensures we honor the method argument.
-        EdgeRcClientCredentialProvider.fromEdgeRc(inputStream, "good1").getClientCredential(sectionName);
+        EdgeRcClientCredentialProvider.read(inputStream, "good1").getClientCredential(sectionName);
     }
 
     @DataProvider
@@ -0,0 +1,115 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link EdgeRcCredentialStore}.
+ *
+ */
+public class EdgeRcCredentialStoreTest {
+
+    private static final int ACCOUNTS = 2000;
+
+    @Test
+    public void testLookups() throws Exception {
+        EdgeRcCredentialStore store = EdgeRcCredentialStore.fromEdgeRc(new StringReader(edgerc()));
+
+        assertThat(store.size(), is(ACCOUNTS + 1));
+        assertAccounts(store);
+    }
+
+    @Test
+    public void testCredentialsAreBuiltOnce() throws Exception {
+        EdgeRcCredentialStore store = EdgeRcCredentialStore.fromEdgeRc(new StringReader(edgerc()));
+
+        ClientCredential credential = store.getBySectionName("account-42");
+        assertThat(store.getBySectionName("account-42"), is(sameInstance(credential)));
+        assertThat(store.getByClientToken("CT-42"), is(sameInstance(credential)));
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        Path snapshot = Files.createTempFile("credentials", ".snapshot");
+        try {
+            EdgeRcCredentialStore.fromEdgeRc(new StringReader(edgerc())).writeSnapshot(snapshot);
+            EdgeRcCredentialStore store = EdgeRcCredentialStore.openSnapshot(snapshot);
+
+            assertThat(store.size(), is(ACCOUNTS + 1));
+            assertAccounts(store);
+        } finally {
+            Files.delete(snapshot);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testRejectInvalidSnapshot() throws Exception {
+        Path snapshot = Files.createTempFile("credentials", ".snapshot");
+        try {
+            Files.write(snapshot, "[default]\nhost=HOST\n".getBytes(StandardCharsets.UTF_8));
+            EdgeRcCredentialStore.openSnapshot(snapshot);
+        } finally {
+            Files.delete(snapshot);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRejectInvalidSection() throws Exception {
+        EdgeRcCredentialStore.fromEdgeRc(new StringReader("[bad]\nhost=HOST\nclient_token=CT\nclient_secret=CS\n"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+            expectedExceptionsMessageRegExp = "max-body must be an integer: 64k in section bad")
+    public void testRejectInvalidSectionLikeProvider() throws Exception {
+        EdgeRcCredentialStore.fromEdgeRc(new StringReader(
+                "[bad]\nhost=HOST\naccess_token=AT\nclient_token=CT\nclient_secret=CS\nmax-body=64k\n"));
+    }
+
+    private static void assertAccounts(EdgeRcCredentialStore store) {
+        for (int i = 0; i < ACCOUNTS; i += 97) {
+            ClientCredential credential = store.getBySectionName("account-" + i);
+            assertThat(credential.getAccessToken(), is(equalTo("AT-" + i)));
+            assertThat(credential.getClientSecret(), is(equalTo("CS-" + i)));
+            assertThat(credential.getClientToken(), is(equalTo("CT-" + i)));
+            assertThat(credential.getHost(), is(equalTo("host-" + (i % 3) + ".luna.akamaiapis.net")));
+            assertThat(credential.getMaxBodySize(), is(i % 2 == 0 ? 131072 : 65536));
+            assertThat(store.getByClientToken("CT-" + i), is(equalTo(credential)));
+        }
+        ClientCredential unicode = store.getBySectionName("compte-été");
+        assertThat(unicode.getHeadersToSign(), contains("x-a", "x-b"));
+        assertThat(store.getByClientToken("CT-été"), is(equalTo(unicode)));
+
+        assertThat(store.getBySectionName("account-" + ACCOUNTS), is(nullValue()));
+        assertThat(store.getBySectionName("account-1 "), is(nullValue()));
+        assertThat(store.getByClientToken("AT-1"), is(nullValue()));
+    }
+
+    private static String edgerc() {
+        StringBuilder sb = new StringBuilder("host=ignored-global-property\n");
+        for (int i = 0; i < ACCOUNTS; i++) {
+            sb.append("[account-").append(i).append("]\n")
+                    .append("host=host-").append(i % 3).append(".luna.akamaiapis.net\n")
+                    .append("access_token=AT-").append(i).append('\n')
+                    .append("client_token=CT-").append(i).append('\n')
+                    .append("client_secret=CS-").append(i).append('\n');
+            if (i % 2 == 1) {
+                sb.append("max-body=65536\n");
+            }
+        }
+        sb.append("[compte-été]\nhost=h\naccess_token=AT\nclient_token=CT-été\nclient_secret=CS\nheaders_to_sign=X-A,X-B\n");
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+import org.apache.commons.configuration2.INIConfiguration;
+import org.apache.commons.configuration2.SubnodeConfiguration;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link EdgeRcFile}, which must read files the way {@link INIConfiguration} did.
+ *
+ */
+public class EdgeRcFileTest {
+
+    private static final String[] KEYS = {
+            "host", "access_token", "client_token", "client_secret", "max-body", "headers_to_sign",
+            "headers", "key", " ",
+    };
+
+    @Test(dataProvider = "edgercs")
+    public void testReadsLikeIniConfiguration(String content) throws Exception {
+        INIConfiguration expected = new INIConfiguration();
+        expected.read(new StringReader(content));
+        EdgeRcFile actual = EdgeRcFile.parse(content);
+
+        assertThat(actual.getSectionNames(), is(equalTo(expected.getSections())));
+        for (String sectionName : expected.getSections()) {
+            SubnodeConfiguration section = expected.getSection(sectionName);
+            for (String key : KEYS) {
+                assertThat(sectionName + "." + key, actual.get(sectionName, key), is(equalTo(section.getString(key))));
+            }
+        }
+    }
+
+    @DataProvider
+    public Object[][] edgercs() {
+        return new Object[][]{
+                {resource("edgerc")},
+                {resource("edgerc_malformed")},
+                {""},
+                {"host=GLOBAL\n[default]\nhost=HOST\n"},
+                {"[default]\r\nhost = HOST \r\naccess_token:AT\r\n"},
+                {"[default]\n; comment\n# comment\n  [other]  \nhost=HOST\n"},
+                {"[default]\nhost=\"quoted ; value\"\nclient_token='single'\n"},
+                {"[default]\nhost=\"escaped \\\" quote\" trailing\nclient_token=\"back\\slash\"\n"},
+                {"[default]\nhost=HOST ; comment\nclient_token=CT;not a comment\nclient_secret=CS #comment\n"},
+                {"[default]\nhost=a=b:c\nclient_token=\n"},
+                {"[default]\nhost=first\nhost=second\n[default]\nclient_token=CT\n"},
+                {"[default]\nkey\n=value\n"},
+                {"[default]\nhost=line \\\n  continued \\\n  again\nclient_token=CT\n"},
+                {"[default]\nhost=not\\\nclient_token=continued \\"},
+                {"[default]\nclient_secret=abc+def/ghi==\n"},
+                {"[sec tion]\nhost=HOST\n[]\nhost=EMPTY\n"},
+        };
+    }
+
+    @Test
+    public void testUtf8() throws Exception {
+        byte[] bytes = "﻿[default]\nhost=hôte\n".getBytes(StandardCharsets.UTF_8);
+        EdgeRcFile file = EdgeRcFile.read(new java.io.ByteArrayInputStream(bytes));
+        assertThat(file.get("default", "host"), is(equalTo("hôte")));
+    }
+
+    @Test
+    public void testMissingSection() {
+        EdgeRcFile file = EdgeRcFile.parse("[default]\nhost=HOST\n");
+        assertThat(file.get("other", "host"), is(nullValue()));
+        assertThat(file.get(null, "host"), is(nullValue()));
+    }
+
+    private static String resource(String name) {
+        InputStream inputStream = ClassLoader.getSystemResourceAsStream(name);
+        try (Scanner scanner = new Scanner(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+
+}
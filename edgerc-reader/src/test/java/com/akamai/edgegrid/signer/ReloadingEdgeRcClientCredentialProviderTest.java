@@ -0,0 +1,119 @@
+package com.akamai.edgegrid.signer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link ReloadingEdgeRcClientCredentialProvider}.
+ *
+ */
+public class ReloadingEdgeRcClientCredentialProviderTest {
+
+    private Path directory;
+    private Path edgerc;
+
+    @BeforeMethod
+    public void createEdgeRc() throws IOException {
+        directory = Files.createTempDirectory("edgerc");
+        edgerc = directory.resolve(".edgerc");
+        write("AT1");
+    }
+
+    @AfterMethod
+    public void deleteEdgeRc() throws IOException {
+        Files.deleteIfExists(edgerc);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testReloadPublishesNewCredentials() throws Exception {
+        try (ReloadingEdgeRcClientCredentialProvider provider = newProvider(Duration.ofHours(1))) {
+            Request request = Request.builder().method("GET").uri("/check").build();
+            ClientCredential credential = provider.getClientCredential(request);
+            assertThat(credential.getAccessToken(), is(equalTo("AT1")));
+
+            write("AT2");
+            assertThat(provider.reload(), is(true));
+            assertThat(provider.getClientCredential(request).getAccessToken(), is(equalTo("AT2")));
+            assertThat(provider.getClientCredential("other").getAccessToken(), is(equalTo("OTHER-AT2")));
+        }
+    }
+
+    @Test
+    public void testBadFileKeepsLastGoodCredentials() throws Exception {
+        try (ReloadingEdgeRcClientCredentialProvider provider = newProvider(Duration.ofHours(1))) {
+            ClientCredential credential = provider.getClientCredential("default");
+
+            Files.write(edgerc, "[default]\nhost=HOST\n".getBytes(StandardCharsets.UTF_8));
+            assertThat(provider.reload(), is(false));
+            assertThat(provider.getClientCredential("default"), is(sameInstance(credential)));
+
+            Files.delete(edgerc);
+            assertThat(provider.reload(), is(false));
+            assertThat(provider.getClientCredential("default"), is(sameInstance(credential)));
+        }
+    }
+
+    @Test
+    public void testChangedFileIsPickedUp() throws Exception {
+        try (ReloadingEdgeRcClientCredentialProvider provider = newProvider(Duration.ofMillis(50))) {
+            write("AT2-CHANGED");
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (!"AT2-CHANGED".equals(provider.getClientCredential("default").getAccessToken())
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertThat(provider.getClientCredential("default").getAccessToken(), is(equalTo("AT2-CHANGED")));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testFirstLoadFailsOnBadFile() throws Exception {
+        Files.write(edgerc, "[default]\nhost=HOST\n".getBytes(StandardCharsets.UTF_8));
+        newProvider(Duration.ofHours(1));
+    }
+
+    @Test
+    public void testNullSectionWithOnlyNamedSections() throws Exception {
+        try (ReloadingEdgeRcClientCredentialProvider provider =
+                ReloadingEdgeRcClientCredentialProvider.fromEdgeRc(edgerc, null, Duration.ofHours(1))) {
+            assertThat(provider.getClientCredential("other").getAccessToken(), is(equalTo("OTHER-AT1")));
+
+            write("AT2");
+            assertThat(provider.reload(), is(true));
+            assertThat(provider.getClientCredential("other").getAccessToken(), is(equalTo("OTHER-AT2")));
+        }
+    }
+
+    private ReloadingEdgeRcClientCredentialProvider newProvider(Duration pollInterval) throws IOException {
+        return ReloadingEdgeRcClientCredentialProvider.fromEdgeRc(edgerc, "default", pollInterval);
+    }
+
+    private void write(String accessToken) throws IOException {
+        String content = "[default]\n"
+                + "host=HOST\n"
+                + "access_token=" + accessToken + "\n"
+                + "client_token=CT\n"
+                + "client_secret=CS\n"
+                + "\n"
+                + "[other]\n"
+                + "host=OTHER-HOST\n"
+                + "access_token=OTHER-" + accessToken + "\n"
+                + "client_token=OTHER-CT\n"
+                + "client_secret=OTHER-CS\n";
+        Files.write(edgerc, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}